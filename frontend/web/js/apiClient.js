@@ -18,6 +18,17 @@ export async function getEstacoes(){
   }
 }
 
+/** Estações dentro da caixa [oeste, sul, leste, norte] (graus); oeste > leste cruza o antimeridiano. */
+export async function getEstacoesBbox([oeste, sul, leste, norte]){
+  return fetchJson(`${BASE}/estacoes?bbox=${oeste},${sul},${leste},${norte}`);
+}
+
+/** URL de tiles MVT das estações; com ano/dia os pontos trazem os atributos de QC. */
+export function tilesEstacoesUrl(ano, dia){
+  const qs = ano && dia ? `?ano=${ano}&dia=${dia}` : '';
+  return `${BASE}/estacoes/tiles/{z}/{x}/{y}.mvt${qs}`;
+}
+
 export async function getMetadados(codigo){
   return fetchJson(`${BASE}/estacoes/${codigo}/metadados`);
 }
@@ -26,6 +37,27 @@ export async function getSnr(codigo, ano, dia, max){
   return fetchJson(`${BASE}/estacoes/${codigo}/snr?ano=${ano}&dia=${dia}&max=${max}`);
 }
 
+/** Série gravada (ingestão/SPP) do observável entre de e ate (Date), em até max pontos. */
+export async function getSerieHistorica(codigo, observavel, de, ate, max){
+  return fetchJson(`${BASE}/estacoes/${codigo}/series/${observavel}?de=${de.toISOString()}&ate=${ate.toISOString()}&max=${max}`);
+}
+
 export async function getPosicoes(codigo, ano, dia, max){
   return fetchJson(`${BASE}/estacoes/${codigo}/posicoes?ano=${ano}&dia=${dia}&max=${max}`);
 }
+
+/**
+ * Assina o stream SSE de status/amostras. handlers: { status, snr, posicao } recebem o
+ * objeto já decodificado. O EventSource reconecta sozinho; retorna função para fechar.
+ */
+export function subscribeEstacoes(handlers, estacoes){
+  const qs = estacoes && estacoes.length ? `?estacoes=${estacoes.join(',')}` : '';
+  const es = new EventSource(`${BASE}/estacoes/stream${qs}`);
+  for (const tipo of ['status', 'snr', 'posicao']) {
+    if (!handlers[tipo]) continue;
+    es.addEventListener(tipo, ev => {
+      try { handlers[tipo](JSON.parse(ev.data)); } catch(e){ console.warn('Evento SSE inválido', tipo, e); }
+    });
+  }
+  return () => es.close();
+}
@@ -1,13 +1,19 @@
 import { initMap } from './map.js';
 import { initUI } from './ui.js';
-import { getEstacoes } from './apiClient.js';
-import { setEstacoes } from './state.js';
+import { getEstacoes, subscribeEstacoes } from './apiClient.js';
+import { setEstacoes, atualizarStatus, emit } from './state.js';
 
 async function bootstrap(){
   initMap();
   initUI();
   const lista = await getEstacoes();
   setEstacoes(lista);
+  // status e amostras novas chegam por push (SSE) em vez de polling
+  subscribeEstacoes({
+    status: atualizarStatus,
+    snr: ev => emit('amostra:snr', ev),
+    posicao: ev => emit('amostra:posicao', ev)
+  });
   // Pre-fill data inputs com hoje
   document.getElementById('btnHoje').click();
 }
@@ -1,7 +1,13 @@
 import { state, on, setEstacao } from './state.js';
+import { getEstacoesBbox, tilesEstacoesUrl } from './apiClient.js';
+import { debounce } from './utils.js';
 
 let map;
 let layerGroup;
+let consulta = 0; // descarta respostas de viewports antigos
+let tiles = null;  // camada MVT (Leaflet.VectorGrid), quando o plugin carregou
+
+const CORES = { ONLINE: '#2e7d32', OFFLINE: '#c62828' };
 
 export function initMap(){
   map = L.map('map').setView([-14.2, -53.2], 4); // Brasil central aproximado
@@ -11,16 +17,14 @@ export function initMap(){
   }).addTo(map);
   layerGroup = L.layerGroup().addTo(map);
 
-  on('estacoes:loaded', estacoes => {
-    layerGroup.clearLayers();
-    estacoes.forEach(e => {
-      if(!e.latitude || !e.longitude) return;
-      const marker = L.marker([e.latitude, e.longitude]);
-      marker.bindPopup(`<strong>${e.codigo}</strong><br/>${e.nome||''}`);
-      marker.on('click', () => setEstacao(e.codigo));
-      marker.addTo(layerGroup);
-    });
-  });
+  if(L.vectorGrid){
+    // Tiles vetoriais: o Leaflet pede só os tiles na tela e o servidor os mantém em cache
+    initTiles();
+  } else {
+    // Sem o plugin: só as estações visíveis, filtradas pelo índice espacial a cada movimento
+    map.on('moveend', debounce(carregarVisiveis, 250));
+    on('estacoes:loaded', carregarVisiveis);
+  }
 
   on('estacao:changed', codigo => {
     const est = state.estacoes.find(x=>x.codigo===codigo);
@@ -29,3 +33,67 @@ export function initMap(){
     }
   });
 }
+
+function initTiles(){
+  tiles = L.vectorGrid.protobuf(tilesEstacoesUrl(), {
+    interactive: true,
+    getFeatureId: f => f.properties.codigo,
+    vectorTileLayerStyles: {
+      estacoes: p => ({
+        radius: 6,
+        weight: 1,
+        color: '#fff',
+        fill: true,
+        fillOpacity: 0.9,
+        // com QC do dia, completude baixa vira laranja
+        fillColor: p.completude != null && p.completude < 0.9 ? '#ef6c00' : (CORES[p.status] || '#555')
+      })
+    }
+  }).addTo(map);
+  tiles.on('click', ev => {
+    const p = ev.layer.properties;
+    const qc = p.completude != null ? `<br/>completude ${(p.completude * 100).toFixed(1)}%` : '';
+    L.popup().setLatLng(ev.latlng).setContent(`<strong>${p.codigo}</strong><br/>${p.nome||''}${qc}`).openOn(map);
+    setEstacao(p.codigo);
+  });
+  // status novo invalida os tiles no servidor; aqui basta repedir (ETag evita rebaixar o resto)
+  on('estacao:status', debounce(() => tiles.redraw(), 1000));
+  on('data:changed', ({ ano, dia }) => tiles.setUrl(tilesEstacoesUrl(ano, dia)));
+}
+
+function bboxAtual(){
+  const b = map.getBounds();
+  const sul = Math.max(-90, b.getSouth());
+  const norte = Math.min(90, b.getNorth());
+  if(b.getEast() - b.getWest() >= 360) return [-180, sul, 180, norte];
+  // longitudes do Leaflet passam de ±180 ao arrastar; normaliza (oeste > leste = cruza o antimeridiano)
+  const wrap = lon => ((lon + 540) % 360) - 180;
+  return [wrap(b.getWest()), sul, wrap(b.getEast()), norte];
+}
+
+async function carregarVisiveis(){
+  const id = ++consulta;
+  const bbox = bboxAtual();
+  let visiveis;
+  try {
+    visiveis = await getEstacoesBbox(bbox);
+  } catch(e){
+    // sem backend: filtra localmente a lista já carregada
+    const [oeste, sul, leste, norte] = bbox;
+    const lonOk = lon => oeste <= leste ? lon >= oeste && lon <= leste : lon >= oeste || lon <= leste;
+    visiveis = state.estacoes.filter(e => e.latitude >= sul && e.latitude <= norte && lonOk(e.longitude));
+  }
+  if(id !== consulta) return;
+  renderMarkers(visiveis);
+}
+
+function renderMarkers(estacoes){
+  layerGroup.clearLayers();
+  estacoes.forEach(e => {
+    if(!e.latitude || !e.longitude) return;
+    const marker = L.marker([e.latitude, e.longitude]);
+    marker.bindPopup(`<strong>${e.codigo}</strong><br/>${e.nome||''}`);
+    marker.on('click', () => setEstacao(e.codigo));
+    marker.addTo(layerGroup);
+  });
+}
@@ -30,3 +30,10 @@ export function setData(ano, dia){
   state.data = { ano, dia };
   emit('data:changed', state.data);
 }
+
+export function atualizarStatus(estacao){
+  const atual = state.estacoes.find(e => e.codigo === estacao.codigo);
+  if(!atual || atual.status === estacao.status) return;
+  atual.status = estacao.status;
+  emit('estacao:status', atual);
+}
@@ -1,5 +1,5 @@
 import { state, on, setEstacao, setData } from './state.js';
-import { getMetadados, getSnr, getPosicoes } from './apiClient.js';
+import { getMetadados, getSnr, getSerieHistorica, getPosicoes } from './apiClient.js';
 import { renderCharts } from './charts.js';
 import { DateUtils, UrlUtils, debounce } from './utils.js';
 
@@ -28,7 +28,7 @@ function validateAndUpdateDate() {
   if (validation.valid) {
     dateValidationEl.textContent = '✓ Data válida';
     dateValidationEl.className = 'validation-message valid';
-    setData({ ano: parseInt(year), dia: parseInt(day) });
+    setData(parseInt(year), parseInt(day));
     updateDownloadButtons();
     return true;
   } else {
@@ -83,6 +83,30 @@ async function loadMetadados(){
   }
 }
 
+const SERIE_MAX = 300;
+
+function ehHoje(ano, dia){
+  const hoje = DateUtils.getTodayJulian();
+  return ano === hoje.year && dia === hoje.day;
+}
+
+/**
+ * SNR do dia: hoje, a série gravada (/series/snr, média por época) quando já há amostras;
+ * senão a série sintética do v1. Só a gravada recebe as amostras ao vivo.
+ */
+async function carregarSnr(codigo, ano, dia){
+  if(ehHoje(ano, dia)){
+    try {
+      const inicio = new Date(Date.UTC(ano, 0, dia));
+      const r = await getSerieHistorica(codigo, 'snr', inicio, new Date(), SERIE_MAX);
+      const samples = r.samples.filter(a => a.valores[0] != null)
+        .map(a => ({ epoch: a.epoch, sv: null, snr: a.valores[0] }));
+      if(samples.length) return { samples, armazenada: true, max: SERIE_MAX };
+    } catch { /* sem série gravada: cai na sintética */ }
+  }
+  return { ...(await getSnr(codigo, ano, dia, SERIE_MAX)), armazenada: false, max: SERIE_MAX };
+}
+
 async function loadSeries(){
   const { estacaoSelecionada, data:{ano,dia} } = state;
   if(!(estacaoSelecionada && ano && dia)) return;
@@ -90,16 +114,36 @@ async function loadSeries(){
   document.getElementById('snrChart').classList.add('loading');
   document.getElementById('posChart').classList.add('loading');
   if(!state.snrCache[key]){
-    try { state.snrCache[key] = await getSnr(estacaoSelecionada, ano, dia, 300); } catch { state.snrCache[key] = { samples: [] }; }
+    try { state.snrCache[key] = await carregarSnr(estacaoSelecionada, ano, dia); } catch { state.snrCache[key] = { samples: [] }; }
   }
   if(!state.posicoesCache[key]){
-    try { state.posicoesCache[key] = await getPosicoes(estacaoSelecionada, ano, dia, 300); } catch { state.posicoesCache[key] = { samples: [] }; }
+    try { state.posicoesCache[key] = { ...(await getPosicoes(estacaoSelecionada, ano, dia, SERIE_MAX)), max: SERIE_MAX }; } catch { state.posicoesCache[key] = { samples: [] }; }
   }
   renderCharts(state.snrCache[key], state.posicoesCache[key]);
   document.getElementById('snrChart').classList.remove('loading');
   document.getElementById('posChart').classList.remove('loading');
 }
 
+// Amostras ao vivo só entram na série do dia corrente da estação selecionada
+const renderLive = debounce(() => {
+  const { estacaoSelecionada, data:{ano,dia} } = state;
+  const key = `${estacaoSelecionada}-${ano}-${dia}`;
+  if(state.snrCache[key] && state.posicoesCache[key]) renderCharts(state.snrCache[key], state.posicoesCache[key]);
+}, 500);
+
+function appendAmostra(cacheName, ev){
+  const { estacaoSelecionada, data:{ano,dia} } = state;
+  if(ev.codigo !== estacaoSelecionada || !ehHoje(ano, dia)) return;
+  const serie = state[cacheName][`${estacaoSelecionada}-${ano}-${dia}`];
+  if(!serie || !serie.samples || !serie.max) return;
+  // SNR ao vivo é a média gravada por época: não se mistura à série sintética
+  if(cacheName === 'snrCache' && !serie.armazenada) return;
+  serie.samples.push(ev.amostra);
+  // janela deslizante: mantém o tamanho pedido ao carregar a série
+  if(serie.samples.length > serie.max) serie.samples.shift();
+  renderLive();
+}
+
 function validateAndSetDate(){
   return validateAndUpdateDate();
 }
@@ -130,6 +174,8 @@ export function initUI(){
     validateAndUpdateDate();
   });
   
+  on('amostra:snr', ev => appendAmostra('snrCache', ev));
+  on('amostra:posicao', ev => appendAmostra('posicoesCache', ev));
   on('estacao:changed', () => { loadMetadados(); updateDownloadButtons(); loadSeries(); updateMetadata(); });
   on('data:changed', () => { updateDownloadButtons(); loadSeries(); updateMetadata(); });
 }
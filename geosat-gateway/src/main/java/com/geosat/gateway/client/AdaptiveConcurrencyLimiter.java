@@ -0,0 +1,157 @@
+package com.geosat.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite adaptativo de chamadas simultâneas ao upstream, no estilo TCP Vegas:
+ * compara cada RTT com o menor RTT observado para estimar a fila no servidor,
+ * <pre>
+ *   fila = limite · (1 − rttMin / rtt)
+ *   fila ≤ α → limite += log10(limite)      (folga: cresce)
+ *   fila ≥ β → limite −= log10(limite)      (enfileirando: recua)
+ * </pre>
+ * com α = 3·log10(limite) e β = 6·log10(limite). Timeouts são perda: redução
+ * multiplicativa (AIMD). Acima do limite a chamada espera até {@code maxWaitMs}
+ * e então é descartada com {@link LimiteConcorrenciaException}.
+ * <p>
+ * A espera usa {@link ReentrantLock}/{@link Condition} e não monitor: uma virtual thread
+ * bloqueada em {@code Object.wait} prenderia a carrier thread (pinning).
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /** A cada N amostras o rttMin é reiniciado, para acompanhar mudanças de rota/servidor. */
+    private static final int RTT_MIN_RESET_SAMPLES = 500;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitMs;
+    private final Counter rejections;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition vagaLiberada = lock.newCondition();
+
+    // guardados por lock
+    private double limit;
+    private int inFlight;
+    private long rttMinNanos = Long.MAX_VALUE;
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long maxWaitMs, MeterRegistry registry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.maxWaitMs = maxWaitMs;
+        this.rejections = registry.counter("rbmc.limite.rejeicoes");
+        registry.gauge("rbmc.limite.concorrencia", this, AdaptiveConcurrencyLimiter::limit);
+        registry.gauge("rbmc.limite.em_voo", this, AdaptiveConcurrencyLimiter::inFlight);
+        registry.gauge("rbmc.limite.rtt_min_ms", this, l -> l.rttMinMillis());
+    }
+
+    /**
+     * Executa {@code call} dentro do limite; o RTT da chamada (ou o timeout) ajusta o limite.
+     * Só chamadas pequenas passam por aqui: downloads ficam fora do limite.
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        acquire();
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.call();
+        } catch (InterruptedIOException timeout) {
+            dropped = true;
+            throw timeout;
+        } finally {
+            release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    void acquire() {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    rejections.increment();
+                    throw new LimiteConcorrenciaException("Limite de concorrência RBMC atingido (" + (int) limit + ")");
+                }
+                try {
+                    remaining = vagaLiberada.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejections.increment();
+                    throw new LimiteConcorrenciaException("Interrompido aguardando vaga no limite RBMC");
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            adjust(rttNanos, dropped);
+            vagaLiberada.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long rttNanos, boolean dropped) {
+        int inFlightAtCall = inFlight;
+        inFlight--;
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        } else if (rttNanos > 0) {
+            if (++samples >= RTT_MIN_RESET_SAMPLES) {
+                samples = 0;
+                rttMinNanos = Long.MAX_VALUE;
+            }
+            rttMinNanos = Math.min(rttMinNanos, rttNanos);
+            double log = Math.max(1.0, Math.log10(limit));
+            double queue = limit * (1.0 - (double) rttMinNanos / rttNanos);
+            if (queue <= 3 * log) {
+                // só cresce se o limite está de fato em uso, senão cresceria sem carga
+                if (inFlightAtCall * 2 >= limit) limit = Math.min(maxLimit, limit + log);
+            } else if (queue >= 6 * log) {
+                limit = Math.max(minLimit, limit - log);
+            }
+        }
+    }
+
+    public double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double rttMinMillis() {
+        lock.lock();
+        try {
+            return rttMinNanos == Long.MAX_VALUE ? 0 : rttMinNanos / 1e6;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
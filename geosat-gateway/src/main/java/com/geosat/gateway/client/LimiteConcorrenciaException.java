@@ -0,0 +1,13 @@
+package com.geosat.gateway.client;
+
+/**
+ * Requisição descartada pelo {@link AdaptiveConcurrencyLimiter}: o limite de chamadas
+ * simultâneas ao RBMC estava cheio além da espera máxima. Não conta como falha no
+ * circuit breaker nem dispara retry (ver {@code ignore-exceptions} no application.yml).
+ */
+public class LimiteConcorrenciaException extends RuntimeException {
+
+    public LimiteConcorrenciaException(String message) {
+        super(message);
+    }
+}
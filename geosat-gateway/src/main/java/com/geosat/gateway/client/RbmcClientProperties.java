@@ -0,0 +1,49 @@
+package com.geosat.gateway.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Ajustes do {@link RbmcHttpClient} ({@code rbmc.*}): URL base, downloads em intervalos,
+ * limite adaptativo e hedge. Pools, cache e timeouts continuam com suas próprias chaves.
+ * <p>
+ * Testes partem de {@link #padrao(String)} e trocam só o grupo que interessa.
+ */
+@ConfigurationProperties(prefix = "rbmc")
+public record RbmcClientProperties(
+        @DefaultValue("https://servicodados.ibge.gov.br/api/v1/rbmc") String baseUrl,
+        @DefaultValue Download download,
+        @DefaultValue Limite limite,
+        @DefaultValue Hedge hedge) {
+
+    /** {@code rbmc.download.*}: arquivos grandes com Range em {@code chunks} intervalos paralelos. */
+    public record Download(
+            @DefaultValue("4") int chunks,
+            @DefaultValue("8388608") long paraleloMinBytes) {}
+
+    /** {@code rbmc.limite.*}: limite adaptativo (Vegas/AIMD) das chamadas de relatório. */
+    public record Limite(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("8") int inicial,
+            @DefaultValue("1") int min,
+            @DefaultValue("64") int max,
+            @DefaultValue("50") long esperaMaxMs) {}
+
+    /** {@code rbmc.hedge.*}: segunda requisição de relatório após o p95 observado. */
+    public record Hedge(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0.05") double taxaMax,
+            @DefaultValue("100") long minAmostras,
+            @DefaultValue("20") long atrasoMinMs,
+            @DefaultValue("2000") long atrasoMaxMs) {}
+
+    /** Mesmos valores padrão do binding, apontando para {@code baseUrl}. */
+    public static RbmcClientProperties padrao(String baseUrl) {
+        return new RbmcClientProperties(baseUrl, new Download(4, 8_388_608L),
+                new Limite(true, 8, 1, 64, 50), new Hedge(false, 0.05, 100, 20, 2000));
+    }
+
+    public RbmcClientProperties comDownload(int chunks, long paraleloMinBytes) {
+        return new RbmcClientProperties(baseUrl, new Download(chunks, paraleloMinBytes), limite, hedge);
+    }
+}
@@ -0,0 +1,50 @@
+package com.geosat.gateway.client;
+
+/**
+ * Famílias de endpoints RBMC, cada uma com seu bulkhead ({@code resilience4j.bulkhead.instances.<bulkhead>})
+ * e seu circuit breaker ({@code resilience4j.circuitbreaker.instances.<circuitBreaker>}): 404 de um
+ * RINEX ainda não publicado ou timeouts de download não abrem o circuito do relatório.
+ * Relatório é chamada pequena, sob o limite adaptativo e o hedge; as demais são downloads
+ * de arquivo, limitados só pelo bulkhead da família e pelo pool de conexões de arquivos
+ * (a duração depende do tamanho, não da fila no upstream, e distorceria o limite).
+ */
+public enum RbmcEndpoint {
+    // relatório mantém o circuit breaker rbmcClient, compartilhado com o cliente reativo
+    RELATORIO("rbmcRelatorio", "rbmcClient", false),
+    RINEX2("rbmcRinex2", "rbmcRinex2", true),
+    RINEX3_1S("rbmcRinex3_1s", "rbmcRinex3_1s", true),
+    RINEX3_15S("rbmcRinex3_15s", "rbmcRinex3_15s", true),
+    ORBITAS("rbmcOrbitas", "rbmcOrbitas", true);
+
+    private final String bulkhead;
+    private final String circuitBreaker;
+    private final boolean arquivo;
+
+    RbmcEndpoint(String bulkhead, String circuitBreaker, boolean arquivo) {
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.arquivo = arquivo;
+    }
+
+    public String bulkhead() {
+        return bulkhead;
+    }
+
+    public String circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public boolean arquivo() {
+        return arquivo;
+    }
+
+    /** Família de um caminho relativo (mesmos prefixos de {@code RbmcService.*Path}). */
+    public static RbmcEndpoint of(String relativePath) {
+        String p = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
+        if (p.startsWith("relatorio/")) return RELATORIO;
+        if (p.startsWith("rinex2/")) return RINEX2;
+        if (p.startsWith("rinex3/1s/")) return RINEX3_1S;
+        if (p.startsWith("rinex3/orbitas/")) return ORBITAS;
+        return RINEX3_15S;
+    }
+}
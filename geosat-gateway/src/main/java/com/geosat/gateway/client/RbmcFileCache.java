@@ -0,0 +1,310 @@
+package com.geosat.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Cache em disco dos arquivos RBMC (imutáveis após publicados), endereçado por conteúdo:
+ * <pre>
+ *   blobs/ab/abcdef…   conteúdo, nome = SHA-256 do arquivo (arquivos idênticos compartilham o blob)
+ *   refs/0123…         SHA-256 do caminho relativo → digest do blob
+ * </pre>
+ * Escritas vão para {@code tmp/} e são publicadas por rename atômico, então um leitor
+ * nunca vê arquivo parcial. O tamanho total é limitado por LRU ({@code rbmc.cache.max-bytes});
+ * misses concorrentes do mesmo caminho compartilham um único download.
+ */
+@Component
+public class RbmcFileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RbmcFileCache.class);
+    private static final HexFormat HEX = HexFormat.of();
+
+    /** Grava o conteúdo em {@code target}; retorna o número de bytes. */
+    @FunctionalInterface
+    public interface Loader {
+        long load(Path target) throws IOException;
+    }
+
+    public record Entrada(Path arquivo, String digest, long tamanho, Instant modificado) {}
+
+    private final Path blobs;
+    private final Path refs;
+    private final Path tmp;
+    private final long maxBytes;
+    /** digest → tamanho, em ordem de acesso; guardado por {@code this}. */
+    private final LinkedHashMap<String, Long> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private final Map<String, String> refIndex = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entrada>> inflight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter evictions;
+
+    public RbmcFileCache(@Value("${rbmc.cache.dir:}") String dir,
+                         @Value("${rbmc.cache.max-bytes:2147483648}") long maxBytes,
+                         MeterRegistry registry) throws IOException {
+        Path root = dir == null || dir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "geosat-rbmc-cache")
+                : Path.of(dir);
+        this.blobs = Files.createDirectories(root.resolve("blobs"));
+        this.refs = Files.createDirectories(root.resolve("refs"));
+        this.tmp = Files.createDirectories(root.resolve("tmp"));
+        this.maxBytes = maxBytes;
+        this.hits = registry.counter("rbmc.cache.disco.requisicoes", "resultado", "hit");
+        this.misses = registry.counter("rbmc.cache.disco.requisicoes", "resultado", "miss");
+        this.coalesced = registry.counter("rbmc.cache.disco.requisicoes", "resultado", "coalescido");
+        this.evictions = registry.counter("rbmc.cache.disco.evictions");
+        registry.gauge("rbmc.cache.disco.bytes", this, RbmcFileCache::totalBytes);
+        recover();
+    }
+
+    /** Entrada em cache para o caminho, sem tocar a rede. */
+    public Optional<Entrada> lookup(String relativePath) throws IOException {
+        String key = normalize(relativePath);
+        String digest = refIndex.get(key);
+        Path ref = refPath(key);
+        if (digest == null) {
+            if (!Files.isRegularFile(ref)) return Optional.empty();
+            digest = Files.readAllLines(ref, StandardCharsets.US_ASCII).get(0).trim();
+            refIndex.put(key, digest);
+        }
+        Long size;
+        synchronized (this) {
+            size = lru.get(digest); // promove no LRU
+        }
+        Path blob = blobPath(digest);
+        if (size == null || !Files.isRegularFile(blob)) {
+            // blob removido pelo LRU: referência pendurada vira miss
+            refIndex.remove(key);
+            Files.deleteIfExists(ref);
+            return Optional.empty();
+        }
+        return Optional.of(new Entrada(blob, digest, size, Files.getLastModifiedTime(blob).toInstant()));
+    }
+
+    /** Retorna a entrada do cache, carregando via {@code loader} apenas em miss. */
+    public Entrada obter(String relativePath, Loader loader) throws IOException {
+        String key = normalize(relativePath);
+        Optional<Entrada> hit = lookup(key);
+        if (hit.isPresent()) {
+            hits.increment();
+            return hit.get();
+        }
+        CompletableFuture<Entrada> mine = new CompletableFuture<>();
+        CompletableFuture<Entrada> other = inflight.putIfAbsent(key, mine);
+        if (other != null) {
+            coalesced.increment();
+            return join(other);
+        }
+        try {
+            Entrada e = lookup(key).orElse(null);
+            if (e == null) {
+                misses.increment();
+                e = store(key, loader);
+            } else {
+                hits.increment();
+            }
+            mine.complete(e);
+            return e;
+        } catch (IOException | RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inflight.remove(key, mine);
+        }
+    }
+
+    /** Copia {@code count} bytes a partir de {@code position} via {@link FileChannel#transferTo}. */
+    public static long transferTo(Entrada e, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel ch = FileChannel.open(e.arquivo(), StandardOpenOption.READ)) {
+            long end = Math.min(ch.size(), position + count);
+            long pos = position;
+            while (pos < end) {
+                long n = ch.transferTo(pos, end - pos, target);
+                if (n <= 0) break;
+                pos += n;
+            }
+            return pos - position;
+        }
+    }
+
+    /** Cópia do blob para {@code destino} (kernel-to-kernel quando o SO suporta). */
+    public long copy(Entrada e, Path destino) throws IOException {
+        try (FileChannel out = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return transferTo(e, 0, e.tamanho(), out);
+        }
+    }
+
+    /** Mapeamento somente-leitura do blob; o mapeamento sobrevive ao fechamento do canal. */
+    public MappedByteBuffer map(Entrada e) throws IOException {
+        try (FileChannel ch = FileChannel.open(e.arquivo(), StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private Entrada store(String key, Loader loader) throws IOException {
+        Path part = Files.createTempFile(tmp, "dl-", ".part");
+        try {
+            loader.load(part);
+            String digest = sha256(part);
+            Path blob = blobPath(digest);
+            Files.createDirectories(blob.getParent());
+            if (!Files.exists(blob)) {
+                moveAtomically(part, blob);
+            }
+            long size = Files.size(blob);
+            Path refTmp = Files.createTempFile(tmp, "ref-", ".part");
+            Files.writeString(refTmp, digest + "\n" + key + "\n", StandardCharsets.US_ASCII);
+            moveAtomically(refTmp, refPath(key));
+            refIndex.put(key, digest);
+            admit(digest, size);
+            return new Entrada(blob, digest, size, Files.getLastModifiedTime(blob).toInstant());
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private void admit(String digest, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (lru.put(digest, size) == null) totalBytes += size;
+            Iterator<Map.Entry<String, Long>> it = lru.entrySet().iterator();
+            while (totalBytes > maxBytes && lru.size() > 1 && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(digest)) continue;
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String d : evicted) {
+            try {
+                Files.deleteIfExists(blobPath(d));
+                evictions.increment();
+            } catch (IOException e) {
+                log.warn("falha_eviction blob={} msg={}", d, e.getMessage());
+            }
+        }
+    }
+
+    /** Reconstrói o LRU a partir do disco (mais antigo por mtime primeiro) e limpa temporários. */
+    private void recover() throws IOException {
+        try (Stream<Path> parts = Files.list(tmp)) {
+            parts.forEach(p -> p.toFile().delete());
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(blobs)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        record Blob(String digest, long size, FileTime mtime) {}
+        List<Blob> found = new ArrayList<>();
+        for (Path p : files) {
+            try {
+                found.add(new Blob(p.getFileName().toString(), Files.size(p), Files.getLastModifiedTime(p)));
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("blob_ignorado arquivo={} msg={}", p, e.getMessage());
+            }
+        }
+        found.sort(Comparator.comparing(Blob::mtime));
+        for (Blob b : found) admit(b.digest(), b.size());
+        log.info("cache_disco_recuperado blobs={} bytes={}", found.size(), totalBytes());
+    }
+
+    private static void moveAtomically(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path blobPath(String digest) {
+        return blobs.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    private Path refPath(String key) {
+        return refs.resolve(HEX.formatHex(sha256(key.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static String normalize(String relativePath) {
+        return relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
+    }
+
+    private static Entrada join(CompletableFuture<Entrada> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando download em andamento");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest md = sha256();
+        ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (ch.read(buf) >= 0) {
+                buf.flip();
+                md.update(buf);
+                buf.clear();
+            }
+        }
+        return HEX.formatHex(md.digest());
+    }
+
+    private static byte[] sha256(byte[] data) {
+        return sha256().digest(data);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,12 +2,22 @@ package com.geosat.gateway.client;
 
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpHead;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import com.geosat.gateway.config.GatewayThreads;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.Retry;
@@ -16,17 +26,40 @@ import io.github.resilience4j.decorators.Decorators;
 import java.util.concurrent.Callable;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cliente de baixo nível para RBMC usando HttpComponents Core 5.
- * Fornece métodos simples que retornam bytes/strings.
- * Em PRs futuros: streaming para arquivos, cache, métricas detalhadas.
+ * Fornece métodos simples que retornam bytes/strings; arquivos passam pelo
+ * {@link RbmcFileCache} em disco.
+ * <p>
+ * Cada família de endpoint ({@link RbmcEndpoint}) tem um bulkhead próprio, e downloads
+ * usam um pool de conexões separado: uma rajada de RINEX não ocupa as conexões nem as
+ * vagas de que o relatório precisa.
  */
 @Component
 public class RbmcHttpClient {
@@ -34,49 +67,248 @@ public class RbmcHttpClient {
     private static final Logger log = LoggerFactory.getLogger(RbmcHttpClient.class);
 
     private final CloseableHttpClient httpClient;
+    private final CloseableHttpClient arquivosHttpClient;
+    private final Map<RbmcEndpoint, Bulkhead> bulkheads = new EnumMap<>(RbmcEndpoint.class);
+    private final Map<RbmcEndpoint, CircuitBreaker> circuitBreakers = new EnumMap<>(RbmcEndpoint.class);
+    private final RbmcFileCache fileCache;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final RequestHedger hedger;
+    private final long hedgeMinSamples;
+    private final long hedgeMinDelayNanos;
+    private final long hedgeMaxDelayNanos;
     private final String baseUrl;
-    private final CircuitBreaker circuitBreaker;
     private final Retry retry;
     private final Counter requestsTotal;
     private final Counter retriesTotal;
     private final Timer latencyTimer;
+    private final Timer tentativaRelatorioTimer;
+    private final int chunks;
+    private final long parallelMinBytes;
+    private final ExecutorService chunkExecutor;
+    private final Counter chunksTotal;
+    private final Counter chunkRetriesTotal;
+    private final Counter revalidations;
+    private final Counter metadataFetches;
+    private final Counter earlyAborts;
+
+    /**
+     * Resposta de uma requisição condicional: {@code 304} não traz corpo, apenas
+     * confirma os validadores enviados (ou os atualiza, se o servidor reenviar).
+     */
+    public record RespostaCondicional(int status, String etag, String lastModified, Long tamanho, String contentType) {
+        public boolean naoModificado() {
+            return status == HttpStatus.SC_NOT_MODIFIED;
+        }
+    }
+
+    /** Resultado do HEAD: tamanho ({@code -1} se desconhecido), suporte a Range e tipo. */
+    public record Sonda(long tamanho, boolean aceitaRange, String contentType) {}
 
     public RbmcHttpClient(CloseableHttpClient httpClient,
+                          @Qualifier("rbmcArquivosHttpClient") CloseableHttpClient arquivosHttpClient,
                           RetryRegistry retryRegistry,
                           CircuitBreakerRegistry circuitBreakerRegistry,
+                          BulkheadRegistry bulkheadRegistry,
                           MeterRegistry meterRegistry,
-                          @Value("${rbmc.base-url:https://servicodados.ibge.gov.br/api/v1/rbmc}") String baseUrl) {
+                          RbmcFileCache fileCache,
+                          GatewayThreads threads,
+                          RbmcClientProperties props) {
         this.httpClient = httpClient;
-        this.baseUrl = baseUrl;
+        this.arquivosHttpClient = arquivosHttpClient;
+        int downloadsSimultaneos = 0;
+        for (RbmcEndpoint endpoint : RbmcEndpoint.values()) {
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(endpoint.bulkhead());
+            if (endpoint.arquivo()) downloadsSimultaneos += bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+            String familia = endpoint.name().toLowerCase(Locale.ROOT);
+            Counter rejeicoes = meterRegistry.counter("rbmc.bulkhead.rejeicoes", "familia", familia);
+            bulkhead.getEventPublisher().onCallRejected(ev -> rejeicoes.increment());
+            meterRegistry.gauge("rbmc.bulkhead.saturacao", Tags.of("familia", familia),
+                    bulkhead, RbmcHttpClient::saturacao);
+            bulkheads.put(endpoint, bulkhead);
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(endpoint.circuitBreaker());
+            meterRegistry.gauge("rbmc.circuitbreaker.state", Tags.of("familia", familia),
+                    circuitBreaker, cb -> mapState(cb.getState()));
+            circuitBreakers.put(endpoint, circuitBreaker);
+        }
+        this.fileCache = fileCache;
+        RbmcClientProperties.Limite limite = props.limite();
+        this.limiter = limite.enabled()
+                ? new AdaptiveConcurrencyLimiter(limite.inicial(), limite.min(), limite.max(), limite.esperaMaxMs(), meterRegistry)
+                : null;
+        this.baseUrl = props.baseUrl();
         this.retry = retryRegistry.retry("rbmcClient");
-        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("rbmcClient");
         this.requestsTotal = meterRegistry.counter("rbmc.requests.total");
         this.retriesTotal = meterRegistry.counter("rbmc.retries.total");
         this.latencyTimer = Timer.builder("rbmc.requests.latency_seconds")
                 .description("Latência das chamadas RBMC")
+                .tag("cliente", "bloqueante")
+                .publishPercentiles(0.95)
                 .register(meterRegistry);
+        // base do atraso do hedge: só tentativas isoladas de relatório, sem backoff nem downloads
+        this.tentativaRelatorioTimer = Timer.builder("rbmc.relatorio.tentativa_seconds")
+                .description("Duração de cada tentativa HTTP de relatório RBMC")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+        RbmcClientProperties.Hedge hedge = props.hedge();
+        this.hedgeMinSamples = hedge.minAmostras();
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedge.atrasoMinMs());
+        this.hedgeMaxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(hedge.atrasoMinMs(), hedge.atrasoMaxMs()));
+        // cada chamada hedged usa até duas threads
+        this.hedger = hedge.enabled()
+                ? new RequestHedger(this::hedgeDelayNanos, hedge.taxaMax(), 2 * limite.max(),
+                        threads.fabrica("rbmc-hedge"), meterRegistry)
+                : null;
+        this.chunks = Math.max(1, props.download().chunks());
+        this.parallelMinBytes = props.download().paraleloMinBytes();
+        // um intervalo de cada download admitido pelos bulkheads de arquivo pode estar em voo:
+        // o mesmo dimensionamento do pool de conexões de arquivos (rbmc.pool.arquivos)
+        this.chunkExecutor = threads.executor("rbmc-chunk", Math.max(1, downloadsSimultaneos) * this.chunks);
+        this.chunksTotal = meterRegistry.counter("rbmc.download.chunks.total");
+        this.chunkRetriesTotal = meterRegistry.counter("rbmc.download.chunks.retomadas");
+        this.revalidations = meterRegistry.counter("rbmc.revalidacoes.total", "resultado", "nao_modificado");
+        this.metadataFetches = meterRegistry.counter("rbmc.revalidacoes.total", "resultado", "metadados");
+        this.earlyAborts = meterRegistry.counter("rbmc.requests.abortadas_apos_cabecalhos");
         // Eventos de retry incrementam contador
         this.retry.getEventPublisher().onRetry(ev -> this.retriesTotal.increment());
-        // Gauge para estado do circuit breaker
-        meterRegistry.gauge("rbmc.circuitbreaker.state", this.circuitBreaker, cb -> mapState(cb.getState()));
     }
 
-    public String obterRelatorio(String estacao) throws IOException {
+    /**
+     * Metadados do relatório (tamanho, tipo, Last-Modified) sem transferir o PDF, com
+     * {@code If-None-Match}/{@code If-Modified-Since} quando há validadores.
+     */
+    public RespostaCondicional obterRelatorio(String estacao, String etag, String lastModified) throws IOException {
         String url = baseUrl + "/relatorio/" + estacao.toLowerCase();
-        return executeWithResilience(url);
+        return isolado(RbmcEndpoint.RELATORIO, () -> withResilience(RbmcEndpoint.RELATORIO,
+                () -> rawConditional(url, etag, lastModified)));
+    }
+
+    /**
+     * Garante o arquivo no cache em disco; a rede só é usada em miss, em streaming
+     * (sem bufferizar no heap), com o retry comum e o circuit breaker da família.
+     * O download inteiro (sonda e intervalos) ocupa uma única vaga do bulkhead da família.
+     */
+    public RbmcFileCache.Entrada arquivoEmCache(String relativePath) throws IOException {
+        String url = arquivoUrl(relativePath);
+        RbmcEndpoint endpoint = RbmcEndpoint.of(relativePath);
+        return fileCache.obter(relativePath, tmp -> isolado(endpoint, () -> download(endpoint, url, tmp)));
+    }
+
+    /**
+     * Arquivos grandes com suporte a Range são baixados em {@code rbmc.download.chunks}
+     * intervalos paralelos; cada intervalo tem seu próprio retry e retoma do último byte
+     * gravado. Demais casos usam um único stream.
+     */
+    private long download(RbmcEndpoint endpoint, String url, Path destino) throws IOException {
+        if (chunks > 1) {
+            Sonda sonda = sondarOuNulo(endpoint, url);
+            if (sonda != null && sonda.aceitaRange() && sonda.tamanho() > 0 && sonda.tamanho() >= parallelMinBytes) {
+                return downloadParalelo(endpoint, url, destino, sonda.tamanho());
+            }
+        }
+        return withResilience(endpoint, () -> rawDownload(url, destino));
+    }
+
+    /**
+     * HEAD sob o circuit breaker da família (sem retry): com o circuito aberto nada sai para
+     * a rede e o {@code CallNotPermittedException} sobe como nas demais chamadas.
+     */
+    private Sonda sondarOuNulo(RbmcEndpoint endpoint, String url) throws IOException {
+        try {
+            return circuitBreakers.get(endpoint).executeCallable(() -> rawHead(url));
+        } catch (CallNotPermittedException e) {
+            throw e;
+        } catch (IOException e) {
+            // falha pontual: segue com GET simples, que tem retry
+            log.debug("sonda_indisponivel url={} msg={}", url, e.getMessage());
+            return null;
+        } catch (Exception e) {
+            throw new IOException("Falha não IO ao sondar RBMC: " + e.getMessage(), e);
+        }
     }
 
-    public String obterArquivo(String relativePath) throws IOException {
+    private long downloadParalelo(RbmcEndpoint endpoint, String url, Path destino, long size) throws IOException {
+        long chunkSize = (size + chunks - 1) / chunks;
+        AtomicBoolean abort = new AtomicBoolean();
+        try (FileChannel ch = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap(new byte[1]), size - 1); // pré-aloca a região inteira
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long start = 0; start < size; start += chunkSize) {
+                long first = start;
+                long last = Math.min(size, start + chunkSize) - 1;
+                AtomicLong done = new AtomicLong();
+                futures.add(chunkExecutor.submit(() ->
+                        withResilience(endpoint, () -> rawRange(url, ch, first, last, done, abort))));
+            }
+            try {
+                for (Future<Long> f : futures) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Download interrompido: " + url, e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            } finally {
+                abort.set(true);
+                futures.forEach(f -> f.cancel(true));
+            }
+            log.debug("download_paralelo url={} bytes={} chunks={}", url, size, futures.size());
+        }
+        return size;
+    }
+
+
+    /**
+     * Copia o arquivo (do cache, baixando se preciso) para {@code destino}.
+     *
+     * @return número de bytes gravados
+     */
+    public long baixarArquivo(String relativePath, Path destino) throws IOException {
+        return fileCache.copy(arquivoEmCache(relativePath), destino);
+    }
+
+    private String arquivoUrl(String relativePath) {
         String clean = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
-        String url = baseUrl + "/" + clean;
-        return executeWithResilience(url);
+        return baseUrl + "/" + clean;
     }
 
-    protected String executeWithResilience(String url) throws IOException {
+    /**
+     * Executa a operação sob o bulkhead (semáforo) da família. Sem vaga dentro de
+     * {@code max-wait-duration}, falha com {@code BulkheadFullException} sem tocar a rede.
+     */
+    private <T> T isolado(RbmcEndpoint endpoint, Callable<T> operacao) throws IOException {
+        Bulkhead bulkhead = bulkheads.get(endpoint);
+        bulkhead.acquirePermission();
+        try {
+            return operacao.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    private static double saturacao(Bulkhead bulkhead) {
+        Bulkhead.Metrics m = bulkhead.getMetrics();
+        int max = m.getMaxAllowedConcurrentCalls();
+        return max == 0 ? 0 : 1.0 - (double) m.getAvailableConcurrentCalls() / max;
+    }
+
+    /**
+     * Retry → circuit breaker da família → hedge → limite adaptativo → chamada. Relatório: cada
+     * tentativa (e cada hedge) ocupa uma vaga do limite e alimenta o ajuste com seu RTT.
+     * Arquivos ficam fora do limite e do hedge: são limitados pelo bulkhead e pelo pool
+     * de conexões próprio, e sua duração depende do tamanho, não da fila no upstream.
+     */
+    private <T> T withResilience(RbmcEndpoint endpoint, Callable<T> rawCall) throws IOException {
+        boolean pequena = !endpoint.arquivo();
+        Callable<T> limited = limiter == null || !pequena ? rawCall : () -> limiter.call(rawCall);
+        Callable<T> medida = pequena ? () -> tentativaRelatorioTimer.recordCallable(limited) : limited;
+        Callable<T> hedged = pequena && hedger != null ? () -> hedger.call(medida) : medida;
         // Use Callable + Decorators.ofCallable para preservar checked exceptions
-        Callable<String> rawCall = () -> rawExecute(url);
-        Callable<String> decorated = Decorators.ofCallable(rawCall)
-                .withCircuitBreaker(circuitBreaker)
+        Callable<T> decorated = Decorators.ofCallable(hedged)
+                .withCircuitBreaker(circuitBreakers.get(endpoint))
                 .withRetry(retry)
                 .decorate();
 
@@ -93,25 +325,54 @@ public class RbmcHttpClient {
         }
     }
 
-    protected String rawExecute(String url) throws IOException {
+    /**
+     * Atraso do hedge: p95 recente de {@code rbmc.relatorio.tentativa_seconds} (uma tentativa
+     * de relatório, sem esperas de retry), limitado a {@code [atraso-min-ms, atraso-max-ms]};
+     * sem amostras suficientes não há hedge.
+     */
+    private long hedgeDelayNanos() {
+        HistogramSnapshot snapshot = tentativaRelatorioTimer.takeSnapshot();
+        if (snapshot.count() < hedgeMinSamples) return -1;
+        for (ValueAtPercentile v : snapshot.percentileValues()) {
+            if (v.percentile() == 0.95) {
+                long p95 = (long) v.value(TimeUnit.NANOSECONDS);
+                return Math.min(hedgeMaxDelayNanos, Math.max(hedgeMinDelayNanos, p95));
+            }
+        }
+        return -1;
+    }
+
+    protected long rawDownload(String url, Path destino) throws IOException {
         long start = System.nanoTime();
         HttpGet get = new HttpGet(url);
         requestsTotal.increment();
-        
-        // ResponseHandler approach (não-deprecado)
-        HttpClientResponseHandler<String> responseHandler = response -> {
+        HttpClientResponseHandler<Long> responseHandler = response -> {
             int status = response.getCode();
             if (status != HttpStatus.SC_OK) {
                 throw new IOException("HTTP status " + status + " para " + url);
             }
             try (InputStream is = response.getEntity().getContent()) {
-                byte[] bytes = is.readAllBytes();
-                return new String(bytes, StandardCharsets.ISO_8859_1);
+                return Files.copy(is, destino, StandardCopyOption.REPLACE_EXISTING);
             }
         };
-        
         try {
-            return httpClient.execute(get, responseHandler);
+            return arquivosHttpClient.execute(get, responseHandler);
+        } catch (IOException e) {
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            log.warn("falha_download url={} elapsedMs={} msg={}", url, elapsedMs, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Revalidação só de cabeçalhos: HEAD condicional; se o servidor recusar HEAD
+     * (405/501), GET condicional com a conexão abortada logo após os cabeçalhos.
+     */
+    protected RespostaCondicional rawConditional(String url, String etag, String lastModified) throws IOException {
+        long start = System.nanoTime();
+        try {
+            RespostaCondicional r = conditionalHeaders(new HttpHead(url), url, etag, lastModified);
+            return r != null ? r : conditionalHeaders(new HttpGet(url), url, etag, lastModified);
         } catch (IOException e) {
             long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
             log.warn("falha_http url={} elapsedMs={} msg={}", url, elapsedMs, e.getMessage());
@@ -119,7 +380,139 @@ public class RbmcHttpClient {
         }
     }
 
-    // Método reservado para futura adoção de streaming/multiplex H2
+    private RespostaCondicional conditionalHeaders(HttpUriRequestBase request, String url,
+                                                   String etag, String lastModified) throws IOException {
+        if (etag != null) request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        if (lastModified != null) request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        boolean head = request instanceof HttpHead;
+        requestsTotal.increment();
+        HttpClientResponseHandler<RespostaCondicional> responseHandler = response -> {
+            try {
+                int status = response.getCode();
+                if (head && (status == HttpStatus.SC_METHOD_NOT_ALLOWED || status == HttpStatus.SC_NOT_IMPLEMENTED)) {
+                    return null;
+                }
+                String newEtag = headerValue(response, HttpHeaders.ETAG);
+                String newLastModified = headerValue(response, HttpHeaders.LAST_MODIFIED);
+                if (status == HttpStatus.SC_NOT_MODIFIED) {
+                    revalidations.increment();
+                    return new RespostaCondicional(status,
+                            newEtag != null ? newEtag : etag,
+                            newLastModified != null ? newLastModified : lastModified,
+                            null, null);
+                }
+                if (status != HttpStatus.SC_OK) {
+                    throw new IOException("HTTP status " + status + " para " + url);
+                }
+                Long size = null;
+                try {
+                    String length = headerValue(response, HttpHeaders.CONTENT_LENGTH);
+                    if (length != null) size = Long.parseLong(length.trim());
+                } catch (NumberFormatException ignored) {
+                    // tamanho desconhecido
+                }
+                metadataFetches.increment();
+                return new RespostaCondicional(status, newEtag, newLastModified, size,
+                        headerValue(response, HttpHeaders.CONTENT_TYPE));
+            } finally {
+                if (!head && response.getEntity() != null) {
+                    // o execute consumiria o corpo até o fim para reaproveitar a conexão:
+                    // aborta a conexão e descarta a entidade antes de devolver
+                    request.cancel();
+                    response.setEntity(null);
+                    earlyAborts.increment();
+                }
+            }
+        };
+        return httpClient.execute(request, responseHandler);
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header h = response.getFirstHeader(name);
+        return h != null ? h.getValue() : null;
+    }
+
+    /**
+     * HEAD usado só para escolher a estratégia de download; {@code null} quando o servidor
+     * não implementa HEAD (405/501), que não conta como falha no circuit breaker.
+     */
+    protected Sonda rawHead(String url) throws IOException {
+        HttpHead head = new HttpHead(url);
+        requestsTotal.increment();
+        return arquivosHttpClient.execute(head, response -> {
+            int status = response.getCode();
+            if (status == HttpStatus.SC_METHOD_NOT_ALLOWED || status == HttpStatus.SC_NOT_IMPLEMENTED) return null;
+            if (status != HttpStatus.SC_OK) {
+                throw new IOException("HTTP status " + response.getCode() + " para HEAD " + url);
+            }
+            Header length = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+            Header ranges = response.getFirstHeader(HttpHeaders.ACCEPT_RANGES);
+            Header type = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+            long size = -1;
+            try {
+                if (length != null) size = Long.parseLong(length.getValue().trim());
+            } catch (NumberFormatException ignored) {
+                // tamanho desconhecido
+            }
+            boolean acceptsRanges = ranges != null && ranges.getValue().toLowerCase(Locale.ROOT).contains("bytes");
+            return new Sonda(size, acceptsRanges, type == null ? null : type.getValue());
+        });
+    }
+
+    /**
+     * Baixa {@code [first, last]} com escrita posicional em {@code ch}. {@code done} guarda o
+     * progresso do intervalo, então uma nova tentativa pede apenas o restante.
+     */
+    protected long rawRange(String url, FileChannel ch, long first, long last,
+                            AtomicLong done, AtomicBoolean abort) throws IOException {
+        long from = first + done.get();
+        if (from > last) return 0;
+        if (done.get() > 0) chunkRetriesTotal.increment();
+        HttpGet get = new HttpGet(url);
+        get.setHeader(HttpHeaders.RANGE, "bytes=" + from + "-" + last);
+        requestsTotal.increment();
+        chunksTotal.increment();
+        HttpClientResponseHandler<Long> responseHandler = response -> {
+            if (response.getCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+                throw new IOException("HTTP status " + response.getCode() + " para intervalo " + from + "-" + last + " de " + url);
+            }
+            Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+            if (contentRange == null || !contentRange.getValue().startsWith("bytes " + from + "-")) {
+                throw new IOException("Content-Range inesperado para " + url + ": " + contentRange);
+            }
+            byte[] buf = new byte[64 * 1024];
+            ByteBuffer bb = ByteBuffer.wrap(buf);
+            long pos = from;
+            try (InputStream is = response.getEntity().getContent()) {
+                int n;
+                while ((n = is.read(buf)) > 0) {
+                    if (abort.get()) throw new IOException("Download abortado: " + url);
+                    if (pos + n > last + 1) throw new IOException("Intervalo maior que o pedido: " + url);
+                    bb.clear().limit(n);
+                    long at = pos;
+                    while (bb.hasRemaining()) at += ch.write(bb, at);
+                    pos += n;
+                    done.addAndGet(n);
+                }
+            }
+            if (pos != last + 1) {
+                throw new IOException("Intervalo incompleto " + pos + "/" + (last + 1) + " de " + url);
+            }
+            return pos - from;
+        };
+        try {
+            return arquivosHttpClient.execute(get, responseHandler);
+        } catch (IOException e) {
+            log.warn("falha_intervalo url={} de={} ate={} msg={}", url, from, last, e.getMessage());
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        chunkExecutor.shutdownNow();
+        if (hedger != null) hedger.encerrar();
+    }
 
     private int mapState(CircuitBreaker.State state) {
         return switch (state) {
@@ -0,0 +1,134 @@
+package com.geosat.gateway.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Cliente RBMC não bloqueante (WebClient/Reactor Netty) para a API {@code /api/v2}.
+ * Compartilha com o {@link RbmcHttpClient} o circuit breaker/retry {@code rbmcClient}
+ * e o bulkhead do relatório.
+ * <p>
+ * Diferente do cliente bloqueante, aqui não há limite adaptativo ({@code rbmc.limite}) nem
+ * hedge ({@code rbmc.hedge}): o limitador espera vaga bloqueando a thread e mede o RTT só
+ * das chamadas bloqueantes. As chamadas de {@code /api/v2} ficam limitadas pelo bulkhead
+ * compartilhado, pelo pool {@code rbmc.reativo.max-conexoes} e pelo fan-out do serviço.
+ * <p>
+ * Só o relatório é exposto: a revalidação usa HEAD condicional (sem o fallback GET do
+ * cliente bloqueante — o WebClient drenaria o corpo inteiro ao liberar a resposta).
+ */
+@Component
+public class ReactiveRbmcClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRbmcClient.class);
+
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Bulkhead bulkhead;
+    private final Counter requestsTotal;
+    private final Timer latencyTimer;
+
+    public ReactiveRbmcClient(WebClient.Builder builder,
+                              RetryRegistry retryRegistry,
+                              CircuitBreakerRegistry circuitBreakerRegistry,
+                              BulkheadRegistry bulkheadRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${rbmc.base-url:https://servicodados.ibge.gov.br/api/v1/rbmc}") String baseUrl,
+                              @Value("${rbmc.timeouts.connect-ms:3000}") int connectMs,
+                              @Value("${rbmc.timeouts.response-ms:10000}") int responseMs,
+                              @Value("${rbmc.reativo.max-conexoes:500}") int maxConexoes,
+                              @Value("${rbmc.user-agent:GeoSatGateway/0.1}") String userAgent) {
+        HttpClient http = HttpClient.create(ConnectionProvider.create("rbmc-reativo", maxConexoes))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectMs)
+                .responseTimeout(Duration.ofMillis(responseMs));
+        this.webClient = builder.clone()
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.USER_AGENT, userAgent)
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .build();
+        this.retry = retryRegistry.retry("rbmcClient");
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("rbmcClient");
+        this.bulkhead = bulkheadRegistry.bulkhead(RbmcEndpoint.RELATORIO.bulkhead());
+        this.requestsTotal = meterRegistry.counter("rbmc.requests.total");
+        // mesmo nome do cliente bloqueante, separado pela tag: /api/v2 não entra no hedge do v1
+        this.latencyTimer = Timer.builder("rbmc.requests.latency_seconds")
+                .description("Latência das chamadas RBMC")
+                .tag("cliente", "reativo")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Metadados do relatório com {@code If-None-Match}/{@code If-Modified-Since}.
+     * Bulkhead → retry → circuit breaker → HEAD, na mesma ordem do cliente bloqueante.
+     */
+    public Mono<RbmcHttpClient.RespostaCondicional> obterRelatorio(String estacao, String etag, String lastModified) {
+        String path = "/relatorio/" + estacao.toLowerCase(Locale.ROOT);
+        Mono<RbmcHttpClient.RespostaCondicional> head = Mono.defer(() -> {
+            requestsTotal.increment();
+            return webClient.head()
+                    .uri(path)
+                    .headers(h -> {
+                        if (etag != null) h.set(HttpHeaders.IF_NONE_MATCH, etag);
+                        if (lastModified != null) h.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                    })
+                    .exchangeToMono(r -> resposta(r, path, etag, lastModified));
+        });
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return head
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(RetryOperator.of(retry))
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .doOnError(e -> log.warn("falha_http url={} msg={}", path, e.getMessage()))
+                    .doFinally(s -> sample.stop(latencyTimer));
+        });
+    }
+
+    private static Mono<RbmcHttpClient.RespostaCondicional> resposta(ClientResponse r, String path,
+                                                                     String etag, String lastModified) {
+        HttpHeaders h = r.headers().asHttpHeaders();
+        String newEtag = h.getETag();
+        String newLastModified = h.getFirst(HttpHeaders.LAST_MODIFIED);
+        int status = r.statusCode().value();
+        if (status == HttpStatus.NOT_MODIFIED.value()) {
+            return Mono.just(new RbmcHttpClient.RespostaCondicional(status,
+                    newEtag != null ? newEtag : etag,
+                    newLastModified != null ? newLastModified : lastModified,
+                    null, null));
+        }
+        if (status != HttpStatus.OK.value()) {
+            return Mono.error(new IOException("HTTP status " + status + " para " + path));
+        }
+        long length = h.getContentLength();
+        return Mono.just(new RbmcHttpClient.RespostaCondicional(status, newEtag, newLastModified,
+                length >= 0 ? length : null, h.getFirst(HttpHeaders.CONTENT_TYPE)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.geosat.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Requisições "hedged" para chamadas pequenas e idempotentes: se a primeira tentativa
+ * não responde dentro do atraso (p95 observado), uma segunda é disparada e vence a
+ * primeira que retornar com sucesso. A perdedora termina em background e é descartada.
+ * <p>
+ * A taxa de hedges é limitada por um orçamento: cada chamada deposita {@code maxRatio}
+ * fichas (até {@link #MAX_TOKENS}) e cada hedge consome uma, então no regime estável
+ * no máximo {@code maxRatio} das chamadas geram requisição extra ao upstream.
+ */
+public final class RequestHedger {
+
+    private static final double MAX_TOKENS = 10.0;
+
+    private record Vencedor<T>(T valor, boolean hedge) {}
+
+    private final LongSupplier delayNanos;
+    private final double maxRatio;
+    private final ThreadPoolExecutor executor;
+    private final Counter calls;
+    private final Counter hedges;
+    private final Counter wins;
+    private final Counter denied;
+
+    // guardado por this (seções curtas, sem bloqueio: não prendem virtual threads)
+    private double tokens;
+
+    /**
+     * @param delayNanos atraso antes do hedge; {@code <= 0} desativa o hedge da chamada
+     *                   (ex.: amostras insuficientes para estimar o p95)
+     */
+    public RequestHedger(LongSupplier delayNanos, double maxRatio, int maxThreads,
+                         ThreadFactory threadFactory, MeterRegistry registry) {
+        this.delayNanos = delayNanos;
+        this.maxRatio = Math.max(0.0, Math.min(1.0, maxRatio));
+        this.executor = new ThreadPoolExecutor(0, Math.max(2, maxThreads), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+        this.calls = registry.counter("rbmc.hedge.chamadas");
+        this.hedges = registry.counter("rbmc.hedge.disparos");
+        this.wins = registry.counter("rbmc.hedge.vitorias");
+        this.denied = registry.counter("rbmc.hedge.negados");
+        registry.gauge("rbmc.hedge.taxa", this, RequestHedger::hedgeRate);
+        registry.gauge("rbmc.hedge.atraso_ms", this, h -> Math.max(0, h.delayNanos.getAsLong()) / 1e6);
+    }
+
+    /** Interrompe hedges em voo; chamadas seguintes correm sem hedge. */
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public <T> T call(Callable<T> call) throws Exception {
+        long delay = delayNanos.getAsLong();
+        if (delay <= 0) return call.call();
+        calls.increment();
+        deposit();
+        CompletableFuture<T> primary;
+        try {
+            primary = submit(call);
+        } catch (RejectedExecutionException saturated) {
+            return call.call();
+        }
+        try {
+            return await(primary, delay);
+        } catch (TimeoutException slow) {
+            // segue para o hedge
+        }
+        if (!tryConsume()) {
+            denied.increment();
+            return await(primary);
+        }
+        CompletableFuture<T> hedge;
+        try {
+            hedge = submit(call);
+        } catch (RejectedExecutionException saturated) {
+            refund();
+            denied.increment();
+            return await(primary);
+        }
+        hedges.increment();
+
+        CompletableFuture<Vencedor<T>> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        primary.whenComplete((v, ex) -> {
+            if (ex == null) {
+                winner.complete(new Vencedor<>(v, false));
+                return;
+            }
+            primaryError.set(ex);
+            if (pending.decrementAndGet() == 0) winner.completeExceptionally(ex);
+        });
+        hedge.whenComplete((v, ex) -> {
+            if (ex == null) {
+                winner.complete(new Vencedor<>(v, true));
+                return;
+            }
+            // ambas falharam: propaga o erro da primeira tentativa
+            if (pending.decrementAndGet() == 0) winner.completeExceptionally(primaryError.get());
+        });
+        Vencedor<T> vencedor = await(winner);
+        if (vencedor.hedge()) wins.increment();
+        return vencedor.valor();
+    }
+
+    /** Fração das chamadas elegíveis que geraram hedge desde o início. */
+    public double hedgeRate() {
+        double n = calls.count();
+        return n == 0 ? 0 : hedges.count() / n;
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                f.complete(call.call());
+            } catch (Throwable t) {
+                f.completeExceptionally(t);
+            }
+        });
+        return f;
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(MAX_TOKENS, tokens + maxRatio);
+    }
+
+    private synchronized boolean tryConsume() {
+        // tolerância para frações não representáveis (ex.: 10 × 0.1 < 1.0)
+        if (tokens < 1.0 - 1e-9) return false;
+        tokens = Math.max(0.0, tokens - 1.0);
+        return true;
+    }
+
+    private synchronized void refund() {
+        tokens = Math.min(MAX_TOKENS, tokens + 1.0);
+    }
+
+    private static <T> T await(CompletableFuture<T> f) throws Exception {
+        try {
+            return await(f, Long.MAX_VALUE);
+        } catch (TimeoutException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> f, long timeoutNanos) throws Exception {
+        try {
+            return f.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando resposta RBMC");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception ex) throw ex;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
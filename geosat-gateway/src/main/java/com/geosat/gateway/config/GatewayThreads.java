@@ -0,0 +1,99 @@
+package com.geosat.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads dos caminhos de I/O bloqueante (downloads em intervalos, hedge, estágio de
+ * download da ingestão). Com {@code spring.threads.virtual.enabled=true} numa JVM 21+
+ * são virtual threads, uma por tarefa — o mesmo modo que o Spring Boot aplica ao Tomcat.
+ * Em Java 17, ou com a opção desligada, são threads de plataforma daemon nomeadas.
+ * <p>
+ * O build continua em Java 17, então a API de virtual threads é resolvida por reflexão.
+ */
+@Component
+public class GatewayThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayThreads.class);
+
+    private final boolean virtuais;
+
+    public GatewayThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtuais) {
+        boolean disponivel = virtuais && Runtime.version().feature() >= 21;
+        if (virtuais && !disponivel) {
+            log.warn("virtual_threads_indisponiveis java={} — usando threads de plataforma", Runtime.version());
+        }
+        this.virtuais = disponivel;
+    }
+
+    /** Threads de plataforma; para testes e usos fora do contexto Spring. */
+    public static GatewayThreads plataforma() {
+        return new GatewayThreads(false);
+    }
+
+    public boolean virtuais() {
+        return virtuais;
+    }
+
+    /** Fábrica de threads nomeadas {@code prefixo-N}. */
+    public ThreadFactory fabrica(String prefixo) {
+        if (virtuais) {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                Object b = Thread.class.getMethod("ofVirtual").invoke(null);
+                b = builder.getMethod("name", String.class, long.class).invoke(b, prefixo + "-", 1L);
+                return (ThreadFactory) builder.getMethod("factory").invoke(b);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Falha ao criar fábrica de virtual threads", e);
+            }
+        }
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefixo + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Executor para fan-out de chamadas bloqueantes: uma virtual thread por tarefa ou,
+     * com threads de plataforma, pool fixo de {@code maxPlataforma} com fila.
+     * A concorrência real continua limitada por bulkheads/limites do chamador.
+     */
+    public ExecutorService executor(String prefixo, int maxPlataforma) {
+        ThreadFactory fabrica = fabrica(prefixo);
+        if (virtuais) {
+            try {
+                Method m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) m.invoke(null, fabrica);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Falha ao criar executor de virtual threads", e);
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, maxPlataforma), fabrica);
+    }
+
+    /**
+     * Para tarefas que podem ficar presas num cliente lento: com threads de plataforma, mantém
+     * {@code base} threads e cria extras até {@code max} quando todas estão ocupadas (encerradas
+     * após 60 s ociosas), em vez de enfileirar o trabalho atrás das presas. Acima de {@code max}
+     * a tarefa é recusada ({@link java.util.concurrent.RejectedExecutionException}).
+     */
+    public ExecutorService executorElastico(String prefixo, int base, int max) {
+        if (virtuais) return executor(prefixo, max);
+        int nucleo = Math.max(1, base);
+        return new ThreadPoolExecutor(nucleo, Math.max(nucleo, max), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), fabrica(prefixo));
+    }
+}
@@ -1,29 +1,64 @@
 package com.geosat.gateway.config;
 
+import com.geosat.gateway.client.RbmcClientProperties;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+/**
+ * Dois clientes HTTP com pools de conexão separados: chamadas pequenas (relatório) e
+ * downloads de arquivos. Assim uma rajada de downloads não esgota as conexões do relatório.
+ */
 @Configuration
+@EnableConfigurationProperties(RbmcClientProperties.class)
 public class HttpClientConfig {
 
     @Bean
+    @Primary
     public CloseableHttpClient closeableHttpClient(
             @Value("${rbmc.timeouts.connect-ms:3000}") int connectMs,
             @Value("${rbmc.timeouts.response-ms:10000}") int responseMs,
-            @Value("${rbmc.user-agent:GeoSatGateway/0.1}") String userAgent
+            @Value("${rbmc.user-agent:GeoSatGateway/0.1}") String userAgent,
+            @Value("${rbmc.pool.max-total:64}") int maxTotal,
+            @Value("${rbmc.pool.max-per-route:16}") int maxPerRoute
     ) {
+        return build(connectMs, responseMs, userAgent, maxTotal, maxPerRoute);
+    }
+
+    @Bean
+    public CloseableHttpClient rbmcArquivosHttpClient(
+            @Value("${rbmc.timeouts.connect-ms:3000}") int connectMs,
+            @Value("${rbmc.timeouts.response-ms:10000}") int responseMs,
+            @Value("${rbmc.user-agent:GeoSatGateway/0.1}") String userAgent,
+            @Value("${rbmc.pool.arquivos.max-total:48}") int maxTotal,
+            @Value("${rbmc.pool.arquivos.max-per-route:48}") int maxPerRoute
+    ) {
+        return build(connectMs, responseMs, userAgent, maxTotal, maxPerRoute);
+    }
+
+    private static CloseableHttpClient build(int connectMs, int responseMs, String userAgent,
+                                             int maxTotal, int maxPerRoute) {
         RequestConfig requestConfig = RequestConfig.custom()
                 .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectMs))
                 .setResponseTimeout(Timeout.ofMilliseconds(responseMs))
                 .build();
 
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .build();
+
         return HttpClients.custom()
                 .setUserAgent(userAgent)
+                .setConnectionManager(pool)
                 .setDefaultRequestConfig(requestConfig)
                 .build();
     }
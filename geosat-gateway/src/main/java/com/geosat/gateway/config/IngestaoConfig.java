@@ -0,0 +1,31 @@
+package com.geosat.gateway.config;
+
+import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.ingestao.HttpRbmcFileSource;
+import com.geosat.gateway.ingestao.LocalRbmcFileSource;
+import com.geosat.gateway.ingestao.RbmcFileSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class IngestaoConfig {
+
+    /** Origem dos arquivos da ingestão: servidor RBMC (padrão) ou árvore local espelhada. */
+    @Bean
+    public RbmcFileSource rbmcFileSource(RbmcHttpClient client,
+                                         @Value("${ingestao.fonte:rbmc}") String fonte,
+                                         @Value("${ingestao.fonte-dir:}") String fonteDir) {
+        if ("local".equalsIgnoreCase(fonte)) {
+            if (fonteDir == null || fonteDir.isBlank()) {
+                throw new IllegalStateException("ingestao.fonte=local requer ingestao.fonte-dir");
+            }
+            return new LocalRbmcFileSource(Path.of(fonteDir).toAbsolutePath().normalize());
+        }
+        return new HttpRbmcFileSource(client);
+    }
+}
@@ -0,0 +1,27 @@
+package com.geosat.gateway.config;
+
+import com.geosat.gateway.controller.SatelliteFeedHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final SatelliteFeedHandler satelliteFeedHandler;
+    private final String[] origens;
+
+    public WebSocketConfig(SatelliteFeedHandler satelliteFeedHandler,
+                           @Value("${gnss.feed.origens:http://localhost:*,http://127.0.0.1:*,https://*.vercel.app,https://*.netlify.app,https://*.github.io}") String[] origens) {
+        this.satelliteFeedHandler = satelliteFeedHandler;
+        this.origens = origens;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(satelliteFeedHandler, "/ws/satelites").setAllowedOriginPatterns(origens);
+    }
+}
@@ -0,0 +1,102 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.client.RbmcFileCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Serve um blob do {@link RbmcFileCache} sem passar pelo heap: sendfile do Tomcat quando
+ * o conector suporta, senão {@code FileChannel.transferTo} direto no stream de saída.
+ * Implementa validação condicional (ETag forte = digest do conteúdo, Last-Modified) e
+ * um único intervalo {@code Range} com {@code If-Range}, suficiente para retomar downloads.
+ */
+final class ArquivoRangeResponder {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private ArquivoRangeResponder() {}
+
+    static void enviar(RbmcFileCache.Entrada entrada, String nome,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + entrada.digest() + "\"";
+        long lastModified = entrada.modificado().toEpochMilli() / 1000 * 1000;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+        // If-None-Match / If-Modified-Since (304) e If-Match / If-Unmodified-Since (412)
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long size = entrada.tamanho();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges = parse(range);
+            if (ranges != null && ranges.size() == 1) {
+                HttpRange r = ranges.get(0);
+                start = r.getRangeStart(size);
+                end = r.getRangeEnd(size);
+                if (start >= size || end < start) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            // múltiplos intervalos ou cabeçalho malformado: responde o arquivo inteiro (RFC 9110 §14.2)
+        }
+
+        long length = end - start + 1;
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nome).build().toString());
+        response.setContentLengthLong(length);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, entrada.arquivo().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        RbmcFileCache.transferTo(entrada, start, length, out);
+        response.flushBuffer();
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag); // comparação forte: W/ nunca casa
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static List<HttpRange> parse(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
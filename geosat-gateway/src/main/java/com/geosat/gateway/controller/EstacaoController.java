@@ -1,90 +1,159 @@
 package com.geosat.gateway.controller;
 
+import com.geosat.gateway.dto.EstatisticaRequest;
+import com.geosat.gateway.dto.SerieHistoricaRequest;
 import com.geosat.gateway.dto.SeriesRequest;
+import com.geosat.gateway.dto.TileRequest;
+import com.geosat.gateway.dto.GeometriaRequest;
+import com.geosat.gateway.dto.VizinhancaRequest;
+import com.geosat.gateway.gnss.dop.DopService;
+import com.geosat.gateway.gnss.qc.QcService;
+import com.geosat.gateway.gnss.spp.PositionService;
+import com.geosat.gateway.gnss.visibility.VisibilityService;
 import com.geosat.gateway.model.*;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieEstatisticaService;
+import com.geosat.gateway.series.SerieStore;
+import com.geosat.gateway.service.EstacaoCadastro;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import com.geosat.gateway.tiles.EstacaoTileService;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
 @RequestMapping("/api/v1/estacoes")
 public class EstacaoController {
 
-    private static final List<EstacaoDTO> ESTACOES = List.of(
-            new EstacaoDTO("ALAR", "Alagoinhas", -12.135, -38.423, "ONLINE"),
-            new EstacaoDTO("BRAZ", "Brasília", -15.793, -47.882, "ONLINE"),
-            new EstacaoDTO("MANA", "Manaus", -3.118, -60.021, "OFFLINE"),
-            new EstacaoDTO("POAL", "Porto Alegre", -30.027, -51.228, "ONLINE")
-    );
+    static final String MVT_VALUE = "application/vnd.mapbox-vector-tile";
+
+    private static final CacheControl CACHE_SERIES = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+    private static final int MAX_BALDES = 2000;
 
     private final MeterRegistry meterRegistry;
+    private final VisibilityService visibilityService;
+    private final DopService dopService;
+    private final PositionService positionService;
+    private final QcService qcService;
+    private final EstacaoStreamHub streamHub;
+    private final EstacaoCatalogoService catalogo;
+    private final EstacaoTileService tileService;
+    private final SerieStore serieStore;
+    private final SerieEstatisticaService estatisticas;
 
-    public EstacaoController(MeterRegistry meterRegistry) {
+    public EstacaoController(MeterRegistry meterRegistry, VisibilityService visibilityService,
+                             DopService dopService, PositionService positionService, QcService qcService,
+                             EstacaoStreamHub streamHub, EstacaoCatalogoService catalogo, EstacaoTileService tileService,
+                             SerieStore serieStore, SerieEstatisticaService estatisticas) {
         this.meterRegistry = meterRegistry;
+        this.visibilityService = visibilityService;
+        this.dopService = dopService;
+        this.positionService = positionService;
+        this.qcService = qcService;
+        this.streamHub = streamHub;
+        this.catalogo = catalogo;
+        this.tileService = tileService;
+        this.serieStore = serieStore;
+        this.estatisticas = estatisticas;
     }
 
+    /**
+     * Catálogo completo (bytes pré-serializados) ou, com {@code bbox=oeste,sul,leste,norte}
+     * em graus, só as estações dentro da caixa; {@code oeste > leste} cruza o antimeridiano.
+     */
     @GetMapping
-    public List<EstacaoDTO> listar() {
-        // Deriva status rápido: hash define offset de minutos; > 120 min => OFFLINE
-        List<EstacaoDTO> out = new ArrayList<>();
-        for(EstacaoDTO e: ESTACOES){
-            long offsetMin = (Math.abs(Objects.hash(e.codigo())) % 900) + 3;
-            String status = offsetMin > 120 ? "OFFLINE" : "ONLINE";
-            out.add(new EstacaoDTO(e.codigo(), e.nome(), e.latitude(), e.longitude(), status));
+    public ResponseEntity<?> listar(@RequestParam(value = "bbox", required = false) String bbox, ServletWebRequest web) {
+        EstacaoCatalogoService.Snapshot c = catalogo.atual();
+        if (bbox == null) return preSerializado(web, "est-" + c.versao(), c.lista());
+        double[] caixa = bbox(bbox);
+        if (caixa == null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(Instant.now(), 400, "Validation Error",
+                "Dados de entrada inválidos", List.of("bbox: use oeste,sul,leste,norte em graus (lon ±180, lat ±90, sul <= norte)")));
         }
-        return out;
+        if (naoModificado(web, "est-" + c.versao() + "-" + bbox.replace(',', '_'), null)) return null;
+        return ResponseEntity.ok(c.indice().bbox(caixa[0], caixa[1], caixa[2], caixa[3]));
+    }
+
+    /** As {@code k} estações mais próximas de {@code lat}/{@code lon} (distância de grande círculo). */
+    @GetMapping("/proximas")
+    public List<EstacaoVizinhaDTO> proximas(@Valid @ModelAttribute VizinhancaRequest request) {
+        return catalogo.atual().indice().proximas(request.lat(), request.lon(), request.k());
+    }
+
+    /** Estações a até {@code km} de {@code lat}/{@code lon}, da mais próxima para a mais distante. */
+    @GetMapping("/raio")
+    public List<EstacaoVizinhaDTO> raio(@Valid @ModelAttribute VizinhancaRequest request) {
+        return catalogo.atual().indice().raio(request.lat(), request.lon(), request.km());
+    }
+
+    /**
+     * Stream SSE com eventos {@code status} (mudanças de status, estado inicial ao conectar)
+     * e {@code snr}/{@code posicao} (amostras novas). {@code estacoes} filtra por código.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(value = "estacoes", required = false) List<String> estacoes){
+        Set<String> filtro = new HashSet<>();
+        if(estacoes != null) estacoes.forEach(c -> filtro.add(c.trim().toUpperCase()));
+        return streamHub.assinar(filtro)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(503).header("Retry-After", "30").build());
     }
 
     @GetMapping(value = "/geojson", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String,Object> geojson(){
-        Map<String,Object> fc = new LinkedHashMap<>();
-        fc.put("type", "FeatureCollection");
-        List<Map<String,Object>> features = new ArrayList<>();
-        for(EstacaoDTO e: ESTACOES){
-            Map<String,Object> f = new LinkedHashMap<>();
-            f.put("type","Feature");
-            Map<String,Object> geom = new LinkedHashMap<>();
-            geom.put("type","Point");
-            geom.put("coordinates", List.of(e.longitude(), e.latitude()));
-            f.put("geometry", geom);
-            Map<String,Object> props = new LinkedHashMap<>();
-            props.put("codigo", e.codigo());
-            props.put("nome", e.nome());
-            props.put("status", e.status());
-            f.put("properties", props);
-            features.add(f);
-        }
-        fc.put("features", features);
-        return fc;
+    public ResponseEntity<byte[]> geojson(ServletWebRequest web){
+        EstacaoCatalogoService.Snapshot c = catalogo.atual();
+        return preSerializado(web, "geo-" + c.versao(), c.geojson());
     }
 
+    /**
+     * Mapbox Vector Tile da camada {@code estacoes}; com {@code ano}/{@code dia} os pontos
+     * levam também os atributos de QC do dia. Tile sem estações volta com corpo vazio.
+     */
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = MVT_VALUE)
+    public ResponseEntity<byte[]> tile(@PathVariable("z") int z, @PathVariable("x") int x, @PathVariable("y") int y,
+                                       @Valid @ModelAttribute TileRequest request, ServletWebRequest web) {
+        if (!EstacaoTileService.valido(z, x, y)) return ResponseEntity.notFound().build();
+        EstacaoTileService.Tile t = tileService.tile(z, x, y, request.ano(), request.dia());
+        if (naoModificado(web, "mvt-" + t.versao(), CACHE_SERIES)) return null;
+        return ResponseEntity.ok()
+            .cacheControl(CACHE_SERIES)
+            .contentType(MediaType.parseMediaType(MVT_VALUE))
+            .body(t.bytes());
+    }
+
+    /** Equipamento e última observação do cadastro (RINEX mais recente); 404 para estação desconhecida. */
     @GetMapping("/{codigo}/metadados")
-    public MetadadosEstacaoDTO metadados(@PathVariable("codigo") String codigo){
-        // Placeholder: última observação 3–900 minutos atrás de forma pseudo-randômica
-        long offsetMin = (Math.abs(Objects.hash(codigo)) % 900) + 3; // entre 3 e 903 min
-        Instant ultima = Instant.now().minusSeconds(offsetMin * 60);
-        return new MetadadosEstacaoDTO(codigo.toUpperCase(), "TRIMBLE NETR9", "TRM59800.00", 1.234,
-                DateTimeFormatter.ISO_INSTANT.format(ultima));
+    public ResponseEntity<MetadadosEstacaoDTO> metadados(@PathVariable("codigo") String codigo, ServletWebRequest web){
+        EstacaoCatalogoService.Snapshot c = catalogo.atual();
+        EstacaoCadastro e = c.cadastro().get(codigo.toUpperCase());
+        if (e == null) return ResponseEntity.notFound().build();
+        if (naoModificado(web, "meta-" + e.codigo() + "-" + c.versao(), null)) return null;
+        String ultima = e.ultimaObservacao() == null ? null : DateTimeFormatter.ISO_INSTANT.format(e.ultimaObservacao());
+        return ResponseEntity.ok(new MetadadosEstacaoDTO(e.codigo(), e.receptor(), e.antena(), e.alturaAntena(), ultima));
     }
 
     @GetMapping("/{codigo}/snr")
     public ResponseEntity<SnrSerieDTO> snr(@PathVariable("codigo") String codigo,
-                           @Valid @ModelAttribute SeriesRequest request){
+                           @Valid @ModelAttribute SeriesRequest request, ServletWebRequest web){
         int ano = request.ano();
         int dia = request.dia();
         int max = request.max();
+        if (naoModificado(web, "snr-" + codigo.toUpperCase() + "-" + ano + "-" + dia + "-" + max, CACHE_SERIES)) return null;
         int rawPoints = 1440; // 1 ponto por minuto do dia
         List<SnrSampleDTO> raw = new ArrayList<>(rawPoints);
         Instant base = Instant.parse(ano + "-01-01T00:00:00Z").plusSeconds((long)(dia-1) * 86400L);
-        ThreadLocalRandom r = ThreadLocalRandom.current();
+        SplittableRandom r = serie("snr", codigo, ano, dia);
         for(int i=0;i<rawPoints;i++){
             Instant t = base.plusSeconds(i * 60L);
             raw.add(new SnrSampleDTO(t.toString(), "G"+String.format("%02d", (i%28)+1), 25 + r.nextDouble()*25));
@@ -94,21 +163,35 @@ public class EstacaoController {
     meterRegistry.gauge("estacoes.snr.size.before", java.util.Collections.emptyList(), raw.size());
     meterRegistry.gauge("estacoes.snr.size.after", java.util.Collections.emptyList(), decimated.size());
     return ResponseEntity.ok()
-        .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+        .cacheControl(CACHE_SERIES)
         .body(new SnrSerieDTO(codigo.toUpperCase(), ano, dia, decimated));
     }
 
     @GetMapping("/{codigo}/posicoes")
     public ResponseEntity<PosicaoSerieDTO> posicoes(@PathVariable("codigo") String codigo,
-                                    @Valid @ModelAttribute SeriesRequest request){
+                                    @Valid @ModelAttribute SeriesRequest request, ServletWebRequest web){
         int ano = request.ano();
         int dia = request.dia();
         int max = request.max();
         int rawPoints = 2880; // 30s step
-        EstacaoDTO baseEst = ESTACOES.stream().filter(e->e.codigo().equalsIgnoreCase(codigo)).findFirst().orElse(ESTACOES.get(0));
+        Optional<EstacaoDTO> est = catalogo.buscar(codigo);
+        if(est.isEmpty()) return ResponseEntity.notFound().build();
+        EstacaoDTO baseEst = est.get();
+        // versão dos dados: RINEX/efemérides quando há SPP, senão a série sintética do dia
+        String etag = "pos-" + codigo.toUpperCase() + "-" + ano + "-" + dia + "-" + max + "-"
+            + positionService.versao(baseEst, ano, dia);
+        if (naoModificado(web, etag, CACHE_SERIES)) return null;
+        // Solução SPP real quando há RINEX do dia; senão mantém a série sintética
+        Optional<List<PosicaoSampleDTO>> spp = positionService.samples(baseEst, ano, dia, max);
+        if(spp.isPresent()){
+            meterRegistry.counter("estacoes.pos.spp", "codigo", codigo.toUpperCase()).increment();
+            return ResponseEntity.ok()
+                .cacheControl(CACHE_SERIES)
+                .body(new PosicaoSerieDTO(codigo.toUpperCase(), ano, dia, "WGS84", spp.get()));
+        }
         double lat = baseEst.latitude();
         double lon = baseEst.longitude();
-        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        SplittableRandom rand = serie("pos", codigo, ano, dia);
         Instant base = Instant.parse(ano + "-01-01T00:00:00Z").plusSeconds((long)(dia-1) * 86400L);
         List<PosicaoSampleDTO> raw = new ArrayList<>(rawPoints);
         for(int i=0;i<rawPoints;i++){
@@ -120,10 +203,174 @@ public class EstacaoController {
     meterRegistry.gauge("estacoes.pos.size.before", java.util.Collections.emptyList(), raw.size());
     meterRegistry.gauge("estacoes.pos.size.after", java.util.Collections.emptyList(), decimated.size());
     return ResponseEntity.ok()
-        .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+        .cacheControl(CACHE_SERIES)
         .body(new PosicaoSerieDTO(codigo.toUpperCase(), ano, dia, "WGS84", decimated));
     }
 
+    /**
+     * Série histórica gravada ({@code snr} da ingestão, {@code posicao} das soluções SPP) entre
+     * {@code de} e {@code ate} (ISO-8601), em até {@code max} pontos; cada ponto é a média das
+     * amostras do seu passo, agregada na varredura das partições diárias.
+     */
+    @GetMapping("/{codigo}/series/{observavel}")
+    public ResponseEntity<?> serieHistorica(@PathVariable("codigo") String codigo,
+                                            @PathVariable("observavel") String observavel,
+                                            @Valid @ModelAttribute SerieHistoricaRequest request) {
+        Observavel o = Observavel.doNome(observavel);
+        Optional<EstacaoDTO> est = catalogo.buscar(codigo);
+        if (o == null || est.isEmpty()) return ResponseEntity.notFound().build();
+        if (!request.ate().isAfter(request.de())
+                || Duration.between(request.de(), request.ate()).toDays() >= serieStore.maxDias()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(Instant.now(), 400, "Validation Error",
+                "Dados de entrada inválidos", List.of("de/ate: ate deve ser posterior a de, no máximo "
+                    + serieStore.maxDias() + " dias")));
+        }
+        SerieStore.Consulta c = serieStore.consultar(o, est.get().codigo(), request.de(), request.ate(), request.max());
+        return ResponseEntity.ok()
+            .cacheControl(CACHE_SERIES)
+            .body(new SerieHistoricaDTO(est.get().codigo(), o.nome(), request.de().toString(), request.ate().toString(),
+                c.passoSegundos(), o.colunas(), c.amostras()));
+    }
+
+    /**
+     * Contagem, média, mínimo, máximo, desvio, RMS e quantis do SNR médio gravado, por
+     * {@code balde} (ex.: 15m, 1h, 1d) em {@code [de, ate)}, sem baixar as amostras.
+     */
+    @GetMapping("/{codigo}/snr/stats")
+    public ResponseEntity<?> snrStats(@PathVariable("codigo") String codigo,
+                                      @Valid @ModelAttribute EstatisticaRequest request) {
+        return estatisticas(Observavel.SNR, codigo, request);
+    }
+
+    /** Como {@code /snr/stats}, sobre as posições SPP em metros (norte/leste da estação, altura). */
+    @GetMapping("/{codigo}/posicoes/stats")
+    public ResponseEntity<?> posicoesStats(@PathVariable("codigo") String codigo,
+                                           @Valid @ModelAttribute EstatisticaRequest request) {
+        return estatisticas(Observavel.POSICAO, codigo, request);
+    }
+
+    private ResponseEntity<?> estatisticas(Observavel o, String codigo, EstatisticaRequest request) {
+        Optional<EstacaoDTO> est = catalogo.buscar(codigo);
+        if (est.isEmpty()) return ResponseEntity.notFound().build();
+        long balde = baldeMs(request.balde());
+        long intervalo = Duration.between(request.de(), request.ate()).toMillis();
+        if (intervalo <= 0 || intervalo / 86_400_000L >= serieStore.maxDias() || intervalo / balde > MAX_BALDES) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(Instant.now(), 400, "Validation Error",
+                "Dados de entrada inválidos", List.of("de/ate: ate deve ser posterior a de, no máximo "
+                    + serieStore.maxDias() + " dias e " + MAX_BALDES + " baldes")));
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CACHE_SERIES)
+            .body(estatisticas.calcular(o, est.get(), request.de(), request.ate(), balde, request.quantis()));
+    }
+
+    /** {@code 15m}, {@code 1h}, {@code 1d} -> ms (formato e n > 0 já validados no request). */
+    private static long baldeMs(String balde) {
+        long n = Long.parseLong(balde.substring(0, balde.length() - 1));
+        return switch (balde.charAt(balde.length() - 1)) {
+            case 'm' -> n * 60_000L;
+            case 'h' -> n * 3_600_000L;
+            default -> n * 86_400_000L;
+        };
+    }
+
+    private static double[] bbox(String texto) {
+        String[] partes = texto.split(",");
+        if (partes.length != 4) return null;
+        double[] v = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) v[i] = Double.parseDouble(partes[i].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        boolean ok = Math.abs(v[0]) <= 180 && Math.abs(v[2]) <= 180
+            && Math.abs(v[1]) <= 90 && Math.abs(v[3]) <= 90 && v[1] <= v[3];
+        return ok ? v : null;
+    }
+
+    /**
+     * Bytes já serializados do catálogo, em gzip quando o cliente aceita; cada codificação
+     * tem seu próprio ETag forte.
+     */
+    private static ResponseEntity<byte[]> preSerializado(ServletWebRequest web, String etag,
+                                                         EstacaoCatalogoService.Corpo corpo) {
+        String aceita = web.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = corpo.gzip() != null && aceita != null && aceita.contains("gzip");
+        if (naoModificado(web, gzip ? etag + "-gz" : etag, null)) return null;
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return gzip ? ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(corpo.gzip()) : ok.body(corpo.json());
+    }
+
+    /**
+     * ETag forte + If-None-Match antes de gerar qualquer coisa: {@code true} quando o 304
+     * já foi respondido (o handler retorna {@code null}). O ETag também vai no 200.
+     */
+    private static boolean naoModificado(ServletWebRequest web, String etag, CacheControl cache) {
+        if (!web.checkNotModified("\"" + etag + "\"")) return false;
+        // no 200 o Cache-Control vem do ResponseEntity; no 304 precisa ser repetido aqui
+        if (cache != null && web.getResponse() != null) {
+            web.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cache.getHeaderValue());
+        }
+        return true;
+    }
+
+    /** Série sintética reproduzível por estação/dia, para o ETag descrever o mesmo corpo. */
+    static SplittableRandom serie(String tipo, String codigo, int ano, int dia) {
+        return new SplittableRandom(Objects.hash(tipo, codigo.toUpperCase(), ano, dia));
+    }
+
+    @GetMapping("/visibilidade")
+    public ResponseEntity<List<VisibilidadeEstacaoDTO>> visibilidadeRede(@Valid @ModelAttribute GeometriaRequest request){
+        List<VisibilidadeEstacaoDTO> out = visibilityService.visibilidadeRede(catalogo.estacoes(), request.ano(), request.dia(), request.mascara());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+            .body(out);
+    }
+
+    @GetMapping("/{codigo}/visibilidade")
+    public ResponseEntity<VisibilidadeEstacaoDTO> visibilidade(@PathVariable("codigo") String codigo,
+                                    @Valid @ModelAttribute GeometriaRequest request){
+        Optional<EstacaoDTO> est = catalogo.buscar(codigo);
+        if(est.isEmpty()) return ResponseEntity.notFound().build();
+        VisibilidadeEstacaoDTO dto = visibilityService.visibilidade(est.get(), request.ano(), request.dia(), request.mascara(), request.max());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+            .body(dto);
+    }
+
+    @GetMapping("/dop")
+    public ResponseEntity<List<DopSerieDTO>> dopRede(@Valid @ModelAttribute GeometriaRequest request){
+        List<DopSerieDTO> out = dopService.rede(catalogo.estacoes(), request.ano(), request.dia(), request.mascara(), request.max());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+            .body(out);
+    }
+
+    @GetMapping("/{codigo}/dop")
+    public ResponseEntity<DopSerieDTO> dop(@PathVariable("codigo") String codigo,
+                                    @Valid @ModelAttribute GeometriaRequest request){
+        Optional<EstacaoDTO> est = catalogo.buscar(codigo);
+        if(est.isEmpty()) return ResponseEntity.notFound().build();
+        DopSerieDTO dto = dopService.serie(est.get(), request.ano(), request.dia(), request.mascara(), request.max());
+        meterRegistry.counter("estacoes.dop.decimations", "codigo", codigo.toUpperCase()).increment();
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)).cachePublic())
+            .body(dto);
+    }
+
+    @GetMapping("/{codigo}/qc")
+    public ResponseEntity<QcRelatorioDTO> qc(@PathVariable("codigo") String codigo,
+                                    @Valid @ModelAttribute SeriesRequest request){
+        // max limita a lista de lacunas devolvida
+        return qcService.relatorio(codigo, request.ano(), request.dia(), request.max())
+            .map(r -> ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(java.time.Duration.ofHours(1)).cachePublic())
+                .body(r))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     private List<SnrSampleDTO> decimateSnr(List<SnrSampleDTO> raw, int max){
         if(raw.size() <= max) return raw;
         double step = (double) raw.size() / max;
@@ -0,0 +1,328 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.model.AmostraAoVivoDTO;
+import com.geosat.gateway.model.AmostraSerieDTO;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.PosicaoSampleDTO;
+import com.geosat.gateway.model.SnrSampleDTO;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Produtor único do stream {@code /api/v1/estacoes/stream}: a cada intervalo calcula
+ * uma vez o status das estações e as amostras novas de SNR/posição e distribui para
+ * todos os assinantes. Amostras são as gravadas no {@link SerieStore} (ingestão e
+ * soluções SPP) depois da última já publicada, só do dia UTC corrente.
+ * <p>
+ * Cada assinante tem uma fila limitada ({@code estacoes.stream.buffer}) drenada por
+ * uma tarefa própria, então um cliente lento nunca atrasa o produtor nem os demais:
+ * eventos de status são coalescidos por estação (só o último interessa) e, com a
+ * fila cheia, a amostra mais antiga é descartada. O envio é uma escrita bloqueante:
+ * quem fica mais de {@code estacoes.stream.envio-max-ms} num único envio é derrubado,
+ * e o pool de envio cresce além de {@code workers} para que as threads presas nesses
+ * clientes não segurem a entrega aos demais.
+ */
+@Component
+public class EstacaoStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(EstacaoStreamHub.class);
+    private static final long DIA_MS = 86_400_000L;
+
+    /** Evento SSE; {@code chave != null} substitui o evento pendente de mesma chave. */
+    record Evento(String nome, String codigo, String chave, Object dados) {}
+
+    static final class Assinante {
+        final SseEmitter emitter;
+        final Set<String> filtro;
+        final ArrayDeque<Evento> fila = new ArrayDeque<>();
+        final AtomicBoolean agendado = new AtomicBoolean();
+        /** {@link System#nanoTime()} do início do envio em curso; 0 sem envio. */
+        volatile long envioDesde;
+        volatile boolean derrubado;
+
+        Assinante(SseEmitter emitter, Set<String> filtro) {
+            this.emitter = emitter;
+            this.filtro = filtro;
+        }
+
+        boolean aceita(String codigo) {
+            return filtro.isEmpty() || filtro.contains(codigo);
+        }
+    }
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> ultimoStatus = new ConcurrentHashMap<>();
+    /** Época (ms) da última amostra publicada por {@code observavel:CODIGO}. */
+    private final Map<String, Long> ultimaAmostra = new ConcurrentHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final EstacaoCatalogoService catalogo;
+    private final SerieStore series;
+    private final ExecutorService envio;
+    private final int capacidade;
+    private final int maxAssinantes;
+    private final long timeoutMs;
+    private final long envioMaxNanos;
+    private final Counter eventos;
+    private final Counter coalescidos;
+    private final Counter descartados;
+    private final Counter lentos;
+
+    public EstacaoStreamHub(EstacaoCatalogoService catalogo, SerieStore series, GatewayThreads threads,
+                            MeterRegistry registry,
+                            @Value("${estacoes.stream.buffer:64}") int capacidade,
+                            @Value("${estacoes.stream.max-assinantes:1000}") int maxAssinantes,
+                            @Value("${estacoes.stream.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${estacoes.stream.workers:4}") int workers,
+                            @Value("${estacoes.stream.envio-max-ms:10000}") long envioMaxMs) {
+        this.catalogo = catalogo;
+        this.series = series;
+        // threads presas em clientes derrubados só saem no timeout de escrita do container
+        this.envio = threads.executorElastico("sse-envio", workers, Math.max(workers, maxAssinantes));
+        this.capacidade = Math.max(1, capacidade);
+        this.maxAssinantes = maxAssinantes;
+        this.timeoutMs = timeoutMs;
+        this.envioMaxNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, envioMaxMs));
+        this.eventos = registry.counter("estacoes.stream.eventos");
+        this.coalescidos = registry.counter("estacoes.stream.descartados", "motivo", "coalescido");
+        this.descartados = registry.counter("estacoes.stream.descartados", "motivo", "fila_cheia");
+        this.lentos = registry.counter("estacoes.stream.derrubados", "motivo", "envio_lento");
+        registry.gauge("estacoes.stream.assinantes", assinantes, Set::size);
+    }
+
+    /** Novo assinante (filtro vazio = todas as estações); vazio quando o limite foi atingido. */
+    public Optional<SseEmitter> assinar(Set<String> filtro) {
+        return assinar(filtro, new SseEmitter(timeoutMs));
+    }
+
+    Optional<SseEmitter> assinar(Set<String> filtro, SseEmitter emitter) {
+        if (assinantes.size() >= maxAssinantes) return Optional.empty();
+        Assinante a = new Assinante(emitter, filtro);
+        emitter.onCompletion(() -> assinantes.remove(a));
+        emitter.onTimeout(() -> assinantes.remove(a));
+        emitter.onError(e -> assinantes.remove(a));
+        // estado inicial: o cliente não precisa de um GET separado antes do stream
+        for (EstacaoDTO e : catalogo.atual().estacoes()) {
+            if (a.aceita(e.codigo())) oferecer(a, status(e));
+        }
+        assinantes.add(a);
+        agendar(a);
+        return Optional.of(emitter);
+    }
+
+    /** Um cálculo por intervalo, independente do número de assinantes. */
+    @Scheduled(fixedDelayString = "${estacoes.stream.intervalo-ms:5000}",
+            initialDelayString = "${estacoes.stream.intervalo-ms:5000}")
+    public void publicar() {
+        publicar(Instant.now());
+    }
+
+    void publicar(Instant agora) {
+        derrubarLentos();
+        if (assinantes.isEmpty()) return;
+        List<Evento> novos = new ArrayList<>();
+        long agoraMs = agora.toEpochMilli();
+        for (EstacaoDTO e : catalogo.atual().estacoes()) {
+            if (!e.status().equals(ultimoStatus.put(e.codigo(), e.status()))) {
+                novos.add(status(e));
+            }
+            for (Observavel o : Observavel.values()) novasAmostras(o, e.codigo(), agoraMs, novos);
+        }
+        distribuir(novos);
+    }
+
+    /**
+     * Amostras gravadas depois da última publicada, até {@code capacidade} por vez (as mais
+     * recentes). Na primeira passada só marca a última época do dia: o histórico já gravado
+     * vem da consulta de série, não do stream.
+     */
+    private void novasAmostras(Observavel o, String codigo, long agoraMs, List<Evento> novos) {
+        String chave = o.nome() + ":" + codigo;
+        long inicioDia = Math.floorDiv(agoraMs, DIA_MS) * DIA_MS;
+        Long ultima = ultimaAmostra.get(chave);
+        if (ultima == null) {
+            long gravada = series.ultimaEpoca(o, codigo, LocalDate.ofEpochDay(inicioDia / DIA_MS));
+            ultimaAmostra.put(chave, Math.max(gravada, inicioDia - 1));
+            return;
+        }
+        List<AmostraSerieDTO> amostras = series.recentes(o, codigo, Math.max(ultima, inicioDia - 1), agoraMs, capacidade);
+        if (amostras.isEmpty()) return;
+        ultimaAmostra.put(chave, Instant.parse(amostras.get(amostras.size() - 1).epoch()).toEpochMilli());
+        for (AmostraSerieDTO a : amostras) {
+            novos.add(new Evento(o.nome(), codigo, null, new AmostraAoVivoDTO(codigo, amostra(o, a))));
+        }
+    }
+
+    /** SNR da série é a média de todos os satélites da época: {@code sv} nulo. */
+    private static Object amostra(Observavel o, AmostraSerieDTO a) {
+        List<Double> v = a.valores();
+        return switch (o) {
+            case SNR -> new SnrSampleDTO(a.epoch(), null, v.get(0));
+            case POSICAO -> new PosicaoSampleDTO(a.epoch(), v.get(0), v.get(1), v.get(2));
+        };
+    }
+
+    /**
+     * Tira da distribuição quem está há mais de {@code envio-max-ms} num único envio. O
+     * envio preso segura o lock do emitter, então o complete vai para outra thread do pool
+     * e fecha a conexão assim que a escrita voltar (ou falhar no timeout do container).
+     */
+    private void derrubarLentos() {
+        long agora = System.nanoTime();
+        for (Assinante a : assinantes) {
+            long desde = a.envioDesde;
+            if (desde == 0 || agora - desde <= envioMaxNanos) continue;
+            a.derrubado = true;
+            if (!assinantes.remove(a)) continue;
+            lentos.increment();
+            log.info("sse_cliente_lento envio_ms={}", TimeUnit.NANOSECONDS.toMillis(agora - desde));
+            synchronized (a) {
+                a.fila.clear();
+            }
+            try {
+                envio.execute(() -> completar(a));
+            } catch (RejectedExecutionException parado) {
+                log.debug("sse_complete_recusado");
+            }
+        }
+    }
+
+    private static void completar(Assinante a) {
+        try {
+            a.emitter.complete();
+        } catch (IllegalStateException jaEncerrado) {
+            log.debug("sse_ja_encerrado msg={}", jaEncerrado.getMessage());
+        }
+    }
+
+    void distribuir(List<Evento> novos) {
+        eventos.increment(novos.size());
+        for (Assinante a : assinantes) {
+            boolean algum = false;
+            for (Evento e : novos) {
+                if (a.aceita(e.codigo())) {
+                    oferecer(a, e);
+                    algum = true;
+                }
+            }
+            if (algum) agendar(a);
+        }
+    }
+
+    int assinantes() {
+        return assinantes.size();
+    }
+
+    private static Evento status(EstacaoDTO e) {
+        return new Evento("status", e.codigo(), "status:" + e.codigo(), e);
+    }
+
+    private void oferecer(Assinante a, Evento e) {
+        synchronized (a) {
+            if (e.chave() != null) {
+                for (Iterator<Evento> it = a.fila.iterator(); it.hasNext(); ) {
+                    if (e.chave().equals(it.next().chave())) {
+                        it.remove();
+                        coalescidos.increment();
+                        break;
+                    }
+                }
+            }
+            if (a.fila.size() >= capacidade) {
+                descartarMaisAntigo(a.fila);
+                descartados.increment();
+            }
+            a.fila.addLast(e);
+        }
+    }
+
+    /** Prefere descartar amostras: o status pendente é o único que o cliente verá. */
+    private static void descartarMaisAntigo(ArrayDeque<Evento> fila) {
+        for (Iterator<Evento> it = fila.iterator(); it.hasNext(); ) {
+            if (it.next().chave() == null) {
+                it.remove();
+                return;
+            }
+        }
+        fila.pollFirst();
+    }
+
+    /** No máximo uma tarefa de envio por assinante. */
+    private void agendar(Assinante a) {
+        if (!a.agendado.compareAndSet(false, true)) return;
+        try {
+            envio.execute(() -> drenar(a));
+        } catch (RejectedExecutionException parado) {
+            a.agendado.set(false);
+        }
+    }
+
+    private void drenar(Assinante a) {
+        while (true) {
+            Evento e;
+            synchronized (a) {
+                e = a.derrubado ? null : a.fila.pollFirst();
+                if (e == null) {
+                    a.agendado.set(false);
+                    return;
+                }
+            }
+            try {
+                a.envioDesde = System.nanoTime();
+                a.emitter.send(SseEmitter.event()
+                        .id(Long.toString(sequencia.incrementAndGet()))
+                        .name(e.nome())
+                        .data(e.dados(), MediaType.APPLICATION_JSON));
+                a.envioDesde = 0;
+            } catch (IOException | IllegalStateException desconectado) {
+                a.envioDesde = 0;
+                // cliente foi embora (ou o emitter já completou): para de enfileirar para ele
+                log.debug("sse_desconectado msg={}", desconectado.getMessage());
+                assinantes.remove(a);
+                synchronized (a) {
+                    a.fila.clear();
+                    a.agendado.set(false);
+                }
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        for (Assinante a : assinantes) {
+            // com envio preso o complete esperaria o lock do emitter; o container fecha a conexão
+            if (a.envioDesde == 0) a.emitter.complete();
+        }
+        assinantes.clear();
+        envio.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.ingestao.IngestaoService;
+import com.geosat.gateway.model.IngestaoResultadoDTO;
+import com.geosat.gateway.model.IngestaoStatusDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/ingestao")
+@Validated
+public class IngestaoController {
+
+    private final IngestaoService service;
+
+    public IngestaoController(IngestaoService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Progresso da ingestão em lote (execução corrente ou última)")
+    public IngestaoStatusDTO status() {
+        return service.status();
+    }
+
+    @PostMapping("/{ano}/{dia}")
+    @Operation(summary = "Dispara a ingestão de um dia (202) ou 409 se já houver uma em execução")
+    public ResponseEntity<IngestaoStatusDTO> iniciar(@PathVariable("ano") @Min(1994) @Max(2100) int ano,
+                                                     @PathVariable("dia") @Min(1) @Max(366) int dia) {
+        HttpStatus status = service.iniciar(ano, dia) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(service.status());
+    }
+
+    @GetMapping("/resultados")
+    @Operation(summary = "Resumo de QC/SNR por estação dos dias ingeridos")
+    public List<IngestaoResultadoDTO> resultados() {
+        return service.resultados();
+    }
+}
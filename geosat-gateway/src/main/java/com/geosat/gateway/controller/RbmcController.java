@@ -1,11 +1,15 @@
 package com.geosat.gateway.controller;
 
+import com.geosat.gateway.client.RbmcEndpoint;
+import com.geosat.gateway.client.RbmcFileCache;
 import com.geosat.gateway.dto.RbmcSeriesRequest;
 import com.geosat.gateway.model.RbmcRelatorioDTO;
 import com.geosat.gateway.model.RbmcFallbackResponse;
 import com.geosat.gateway.model.RbmcArquivoDTO;
 import com.geosat.gateway.service.RbmcService;
 import com.geosat.gateway.service.CircuitBreakerStateService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +25,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/v1/rbmc")
 @Validated
@@ -47,7 +53,7 @@ public class RbmcController {
             @PathVariable("estacao") @Pattern(regexp = "^[A-Za-z]{4}$", message = "Estacao deve ter 4 letras") String estacao) {
         Object result = service.obterRelatorio(estacao);
                 if (result instanceof RbmcFallbackResponse fb) {
-                        return withRetryAfterIfOpen(fb);
+                        return withRetryAfterIfOpen(fb, RbmcEndpoint.RELATORIO);
         }
         return ResponseEntity.ok(result);
     }
@@ -65,7 +71,7 @@ public class RbmcController {
             @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia) {
         Object result = service.obterRinex2(estacao, Integer.parseInt(ano), Integer.parseInt(dia));
                 if (result instanceof RbmcFallbackResponse fb) {
-                        return withRetryAfterIfOpen(fb);
+                        return withRetryAfterIfOpen(fb, RbmcEndpoint.RINEX2);
         }
         return ResponseEntity.ok(result);
     }
@@ -86,7 +92,7 @@ public class RbmcController {
             @PathVariable("tipo") @Pattern(regexp = "(?i)^(MO|MN)$") String tipo) {
         Object result = service.obterRinex3_1s(estacao, Integer.parseInt(ano), Integer.parseInt(dia), Integer.parseInt(hora), Integer.parseInt(minuto), tipo);
                 if (result instanceof RbmcFallbackResponse fb) {
-                        return withRetryAfterIfOpen(fb);
+                        return withRetryAfterIfOpen(fb, RbmcEndpoint.RINEX3_1S);
         }
         return ResponseEntity.ok(result);
     }
@@ -104,7 +110,7 @@ public class RbmcController {
             @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia) {
         Object result = service.obterRinex3_15s(estacao, Integer.parseInt(ano), Integer.parseInt(dia));
                 if (result instanceof RbmcFallbackResponse fb) {
-                        return withRetryAfterIfOpen(fb);
+                        return withRetryAfterIfOpen(fb, RbmcEndpoint.RINEX3_15S);
         }
         return ResponseEntity.ok(result);
     }
@@ -121,14 +127,72 @@ public class RbmcController {
             @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia) {
         Object result = service.obterOrbitas(Integer.parseInt(ano), Integer.parseInt(dia));
                 if (result instanceof RbmcFallbackResponse fb) {
-                        return withRetryAfterIfOpen(fb);
+                        return withRetryAfterIfOpen(fb, RbmcEndpoint.ORBITAS);
         }
         return ResponseEntity.ok(result);
     }
 
-        private ResponseEntity<Object> withRetryAfterIfOpen(RbmcFallbackResponse fb){
+    @Operation(summary = "Download do arquivo RINEX2 (15s)", description = "Servido do cache em disco sem cópia pelo heap; suporta Range/If-Range, ETag e Last-Modified.")
+    @GetMapping("/rinex2/{estacao}/{ano}/{dia}/download")
+    public ResponseEntity<Object> downloadRinex2(
+            @PathVariable("estacao") @Pattern(regexp = "^[A-Za-z]{4}$") String estacao,
+            @PathVariable("ano") @Pattern(regexp = "^\\d{4}$") String ano,
+            @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = RbmcService.rinex2Path(estacao, Integer.parseInt(ano), Integer.parseInt(dia));
+        return download(estacao.toUpperCase(), relative, request, response);
+    }
+
+    @Operation(summary = "Download do arquivo RINEX3 (1s)", description = "Suporta Range/If-Range para retomar downloads.")
+    @GetMapping("/rinex3/1s/{estacao}/{ano}/{dia}/{hora}/{minuto}/{tipo}/download")
+    public ResponseEntity<Object> downloadRinex3_1s(
+            @PathVariable("estacao") @Pattern(regexp = "^[A-Za-z]{4}$") String estacao,
+            @PathVariable("ano") @Pattern(regexp = "^\\d{4}$") String ano,
+            @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia,
+            @PathVariable("hora") @Pattern(regexp = "^([01]?\\d|2[0-3])$") String hora,
+            @PathVariable("minuto") @Pattern(regexp = "^(0|15|30|45)$") String minuto,
+            @PathVariable("tipo") @Pattern(regexp = "(?i)^(MO|MN)$") String tipo,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = RbmcService.rinex3_1sPath(estacao, Integer.parseInt(ano), Integer.parseInt(dia),
+                Integer.parseInt(hora), Integer.parseInt(minuto), tipo);
+        return download(estacao.toUpperCase(), relative, request, response);
+    }
+
+    @Operation(summary = "Download do arquivo RINEX3 (15s)", description = "Suporta Range/If-Range para retomar downloads.")
+    @GetMapping("/rinex3/{estacao}/{ano}/{dia}/download")
+    public ResponseEntity<Object> downloadRinex3_15s(
+            @PathVariable("estacao") @Pattern(regexp = "^[A-Za-z]{4}$") String estacao,
+            @PathVariable("ano") @Pattern(regexp = "^\\d{4}$") String ano,
+            @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = RbmcService.rinex3_15sPath(estacao, Integer.parseInt(ano), Integer.parseInt(dia));
+        return download(estacao.toUpperCase(), relative, request, response);
+    }
+
+    @Operation(summary = "Download das órbitas multiconstelação", description = "Suporta Range/If-Range para retomar downloads.")
+    @GetMapping("/rinex3/orbitas/{ano}/{dia}/download")
+    public ResponseEntity<Object> downloadOrbitas(
+            @PathVariable("ano") @Pattern(regexp = "^\\d{4}$") String ano,
+            @PathVariable("dia") @Pattern(regexp = "^\\d{1,3}$") String dia,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = RbmcService.orbitasPath(Integer.parseInt(ano), Integer.parseInt(dia));
+        return download("ORBITAS", relative, request, response);
+    }
+
+    /** Escreve o arquivo direto na resposta (retorna {@code null}) ou devolve o fallback 503. */
+    private ResponseEntity<Object> download(String estacao, String relative,
+                                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Object result = service.arquivo(estacao, relative);
+        if (result instanceof RbmcFallbackResponse fb) {
+            return withRetryAfterIfOpen(fb, RbmcEndpoint.of(relative));
+        }
+        ArquivoRangeResponder.enviar((RbmcFileCache.Entrada) result, relative.replace('/', '_'), request, response);
+        return null;
+    }
+
+        private ResponseEntity<Object> withRetryAfterIfOpen(RbmcFallbackResponse fb, RbmcEndpoint endpoint){
                 var builder = ResponseEntity.status(503);
-                cbState.remainingOpenSeconds().ifPresent(secs -> builder.header("Retry-After", String.valueOf(secs)));
+                cbState.remainingOpenSeconds(endpoint).ifPresent(secs -> builder.header("Retry-After", String.valueOf(secs)));
                 return builder.body(fb);
         }
 
@@ -0,0 +1,126 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.dto.SeriesRequest;
+import com.geosat.gateway.gnss.spp.PositionService;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.PosicaoSampleDTO;
+import com.geosat.gateway.model.SnrSampleDTO;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Séries de {@link EstacaoController} em streaming NDJSON: as amostras são geradas sob
+ * demanda, então o consumo do cliente (backpressure) dita o ritmo e a série inteira
+ * nunca é materializada em memória.
+ */
+@RestController
+@RequestMapping("/api/v2/estacoes")
+public class ReactiveEstacaoController {
+
+    private static final int SNR_PONTOS = 1440;     // 1 ponto por minuto do dia
+    private static final int POSICAO_PONTOS = 2880; // passo de 30s
+
+    private final MeterRegistry meterRegistry;
+    private final PositionService positionService;
+    private final EstacaoCatalogoService catalogo;
+
+    public ReactiveEstacaoController(MeterRegistry meterRegistry, PositionService positionService,
+                                     EstacaoCatalogoService catalogo) {
+        this.meterRegistry = meterRegistry;
+        this.positionService = positionService;
+        this.catalogo = catalogo;
+    }
+
+    @Operation(summary = "Série de SNR em streaming (NDJSON)")
+    @GetMapping(value = "/{codigo}/snr", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SnrSampleDTO> snr(@PathVariable("codigo") String codigo,
+                                  @Valid @ModelAttribute SeriesRequest request) {
+        Instant base = inicioDoDia(request.ano(), request.dia());
+        meterRegistry.counter("estacoes.snr.decimations", "codigo", codigo.toUpperCase()).increment();
+        return Flux.defer(() -> {
+            SplittableRandom r = EstacaoController.serie("snr", codigo, request.ano(), request.dia());
+            return decimado(SNR_PONTOS, request.max(), i -> new SnrSampleDTO(base.plusSeconds(i * 60L).toString(),
+                    "G" + String.format("%02d", (i % 28) + 1), 25 + r.nextDouble() * 25));
+        });
+    }
+
+    @Operation(summary = "Série de posições em streaming (NDJSON)",
+            description = "Solução SPP quando há RINEX do dia; senão série sintética.")
+    @GetMapping(value = "/{codigo}/posicoes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PosicaoSampleDTO> posicoes(@PathVariable("codigo") String codigo,
+                                           @Valid @ModelAttribute SeriesRequest request) {
+        int ano = request.ano();
+        int dia = request.dia();
+        int max = request.max();
+        // estação desconhecida: 404, como no v1 (nada de série de outra estação)
+        return Mono.justOrEmpty(catalogo.buscar(codigo))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Estação não encontrada")))
+                // SPP lê RINEX do disco e resolve por época: fica fora das threads de I/O
+                .flatMapMany(est -> Mono.fromCallable(() -> positionService.samples(est, ano, dia, max))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMapMany(spp -> {
+                            if (spp.isPresent()) {
+                                meterRegistry.counter("estacoes.pos.spp", "codigo", codigo.toUpperCase()).increment();
+                                return Flux.fromIterable(spp.get());
+                            }
+                            meterRegistry.counter("estacoes.pos.decimations", "codigo", codigo.toUpperCase()).increment();
+                            return sintetica(est, codigo, ano, dia, max);
+                        }));
+    }
+
+    /** Mesma série sintética do v1: semente por estação e dia, mesmos sorteios na mesma ordem. */
+    private static Flux<PosicaoSampleDTO> sintetica(EstacaoDTO est, String codigo, int ano, int dia, int max) {
+        Instant base = inicioDoDia(ano, dia);
+        return Flux.defer(() -> {
+            SplittableRandom rand = EstacaoController.serie("pos", codigo, ano, dia);
+            return decimado(POSICAO_PONTOS, max, i -> new PosicaoSampleDTO(base.plusSeconds(i * 30L).toString(),
+                    est.latitude() + rand.nextDouble(-0.0005, 0.0005),
+                    est.longitude() + rand.nextDouble(-0.0005, 0.0005),
+                    400 + rand.nextDouble(-2, 2)));
+        });
+    }
+
+    /** Índices da série bruta que sobrevivem à decimação, na mesma regra do endpoint v1. */
+    static Flux<Integer> decimado(int pontos, int max) {
+        return decimado(pontos, max, i -> i);
+    }
+
+    /**
+     * Gera todas as {@code pontos} amostras em ordem (o gerador semeado avança como no v1) e
+     * emite só as dos índices decimados; nada é acumulado.
+     */
+    static <T> Flux<T> decimado(int pontos, int max, IntFunction<T> amostra) {
+        double step = pontos <= max ? 1 : (double) pontos / max;
+        return Flux.defer(() -> {
+            int[] proximo = {0};
+            return Flux.range(0, pontos).handle((i, sink) -> {
+                T a = amostra.apply(i);
+                if (pontos <= max || (proximo[0] < max && (int) Math.floor(proximo[0] * step) == i)) {
+                    proximo[0]++;
+                    sink.next(a);
+                }
+            });
+        });
+    }
+
+    private static Instant inicioDoDia(int ano, int dia) {
+        return Instant.parse(ano + "-01-01T00:00:00Z").plusSeconds((long) (dia - 1) * 86400L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.model.RbmcFallbackResponse;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import com.geosat.gateway.service.CircuitBreakerStateService;
+import com.geosat.gateway.service.ReactiveRbmcService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Variante reativa de {@link RbmcController}: nenhuma thread fica presa esperando o
+ * upstream, então um mesmo nó sustenta muito mais requisições concorrentes pequenas
+ * (o padrão de fan-out do dashboard).
+ */
+@RestController
+@RequestMapping("/api/v2/rbmc")
+@Validated
+public class ReactiveRbmcController {
+
+    private final ReactiveRbmcService service;
+    private final CircuitBreakerStateService cbState;
+    private final int concorrencia;
+
+    public ReactiveRbmcController(ReactiveRbmcService service, CircuitBreakerStateService cbState,
+                                  @Value("${rbmc.reativo.fanout-concorrencia:16}") int concorrencia) {
+        this.service = service;
+        this.cbState = cbState;
+        this.concorrencia = Math.max(1, concorrencia);
+    }
+
+    @GetMapping("/{estacao}/relatorio")
+    @Operation(summary = "Obtém relatório RBMC sem bloquear (ou fallback)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Relatório disponível",
+                    content = @Content(schema = @Schema(implementation = RbmcRelatorioDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Serviço remoto indisponível (fallback)",
+                    content = @Content(schema = @Schema(implementation = RbmcFallbackResponse.class)))
+    })
+    public Mono<ResponseEntity<Object>> getRelatorio(
+            @PathVariable("estacao") @Pattern(regexp = "^[A-Za-z]{4}$", message = "Estacao deve ter 4 letras") String estacao) {
+        return service.obterRelatorio(estacao).map(result -> {
+            if (result instanceof RbmcFallbackResponse fb) {
+                var builder = ResponseEntity.status(503);
+                cbState.remainingOpenSeconds().ifPresent(secs -> builder.header("Retry-After", String.valueOf(secs)));
+                return builder.body(fb);
+            }
+            return ResponseEntity.ok(result);
+        });
+    }
+
+    /**
+     * Relatórios de várias estações em NDJSON, um objeto por linha na ordem em que
+     * ficam prontos. No máximo {@code rbmc.reativo.fanout-concorrencia} em voo.
+     */
+    @Operation(summary = "Relatórios de várias estações (NDJSON)",
+            description = "Cada linha é um relatório ou o fallback da estação; falhas não interrompem o fluxo.")
+    @GetMapping(value = "/relatorios", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> getRelatorios(
+            @RequestParam("estacoes") List<@Pattern(regexp = "^[A-Za-z]{4}$", message = "Estacao deve ter 4 letras") String> estacoes) {
+        return Flux.fromIterable(estacoes)
+                .map(String::toUpperCase)
+                .distinct()
+                .flatMap(service::obterRelatorio, concorrencia);
+    }
+}
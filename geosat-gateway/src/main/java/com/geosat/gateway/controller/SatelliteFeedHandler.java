@@ -0,0 +1,242 @@
+package com.geosat.gateway.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.gnss.orbit.SatelliteFeed;
+import com.geosat.gateway.gnss.orbit.SatelliteFeed.Grupo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebSocket {@code /ws/satelites}: a cada {@code gnss.feed.intervalo-ms} as posições são
+ * propagadas uma única vez ({@link SatelliteFeed}) e os mesmos quadros binários
+ * {@code Float32} são enviados a todos os clientes conectados.
+ * <p>
+ * Protocolo: ao conectar (e quando o catálogo muda) o servidor envia em texto
+ * {@code {"tipo":"catalogo","versao":..,"fonte":..,"grupos":{"GPS":["G01",..]}}}; depois, um quadro
+ * binário por grupo assinado e tick. O cliente escolhe os grupos com
+ * {@code {"grupos":["GPS","Galileo"]}} (padrão: todos).
+ * <p>
+ * Cliente ainda enviando o tick anterior perde o tick atual (o próximo quadro já traz a
+ * posição mais recente), então há um único envio por sessão de cada vez. Envio de um tick
+ * acima de {@code gnss.feed.envio-max-ms} encerra a sessão: cada tick confere quem está
+ * preso e fecha a conexão por outra thread do pool, que cresce além de {@code workers}
+ * para que escritas presas não atrasem os demais clientes.
+ */
+@Component
+public class SatelliteFeedHandler extends AbstractWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(SatelliteFeedHandler.class);
+
+    static final class Cliente {
+        final WebSocketSession sessao;
+        final AtomicBoolean enviando = new AtomicBoolean();
+        /** {@link System#nanoTime()} do início do envio em curso; 0 sem envio. */
+        volatile long envioDesde;
+        volatile Set<Grupo> grupos = EnumSet.allOf(Grupo.class);
+        volatile int catalogoEnviado = -1;
+
+        Cliente(WebSocketSession sessao) {
+            this.sessao = sessao;
+        }
+    }
+
+    private final SatelliteFeed feed;
+    private final ObjectMapper mapper;
+    private final Map<String, Cliente> clientes = new ConcurrentHashMap<>();
+    private final ExecutorService envio;
+    private final int maxClientes;
+    private final long envioMaxNanos;
+    private final long intervaloMs;
+    private final Timer propagacao;
+    private final Counter quadros;
+    private final Counter descartados;
+    private final Counter lentos;
+
+    // último tick, para o catálogo inicial de quem conecta entre ticks
+    private volatile SatelliteFeed.Quadros ultimo;
+
+    public SatelliteFeedHandler(SatelliteFeed feed, ObjectMapper mapper, GatewayThreads threads, MeterRegistry registry,
+                                @Value("${gnss.feed.max-clientes:5000}") int maxClientes,
+                                @Value("${gnss.feed.envio-max-ms:5000}") long envioMaxMs,
+                                @Value("${gnss.feed.intervalo-ms:1000}") long intervaloMs,
+                                @Value("${gnss.feed.workers:4}") int workers) {
+        this.feed = feed;
+        this.mapper = mapper;
+        this.envio = threads.executorElastico("ws-satelites", workers, Math.max(workers, maxClientes));
+        this.maxClientes = maxClientes;
+        this.envioMaxNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, envioMaxMs));
+        this.intervaloMs = intervaloMs;
+        this.propagacao = Timer.builder("gnss.feed.propagacao").register(registry);
+        this.quadros = registry.counter("gnss.feed.quadros");
+        this.descartados = registry.counter("gnss.feed.ticks_descartados");
+        this.lentos = registry.counter("gnss.feed.clientes_derrubados", "motivo", "envio_lento");
+        registry.gauge("gnss.feed.clientes", clientes, Map::size);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (clientes.size() >= maxClientes) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        Cliente c = new Cliente(session);
+        clientes.put(session.getId(), c);
+        SatelliteFeed.Quadros q = ultimo;
+        if (q != null) agendar(c, q);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Cliente c = clientes.get(session.getId());
+        if (c == null) return;
+        JsonNode grupos = mapper.readTree(message.getPayload()).path("grupos");
+        if (!grupos.isArray()) return;
+        Set<Grupo> escolhidos = EnumSet.noneOf(Grupo.class);
+        for (JsonNode g : grupos) {
+            Grupo grupo = Grupo.ofRotulo(g.asText());
+            if (grupo != null) escolhidos.add(grupo); // grupos que o servidor não propaga são ignorados
+        }
+        c.grupos = escolhidos;
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("ws_erro sessao={} msg={}", session.getId(), exception.getMessage());
+        clientes.remove(session.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        clientes.remove(session.getId());
+    }
+
+    /** Uma propagação por tick, independente do número de clientes. */
+    @Scheduled(fixedRateString = "${gnss.feed.intervalo-ms:1000}")
+    public void publicar() {
+        derrubarLentos();
+        if (clientes.isEmpty()) return;
+        SatelliteFeed.Quadros q = propagacao.record(() -> feed.tick(Instant.now()));
+        ultimo = q;
+        for (Cliente c : clientes.values()) {
+            agendar(c, q);
+        }
+    }
+
+    private void agendar(Cliente c, SatelliteFeed.Quadros q) {
+        if (!c.enviando.compareAndSet(false, true)) {
+            descartados.increment();
+            return;
+        }
+        try {
+            envio.execute(() -> {
+                try {
+                    enviar(c, q);
+                } finally {
+                    c.enviando.set(false);
+                }
+            });
+        } catch (RejectedExecutionException parado) {
+            c.enviando.set(false);
+        }
+    }
+
+    /**
+     * Fecha as sessões presas há mais de {@code envio-max-ms} num envio. O fechamento vai
+     * para o pool: com o socket sem vazão ele também pode esperar a escrita do container.
+     */
+    private void derrubarLentos() {
+        long agora = System.nanoTime();
+        for (Cliente c : clientes.values()) {
+            long desde = c.envioDesde;
+            if (desde == 0 || agora - desde <= envioMaxNanos) continue;
+            if (clientes.remove(c.sessao.getId()) == null) continue;
+            lentos.increment();
+            log.info("ws_cliente_lento sessao={} envio_ms={}", c.sessao.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(agora - desde));
+            try {
+                envio.execute(() -> fechar(c));
+            } catch (RejectedExecutionException parado) {
+                log.debug("ws_fechamento_recusado sessao={}", c.sessao.getId());
+            }
+        }
+    }
+
+    void enviar(Cliente c, SatelliteFeed.Quadros q) {
+        c.envioDesde = System.nanoTime();
+        try {
+            if (c.catalogoEnviado != q.versao()) {
+                c.sessao.sendMessage(new TextMessage(mapper.writeValueAsString(catalogo(q))));
+                c.catalogoEnviado = q.versao();
+            }
+            Set<Grupo> grupos = c.grupos;
+            for (Map.Entry<Grupo, byte[]> e : q.porGrupo().entrySet()) {
+                if (!grupos.contains(e.getKey())) continue;
+                c.sessao.sendMessage(new BinaryMessage(e.getValue()));
+                quadros.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("ws_envio_falhou sessao={} msg={}", c.sessao.getId(), e.getMessage());
+            clientes.remove(c.sessao.getId());
+            fechar(c);
+        } finally {
+            c.envioDesde = 0;
+        }
+    }
+
+    private static void fechar(Cliente c) {
+        try {
+            c.sessao.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException ignored) {
+            // já fechada
+        }
+    }
+
+    private Map<String, Object> catalogo(SatelliteFeed.Quadros q) {
+        Map<String, List<String>> grupos = new LinkedHashMap<>();
+        q.catalogo().forEach((g, svs) -> grupos.put(g.rotulo(), svs));
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("tipo", "catalogo");
+        m.put("versao", q.versao());
+        m.put("formato", SatelliteFeed.FORMATO);
+        // "nominal" = geometria de referência, não a posição real dos satélites
+        m.put("fonte", q.fonte());
+        m.put("intervaloMs", intervaloMs);
+        // ordinal do byte "grupo" do quadro -> nome
+        m.put("ordem", Arrays.stream(Grupo.values()).map(Grupo::rotulo).toList());
+        m.put("grupos", grupos);
+        return m;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envio.shutdownNow();
+    }
+}
@@ -0,0 +1,26 @@
+package com.geosat.gateway.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.time.Instant;
+import java.util.List;
+
+public record EstatisticaRequest(
+    @NotNull(message = "Início (de) é obrigatório")
+    Instant de,
+
+    @NotNull(message = "Fim (ate) é obrigatório")
+    Instant ate,
+
+    @Pattern(regexp = "[1-9]\\d{0,3}[mhd]", message = "Balde: número positivo seguido de m, h ou d (ex.: 15m, 1h, 1d)")
+    String balde,
+
+    @Size(max = 10, message = "No máximo 10 quantis")
+    List<@NotNull @DecimalMin(value = "0", message = "Quantil mínimo: 0")
+        @DecimalMax(value = "1", message = "Quantil máximo: 1") Double> quantis
+) {
+    public EstatisticaRequest {
+        if (balde == null) balde = "1h";
+        if (quantis == null) quantis = List.of(0.5, 0.9, 0.99);
+    }
+}
@@ -0,0 +1,21 @@
+package com.geosat.gateway.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.time.Instant;
+
+public record SerieHistoricaRequest(
+    @NotNull(message = "Início (de) é obrigatório")
+    Instant de,
+
+    @NotNull(message = "Fim (ate) é obrigatório")
+    Instant ate,
+
+    @Min(value = 1, message = "Max mínimo: 1")
+    @Max(value = 10000, message = "Max máximo: 10000")
+    Integer max
+) {
+    public SerieHistoricaRequest {
+        if (max == null) max = 1000;
+    }
+}
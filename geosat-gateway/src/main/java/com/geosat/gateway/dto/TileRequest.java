@@ -0,0 +1,23 @@
+package com.geosat.gateway.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.time.Year;
+
+/** Atributos de qualidade opcionais do tile: {@code ano} e {@code dia} juntos ou nenhum. */
+public record TileRequest(
+    @Min(value = 2000, message = "Ano mínimo: 2000")
+    @Max(value = 2100, message = "Ano máximo: 2100")
+    Integer ano,
+
+    @Min(value = 1, message = "Dia mínimo: 1")
+    @Max(value = 366, message = "Dia máximo: 366")
+    Integer dia
+) {
+    @AssertTrue(message = "Informe ano e dia juntos, com o dia dentro do ano")
+    public boolean isDataValida() {
+        if (ano == null || dia == null) return ano == null && dia == null;
+        // fora das faixas acima o erro já vem de @Min/@Max
+        return ano < 2000 || ano > 2100 || dia < 1 || dia <= Year.of(ano).length();
+    }
+}
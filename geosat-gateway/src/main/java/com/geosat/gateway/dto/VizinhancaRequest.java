@@ -0,0 +1,28 @@
+package com.geosat.gateway.dto;
+
+import jakarta.validation.constraints.*;
+
+public record VizinhancaRequest(
+    @NotNull(message = "Latitude é obrigatória")
+    @DecimalMin(value = "-90", message = "Latitude mínima: -90°")
+    @DecimalMax(value = "90", message = "Latitude máxima: 90°")
+    Double lat,
+
+    @NotNull(message = "Longitude é obrigatória")
+    @DecimalMin(value = "-180", message = "Longitude mínima: -180°")
+    @DecimalMax(value = "180", message = "Longitude máxima: 180°")
+    Double lon,
+
+    @Min(value = 1, message = "k mínimo: 1")
+    @Max(value = 100, message = "k máximo: 100")
+    Integer k,
+
+    @DecimalMin(value = "0", message = "Raio mínimo: 0 km")
+    @DecimalMax(value = "20016", message = "Raio máximo: 20016 km")
+    Double km
+) {
+    public VizinhancaRequest {
+        if (k == null) k = 5;
+        if (km == null) km = 500.0;
+    }
+}
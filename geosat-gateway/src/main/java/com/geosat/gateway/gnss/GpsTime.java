@@ -0,0 +1,39 @@
+package com.geosat.gateway.gnss;
+
+import java.time.Instant;
+
+/**
+ * Conversões entre {@link Instant} e tempo GPS contínuo (segundos desde 1980-01-06).
+ * As épocas RINEX já estão na escala GPS; aqui tratamos os instantes da API na
+ * mesma escala (sem aplicar os segundos intercalares GPS−UTC), o que é suficiente
+ * para séries diárias e mantém as chaves de época estáveis.
+ */
+public final class GpsTime {
+
+    public static final long GPS_EPOCH_UNIX = 315964800L;
+    public static final int SECONDS_PER_WEEK = 604800;
+    public static final int SECONDS_PER_DAY = 86400;
+
+    private GpsTime() {}
+
+    public static double fromInstant(Instant t) {
+        return (t.getEpochSecond() - GPS_EPOCH_UNIX) + t.getNano() * 1e-9;
+    }
+
+    public static Instant toInstant(double gpsSeconds) {
+        long whole = (long) Math.floor(gpsSeconds);
+        long nanos = Math.round((gpsSeconds - whole) * 1e9);
+        return Instant.ofEpochSecond(whole + GPS_EPOCH_UNIX, nanos);
+    }
+
+    /** Início (00:00) do dia do ano informado, em segundos GPS. */
+    public static double dayStart(int ano, int dia) {
+        return fromInstant(Instant.parse(ano + "-01-01T00:00:00Z").plusSeconds((long) (dia - 1) * SECONDS_PER_DAY));
+    }
+
+    /** Segundos da semana GPS correspondentes ao instante contínuo. */
+    public static double secondsOfWeek(double gpsSeconds) {
+        double sow = gpsSeconds % SECONDS_PER_WEEK;
+        return sow < 0 ? sow + SECONDS_PER_WEEK : sow;
+    }
+}
@@ -0,0 +1,52 @@
+package com.geosat.gateway.gnss;
+
+/**
+ * Álgebra 4×4 in-place sobre arrays row-major de 16 posições, sem alocação.
+ */
+public final class Matrix4 {
+
+    private Matrix4() {}
+
+    /**
+     * Inverte uma matriz simétrica positiva-definida por Cholesky.
+     * Apenas o triângulo superior da entrada é lido; a saída é a inversa completa.
+     *
+     * @return {@code false} se a matriz não for positiva-definida (geometria degenerada)
+     */
+    public static boolean invertSymmetric(double[] m) {
+        // Fatora m = Lᵀ·L com L triangular superior, guardado no triângulo superior de m
+        for (int i = 0; i < 4; i++) {
+            double d = m[i * 4 + i];
+            for (int k = 0; k < i; k++) d -= m[k * 4 + i] * m[k * 4 + i];
+            if (d <= 1e-12) return false;
+            d = Math.sqrt(d);
+            m[i * 4 + i] = d;
+            for (int j = i + 1; j < 4; j++) {
+                double s = m[i * 4 + j];
+                for (int k = 0; k < i; k++) s -= m[k * 4 + i] * m[k * 4 + j];
+                m[i * 4 + j] = s / d;
+            }
+        }
+        // Inverte L no lugar (triangular superior)
+        for (int i = 0; i < 4; i++) {
+            m[i * 4 + i] = 1.0 / m[i * 4 + i];
+            for (int j = i + 1; j < 4; j++) {
+                double s = 0;
+                for (int k = i; k < j; k++) s -= m[i * 4 + k] * m[k * 4 + j];
+                m[i * 4 + j] = s / m[j * 4 + j];
+            }
+        }
+        // m⁻¹ = L⁻¹·L⁻ᵀ; percorre i crescente pois a linha i usa apenas colunas ≥ i
+        for (int i = 0; i < 4; i++) {
+            for (int j = i; j < 4; j++) {
+                double s = 0;
+                for (int k = j; k < 4; k++) s += m[i * 4 + k] * m[j * 4 + k];
+                m[i * 4 + j] = s;
+            }
+        }
+        for (int i = 1; i < 4; i++) {
+            for (int j = 0; j < i; j++) m[i * 4 + j] = m[j * 4 + i];
+        }
+        return true;
+    }
+}
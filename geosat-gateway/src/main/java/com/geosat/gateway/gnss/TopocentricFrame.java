@@ -0,0 +1,85 @@
+package com.geosat.gateway.gnss;
+
+/**
+ * Referencial local ENU (leste/norte/cima) de uma estação.
+ * A matriz de rotação é calculada uma única vez; os métodos de projeção
+ * não alocam e podem ser chamados em laços por época × satélite.
+ */
+public final class TopocentricFrame {
+
+    private final double x0, y0, z0;
+    private final double eX, eY;
+    private final double nX, nY, nZ;
+    private final double uX, uY, uZ;
+    private final double latitude, longitude, height;
+
+    public TopocentricFrame(double latDeg, double lonDeg, double h) {
+        double[] ecef = new double[3];
+        Wgs84.geodeticToEcef(latDeg, lonDeg, h, ecef);
+        this.x0 = ecef[0];
+        this.y0 = ecef[1];
+        this.z0 = ecef[2];
+        double lat = Math.toRadians(latDeg);
+        double lon = Math.toRadians(lonDeg);
+        double sinLat = Math.sin(lat), cosLat = Math.cos(lat);
+        double sinLon = Math.sin(lon), cosLon = Math.cos(lon);
+        this.eX = -sinLon;
+        this.eY = cosLon;
+        this.nX = -sinLat * cosLon;
+        this.nY = -sinLat * sinLon;
+        this.nZ = cosLat;
+        this.uX = cosLat * cosLon;
+        this.uY = cosLat * sinLon;
+        this.uZ = sinLat;
+        this.latitude = latDeg;
+        this.longitude = lonDeg;
+        this.height = h;
+    }
+
+    public double x() { return x0; }
+    public double y() { return y0; }
+    public double z() { return z0; }
+    public double latitude() { return latitude; }
+    public double longitude() { return longitude; }
+    public double height() { return height; }
+
+    /**
+     * Seno da elevação do ponto ECEF (sx, sy, sz) visto da estação.
+     * Suficiente para testar máscara de elevação sem trigonometria.
+     */
+    public double sinElevation(double sx, double sy, double sz) {
+        double dx = sx - x0, dy = sy - y0, dz = sz - z0;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return (uX * dx + uY * dy + uZ * dz) / range;
+    }
+
+    /**
+     * Projeta o ponto ECEF (sx, sy, sz) no referencial local.
+     * Escreve azimute (graus, 0–360 a partir do norte), elevação (graus) e
+     * distância (m) em {@code out[0..2]}.
+     */
+    public void azElRange(double sx, double sy, double sz, double[] out) {
+        double dx = sx - x0, dy = sy - y0, dz = sz - z0;
+        double e = eX * dx + eY * dy;
+        double n = nX * dx + nY * dy + nZ * dz;
+        double u = uX * dx + uY * dy + uZ * dz;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double az = Math.toDegrees(Math.atan2(e, n));
+        out[0] = az < 0 ? az + 360.0 : az;
+        out[1] = Math.toDegrees(Math.asin(u / range));
+        out[2] = range;
+    }
+
+    /**
+     * Vetor unitário estação→satélite em ENU, escrito em {@code out[off..off+2]}.
+     * Retorna a distância geométrica (m).
+     */
+    public double unitEnu(double sx, double sy, double sz, double[] out, int off) {
+        double dx = sx - x0, dy = sy - y0, dz = sz - z0;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        out[off] = (eX * dx + eY * dy) / range;
+        out[off + 1] = (nX * dx + nY * dy + nZ * dz) / range;
+        out[off + 2] = (uX * dx + uY * dy + uZ * dz) / range;
+        return range;
+    }
+}
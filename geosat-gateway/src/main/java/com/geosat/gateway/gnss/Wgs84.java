@@ -0,0 +1,62 @@
+package com.geosat.gateway.gnss;
+
+/**
+ * Constantes WGS84 e conversões geodésicas em aritmética pura.
+ * Usadas nos laços internos (órbitas, DOP, SPP), onde o custo de montar uma
+ * operação SIS por ponto seria proibitivo; o {@code CoordinateTransformationService}
+ * continua sendo a referência para transformações entre CRS.
+ */
+public final class Wgs84 {
+
+    public static final double A = 6378137.0;
+    public static final double F = 1.0 / 298.257223563;
+    public static final double B = A * (1 - F);
+    public static final double E2 = F * (2 - F);
+    public static final double EP2 = E2 / (1 - E2);
+    /** Velocidade de rotação da Terra (rad/s), IS-GPS-200. */
+    public static final double OMEGA_E = 7.2921151467e-5;
+    /** Constante gravitacional GPS (m³/s²), IS-GPS-200. */
+    public static final double GM_GPS = 3.986005e14;
+    /** Constante gravitacional Galileo (m³/s²), OS-SIS-ICD. */
+    public static final double GM_GAL = 3.986004418e14;
+    public static final double C = 299792458.0;
+
+    private Wgs84() {}
+
+    /**
+     * Converte latitude/longitude (graus) e altura elipsoidal (m) para ECEF.
+     * Escreve x, y, z em {@code out[0..2]}.
+     */
+    public static void geodeticToEcef(double latDeg, double lonDeg, double h, double[] out) {
+        double lat = Math.toRadians(latDeg);
+        double lon = Math.toRadians(lonDeg);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        double n = A / Math.sqrt(1 - E2 * sinLat * sinLat);
+        out[0] = (n + h) * cosLat * Math.cos(lon);
+        out[1] = (n + h) * cosLat * Math.sin(lon);
+        out[2] = (n * (1 - E2) + h) * sinLat;
+    }
+
+    /**
+     * Converte ECEF para latitude/longitude (graus) e altura elipsoidal (m)
+     * pelo método de Bowring (precisão sub-milimétrica próximo à superfície).
+     * Escreve lat, lon, h em {@code out[0..2]}.
+     */
+    public static void ecefToGeodetic(double x, double y, double z, double[] out) {
+        double p = Math.sqrt(x * x + y * y);
+        double theta = Math.atan2(z * A, p * B);
+        double sinT = Math.sin(theta);
+        double cosT = Math.cos(theta);
+        double lat = Math.atan2(z + EP2 * B * sinT * sinT * sinT, p - E2 * A * cosT * cosT * cosT);
+        double lon = Math.atan2(y, x);
+        double sinLat = Math.sin(lat);
+        double n = A / Math.sqrt(1 - E2 * sinLat * sinLat);
+        double h = Math.abs(lat) < Math.toRadians(89.5)
+                ? p / Math.cos(lat) - n
+                : Math.abs(z) / Math.abs(sinLat) - n * (1 - E2);
+        out[0] = Math.toDegrees(lat);
+        out[1] = Math.toDegrees(lon);
+        out[2] = h;
+    }
+}
@@ -0,0 +1,64 @@
+package com.geosat.gateway.gnss.dop;
+
+import com.geosat.gateway.gnss.Matrix4;
+import com.geosat.gateway.gnss.TopocentricFrame;
+import com.geosat.gateway.gnss.orbit.OrbitGrid;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Calcula GDOP/PDOP/HDOP/VDOP/TDOP a partir da geometria dos satélites visíveis.
+ * A matriz normal 4×4 (ENU + relógio) é acumulada e invertida por Cholesky em
+ * buffers alocados uma vez por bloco de épocas; os blocos rodam em paralelo.
+ */
+public final class DopEngine {
+
+    private static final int CHUNK = 64;
+
+    private DopEngine() {}
+
+    public static DopSeries compute(OrbitGrid grid, TopocentricFrame frame, double sinMask) {
+        int epochs = grid.epochs();
+        int[] nsat = new int[epochs];
+        double[] g = new double[epochs], p = new double[epochs], h = new double[epochs],
+                v = new double[epochs], t = new double[epochs];
+        int chunks = (epochs + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            double[] n = new double[16];
+            double[] u = new double[3];
+            double[] xyz = grid.positions();
+            int sats = grid.satellites();
+            int end = Math.min(epochs, (c + 1) * CHUNK);
+            for (int k = c * CHUNK; k < end; k++) {
+                Arrays.fill(n, 0.0);
+                int count = 0;
+                for (int s = 0; s < sats; s++) {
+                    int off = grid.offset(k, s);
+                    if (Double.isNaN(xyz[off])) continue;
+                    frame.unitEnu(xyz[off], xyz[off + 1], xyz[off + 2], u, 0);
+                    if (u[2] < sinMask) continue;
+                    count++;
+                    // linha da matriz de projeto: [-e, -n, -u, 1]
+                    double a0 = -u[0], a1 = -u[1], a2 = -u[2];
+                    n[0] += a0 * a0; n[1] += a0 * a1; n[2] += a0 * a2; n[3] += a0;
+                    n[5] += a1 * a1; n[6] += a1 * a2; n[7] += a1;
+                    n[10] += a2 * a2; n[11] += a2;
+                    n[15] += 1.0;
+                }
+                nsat[k] = count;
+                if (count < 4 || !Matrix4.invertSymmetric(n)) {
+                    g[k] = p[k] = h[k] = v[k] = t[k] = Double.NaN;
+                    continue;
+                }
+                double qe = n[0], qn = n[5], qu = n[10], qt = n[15];
+                g[k] = Math.sqrt(qe + qn + qu + qt);
+                p[k] = Math.sqrt(qe + qn + qu);
+                h[k] = Math.sqrt(qe + qn);
+                v[k] = Math.sqrt(qu);
+                t[k] = Math.sqrt(qt);
+            }
+        });
+        return new DopSeries(grid.t0(), grid.stepSeconds(), nsat, g, p, h, v, t);
+    }
+}
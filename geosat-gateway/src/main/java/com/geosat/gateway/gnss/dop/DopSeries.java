@@ -0,0 +1,20 @@
+package com.geosat.gateway.gnss.dop;
+
+/**
+ * Série de diluição de precisão de uma estação, em colunas paralelas por época.
+ * Épocas com menos de 4 satélites visíveis têm DOP = NaN.
+ */
+public record DopSeries(
+        double t0,
+        int stepSeconds,
+        int[] satellites,
+        double[] gdop,
+        double[] pdop,
+        double[] hdop,
+        double[] vdop,
+        double[] tdop
+) {
+    public int epochs() {
+        return satellites.length;
+    }
+}
@@ -0,0 +1,66 @@
+package com.geosat.gateway.gnss.dop;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.TopocentricFrame;
+import com.geosat.gateway.gnss.orbit.OrbitGrid;
+import com.geosat.gateway.gnss.orbit.OrbitGridService;
+import com.geosat.gateway.model.DopSampleDTO;
+import com.geosat.gateway.model.DopSerieDTO;
+import com.geosat.gateway.model.EstacaoDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Séries diárias de DOP por estação sobre a grade de órbitas compartilhada.
+ * A decimação escolhe épocas antes de converter para DTO, de modo que apenas
+ * as amostras devolvidas são materializadas.
+ */
+@Service
+public class DopService {
+
+    private final OrbitGridService orbits;
+
+    public DopService(OrbitGridService orbits) {
+        this.orbits = orbits;
+    }
+
+    public DopSerieDTO serie(EstacaoDTO estacao, int ano, int dia, double mascaraGraus, int max) {
+        OrbitGrid grid = orbits.grid(ano, dia);
+        DopSeries s = DopEngine.compute(grid, frame(estacao), Math.sin(Math.toRadians(mascaraGraus)));
+        return new DopSerieDTO(estacao.codigo(), ano, dia, mascaraGraus, grid.source(), samples(s, max));
+    }
+
+    /** Todas as estações; cada série já é paralela por época, as estações seguem em sequência. */
+    public List<DopSerieDTO> rede(List<EstacaoDTO> estacoes, int ano, int dia, double mascaraGraus, int max) {
+        List<DopSerieDTO> out = new ArrayList<>(estacoes.size());
+        for (EstacaoDTO e : estacoes) {
+            out.add(serie(e, ano, dia, mascaraGraus, max));
+        }
+        return out;
+    }
+
+    private static TopocentricFrame frame(EstacaoDTO e) {
+        return new TopocentricFrame(e.latitude(), e.longitude(), 0.0);
+    }
+
+    private static List<DopSampleDTO> samples(DopSeries s, int max) {
+        int n = s.epochs();
+        int count = Math.min(n, max);
+        double step = (double) n / count;
+        List<DopSampleDTO> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int k = (int) Math.floor(i * step);
+            out.add(new DopSampleDTO(
+                    GpsTime.toInstant(s.t0() + (double) k * s.stepSeconds()).toString(),
+                    s.satellites()[k],
+                    value(s.gdop()[k]), value(s.pdop()[k]), value(s.hdop()[k]), value(s.vdop()[k])));
+        }
+        return out;
+    }
+
+    private static Double value(double v) {
+        return Double.isNaN(v) ? null : Math.round(v * 1000.0) / 1000.0;
+    }
+}
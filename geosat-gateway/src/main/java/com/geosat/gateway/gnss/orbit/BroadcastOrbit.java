@@ -0,0 +1,62 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+
+/**
+ * Propagação de efemérides transmitidas (IS-GPS-200, tabela 20-IV).
+ * Sem alocação: o resultado é escrito no array informado pelo chamador.
+ */
+public final class BroadcastOrbit {
+
+    /** Constante do termo relativístico do relógio (s/√m). */
+    private static final double F_REL = -4.442807633e-10;
+
+    private BroadcastOrbit() {}
+
+    /**
+     * Calcula a posição ECEF do satélite no instante {@code t} (segundos GPS)
+     * e escreve x, y, z em {@code out[off..off+2]}.
+     *
+     * @return correção do relógio do satélite em segundos (polinômio + relatividade − TGD)
+     */
+    public static double compute(KeplerEphemeris eph, double t, double[] out, int off) {
+        double a = eph.sqrtA() * eph.sqrtA();
+        double tk = t - eph.toe();
+        double n = Math.sqrt(eph.gm() / (a * a * a)) + eph.deltaN();
+        double m = eph.m0() + n * tk;
+        double e = eph.e();
+        double ek = m;
+        for (int i = 0; i < 10; i++) {
+            double next = m + e * Math.sin(ek);
+            if (Math.abs(next - ek) < 1e-13) {
+                ek = next;
+                break;
+            }
+            ek = next;
+        }
+        double sinE = Math.sin(ek);
+        double cosE = Math.cos(ek);
+        double v = Math.atan2(Math.sqrt(1 - e * e) * sinE, cosE - e);
+        double phi = v + eph.omega();
+        double sin2 = Math.sin(2 * phi);
+        double cos2 = Math.cos(2 * phi);
+        double u = phi + eph.cus() * sin2 + eph.cuc() * cos2;
+        double r = a * (1 - e * cosE) + eph.crs() * sin2 + eph.crc() * cos2;
+        double inc = eph.i0() + eph.cis() * sin2 + eph.cic() * cos2 + eph.idot() * tk;
+        double xp = r * Math.cos(u);
+        double yp = r * Math.sin(u);
+        double omegaK = eph.omega0() + (eph.omegaDot() - Wgs84.OMEGA_E) * tk
+                - Wgs84.OMEGA_E * GpsTime.secondsOfWeek(eph.toe());
+        double cosO = Math.cos(omegaK);
+        double sinO = Math.sin(omegaK);
+        double cosI = Math.cos(inc);
+        out[off] = xp * cosO - yp * cosI * sinO;
+        out[off + 1] = xp * sinO + yp * cosI * cosO;
+        out[off + 2] = yp * Math.sin(inc);
+
+        double dt = t - eph.toc();
+        return eph.af0() + eph.af1() * dt + eph.af2() * dt * dt
+                + F_REL * e * eph.sqrtA() * sinE - eph.tgd();
+    }
+}
@@ -0,0 +1,94 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.rinex.RinexFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fornece efemérides por dia: arquivo RINEX de navegação local quando disponível
+ * ({@code gnss.orbitas.dir}), senão a constelação nominal.
+ * O resultado é memorizado por dia, pois é imutável após publicado.
+ */
+@Component
+public class EphemerisProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(EphemerisProvider.class);
+    /** Janela máxima entre época e toe para efemérides transmitidas (s). */
+    private static final double BROADCAST_MAX_AGE = 4 * 3600.0;
+    private static final int MAX_DAYS = 16;
+
+    private final Path dir;
+    private final Map<Integer, EphemerisSet> byDay = new ConcurrentHashMap<>();
+
+    public EphemerisProvider(@Value("${gnss.orbitas.dir:}") String dir) {
+        this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+    }
+
+    public EphemerisSet ephemerides(int ano, int dia) {
+        int key = ano * 1000 + dia;
+        EphemerisSet cached = byDay.get(key);
+        if (cached != null) return cached;
+        if (byDay.size() >= MAX_DAYS) byDay.clear();
+        return byDay.computeIfAbsent(key, k -> load(ano, dia));
+    }
+
+    /** Descarta o conjunto memorizado do dia (ex.: após a ingestão publicar o arquivo de navegação). */
+    public void evict(int ano, int dia) {
+        byDay.remove(ano * 1000 + dia);
+    }
+
+    /**
+     * Identidade do arquivo de navegação do dia (caminho, tamanho e mtime), sem lê-lo;
+     * {@code "nominal"} sem arquivo. Muda quando a ingestão publica ou troca o arquivo.
+     */
+    public String versao(int ano, int dia) {
+        Path file = locate(ano, dia);
+        if (file == null) return "nominal";
+        try {
+            return Integer.toHexString(file.toAbsolutePath().toString().hashCode())
+                    + "." + Long.toHexString(Files.size(file))
+                    + "." + Long.toHexString(Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            return "nominal";
+        }
+    }
+
+    private EphemerisSet load(int ano, int dia) {
+        Path file = locate(ano, dia);
+        if (file != null) {
+            try (Reader reader = RinexFiles.open(file)) {
+                List<KeplerEphemeris> list = RinexNavParser.parse(reader);
+                if (!list.isEmpty()) {
+                    return new EphemerisSet(list, BROADCAST_MAX_AGE, "rinex-nav");
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("falha_leitura_nav arquivo={} msg={}", file, e.getMessage());
+            }
+        }
+        return new EphemerisSet(NominalConstellation.forDay(ano, dia), Double.MAX_VALUE, "nominal");
+    }
+
+    private Path locate(int ano, int dia) {
+        if (dir == null) return null;
+        String[] candidates = {
+                String.format("brdc%03d0.%02dn", dia, ano % 100),
+                String.format("BRDC00IGS_R_%04d%03d0000_01D_MN.rnx", ano, dia),
+                String.format("%04d/%03d.nav", ano, dia)
+        };
+        for (String name : candidates) {
+            Path p = dir.resolve(name);
+            if (Files.isRegularFile(p)) return p;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.geosat.gateway.gnss.orbit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conjunto imutável de efemérides agrupadas por satélite e ordenadas por toe.
+ * Cada satélite recebe um índice estável (ordem alfabética do identificador),
+ * usado como coluna nas grades de posição.
+ */
+public final class EphemerisSet {
+
+    private final String[] svs;
+    private final KeplerEphemeris[][] bySv;
+    private final double maxAgeSeconds;
+    private final String source;
+
+    public EphemerisSet(List<KeplerEphemeris> ephemerides, double maxAgeSeconds, String source) {
+        Map<String, List<KeplerEphemeris>> grouped = new TreeMap<>();
+        for (KeplerEphemeris e : ephemerides) {
+            grouped.computeIfAbsent(e.sv(), k -> new ArrayList<>()).add(e);
+        }
+        this.svs = grouped.keySet().toArray(new String[0]);
+        this.bySv = new KeplerEphemeris[svs.length][];
+        int i = 0;
+        for (List<KeplerEphemeris> list : grouped.values()) {
+            list.sort(Comparator.comparingDouble(KeplerEphemeris::toe));
+            bySv[i++] = list.toArray(new KeplerEphemeris[0]);
+        }
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.source = source;
+    }
+
+    /** Origem das efemérides (ex.: "rinex-nav", "nominal"). */
+    public String source() {
+        return source;
+    }
+
+    public int size() {
+        return svs.length;
+    }
+
+    public String sv(int index) {
+        return svs[index];
+    }
+
+    public int indexOf(String sv) {
+        return Arrays.binarySearch(svs, sv);
+    }
+
+    /**
+     * Efeméride de toe mais próximo de {@code t}, ou {@code null} se a mais próxima
+     * estiver fora da janela de validade.
+     */
+    public KeplerEphemeris select(int index, double t) {
+        KeplerEphemeris[] list = bySv[index];
+        int lo = 0, hi = list.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list[mid].toe() < t) lo = mid + 1; else hi = mid;
+        }
+        KeplerEphemeris best = list[lo];
+        if (lo > 0 && Math.abs(list[lo - 1].toe() - t) < Math.abs(best.toe() - t)) {
+            best = list[lo - 1];
+        }
+        return Math.abs(best.toe() - t) <= maxAgeSeconds ? best : null;
+    }
+}
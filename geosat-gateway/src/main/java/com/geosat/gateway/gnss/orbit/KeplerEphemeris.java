@@ -0,0 +1,36 @@
+package com.geosat.gateway.gnss.orbit;
+
+/**
+ * Efeméride transmitida no modelo kepleriano (GPS/Galileo).
+ * {@code toc} e {@code toe} são absolutos, em segundos GPS contínuos, o que evita
+ * tratamento de virada de semana na propagação.
+ */
+public record KeplerEphemeris(
+        String sv,
+        double toc,
+        double af0,
+        double af1,
+        double af2,
+        double crs,
+        double deltaN,
+        double m0,
+        double cuc,
+        double e,
+        double cus,
+        double sqrtA,
+        double toe,
+        double cic,
+        double omega0,
+        double cis,
+        double i0,
+        double crc,
+        double omega,
+        double omegaDot,
+        double idot,
+        double tgd,
+        double gm
+) {
+    public char system() {
+        return sv.charAt(0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Constelações nominais (GPS 24 slots em 6 planos, Galileo Walker 24/3/1) em
+ * forma de efeméride kepleriana. Usadas quando não há arquivo de navegação
+ * disponível para o dia, mantendo a geometria realista para visibilidade e DOP.
+ */
+public final class NominalConstellation {
+
+    private static final double GPS_A = 26_559_700.0;
+    private static final double GAL_A = 29_600_318.0;
+
+    private NominalConstellation() {}
+
+    public static List<KeplerEphemeris> forDay(int ano, int dia) {
+        double toe = GpsTime.dayStart(ano, dia);
+        List<KeplerEphemeris> out = new ArrayList<>(48);
+        for (int plane = 0; plane < 6; plane++) {
+            for (int slot = 0; slot < 4; slot++) {
+                int prn = plane * 4 + slot + 1;
+                double raan = Math.toRadians(plane * 60.0);
+                double argLat = Math.toRadians(slot * 90.0 + plane * 15.0);
+                out.add(circular(String.format("G%02d", prn), toe, GPS_A, Math.toRadians(55.0), raan, argLat, Wgs84.GM_GPS));
+            }
+        }
+        for (int plane = 0; plane < 3; plane++) {
+            for (int slot = 0; slot < 8; slot++) {
+                int prn = plane * 8 + slot + 1;
+                double raan = Math.toRadians(plane * 120.0);
+                double argLat = Math.toRadians(slot * 45.0 + plane * 15.0);
+                out.add(circular(String.format("E%02d", prn), toe, GAL_A, Math.toRadians(56.0), raan, argLat, Wgs84.GM_GAL));
+            }
+        }
+        return out;
+    }
+
+    private static KeplerEphemeris circular(String sv, double toe, double a, double inc, double raan,
+                                            double argLat, double gm) {
+        // Ω0 é referido ao início da semana: compensa a rotação da Terra até o toe
+        double omega0 = raan + Wgs84.OMEGA_E * GpsTime.secondsOfWeek(toe);
+        return new KeplerEphemeris(sv, toe, 0, 0, 0,
+                0, 0, argLat, 0, 0, 0, Math.sqrt(a),
+                toe, 0, omega0, 0, inc, 0, 0, 0, 0, 0, gm);
+    }
+}
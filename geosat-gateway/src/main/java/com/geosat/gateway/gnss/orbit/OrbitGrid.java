@@ -0,0 +1,64 @@
+package com.geosat.gateway.gnss.orbit;
+
+import java.util.stream.IntStream;
+
+/**
+ * Posições ECEF de todos os satélites em épocas regulares de um dia.
+ * Calculada uma vez por (dia, passo) e compartilhada por todas as estações:
+ * o custo de propagação deixa de escalar com o número de estações.
+ * Layout plano {@code [época][satélite][xyz]}; posições ausentes são NaN.
+ */
+public final class OrbitGrid {
+
+    private final EphemerisSet ephemerides;
+    private final double t0;
+    private final int stepSeconds;
+    private final int epochs;
+    private final double[] xyz;
+
+    private OrbitGrid(EphemerisSet ephemerides, double t0, int stepSeconds, int epochs, double[] xyz) {
+        this.ephemerides = ephemerides;
+        this.t0 = t0;
+        this.stepSeconds = stepSeconds;
+        this.epochs = epochs;
+        this.xyz = xyz;
+    }
+
+    public static OrbitGrid compute(EphemerisSet ephemerides, double t0, int stepSeconds, int epochs) {
+        int sats = ephemerides.size();
+        double[] xyz = new double[epochs * sats * 3];
+        IntStream.range(0, epochs).parallel().forEach(k -> {
+            double t = t0 + (double) k * stepSeconds;
+            int base = k * sats * 3;
+            for (int s = 0; s < sats; s++) {
+                KeplerEphemeris eph = ephemerides.select(s, t);
+                int off = base + s * 3;
+                if (eph == null) {
+                    xyz[off] = xyz[off + 1] = xyz[off + 2] = Double.NaN;
+                } else {
+                    BroadcastOrbit.compute(eph, t, xyz, off);
+                }
+            }
+        });
+        return new OrbitGrid(ephemerides, t0, stepSeconds, epochs, xyz);
+    }
+
+    public EphemerisSet ephemerides() { return ephemerides; }
+    public String source() { return ephemerides.source(); }
+    public int satellites() { return ephemerides.size(); }
+    public String sv(int index) { return ephemerides.sv(index); }
+    public int epochs() { return epochs; }
+    public int stepSeconds() { return stepSeconds; }
+    public double t0() { return t0; }
+    public double time(int epoch) { return t0 + (double) epoch * stepSeconds; }
+
+    /** Deslocamento de (época, satélite) no array retornado por {@link #positions()}. */
+    public int offset(int epoch, int sat) {
+        return (epoch * ephemerides.size() + sat) * 3;
+    }
+
+    /** Array compartilhado; somente leitura. */
+    public double[] positions() {
+        return xyz;
+    }
+}
@@ -0,0 +1,55 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoriza a grade de posições de satélite por (dia, passo).
+ * Todas as consultas por estação reutilizam a mesma grade.
+ */
+@Service
+public class OrbitGridService {
+
+    private static final int MAX_GRIDS = 8;
+
+    private final EphemerisProvider provider;
+    private final int defaultStepSeconds;
+    private final Map<Long, OrbitGrid> grids = new ConcurrentHashMap<>();
+
+    public OrbitGridService(EphemerisProvider provider,
+                            @Value("${gnss.orbitas.passo-segundos:30}") int defaultStepSeconds) {
+        this.provider = provider;
+        this.defaultStepSeconds = defaultStepSeconds;
+    }
+
+    public OrbitGrid grid(int ano, int dia) {
+        return grid(ano, dia, defaultStepSeconds);
+    }
+
+    public OrbitGrid grid(int ano, int dia, int stepSeconds) {
+        long key = ((long) (ano * 1000 + dia) << 20) | stepSeconds;
+        OrbitGrid cached = grids.get(key);
+        if (cached != null) return cached;
+        if (grids.size() >= MAX_GRIDS) grids.clear();
+        return grids.computeIfAbsent(key, k -> OrbitGrid.compute(
+                provider.ephemerides(ano, dia),
+                GpsTime.dayStart(ano, dia),
+                stepSeconds,
+                GpsTime.SECONDS_PER_DAY / stepSeconds));
+    }
+
+    /** Invalida efemérides e grades do dia, forçando recarga na próxima consulta. */
+    public void invalidar(int ano, int dia) {
+        provider.evict(ano, dia);
+        long day = ano * 1000L + dia;
+        grids.keySet().removeIf(k -> (k >>> 20) == day);
+    }
+
+    public EphemerisProvider provider() {
+        return provider;
+    }
+}
@@ -0,0 +1,106 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de arquivos de navegação RINEX 2.x (GPS) e 3.x (GPS/Galileo).
+ * Lê de forma sequencial, sem carregar o arquivo inteiro; registros de sistemas
+ * com modelo orbital não kepleriano (GLONASS, SBAS) e BeiDou são ignorados.
+ */
+public final class RinexNavParser {
+
+    private RinexNavParser() {}
+
+    public static List<KeplerEphemeris> parse(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        int version = 2;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String label = line.length() > 60 ? line.substring(60).trim() : "";
+            if (label.startsWith("RINEX VERSION")) {
+                version = (int) Double.parseDouble(line.substring(0, 9).trim());
+            } else if (label.startsWith("END OF HEADER")) {
+                break;
+            }
+        }
+        List<KeplerEphemeris> out = new ArrayList<>();
+        String[] orbit = new String[7];
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            char sys = version >= 3 ? line.charAt(0) : 'G';
+            int extra = switch (sys) {
+                case 'R', 'S' -> 3;
+                case 'G', 'E', 'C', 'J', 'I' -> 7;
+                default -> -1;
+            };
+            if (extra < 0) {
+                throw new IOException("Registro de navegação inesperado: " + line);
+            }
+            for (int i = 0; i < extra; i++) {
+                orbit[i] = reader.readLine();
+                if (orbit[i] == null) return out;
+            }
+            if (sys == 'G' || sys == 'E') {
+                out.add(version >= 3 ? record3(sys, line, orbit) : record2(line, orbit));
+            }
+        }
+        return out;
+    }
+
+    private static KeplerEphemeris record2(String l0, String[] o) {
+        int prn = Integer.parseInt(l0.substring(0, 2).trim());
+        int yy = Integer.parseInt(l0.substring(2, 5).trim());
+        LocalDateTime toc = LocalDateTime.of(yy < 80 ? 2000 + yy : 1900 + yy,
+                Integer.parseInt(l0.substring(5, 8).trim()),
+                Integer.parseInt(l0.substring(8, 11).trim()),
+                Integer.parseInt(l0.substring(11, 14).trim()),
+                Integer.parseInt(l0.substring(14, 17).trim()),
+                (int) Double.parseDouble(l0.substring(17, 22).trim()));
+        return build(String.format("G%02d", prn), toc, l0, 22, o, 3);
+    }
+
+    private static KeplerEphemeris record3(char sys, String l0, String[] o) {
+        int prn = Integer.parseInt(l0.substring(1, 3).trim());
+        LocalDateTime toc = LocalDateTime.of(
+                Integer.parseInt(l0.substring(4, 8).trim()),
+                Integer.parseInt(l0.substring(9, 11).trim()),
+                Integer.parseInt(l0.substring(12, 14).trim()),
+                Integer.parseInt(l0.substring(15, 17).trim()),
+                Integer.parseInt(l0.substring(18, 20).trim()),
+                Integer.parseInt(l0.substring(21, 23).trim()));
+        return build(String.format("%c%02d", sys, prn), toc, l0, 23, o, 4);
+    }
+
+    private static KeplerEphemeris build(String sv, LocalDateTime tocCal, String l0, int clockCol,
+                                         String[] o, int orbitCol) {
+        double toc = tocCal.toEpochSecond(ZoneOffset.UTC) - GpsTime.GPS_EPOCH_UNIX;
+        double week = value(o[4], orbitCol, 2);
+        double toe = week * GpsTime.SECONDS_PER_WEEK + value(o[2], orbitCol, 0);
+        return new KeplerEphemeris(sv, toc,
+                value(l0, clockCol, 0), value(l0, clockCol, 1), value(l0, clockCol, 2),
+                value(o[0], orbitCol, 1), value(o[0], orbitCol, 2), value(o[0], orbitCol, 3),
+                value(o[1], orbitCol, 0), value(o[1], orbitCol, 1), value(o[1], orbitCol, 2), value(o[1], orbitCol, 3),
+                toe, value(o[2], orbitCol, 1), value(o[2], orbitCol, 2), value(o[2], orbitCol, 3),
+                value(o[3], orbitCol, 0), value(o[3], orbitCol, 1), value(o[3], orbitCol, 2), value(o[3], orbitCol, 3),
+                value(o[4], orbitCol, 0), value(o[5], orbitCol, 2),
+                sv.charAt(0) == 'E' ? Wgs84.GM_GAL : Wgs84.GM_GPS);
+    }
+
+    /** Campo D19.12 de índice {@code idx} a partir da coluna {@code col}; vazio vale 0. */
+    private static double value(String line, int col, int idx) {
+        int start = col + idx * 19;
+        if (line == null || start >= line.length()) return 0.0;
+        String raw = line.substring(start, Math.min(start + 19, line.length())).trim();
+        if (raw.isEmpty()) return 0.0;
+        return Double.parseDouble(raw.replace('D', 'E').replace('d', 'e'));
+    }
+}
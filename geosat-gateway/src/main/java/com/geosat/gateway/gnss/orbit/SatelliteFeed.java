@@ -0,0 +1,131 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Propaga, uma vez por tick, a posição ECEF de todos os satélites das efemérides do dia
+ * e empacota um quadro binário por grupo (constelação) para o feed WebSocket.
+ * <p>
+ * Quadro (little-endian, {@value #CABECALHO} bytes de cabeçalho):
+ * <pre>
+ *   u8  formato (1)      u8 grupo (ordinal de {@link Grupo})   u16 n
+ *   i32 versão do catálogo                                     f64 época (ms Unix)
+ *   n × (f32 x, f32 y, f32 z)  — ECEF em km; NaN quando sem efeméride válida
+ * </pre>
+ * A ordem dos satélites de cada grupo é a do catálogo ({@link Quadros#catalogo()}),
+ * reenviado aos clientes sempre que a versão muda (outros satélites ou outra origem das efemérides).
+ */
+@Service
+public class SatelliteFeed {
+
+    public static final int FORMATO = 1;
+    public static final int CABECALHO = 16;
+
+    /**
+     * Grupos com os mesmos nomes do cliente 3D: só as constelações que o {@link RinexNavParser}
+     * lê (BeiDou exigiria outro tratamento dos GEO; GLONASS não é kepleriana).
+     */
+    public enum Grupo {
+        GPS("GPS", 'G'), GALILEO("Galileo", 'E');
+
+        private final String rotulo;
+        private final char sistema;
+
+        Grupo(String rotulo, char sistema) {
+            this.rotulo = rotulo;
+            this.sistema = sistema;
+        }
+
+        public String rotulo() {
+            return rotulo;
+        }
+
+        public static Grupo of(char sistema) {
+            for (Grupo g : values()) {
+                if (g.sistema == sistema) return g;
+            }
+            return null;
+        }
+
+        public static Grupo ofRotulo(String rotulo) {
+            for (Grupo g : values()) {
+                if (g.rotulo.equalsIgnoreCase(rotulo)) return g;
+            }
+            return null;
+        }
+    }
+
+    /** Quadros de um tick; os arrays são compartilhados entre clientes e não devem ser alterados. */
+    public record Quadros(int versao, String fonte, Map<Grupo, List<String>> catalogo, Map<Grupo, byte[]> porGrupo) {}
+
+    private final EphemerisProvider provider;
+
+    // estado do catálogo; tick() é chamado por um único agendador
+    private EphemerisSet ultimoSet;
+    private Map<Grupo, int[]> indices = Map.of();
+    private Map<Grupo, List<String>> catalogo = Map.of();
+    private int versao;
+
+    public SatelliteFeed(EphemerisProvider provider) {
+        this.provider = provider;
+    }
+
+    public synchronized Quadros tick(Instant agora) {
+        ZonedDateTime utc = agora.atZone(ZoneOffset.UTC);
+        EphemerisSet set = provider.ephemerides(utc.getYear(), utc.getDayOfYear());
+        if (set != ultimoSet) atualizarCatalogo(set);
+
+        double t = GpsTime.fromInstant(agora);
+        double epocaMs = agora.toEpochMilli();
+        double[] xyz = new double[3];
+        Map<Grupo, byte[]> quadros = new EnumMap<>(Grupo.class);
+        for (Map.Entry<Grupo, int[]> e : indices.entrySet()) {
+            int[] idx = e.getValue();
+            ByteBuffer buf = ByteBuffer.allocate(CABECALHO + idx.length * 12).order(ByteOrder.LITTLE_ENDIAN);
+            buf.put((byte) FORMATO).put((byte) e.getKey().ordinal()).putShort((short) idx.length)
+                    .putInt(versao).putDouble(epocaMs);
+            for (int i : idx) {
+                KeplerEphemeris eph = set.select(i, t);
+                if (eph == null) {
+                    buf.putFloat(Float.NaN).putFloat(Float.NaN).putFloat(Float.NaN);
+                    continue;
+                }
+                BroadcastOrbit.compute(eph, t, xyz, 0);
+                buf.putFloat((float) (xyz[0] / 1000)).putFloat((float) (xyz[1] / 1000)).putFloat((float) (xyz[2] / 1000));
+            }
+            quadros.put(e.getKey(), buf.array());
+        }
+        return new Quadros(versao, set.source(), catalogo, quadros);
+    }
+
+    private void atualizarCatalogo(EphemerisSet set) {
+        Map<Grupo, List<Integer>> porGrupo = new EnumMap<>(Grupo.class);
+        for (int i = 0; i < set.size(); i++) {
+            Grupo g = Grupo.of(set.sv(i).charAt(0));
+            if (g != null) porGrupo.computeIfAbsent(g, k -> new ArrayList<>()).add(i);
+        }
+        Map<Grupo, int[]> novosIndices = new EnumMap<>(Grupo.class);
+        Map<Grupo, List<String>> novoCatalogo = new EnumMap<>(Grupo.class);
+        porGrupo.forEach((g, lista) -> {
+            novosIndices.put(g, lista.stream().mapToInt(Integer::intValue).toArray());
+            novoCatalogo.put(g, lista.stream().map(set::sv).toList());
+        });
+        // mesma lista e origem (ex.: virada do dia nominal) não invalida o catálogo do cliente
+        if (!novoCatalogo.equals(catalogo) || ultimoSet == null || !set.source().equals(ultimoSet.source())) versao++;
+        indices = novosIndices;
+        catalogo = Collections.unmodifiableMap(novoCatalogo);
+        ultimoSet = set;
+    }
+}
@@ -0,0 +1,204 @@
+package com.geosat.gateway.gnss.qc;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+import com.geosat.gateway.model.LacunaDTO;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import com.geosat.gateway.model.QcSateliteDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controle de qualidade em passagem única sobre um fluxo de épocas.
+ * Estado O(satélites): por satélite guarda apenas o arco corrente (médias
+ * móveis de Welford para Melbourne-Wübbena e multicaminho, último
+ * geometry-free) e acumuladores do dia. Nenhuma época é retida.
+ *
+ * <ul>
+ *   <li>Saltos MW: |N<sub>w</sub> − média do arco| &gt; 4σ (σ mínimo de 0,5 ciclo)</li>
+ *   <li>Saltos GF: variação de L1λ1 − L2λ2 entre épocas &gt; {@link #GF_THRESHOLD_M}</li>
+ *   <li>MP1/MP2: RMS em torno da média de cada arco (remove ambiguidade)</li>
+ * </ul>
+ * Um salto ou lacuna encerra o arco do satélite. Interrupções acima de
+ * {@link #PASS_BREAK_S} são o satélite abaixo do horizonte: encerram a passagem
+ * sem contar como lacuna, e as épocas esperadas por satélite somam só as passagens.
+ */
+public final class QcEngine {
+
+    static final double GF_THRESHOLD_M = 0.10;
+    /** Interrupção mínima (s) tratada como fim de passagem, não como lacuna. */
+    static final double PASS_BREAK_S = 600.0;
+    private static final double MW_SIGMA_FLOOR = 0.5;
+    private static final int MW_MIN_ARC = 5;
+    private static final int MAX_GAPS = 1000;
+
+    private final double intervalHint;
+    private final Map<String, SatState> sats = new HashMap<>();
+    private final List<double[]> gaps = new ArrayList<>();
+    private double interval = Double.NaN;
+    private double firstEpoch = Double.NaN;
+    private double lastEpoch = Double.NaN;
+    private int epochs;
+
+    /** @param intervalHint intervalo nominal do arquivo (s) ou NaN para inferir do fluxo */
+    public QcEngine(double intervalHint) {
+        this.intervalHint = intervalHint;
+        this.interval = intervalHint;
+    }
+
+    public void accept(ObservationEpoch e) {
+        if (!Double.isNaN(lastEpoch)) {
+            double dt = e.time - lastEpoch;
+            if (dt <= 0) return;
+            if (Double.isNaN(intervalHint) && (Double.isNaN(interval) || dt < interval)) interval = dt;
+            if (dt > 1.5 * interval && gaps.size() < MAX_GAPS) gaps.add(new double[]{lastEpoch, e.time});
+        } else {
+            firstEpoch = e.time;
+        }
+        lastEpoch = e.time;
+        epochs++;
+        for (int i = 0; i < e.size; i++) {
+            sats.computeIfAbsent(e.sv[i], SatState::new)
+                    .accept(e.time, interval, e.c1[i], e.c2[i], e.l1[i], e.l2[i]);
+        }
+    }
+
+    public QcRelatorioDTO report(String codigo, int ano, int dia, int maxGaps) {
+        double step = Double.isNaN(interval) ? 30.0 : interval;
+        int expected = (int) Math.round(GpsTime.SECONDS_PER_DAY / step);
+        List<QcSateliteDTO> perSat = new ArrayList<>(sats.size());
+        int slips = 0;
+        double mp1Sum = 0, mp2Sum = 0;
+        long mp1N = 0, mp2N = 0;
+        for (SatState s : sats.values()) {
+            s.closeArc();
+            int satExpected = s.expected(step);
+            perSat.add(new QcSateliteDTO(s.sv, s.count, satExpected,
+                    round(100.0 * s.count / satExpected), s.gaps, s.mwSlips, s.gfSlips,
+                    s.mp1N > 0 ? round(Math.sqrt(s.mp1M2 / s.mp1N)) : null,
+                    s.mp2N > 0 ? round(Math.sqrt(s.mp2M2 / s.mp2N)) : null));
+            slips += s.mwSlips + s.gfSlips;
+            mp1Sum += s.mp1M2; mp1N += s.mp1N;
+            mp2Sum += s.mp2M2; mp2N += s.mp2N;
+        }
+        perSat.sort((a, b) -> a.sv().compareTo(b.sv()));
+        List<LacunaDTO> lacunas = new ArrayList<>();
+        for (int i = 0; i < gaps.size() && i < maxGaps; i++) {
+            double[] g = gaps.get(i);
+            lacunas.add(new LacunaDTO(GpsTime.toInstant(g[0]).toString(), GpsTime.toInstant(g[1]).toString(), g[1] - g[0]));
+        }
+        return new QcRelatorioDTO(codigo, ano, dia, Double.isNaN(interval) ? null : interval,
+                expected, epochs, round(100.0 * epochs / expected), slips,
+                mp1N > 0 ? round(Math.sqrt(mp1Sum / mp1N)) : null,
+                mp2N > 0 ? round(Math.sqrt(mp2Sum / mp2N)) : null,
+                lacunas, perSat);
+    }
+
+    private static Double round(double v) {
+        return Math.round(v * 1000.0) / 1000.0;
+    }
+
+    /** Estado de um satélite: arco corrente + acumuladores do dia. */
+    private static final class SatState {
+        final String sv;
+        final double f1, f2, lambda1, lambda2, lambdaW, alpha;
+        double last = Double.NaN;
+        int count, gaps, mwSlips, gfSlips;
+        // passagens (satélite acima do horizonte): encerradas + corrente
+        double passFirst = Double.NaN, passSpans;
+        int passes;
+        // arco corrente
+        int arcN;
+        double mwMean, mwM2, lastGf = Double.NaN;
+        int mpN;
+        double mp1Mean, mp1ArcM2, mp2Mean, mp2ArcM2;
+        // acumuladores do dia
+        double mp1M2, mp2M2;
+        long mp1N, mp2N;
+
+        SatState(String sv) {
+            this.sv = sv;
+            this.f1 = 1575.42e6;
+            this.f2 = sv.charAt(0) == 'E' ? 1176.45e6 : 1227.60e6;
+            this.lambda1 = Wgs84.C / f1;
+            this.lambda2 = Wgs84.C / f2;
+            this.lambdaW = Wgs84.C / (f1 - f2);
+            this.alpha = (f1 / f2) * (f1 / f2);
+        }
+
+        void accept(double t, double interval, double p1, double p2, double l1, double l2) {
+            count++;
+            double passBreak = Double.isNaN(interval) ? PASS_BREAK_S : Math.max(PASS_BREAK_S, 4 * interval);
+            if (Double.isNaN(last)) {
+                passFirst = t;
+            } else if (t - last > passBreak) {
+                passSpans += last - passFirst;
+                passes++;
+                passFirst = t;
+                closeArc();
+            } else if (!Double.isNaN(interval) && t - last > 1.5 * interval) {
+                gaps++;
+                closeArc();
+            }
+            last = t;
+            if (Double.isNaN(p1) || Double.isNaN(p2) || Double.isNaN(l1) || Double.isNaN(l2)) return;
+            double phi1 = l1 * lambda1, phi2 = l2 * lambda2;
+
+            double gf = phi1 - phi2;
+            boolean slip = false;
+            if (!Double.isNaN(lastGf) && Math.abs(gf - lastGf) > GF_THRESHOLD_M) {
+                gfSlips++;
+                slip = true;
+            }
+            double mw = ((f1 * phi1 - f2 * phi2) / (f1 - f2) - (f1 * p1 + f2 * p2) / (f1 + f2)) / lambdaW;
+            if (!slip && arcN >= MW_MIN_ARC) {
+                double sigma = Math.max(MW_SIGMA_FLOOR, Math.sqrt(mwM2 / (arcN - 1)));
+                if (Math.abs(mw - mwMean) > 4 * sigma) {
+                    mwSlips++;
+                    slip = true;
+                }
+            }
+            if (slip) closeArc();
+            lastGf = gf;
+
+            arcN++;
+            double d = mw - mwMean;
+            mwMean += d / arcN;
+            mwM2 += d * (mw - mwMean);
+
+            double mp1 = p1 - (1 + 2 / (alpha - 1)) * phi1 + (2 / (alpha - 1)) * phi2;
+            double mp2 = p2 - (2 * alpha / (alpha - 1)) * phi1 + (2 * alpha / (alpha - 1) - 1) * phi2;
+            mpN++;
+            double d1 = mp1 - mp1Mean;
+            mp1Mean += d1 / mpN;
+            mp1ArcM2 += d1 * (mp1 - mp1Mean);
+            double d2 = mp2 - mp2Mean;
+            mp2Mean += d2 / mpN;
+            mp2ArcM2 += d2 * (mp2 - mp2Mean);
+        }
+
+        /** Épocas esperadas: cada passagem de ponta a ponta, sem os intervalos abaixo do horizonte. */
+        int expected(double step) {
+            if (Double.isNaN(passFirst)) return 0;
+            return (int) Math.round((passSpans + last - passFirst) / step) + passes + 1;
+        }
+
+        void closeArc() {
+            if (mpN > 1) {
+                mp1M2 += mp1ArcM2;
+                mp2M2 += mp2ArcM2;
+                mp1N += mpN;
+                mp2N += mpN;
+            }
+            arcN = 0;
+            mwMean = mwM2 = 0;
+            lastGf = Double.NaN;
+            mpN = 0;
+            mp1Mean = mp1ArcM2 = mp2Mean = mp2ArcM2 = 0;
+        }
+    }
+}
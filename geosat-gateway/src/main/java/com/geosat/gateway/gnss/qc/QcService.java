@@ -0,0 +1,60 @@
+package com.geosat.gateway.gnss.qc;
+
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+import com.geosat.gateway.gnss.rinex.RinexFiles;
+import com.geosat.gateway.gnss.rinex.RinexObsReader;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Relatórios de QC por estação-dia, lidos em streaming do RINEX local
+ * ({@code gnss.observacoes.dir}); o arquivo nunca é carregado em memória.
+ */
+@Service
+public class QcService {
+
+    private static final Logger log = LoggerFactory.getLogger(QcService.class);
+
+    private final Path dir;
+
+    public QcService(@Value("${gnss.observacoes.dir:}") String dir) {
+        this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+    }
+
+    public Optional<QcRelatorioDTO> relatorio(String codigo, int ano, int dia, int maxLacunas) {
+        Path file = RinexFiles.observation(dir, codigo, ano, dia);
+        if (file == null) return Optional.empty();
+        try (BufferedReader in = RinexFiles.open(file); RinexObsReader reader = new RinexObsReader(in)) {
+            return Optional.of(analisar(reader, codigo.toUpperCase(), ano, dia, maxLacunas));
+        } catch (IOException | RuntimeException e) {
+            log.warn("falha_qc estacao={} arquivo={} msg={}", codigo, file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Analisa um fluxo RINEX qualquer; fecha o reader ao final, mesmo com cabeçalho inválido. */
+    public QcRelatorioDTO analisar(Reader source, String codigo, int ano, int dia, int maxLacunas) throws IOException {
+        try (Reader in = source; RinexObsReader reader = new RinexObsReader(in)) {
+            return analisar(reader, codigo, ano, dia, maxLacunas);
+        }
+    }
+
+    private static QcRelatorioDTO analisar(RinexObsReader reader, String codigo, int ano, int dia,
+                                           int maxLacunas) throws IOException {
+        QcEngine engine = new QcEngine(reader.interval());
+        ObservationEpoch epoch = new ObservationEpoch();
+        while (reader.next(epoch)) {
+            engine.accept(epoch);
+        }
+        return engine.report(codigo, ano, dia, maxLacunas);
+    }
+}
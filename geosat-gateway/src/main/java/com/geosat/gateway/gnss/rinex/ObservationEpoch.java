@@ -0,0 +1,35 @@
+package com.geosat.gateway.gnss.rinex;
+
+import java.util.Arrays;
+
+/**
+ * Buffer mutável de uma época de observação, reutilizado pelo leitor a cada
+ * {@link RinexObsReader#next(ObservationEpoch)}: a leitura de um dia inteiro
+ * não cria estruturas por época. Valores ausentes são NaN.
+ * Banda 1 = L1/E1; banda 2 = L2 (GPS) ou E5a (Galileo).
+ */
+public final class ObservationEpoch {
+
+    public static final int MAX_SATS = 128;
+
+    /** Época de recepção em segundos GPS contínuos. */
+    public double time;
+    public int flag;
+    public int size;
+    public final String[] sv = new String[MAX_SATS];
+    public final double[] c1 = new double[MAX_SATS];
+    public final double[] c2 = new double[MAX_SATS];
+    public final double[] l1 = new double[MAX_SATS];
+    public final double[] l2 = new double[MAX_SATS];
+    public final double[] s1 = new double[MAX_SATS];
+
+    void clear() {
+        size = 0;
+        flag = 0;
+        Arrays.fill(c1, Double.NaN);
+        Arrays.fill(c2, Double.NaN);
+        Arrays.fill(l1, Double.NaN);
+        Arrays.fill(l2, Double.NaN);
+        Arrays.fill(s1, Double.NaN);
+    }
+}
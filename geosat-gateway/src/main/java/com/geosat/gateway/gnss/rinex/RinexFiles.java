@@ -0,0 +1,95 @@
+package com.geosat.gateway.gnss.rinex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Convenções de nome dos arquivos diários RBMC/IGS e abertura com descompressão.
+ */
+public final class RinexFiles {
+
+    private static final Pattern OBS_V2 = Pattern.compile("(?i)([a-z0-9]{4})(\\d{3})[0-9a-x]\\.(\\d{2})o(\\.gz)?");
+    private static final Pattern OBS_V3 = Pattern.compile(
+            "([A-Z0-9]{4})\\d{2}[A-Z]{3}_[RSU]_(\\d{4})(\\d{3})\\d{4}_01D_\\d{2}[SMHD]_MO\\.rnx(\\.gz)?");
+
+    /** Estação e dia identificados pelo nome de um arquivo de observação diário. */
+    public record ObservationName(String codigo, int ano, int dia) {}
+
+    private RinexFiles() {}
+
+    /** Inverso de {@link #observation}: identifica estação/dia pelo nome, ou {@code null}. */
+    public static ObservationName parseObservation(String fileName) {
+        Matcher m = OBS_V3.matcher(fileName);
+        if (m.matches()) {
+            return new ObservationName(m.group(1), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
+        }
+        m = OBS_V2.matcher(fileName);
+        if (m.matches()) {
+            int yy = Integer.parseInt(m.group(3));
+            // convenção RINEX 2: 80–99 => 1900
+            return new ObservationName(m.group(1).toUpperCase(Locale.ROOT), yy >= 80 ? 1900 + yy : 2000 + yy,
+                    Integer.parseInt(m.group(2)));
+        }
+        return null;
+    }
+
+    /** Localiza o arquivo de observação diário da estação em {@code dir}, ou {@code null}. */
+    public static Path observation(Path dir, String codigo, int ano, int dia) {
+        if (dir == null) return null;
+        String lower = codigo.toLowerCase(Locale.ROOT);
+        String upper = codigo.toUpperCase(Locale.ROOT);
+        String[] names = {
+                String.format("%s%03d0.%02do", lower, dia, ano % 100),
+                String.format("%s%03d1.%02do", lower, dia, ano % 100),
+                String.format("%s00BRA_R_%04d%03d0000_01D_15S_MO.rnx", upper, ano, dia),
+                String.format("%s00BRA_R_%04d%03d0000_01D_30S_MO.rnx", upper, ano, dia)
+        };
+        for (String name : names) {
+            for (String suffix : new String[]{"", ".gz"}) {
+                Path p = dir.resolve(name + suffix);
+                if (Files.isRegularFile(p)) return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Abre o arquivo como texto ISO-8859-1, descompactando em streaming conforme
+     * a assinatura: gzip ({@code 1f 8b}) ou zip ({@code PK}, primeira entrada).
+     * Compress (.Z) e Hatanaka não são suportados.
+     */
+    public static BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(decompress(Files.newInputStream(file)),
+                StandardCharsets.ISO_8859_1), 64 * 1024);
+    }
+
+    public static InputStream decompress(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, 64 * 1024);
+        in.mark(4);
+        int b0 = in.read(), b1 = in.read();
+        in.reset();
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return new GZIPInputStream(in, 64 * 1024);
+        }
+        if (b0 == 'P' && b1 == 'K') {
+            ZipInputStream zip = new ZipInputStream(in);
+            if (zip.getNextEntry() == null) throw new IOException("Arquivo zip vazio");
+            return zip;
+        }
+        if (b0 == 0x1f && b1 == 0x9d) {
+            throw new IOException("Compressão Unix (.Z) não suportada");
+        }
+        return in;
+    }
+}
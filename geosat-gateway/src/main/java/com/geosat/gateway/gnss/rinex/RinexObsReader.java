@@ -0,0 +1,285 @@
+package com.geosat.gateway.gnss.rinex;
+
+import com.geosat.gateway.gnss.GpsTime;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor sequencial de arquivos de observação RINEX 2.x e 3.x.
+ * Apenas GPS e Galileo são extraídos; os demais sistemas são descartados na leitura.
+ * O estado mantido é o cabeçalho e uma linha por vez: o arquivo nunca é
+ * carregado inteiro em memória.
+ */
+public final class RinexObsReader implements Closeable {
+
+    private static final int C1 = 0, C2 = 1, L1 = 2, L2 = 3, S1 = 4;
+    private static final Map<Character, List<List<String>>> PREFERRED = Map.of(
+            'G', List.of(
+                    List.of("C1C", "C1", "P1", "C1W", "C1X"),
+                    List.of("C2W", "C2L", "C2X", "C2S", "P2", "C2"),
+                    List.of("L1C", "L1", "L1W", "L1X"),
+                    List.of("L2W", "L2L", "L2X", "L2S", "L2"),
+                    List.of("S1C", "S1", "S1W", "S1X")),
+            'E', List.of(
+                    List.of("C1C", "C1X", "C1"),
+                    List.of("C5Q", "C5X", "C5I", "C5"),
+                    List.of("L1C", "L1X", "L1"),
+                    List.of("L5Q", "L5X", "L5I", "L5"),
+                    List.of("S1C", "S1X", "S1")));
+
+    private final BufferedReader reader;
+    private int version = 2;
+    private String marker = "";
+    private double interval = Double.NaN;
+    private final double[] approxPosition = new double[3];
+    private String receiverType = "";
+    private String antennaType = "";
+    private double antennaHeight = Double.NaN;
+    private Instant lastObservation;
+    /** Por sistema: número de tipos e coluna de cada observável (−1 se ausente). */
+    private final Map<Character, int[]> columns = new HashMap<>();
+    private final Map<Character, Integer> typeCount = new HashMap<>();
+    private final String[] ids = new String[ObservationEpoch.MAX_SATS];
+    private final StringBuilder obs = new StringBuilder(256);
+
+    public RinexObsReader(Reader source) throws IOException {
+        this.reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        readHeader();
+    }
+
+    public int version() { return version; }
+    public String marker() { return marker; }
+    public double interval() { return interval; }
+
+    /** Posição aproximada ECEF do cabeçalho (zeros se ausente). */
+    public double[] approxPosition() { return approxPosition.clone(); }
+
+    /** Tipo do receptor ({@code REC # / TYPE / VERS}), vazio se ausente. */
+    public String receiverType() { return receiverType; }
+    /** Tipo da antena com radome ({@code ANT # / TYPE}), vazio se ausente. */
+    public String antennaType() { return antennaType; }
+    /** Altura da antena ({@code ANTENNA: DELTA H/E/N}), NaN se ausente. */
+    public double antennaHeight() { return antennaHeight; }
+    /** {@code TIME OF LAST OBS} (escala de tempo do arquivo, sem correção), ou {@code null}. */
+    public Instant lastObservation() { return lastObservation; }
+
+    private void readHeader() throws IOException {
+        Map<Character, ArrayList<String>> types = new HashMap<>();
+        char lastSys = 'G';
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String label = line.length() > 60 ? line.substring(60).trim() : "";
+            String body = line.length() > 60 ? line.substring(0, 60) : line;
+            switch (label) {
+                case "RINEX VERSION / TYPE" -> version = (int) Double.parseDouble(body.substring(0, 9).trim());
+                case "MARKER NAME" -> marker = body.trim();
+                case "INTERVAL" -> interval = Double.parseDouble(body.substring(0, 10).trim());
+                case "REC # / TYPE / VERS" -> receiverType = column(body, 20, 40);
+                case "ANT # / TYPE" -> antennaType = column(body, 20, 40);
+                case "ANTENNA: DELTA H/E/N" -> antennaHeight = Double.parseDouble(body.substring(0, 14).trim());
+                case "TIME OF LAST OBS" -> lastObservation = headerTime(body);
+                case "APPROX POSITION XYZ" -> {
+                    for (int i = 0; i < 3; i++) {
+                        approxPosition[i] = Double.parseDouble(body.substring(i * 14, i * 14 + 14).trim());
+                    }
+                }
+                case "# / TYPES OF OBSERV" -> {
+                    var list = types.computeIfAbsent('G', k -> new ArrayList<>());
+                    for (int i = 0; i < 9; i++) {
+                        int col = 10 + 6 * i;
+                        if (col + 2 > body.length()) break;
+                        String t = body.substring(col, col + 2).trim();
+                        if (!t.isEmpty()) list.add(t);
+                    }
+                }
+                case "SYS / # / OBS TYPES" -> {
+                    if (body.charAt(0) != ' ') lastSys = body.charAt(0);
+                    var list = types.computeIfAbsent(lastSys, k -> new ArrayList<>());
+                    for (int i = 0; i < 13; i++) {
+                        int col = 7 + 4 * i;
+                        if (col + 3 > body.length()) break;
+                        String t = body.substring(col, col + 3).trim();
+                        if (!t.isEmpty()) list.add(t);
+                    }
+                }
+                case "END OF HEADER" -> {
+                    if (version < 3 && types.containsKey('G')) {
+                        types.put('E', types.get('G'));
+                    }
+                    for (var e : types.entrySet()) {
+                        List<List<String>> pref = PREFERRED.get(e.getKey());
+                        if (pref == null) continue;
+                        int[] cols = new int[5];
+                        for (int k = 0; k < 5; k++) {
+                            cols[k] = -1;
+                            for (String candidate : pref.get(k)) {
+                                int idx = e.getValue().indexOf(candidate);
+                                if (idx >= 0) { cols[k] = idx; break; }
+                            }
+                        }
+                        columns.put(e.getKey(), cols);
+                        typeCount.put(e.getKey(), e.getValue().size());
+                    }
+                    return;
+                }
+                default -> { }
+            }
+        }
+        throw new IOException("Cabeçalho RINEX sem END OF HEADER");
+    }
+
+    private static String column(String body, int from, int to) {
+        return from >= body.length() ? "" : body.substring(from, Math.min(to, body.length())).trim();
+    }
+
+    private static Instant headerTime(String body) {
+        String[] f = body.trim().split("\\s+");
+        double sec = Double.parseDouble(f[5]);
+        return LocalDateTime.of(Integer.parseInt(f[0]), Integer.parseInt(f[1]), Integer.parseInt(f[2]),
+                Integer.parseInt(f[3]), Integer.parseInt(f[4]), (int) sec).toInstant(ZoneOffset.UTC);
+    }
+
+    /**
+     * Lê a próxima época de observação para {@code out}. Eventos (flags 2–6) são
+     * pulados. Retorna {@code false} ao fim do arquivo.
+     */
+    public boolean next(ObservationEpoch out) throws IOException {
+        return version >= 3 ? next3(out) : next2(out);
+    }
+
+    private boolean next2(ObservationEpoch out) throws IOException {
+        int ntypes = typeCount.getOrDefault('G', 0);
+        int linesPerSat = Math.max(1, (ntypes + 4) / 5);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.length() < 32) continue;
+            int flag = line.charAt(28) == ' ' ? 0 : line.charAt(28) - '0';
+            int nsat = Integer.parseInt(line.substring(29, 32).trim());
+            if (flag > 1 && flag < 6) {
+                skip(nsat);
+                continue;
+            }
+            if (nsat > ids.length) throw new IOException("Época com satélites demais: " + nsat);
+            String satLine = line;
+            for (int i = 0; i < nsat; i++) {
+                if (i > 0 && i % 12 == 0) satLine = reader.readLine();
+                int col = 32 + (i % 12) * 3;
+                char sys = satLine.charAt(col) == ' ' ? 'G' : satLine.charAt(col);
+                ids[i] = sys + satLine.substring(col + 1, col + 3).replace(' ', '0');
+            }
+            if (flag == 6) {
+                skip(nsat * linesPerSat);
+                continue;
+            }
+            out.clear();
+            out.flag = flag;
+            out.time = epoch2(line);
+            for (int i = 0; i < nsat; i++) {
+                obs.setLength(0);
+                for (int l = 0; l < linesPerSat; l++) {
+                    String ol = reader.readLine();
+                    if (ol == null) return false;
+                    obs.append(pad(ol, 80));
+                }
+                store(out, ids[i], obs, 0);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean next3(ObservationEpoch out) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) != '>') continue;
+            int flag = line.length() > 31 && line.charAt(31) != ' ' ? line.charAt(31) - '0' : 0;
+            int nsat = Integer.parseInt(line.substring(32, Math.min(35, line.length())).trim());
+            if (flag > 1) {
+                skip(nsat);
+                continue;
+            }
+            out.clear();
+            out.flag = flag;
+            out.time = epoch3(line);
+            for (int i = 0; i < nsat; i++) {
+                String ol = reader.readLine();
+                if (ol == null) return false;
+                store(out, ol.substring(0, 3).replace(' ', '0'), ol, 3);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void store(ObservationEpoch out, String id, CharSequence obs, int start) {
+        int[] cols = columns.get(id.charAt(0));
+        if (cols == null || out.size >= ObservationEpoch.MAX_SATS) return;
+        int i = out.size++;
+        out.sv[i] = id;
+        out.c1[i] = field(obs, start, cols[C1]);
+        out.c2[i] = field(obs, start, cols[C2]);
+        out.l1[i] = field(obs, start, cols[L1]);
+        out.l2[i] = field(obs, start, cols[L2]);
+        out.s1[i] = field(obs, start, cols[S1]);
+    }
+
+    private static double field(CharSequence obs, int start, int index) {
+        if (index < 0) return Double.NaN;
+        int from = start + index * 16;
+        int to = Math.min(from + 14, obs.length());
+        if (from >= to) return Double.NaN;
+        String raw = obs.subSequence(from, to).toString().trim();
+        if (raw.isEmpty()) return Double.NaN;
+        double v = Double.parseDouble(raw);
+        return v == 0.0 ? Double.NaN : v;
+    }
+
+    private void skip(int lines) throws IOException {
+        for (int i = 0; i < lines; i++) {
+            if (reader.readLine() == null) return;
+        }
+    }
+
+    private static double epoch2(String l) {
+        int yy = Integer.parseInt(l.substring(1, 3).trim());
+        return epoch(yy < 80 ? 2000 + yy : 1900 + yy,
+                Integer.parseInt(l.substring(4, 6).trim()),
+                Integer.parseInt(l.substring(7, 9).trim()),
+                Integer.parseInt(l.substring(10, 12).trim()),
+                Integer.parseInt(l.substring(13, 15).trim()),
+                Double.parseDouble(l.substring(15, 26).trim()));
+    }
+
+    private static double epoch3(String l) {
+        return epoch(Integer.parseInt(l.substring(2, 6).trim()),
+                Integer.parseInt(l.substring(7, 9).trim()),
+                Integer.parseInt(l.substring(10, 12).trim()),
+                Integer.parseInt(l.substring(13, 15).trim()),
+                Integer.parseInt(l.substring(16, 18).trim()),
+                Double.parseDouble(l.substring(18, 29).trim()));
+    }
+
+    private static double epoch(int y, int mo, int d, int h, int mi, double sec) {
+        long whole = LocalDateTime.of(y, mo, d, h, mi).toEpochSecond(ZoneOffset.UTC) - GpsTime.GPS_EPOCH_UNIX;
+        return whole + sec;
+    }
+
+    private static String pad(String s, int len) {
+        return s.length() >= len ? s.substring(0, len) : s + " ".repeat(len - s.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.geosat.gateway.gnss.spp;
+
+import com.geosat.gateway.gnss.orbit.EphemerisSet;
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+import com.geosat.gateway.gnss.rinex.RinexObsReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pseudodistâncias de um dia em layout colunar compacto: época {@code k} ocupa
+ * os índices {@code [start[k], start[k+1])} de {@code sat}/{@code code}.
+ * Satélites são referenciados pelo índice no {@link EphemerisSet}; os sem
+ * efeméride são descartados na carga.
+ */
+public final class ObservationDay {
+
+    private double[] times;
+    private int[] start;
+    private int[] sat;
+    private double[] code;
+    private int epochs;
+    private int count;
+
+    private ObservationDay(int epochCapacity, int obsCapacity) {
+        this.times = new double[epochCapacity];
+        this.start = new int[epochCapacity + 1];
+        this.sat = new int[obsCapacity];
+        this.code = new double[obsCapacity];
+    }
+
+    public static ObservationDay read(RinexObsReader reader, EphemerisSet ephemerides) throws IOException {
+        ObservationDay day = new ObservationDay(2880, 2880 * 24);
+        ObservationEpoch epoch = new ObservationEpoch();
+        while (reader.next(epoch)) {
+            day.add(epoch, ephemerides);
+        }
+        return day;
+    }
+
+    /** Acrescenta uma época; útil também para montar dias sintéticos em testes. */
+    public void add(ObservationEpoch epoch, EphemerisSet ephemerides) {
+        if (epochs == times.length) {
+            times = Arrays.copyOf(times, times.length * 2);
+            start = Arrays.copyOf(start, times.length + 1);
+        }
+        if (count + epoch.size > sat.length) {
+            int cap = Math.max(sat.length * 2, count + epoch.size);
+            sat = Arrays.copyOf(sat, cap);
+            code = Arrays.copyOf(code, cap);
+        }
+        times[epochs] = epoch.time;
+        start[epochs] = count;
+        for (int i = 0; i < epoch.size; i++) {
+            if (Double.isNaN(epoch.c1[i])) continue;
+            int s = ephemerides.indexOf(epoch.sv[i]);
+            if (s < 0) continue;
+            sat[count] = s;
+            code[count] = epoch.c1[i];
+            count++;
+        }
+        epochs++;
+        start[epochs] = count;
+    }
+
+    public static ObservationDay empty() {
+        return new ObservationDay(16, 16);
+    }
+
+    public int epochs() { return epochs; }
+    public double time(int epoch) { return times[epoch]; }
+    public int from(int epoch) { return start[epoch]; }
+    public int to(int epoch) { return start[epoch + 1]; }
+    public int sat(int index) { return sat[index]; }
+    public double code(int index) { return code[index]; }
+}
@@ -0,0 +1,160 @@
+package com.geosat.gateway.gnss.spp;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.gnss.orbit.EphemerisProvider;
+import com.geosat.gateway.gnss.orbit.EphemerisSet;
+import com.geosat.gateway.gnss.rinex.RinexFiles;
+import com.geosat.gateway.gnss.rinex.RinexObsReader;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.PosicaoSampleDTO;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Séries de posição SPP a partir do RINEX diário da estação ({@code gnss.observacoes.dir})
+ * e das efemérides transmitidas do dia. Sem arquivo de observação ou sem
+ * navegação real, retorna vazio e o chamador decide o fallback. Cada dia resolvido também
+ * vai para o {@link SerieStore} (lat/lon/h das épocas resolvidas), formando o histórico:
+ * a gravação roda fora da requisição, numa thread própria, e só escreve quando o dia é
+ * novo ou mudou ({@link SerieStore#gravarDia}).
+ */
+@Service
+public class PositionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionService.class);
+    private static final int MAX_SERIES = 64;
+
+    private final EphemerisProvider ephemerisProvider;
+    private final SerieStore serieStore;
+    private final Path dir;
+    private final double sinMask;
+    private final Map<String, SppSeries> solved = new ConcurrentHashMap<>();
+    /** Estação/dia com gravação na fila: soluções repetidas antes dela não enfileiram outra. */
+    private final Set<String> gravando = ConcurrentHashMap.newKeySet();
+    private final ExecutorService gravacao;
+
+    public PositionService(EphemerisProvider ephemerisProvider, SerieStore serieStore, GatewayThreads threads,
+                           @Value("${gnss.observacoes.dir:}") String dir,
+                           @Value("${gnss.spp.mascara-graus:10}") double mascaraGraus) {
+        this.ephemerisProvider = ephemerisProvider;
+        this.serieStore = serieStore;
+        this.dir = dir == null || dir.isBlank() ? null : Path.of(dir);
+        this.sinMask = Math.sin(Math.toRadians(mascaraGraus));
+        this.gravacao = threads.executor("spp-gravacao", 1);
+    }
+
+    /** Deixa terminar as gravações já enfileiradas. */
+    @PreDestroy
+    void encerrar() {
+        gravacao.shutdown();
+    }
+
+    public Optional<SppSeries> series(EstacaoDTO estacao, int ano, int dia) {
+        String key = estacao.codigo().toUpperCase() + "_" + ano + "_" + dia;
+        SppSeries cached = solved.get(key);
+        if (cached != null) return Optional.of(cached);
+        Path file = RinexFiles.observation(dir, estacao.codigo(), ano, dia);
+        if (file == null) return Optional.empty();
+        EphemerisSet eph = ephemerisProvider.ephemerides(ano, dia);
+        if ("nominal".equals(eph.source())) return Optional.empty();
+        try (BufferedReader in = RinexFiles.open(file); RinexObsReader reader = new RinexObsReader(in)) {
+            double[] approx = reader.approxPosition();
+            if (approx[0] == 0 && approx[1] == 0 && approx[2] == 0) {
+                Wgs84.geodeticToEcef(estacao.latitude(), estacao.longitude(), 0.0, approx);
+            }
+            ObservationDay day = ObservationDay.read(reader, eph);
+            SppSeries series = SppSolver.solve(day, eph, approx, sinMask);
+            if (solved.size() >= MAX_SERIES) solved.clear();
+            solved.put(key, series);
+            if (gravando.add(key)) {
+                gravacao.execute(() -> {
+                    gravando.remove(key);
+                    gravar(estacao.codigo(), ano, dia, series);
+                });
+            }
+            return Optional.of(series);
+        } catch (IOException | RuntimeException e) {
+            log.warn("falha_spp estacao={} arquivo={} msg={}", estacao.codigo(), file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Versão das entradas da série (arquivos de observação e de navegação do dia: tamanho e
+     * mtime) para ETag, sem resolver o SPP; {@code "sintetica"} quando {@link #series} seria vazio.
+     */
+    public String versao(EstacaoDTO estacao, int ano, int dia) {
+        Path file = RinexFiles.observation(dir, estacao.codigo(), ano, dia);
+        if (file == null) return "sintetica";
+        EphemerisSet eph = ephemerisProvider.ephemerides(ano, dia);
+        if ("nominal".equals(eph.source())) return "sintetica";
+        try {
+            return Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "." + Long.toHexString(Files.size(file))
+                    + "-" + ephemerisProvider.versao(ano, dia);
+        } catch (IOException e) {
+            return "sintetica";
+        }
+    }
+
+    /** Descarta a solução memorizada da estação/dia (ex.: após nova ingestão do RINEX). */
+    public void invalidar(String codigo, int ano, int dia) {
+        solved.remove(codigo.toUpperCase() + "_" + ano + "_" + dia);
+    }
+
+    private void gravar(String codigo, int ano, int dia, SppSeries s) {
+        long[] t = new long[s.epochs()];
+        double[][] llh = new double[3][s.epochs()];
+        double[] p = new double[3];
+        int n = 0;
+        for (int k = 0; k < s.epochs(); k++) {
+            if (!s.solved(k)) continue;
+            Wgs84.ecefToGeodetic(s.x()[k], s.y()[k], s.z()[k], p);
+            t[n] = GpsTime.toInstant(s.time()[k]).toEpochMilli();
+            for (int c = 0; c < 3; c++) llh[c][n] = p[c];
+            n++;
+        }
+        for (int c = 0; c < 3; c++) llh[c] = Arrays.copyOf(llh[c], n);
+        serieStore.gravarDia(Observavel.POSICAO, codigo, ano, dia, Arrays.copyOf(t, n), llh);
+    }
+
+    /** Amostras decimadas (somente épocas resolvidas) em lat/lon/h WGS84. */
+    public Optional<List<PosicaoSampleDTO>> samples(EstacaoDTO estacao, int ano, int dia, int max) {
+        return series(estacao, ano, dia).map(s -> {
+            int[] idx = new int[s.epochs()];
+            int solvedCount = 0;
+            for (int k = 0; k < s.epochs(); k++) {
+                if (s.solved(k)) idx[solvedCount++] = k;
+            }
+            int count = Math.min(solvedCount, max);
+            double step = count == 0 ? 1 : (double) solvedCount / count;
+            double[] llh = new double[3];
+            List<PosicaoSampleDTO> out = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int k = idx[(int) Math.floor(i * step)];
+                Wgs84.ecefToGeodetic(s.x()[k], s.y()[k], s.z()[k], llh);
+                out.add(new PosicaoSampleDTO(GpsTime.toInstant(s.time()[k]).toString(), llh[0], llh[1], llh[2]));
+            }
+            return out;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.geosat.gateway.gnss.spp;
+
+/**
+ * Soluções SPP por época em colunas paralelas (ECEF em metros, relógio do
+ * receptor em metros). Épocas sem solução têm coordenadas NaN.
+ */
+public record SppSeries(
+        double[] time,
+        double[] x,
+        double[] y,
+        double[] z,
+        double[] clockMeters,
+        int[] satellites,
+        double[] pdop
+) {
+    public int epochs() {
+        return time.length;
+    }
+
+    public boolean solved(int epoch) {
+        return !Double.isNaN(x[epoch]);
+    }
+}
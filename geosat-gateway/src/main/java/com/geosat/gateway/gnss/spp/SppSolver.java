@@ -0,0 +1,154 @@
+package com.geosat.gateway.gnss.spp;
+
+import com.geosat.gateway.gnss.Matrix4;
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.gnss.orbit.BroadcastOrbit;
+import com.geosat.gateway.gnss.orbit.EphemerisSet;
+import com.geosat.gateway.gnss.orbit.KeplerEphemeris;
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Posicionamento por ponto simples (SPP) por mínimos quadrados iterativos sobre
+ * pseudodistâncias de código em L1/E1.
+ * Modelo: órbita e relógio transmitidos (com relatividade e TGD), rotação da Terra
+ * durante a propagação do sinal e troposfera por modelo simplificado; ionosfera
+ * não é modelada (solução monofrequência de nível métrico).
+ * As épocas são resolvidas em paralelo por blocos, cada bloco com seu espaço de
+ * trabalho pré-alocado (posições de satélite, matriz normal, resíduos).
+ */
+public final class SppSolver {
+
+    private static final int CHUNK = 128;
+    private static final int MAX_ITER = 10;
+
+    private SppSolver() {}
+
+    /**
+     * @param approx   posição aproximada ECEF (pode ser zeros)
+     * @param sinMask  seno da máscara de elevação aplicada após a primeira iteração
+     */
+    public static SppSeries solve(ObservationDay day, EphemerisSet ephemerides, double[] approx, double sinMask) {
+        int n = day.epochs();
+        double[] t = new double[n], x = new double[n], y = new double[n], z = new double[n],
+                clk = new double[n], pdop = new double[n];
+        int[] nsat = new int[n];
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            Workspace ws = new Workspace();
+            int end = Math.min(n, (c + 1) * CHUNK);
+            for (int k = c * CHUNK; k < end; k++) {
+                t[k] = day.time(k);
+                ws.reset(approx);
+                if (ws.solveEpoch(day, k, ephemerides, sinMask)) {
+                    x[k] = ws.state[0];
+                    y[k] = ws.state[1];
+                    z[k] = ws.state[2];
+                    clk[k] = ws.state[3];
+                    nsat[k] = ws.used;
+                    pdop[k] = Math.sqrt(ws.n[0] + ws.n[5] + ws.n[10]);
+                } else {
+                    x[k] = y[k] = z[k] = clk[k] = pdop[k] = Double.NaN;
+                    nsat[k] = ws.used;
+                }
+            }
+        });
+        return new SppSeries(t, x, y, z, clk, nsat, pdop);
+    }
+
+    /** Atraso troposférico simplificado (m) para elevação de seno {@code sinEl} e altura {@code h}. */
+    static double troposphere(double sinEl, double h) {
+        return 2.47 / (sinEl + 0.0121) * Math.exp(-1.16e-4 * Math.max(0.0, h));
+    }
+
+    /** Estado de um worker; nada é alocado por época. */
+    private static final class Workspace {
+        final double[] satX = new double[ObservationEpoch.MAX_SATS];
+        final double[] satY = new double[ObservationEpoch.MAX_SATS];
+        final double[] satZ = new double[ObservationEpoch.MAX_SATS];
+        final double[] satClk = new double[ObservationEpoch.MAX_SATS];
+        final boolean[] valid = new boolean[ObservationEpoch.MAX_SATS];
+        final double[] pos = new double[3];
+        final double[] llh = new double[3];
+        final double[] n = new double[16];
+        final double[] rhs = new double[4];
+        final double[] state = new double[4];
+        int used;
+
+        void reset(double[] approx) {
+            state[0] = approx[0];
+            state[1] = approx[1];
+            state[2] = approx[2];
+            state[3] = 0.0;
+            used = 0;
+        }
+
+        boolean solveEpoch(ObservationDay day, int k, EphemerisSet ephemerides, double sinMask) {
+            int from = day.from(k);
+            int count = Math.min(day.to(k) - from, ObservationEpoch.MAX_SATS);
+            double tRx = day.time(k);
+            for (int j = 0; j < count; j++) {
+                double p = day.code(from + j);
+                KeplerEphemeris eph = ephemerides.select(day.sat(from + j), tRx);
+                valid[j] = eph != null;
+                if (eph == null) continue;
+                double tTx = tRx - p / Wgs84.C;
+                double dts = BroadcastOrbit.compute(eph, tTx, pos, 0);
+                dts = BroadcastOrbit.compute(eph, tTx - dts, pos, 0);
+                // rotação da Terra durante o tempo de voo (efeito Sagnac)
+                double theta = Wgs84.OMEGA_E * (p / Wgs84.C);
+                double cos = Math.cos(theta), sin = Math.sin(theta);
+                satX[j] = cos * pos[0] + sin * pos[1];
+                satY[j] = -sin * pos[0] + cos * pos[1];
+                satZ[j] = pos[2];
+                satClk[j] = dts;
+            }
+            for (int iter = 0; iter < MAX_ITER; iter++) {
+                double rx = state[0], ry = state[1], rz = state[2];
+                boolean located = rx * rx + ry * ry + rz * rz > 4e13;
+                double ux = 0, uy = 0, uz = 0, h = 0;
+                if (located) {
+                    Wgs84.ecefToGeodetic(rx, ry, rz, llh);
+                    double lat = Math.toRadians(llh[0]), lon = Math.toRadians(llh[1]);
+                    ux = Math.cos(lat) * Math.cos(lon);
+                    uy = Math.cos(lat) * Math.sin(lon);
+                    uz = Math.sin(lat);
+                    h = llh[2];
+                }
+                Arrays.fill(n, 0.0);
+                Arrays.fill(rhs, 0.0);
+                used = 0;
+                for (int j = 0; j < count; j++) {
+                    if (!valid[j]) continue;
+                    double dx = satX[j] - rx, dy = satY[j] - ry, dz = satZ[j] - rz;
+                    double rho = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                    double tropo = 0.0;
+                    if (located) {
+                        double sinEl = (ux * dx + uy * dy + uz * dz) / rho;
+                        if (sinEl < sinMask) continue;
+                        tropo = troposphere(sinEl, h);
+                    }
+                    double v = day.code(from + j) - (rho + state[3] - Wgs84.C * satClk[j] + tropo);
+                    double a0 = -dx / rho, a1 = -dy / rho, a2 = -dz / rho;
+                    n[0] += a0 * a0; n[1] += a0 * a1; n[2] += a0 * a2; n[3] += a0;
+                    n[5] += a1 * a1; n[6] += a1 * a2; n[7] += a1;
+                    n[10] += a2 * a2; n[11] += a2;
+                    n[15] += 1.0;
+                    rhs[0] += a0 * v; rhs[1] += a1 * v; rhs[2] += a2 * v; rhs[3] += v;
+                    used++;
+                }
+                if (used < 4 || !Matrix4.invertSymmetric(n)) return false;
+                double norm = 0;
+                for (int i = 0; i < 4; i++) {
+                    double d = n[i * 4] * rhs[0] + n[i * 4 + 1] * rhs[1] + n[i * 4 + 2] * rhs[2] + n[i * 4 + 3] * rhs[3];
+                    state[i] += d;
+                    if (i < 3) norm += d * d;
+                }
+                if (norm < 1e-8 && located) return true;
+            }
+            return false;
+        }
+    }
+}
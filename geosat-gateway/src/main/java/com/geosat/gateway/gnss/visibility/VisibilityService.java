@@ -0,0 +1,127 @@
+package com.geosat.gateway.gnss.visibility;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.TopocentricFrame;
+import com.geosat.gateway.gnss.orbit.OrbitGrid;
+import com.geosat.gateway.gnss.orbit.OrbitGridService;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.JanelaVisibilidadeDTO;
+import com.geosat.gateway.model.SkyPlotSampleDTO;
+import com.geosat.gateway.model.VisibilidadeEstacaoDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Calcula azimute/elevação e janelas de visibilidade de todos os satélites sobre
+ * estações, a partir da grade de órbitas compartilhada do dia.
+ * O teste de máscara usa apenas o seno da elevação; trigonometria só é feita
+ * para as amostras efetivamente devolvidas no sky-plot.
+ */
+@Service
+public class VisibilityService {
+
+    private final OrbitGridService orbits;
+
+    public VisibilityService(OrbitGridService orbits) {
+        this.orbits = orbits;
+    }
+
+    public VisibilidadeEstacaoDTO visibilidade(EstacaoDTO estacao, int ano, int dia, double mascaraGraus, int maxSamples) {
+        OrbitGrid grid = orbits.grid(ano, dia);
+        TopocentricFrame frame = frame(estacao);
+        double sinMask = Math.sin(Math.toRadians(mascaraGraus));
+        List<JanelaVisibilidadeDTO> janelas = new ArrayList<>();
+        int visibleSamples = windows(grid, frame, sinMask, janelas);
+        List<SkyPlotSampleDTO> samples = skyPlot(grid, frame, sinMask, visibleSamples, maxSamples);
+        return new VisibilidadeEstacaoDTO(estacao.codigo(), ano, dia, mascaraGraus, grid.source(), janelas, samples);
+    }
+
+    /** Janelas de todas as estações, sem amostras de sky-plot. */
+    public List<VisibilidadeEstacaoDTO> visibilidadeRede(List<EstacaoDTO> estacoes, int ano, int dia, double mascaraGraus) {
+        OrbitGrid grid = orbits.grid(ano, dia);
+        double sinMask = Math.sin(Math.toRadians(mascaraGraus));
+        return estacoes.parallelStream().map(e -> {
+            List<JanelaVisibilidadeDTO> janelas = new ArrayList<>();
+            windows(grid, frame(e), sinMask, janelas);
+            return new VisibilidadeEstacaoDTO(e.codigo(), ano, dia, mascaraGraus, grid.source(), janelas, List.of());
+        }).toList();
+    }
+
+    static TopocentricFrame frame(EstacaoDTO e) {
+        return new TopocentricFrame(e.latitude(), e.longitude(), 0.0);
+    }
+
+    /**
+     * Varre a grade por época (acesso sequencial à memória) mantendo o estado
+     * de cada satélite. Retorna o total de pares (época, satélite) visíveis.
+     */
+    private int windows(OrbitGrid grid, TopocentricFrame frame, double sinMask, List<JanelaVisibilidadeDTO> out) {
+        int sats = grid.satellites();
+        int epochs = grid.epochs();
+        double[] xyz = grid.positions();
+        int[] start = new int[sats];
+        double[] maxSin = new double[sats];
+        Arrays.fill(start, -1);
+        int visible = 0;
+        for (int k = 0; k < epochs; k++) {
+            for (int s = 0; s < sats; s++) {
+                int off = grid.offset(k, s);
+                double sinEl = Double.isNaN(xyz[off])
+                        ? -1.0
+                        : frame.sinElevation(xyz[off], xyz[off + 1], xyz[off + 2]);
+                if (sinEl >= sinMask) {
+                    visible++;
+                    if (start[s] < 0) {
+                        start[s] = k;
+                        maxSin[s] = sinEl;
+                    } else if (sinEl > maxSin[s]) {
+                        maxSin[s] = sinEl;
+                    }
+                } else if (start[s] >= 0) {
+                    out.add(window(grid, s, start[s], k - 1, maxSin[s]));
+                    start[s] = -1;
+                }
+            }
+        }
+        for (int s = 0; s < sats; s++) {
+            if (start[s] >= 0) out.add(window(grid, s, start[s], epochs - 1, maxSin[s]));
+        }
+        out.sort(Comparator.comparing(JanelaVisibilidadeDTO::inicio).thenComparing(JanelaVisibilidadeDTO::sv));
+        return visible;
+    }
+
+    private JanelaVisibilidadeDTO window(OrbitGrid grid, int sat, int from, int to, double maxSin) {
+        return new JanelaVisibilidadeDTO(grid.sv(sat),
+                GpsTime.toInstant(grid.time(from)).toString(),
+                GpsTime.toInstant(grid.time(to)).toString(),
+                round(Math.toDegrees(Math.asin(maxSin))));
+    }
+
+    /** Amostra épocas com passo uniforme para que o total fique em torno de {@code max}. */
+    private List<SkyPlotSampleDTO> skyPlot(OrbitGrid grid, TopocentricFrame frame, double sinMask, int visible, int max) {
+        int stride = Math.max(1, (int) Math.ceil((double) visible / max));
+        int sats = grid.satellites();
+        double[] xyz = grid.positions();
+        double[] aer = new double[3];
+        List<SkyPlotSampleDTO> out = new ArrayList<>(Math.min(visible, max));
+        for (int k = 0; k < grid.epochs() && out.size() < max; k += stride) {
+            String epoch = GpsTime.toInstant(grid.time(k)).toString();
+            for (int s = 0; s < sats && out.size() < max; s++) {
+                int off = grid.offset(k, s);
+                if (Double.isNaN(xyz[off])) continue;
+                if (frame.sinElevation(xyz[off], xyz[off + 1], xyz[off + 2]) < sinMask) continue;
+                frame.azElRange(xyz[off], xyz[off + 1], xyz[off + 2], aer);
+                out.add(new SkyPlotSampleDTO(epoch, grid.sv(s), round(aer[0]), round(aer[1])));
+            }
+        }
+        return out;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
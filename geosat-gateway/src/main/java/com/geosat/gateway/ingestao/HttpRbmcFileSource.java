@@ -0,0 +1,21 @@
+package com.geosat.gateway.ingestao;
+
+import com.geosat.gateway.client.RbmcHttpClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/** Baixa do servidor RBMC com o circuit breaker/retry do cliente. */
+public class HttpRbmcFileSource implements RbmcFileSource {
+
+    private final RbmcHttpClient client;
+
+    public HttpRbmcFileSource(RbmcHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public long fetch(String relativePath, Path target) throws IOException {
+        return client.baixarArquivo(relativePath, target);
+    }
+}
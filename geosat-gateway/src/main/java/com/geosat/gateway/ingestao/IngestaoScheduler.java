@@ -0,0 +1,35 @@
+package com.geosat.gateway.ingestao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/** Dispara a ingestão noturna do dia UTC de {@code hoje - ingestao.dias-atras}. */
+@Component
+@ConditionalOnProperty(name = "ingestao.enabled", havingValue = "true")
+public class IngestaoScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaoScheduler.class);
+
+    private final IngestaoService service;
+    private final int diasAtras;
+
+    public IngestaoScheduler(IngestaoService service, @Value("${ingestao.dias-atras:1}") int diasAtras) {
+        this.service = service;
+        this.diasAtras = diasAtras;
+    }
+
+    @Scheduled(cron = "${ingestao.cron:0 30 3 * * *}", zone = "UTC")
+    public void noturna() {
+        LocalDate dia = LocalDate.now(ZoneOffset.UTC).minusDays(diasAtras);
+        if (!service.iniciar(dia.getYear(), dia.getDayOfYear())) {
+            log.warn("ingestao_ignorada motivo=em_execucao ano={} dia={}", dia.getYear(), dia.getDayOfYear());
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.geosat.gateway.ingestao;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.orbit.OrbitGridService;
+import com.geosat.gateway.gnss.orbit.RinexNavParser;
+import com.geosat.gateway.gnss.qc.QcEngine;
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+import com.geosat.gateway.gnss.rinex.RinexFiles;
+import com.geosat.gateway.gnss.rinex.RinexObsReader;
+import com.geosat.gateway.gnss.spp.PositionService;
+import com.geosat.gateway.model.IngestaoResultadoDTO;
+import com.geosat.gateway.model.IngestaoStatusDTO;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
+import com.geosat.gateway.service.EstacaoCadastroService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ingestão em lote de um dia da rede RBMC: órbitas do dia + RINEX diário de cada estação.
+ * Grafo de estágios com filas limitadas e pools próprios:
+ * <pre>
+ *   download (I/O, N workers) → análise (CPU, M workers) → arquivamento (1 worker)
+ * </pre>
+ * Na análise, descompressão → parse → QC → série de SNR são operadores encadeados
+ * em streaming sobre o mesmo arquivo, sem materializar as épocas.
+ * <p>
+ * As estações são as do cadastro ({@link EstacaoCadastroService}) no momento da execução;
+ * {@code ingestao.estacoes} restringe a uma lista fixa.
+ */
+@Service
+public class IngestaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaoService.class);
+    private static final String[] STAGES = {"download", "analise", "arquivamento"};
+    private static final int MAX_ERROS = 50;
+    private static final int MAX_RESULTADOS = 20_000;
+
+    private final RbmcFileSource source;
+    private final OrbitGridService orbitGridService;
+    private final PositionService positionService;
+    private final SerieStore serieStore;
+    private final EstacaoCadastroService cadastro;
+    private final MeterRegistry registry;
+    private final GatewayThreads threads;
+    private final List<String> estacoes;
+    private final int capacidade;
+    private final int downloadWorkers;
+    private final int analiseWorkers;
+    private final Path workDir;
+    private final Path observacoesDir;
+    private final Path orbitasDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService launcher;
+    private final Map<String, AtomicReference<BlockingQueue<Object>>> queues = new ConcurrentHashMap<>();
+    private final Map<String, Resultado> resultados = new ConcurrentHashMap<>();
+    private final Counter bytesTotal;
+    private volatile Progresso progresso = new Progresso(null, null, 0);
+
+    public IngestaoService(RbmcFileSource source,
+                           OrbitGridService orbitGridService,
+                           PositionService positionService,
+                           SerieStore serieStore,
+                           EstacaoCadastroService cadastro,
+                           MeterRegistry registry,
+                           GatewayThreads threads,
+                           @Value("${ingestao.estacoes:}") List<String> estacoes,
+                           @Value("${ingestao.fila-capacidade:8}") int capacidade,
+                           @Value("${ingestao.workers.download:4}") int downloadWorkers,
+                           @Value("${ingestao.workers.analise:0}") int analiseWorkers,
+                           @Value("${ingestao.work-dir:}") String workDir,
+                           @Value("${gnss.observacoes.dir:}") String observacoesDir,
+                           @Value("${gnss.orbitas.dir:}") String orbitasDir) {
+        this.source = source;
+        this.orbitGridService = orbitGridService;
+        this.positionService = positionService;
+        this.serieStore = serieStore;
+        this.cadastro = cadastro;
+        this.registry = registry;
+        this.threads = threads;
+        this.estacoes = estacoes.stream().map(s -> s.trim().toUpperCase(Locale.ROOT)).filter(s -> !s.isEmpty()).toList();
+        this.capacidade = capacidade;
+        this.downloadWorkers = downloadWorkers;
+        this.analiseWorkers = analiseWorkers > 0 ? analiseWorkers : Runtime.getRuntime().availableProcessors();
+        this.workDir = workDir == null || workDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "geosat-ingestao")
+                : Path.of(workDir);
+        this.observacoesDir = observacoesDir == null || observacoesDir.isBlank() ? null : Path.of(observacoesDir);
+        this.orbitasDir = orbitasDir == null || orbitasDir.isBlank() ? null : Path.of(orbitasDir);
+        // uma execução por vez (running), então uma thread basta também no modo de plataforma
+        this.launcher = threads.executor("ingestao-launcher", 1);
+        this.bytesTotal = registry.counter("ingestao.bytes");
+        for (String stage : STAGES) {
+            AtomicReference<BlockingQueue<Object>> ref = new AtomicReference<>();
+            queues.put(stage, ref);
+            registry.gauge("ingestao.fila.tamanho", Tags.of("estagio", stage), ref,
+                    r -> r.get() == null ? 0 : r.get().size());
+        }
+        registry.gauge("ingestao.progresso.total", this, s -> s.progresso.total);
+        registry.gauge("ingestao.progresso.concluidos", this, s -> s.progresso.concluidos.get());
+        registry.gauge("ingestao.executando", running, r -> r.get() ? 1 : 0);
+    }
+
+    /** Dispara a ingestão em background; {@code false} se já houver uma em execução. */
+    public boolean iniciar(int ano, int dia) {
+        if (!running.compareAndSet(false, true)) return false;
+        launcher.submit(() -> {
+            try {
+                run(ano, dia);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /** Executa a ingestão no thread chamador (usado pelo agendador e por testes). */
+    public IngestaoStatusDTO executar(int ano, int dia) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ingestão já em execução");
+        }
+        try {
+            return run(ano, dia);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Interrompe a execução em background; os estágios abortam e o estado fica FALHOU. */
+    @PreDestroy
+    void encerrar() {
+        launcher.shutdownNow();
+    }
+
+    public IngestaoStatusDTO status() {
+        return progresso.snapshot();
+    }
+
+    public List<IngestaoResultadoDTO> resultados() {
+        List<IngestaoResultadoDTO> out = new ArrayList<>();
+        for (Resultado r : resultados.values()) out.add(r.toDto());
+        out.sort(Comparator.comparing(IngestaoResultadoDTO::ano).thenComparing(IngestaoResultadoDTO::dia)
+                .thenComparing(IngestaoResultadoDTO::codigo));
+        return out;
+    }
+
+    private IngestaoStatusDTO run(int ano, int dia) {
+        List<Job> jobs = new ArrayList<>();
+        jobs.add(new Job(null, ano, dia, "rinex3/orbitas/" + ano + "/" + dia));
+        // sem lista fixa: o cadastro atual, que cresce com as estações vistas nos RINEX
+        for (String codigo : estacoes.isEmpty() ? List.copyOf(cadastro.estacoes().keySet()) : estacoes) {
+            jobs.add(new Job(codigo, ano, dia, "rinex2/" + codigo.toLowerCase(Locale.ROOT) + "/" + ano + "/" + dia));
+        }
+        Progresso p = new Progresso(ano, dia, jobs.size());
+        progresso = p;
+        log.info("ingestao_inicio ano={} dia={} arquivos={}", ano, dia, jobs.size());
+
+        BlockingQueue<Object> toFetch = queue("download");
+        BlockingQueue<Object> toAnalyze = queue("analise");
+        BlockingQueue<Object> toArchive = queue("arquivamento");
+        // estágio de I/O: virtual threads quando habilitadas; os de CPU ficam em plataforma
+        Stage<Job, Fetched> download = new Stage<>("download", downloadWorkers, toFetch, toAnalyze,
+                this::fetch, (item, e) -> p.fail(item, e), registry, threads.fabrica("ingestao-download"));
+        Stage<Fetched, Analyzed> analise = new Stage<>("analise", analiseWorkers, toAnalyze, toArchive,
+                this::analyze, (item, e) -> p.fail(item, e), registry);
+        Stage<Analyzed, Void> arquivamento = new Stage<>("arquivamento", 1, toArchive, null,
+                a -> archive(a, p), (item, e) -> p.fail(item, e), registry);
+        List<Stage<?, ?>> stages = List.of(download, analise, arquivamento);
+        try {
+            Files.createDirectories(workDir);
+            stages.forEach(Stage::start);
+            for (Job job : jobs) {
+                toFetch.put(job); // bloqueia quando a fila enche
+            }
+            toFetch.put(Stage.END);
+            for (Stage<?, ?> s : stages) s.await();
+            p.finish(p.concluidos.get() > 0 ? "CONCLUIDO" : "FALHOU");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stages.forEach(Stage::abort);
+            p.finish("FALHOU");
+        } catch (IOException | RuntimeException e) {
+            stages.forEach(Stage::abort);
+            p.error("pipeline: " + e.getMessage());
+            p.finish("FALHOU");
+        }
+        IngestaoStatusDTO status = p.snapshot();
+        log.info("ingestao_fim ano={} dia={} estado={} concluidos={} falhas={} bytes={} bps={}",
+                ano, dia, status.estado(), status.concluidos(), status.falhas(), status.bytes(), status.bytesPorSegundo());
+        return status;
+    }
+
+    private BlockingQueue<Object> queue(String stage) {
+        BlockingQueue<Object> q = new ArrayBlockingQueue<>(capacidade);
+        queues.get(stage).set(q);
+        return q;
+    }
+
+    private Fetched fetch(Job job) throws IOException {
+        Path tmp = Files.createTempFile(workDir, job.label() + "-", ".part");
+        try {
+            long bytes = source.fetch(job.relative(), tmp);
+            bytesTotal.increment(bytes);
+            progresso.bytes.addAndGet(bytes);
+            return new Fetched(job, tmp, bytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private Analyzed analyze(Fetched f) throws IOException {
+        try {
+            if (f.job().codigo() == null) {
+                int count;
+                try (BufferedReader reader = RinexFiles.open(f.file())) {
+                    count = RinexNavParser.parse(reader).size();
+                }
+                return new Analyzed(f, null, null, count);
+            }
+            try (BufferedReader in = RinexFiles.open(f.file()); RinexObsReader reader = new RinexObsReader(in)) {
+                double interval = Double.isNaN(reader.interval()) ? 30.0 : reader.interval();
+                double t0 = GpsTime.dayStart(f.job().ano(), f.job().dia());
+                float[] snr = new float[(int) Math.round(GpsTime.SECONDS_PER_DAY / interval)];
+                Arrays.fill(snr, Float.NaN);
+                QcEngine qc = new QcEngine(reader.interval());
+                ObservationEpoch epoch = new ObservationEpoch();
+                while (reader.next(epoch)) {
+                    qc.accept(epoch);
+                    double sum = 0;
+                    int n = 0;
+                    for (int i = 0; i < epoch.size; i++) {
+                        if (!Double.isNaN(epoch.s1[i])) { sum += epoch.s1[i]; n++; }
+                    }
+                    int slot = (int) Math.round((epoch.time - t0) / interval);
+                    if (n > 0 && slot >= 0 && slot < snr.length) snr[slot] = (float) (sum / n);
+                }
+                return new Analyzed(f, qc.report(f.job().codigo(), f.job().ano(), f.job().dia(), 100), snr, 0);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(f.file());
+            throw e;
+        }
+    }
+
+    private Void archive(Analyzed a, Progresso p) throws IOException {
+        Job job = a.fetched().job();
+        Path file = a.fetched().file();
+        Path targetDir = job.codigo() == null ? orbitasDir : observacoesDir;
+        if (targetDir != null) {
+            Files.createDirectories(targetDir);
+            // conteúdo compactado é detectado pela assinatura na leitura, o nome fica canônico
+            Files.move(file, targetDir.resolve(job.archiveName()), StandardCopyOption.REPLACE_EXISTING);
+            if (job.codigo() == null) orbitGridService.invalidar(job.ano(), job.dia());
+            else positionService.invalidar(job.codigo(), job.ano(), job.dia());
+        } else {
+            Files.deleteIfExists(file);
+        }
+        if (job.codigo() != null) {
+            if (resultados.size() >= MAX_RESULTADOS) resultados.clear();
+            resultados.put(job.codigo() + "_" + job.ano() + "_" + job.dia(),
+                    new Resultado(job, a.fetched().bytes(), a.qc(), a.snr()));
+            gravarSnr(job, a.snr());
+        }
+        p.concluidos.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * SNR médio por época na partição do dia; slots vazios ficam de fora. Reingestão do mesmo
+     * RINEX não escreve nada, RINEX que cresceu só acrescenta ({@link SerieStore#gravarDia}).
+     */
+    private void gravarSnr(Job job, float[] snr) {
+        double t0 = GpsTime.dayStart(job.ano(), job.dia());
+        double intervalo = (double) GpsTime.SECONDS_PER_DAY / snr.length;
+        long[] t = new long[snr.length];
+        double[] v = new double[snr.length];
+        int n = 0;
+        for (int i = 0; i < snr.length; i++) {
+            if (Float.isNaN(snr[i])) continue;
+            t[n] = GpsTime.toInstant(t0 + i * intervalo).toEpochMilli();
+            v[n++] = snr[i];
+        }
+        serieStore.gravarDia(Observavel.SNR, job.codigo(), job.ano(), job.dia(),
+                Arrays.copyOf(t, n), new double[][]{Arrays.copyOf(v, n)});
+    }
+
+    private record Job(String codigo, int ano, int dia, String relative) {
+        String label() {
+            return codigo == null ? "orbitas" : codigo;
+        }
+
+        /** Nome canônico esperado por {@code RinexFiles}/{@code EphemerisProvider}. */
+        String archiveName() {
+            return codigo == null
+                    ? String.format("brdc%03d0.%02dn", dia, ano % 100)
+                    : String.format("%s%03d0.%02do", codigo.toLowerCase(Locale.ROOT), dia, ano % 100);
+        }
+    }
+
+    private record Fetched(Job job, Path file, long bytes) {}
+
+    private record Analyzed(Fetched fetched, QcRelatorioDTO qc, float[] snr, int ephemerides) {}
+
+    private record Resultado(Job job, long bytes, QcRelatorioDTO qc, float[] snr) {
+        IngestaoResultadoDTO toDto() {
+            double sum = 0;
+            int n = 0;
+            for (float v : snr) {
+                if (!Float.isNaN(v)) { sum += v; n++; }
+            }
+            return new IngestaoResultadoDTO(job.codigo(), job.ano(), job.dia(), bytes,
+                    qc.completude(), qc.saltosCiclo(), qc.mp1Rms(),
+                    n > 0 ? Math.round(sum / n * 100.0) / 100.0 : null, n);
+        }
+    }
+
+    /** Estado mutável de uma execução, lido pelos gauges e pelo endpoint de status. */
+    private static final class Progresso {
+        final Integer ano, dia;
+        final int total;
+        final AtomicInteger concluidos = new AtomicInteger();
+        final AtomicInteger falhas = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
+        final List<String> erros = Collections.synchronizedList(new ArrayList<>());
+        final Instant inicio = Instant.now();
+        volatile Instant fim;
+        volatile String estado;
+
+        Progresso(Integer ano, Integer dia, int total) {
+            this.ano = ano;
+            this.dia = dia;
+            this.total = total;
+            this.estado = ano == null ? "OCIOSO" : "EXECUTANDO";
+        }
+
+        void fail(Object item, Exception e) {
+            falhas.incrementAndGet();
+            String label = item instanceof Job j ? j.label()
+                    : item instanceof Fetched f ? f.job().label()
+                    : item instanceof Analyzed a ? a.fetched().job().label() : "?";
+            error(label + ": " + e.getMessage());
+            log.warn("ingestao_falha item={} msg={}", label, e.getMessage());
+        }
+
+        void error(String msg) {
+            if (erros.size() < MAX_ERROS) erros.add(msg);
+        }
+
+        void finish(String estado) {
+            this.fim = Instant.now();
+            this.estado = estado;
+        }
+
+        IngestaoStatusDTO snapshot() {
+            Instant end = fim != null ? fim : Instant.now();
+            double secs = Math.max(1e-3, Duration.between(inicio, end).toNanos() / 1e9);
+            synchronized (erros) {
+                return new IngestaoStatusDTO(ano, dia, estado, total, concluidos.get(), falhas.get(), bytes.get(),
+                        ano == null ? null : inicio, fim,
+                        ano == null ? null : Math.round(bytes.get() / secs * 10.0) / 10.0,
+                        List.copyOf(erros));
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.geosat.gateway.ingestao;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/** Substituto do servidor RBMC baseado em diretório local (mesma árvore de caminhos). */
+public class LocalRbmcFileSource implements RbmcFileSource {
+
+    private final Path root;
+
+    public LocalRbmcFileSource(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public long fetch(String relativePath, Path target) throws IOException {
+        Path source = root.resolve(relativePath).normalize();
+        if (!source.startsWith(root) || !Files.isRegularFile(source)) {
+            throw new FileNotFoundException("Arquivo inexistente na fonte local: " + relativePath);
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+}
@@ -0,0 +1,19 @@
+package com.geosat.gateway.ingestao;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Origem dos arquivos RBMC para a ingestão em lote. Em produção é o servidor
+ * IBGE (via {@code RbmcHttpClient}); em testes e espelhos, um diretório local
+ * com a mesma árvore de caminhos relativos.
+ */
+public interface RbmcFileSource {
+
+    /**
+     * Copia o arquivo de {@code relativePath} para {@code target}.
+     *
+     * @return bytes gravados
+     */
+    long fetch(String relativePath, Path target) throws IOException;
+}
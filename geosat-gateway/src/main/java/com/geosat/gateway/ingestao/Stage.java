@@ -0,0 +1,128 @@
+package com.geosat.gateway.ingestao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Estágio do pipeline: um pool próprio de workers consome a fila de entrada e
+ * publica na fila de saída. As filas são limitadas, então um estágio lento
+ * bloqueia o anterior em {@code put} (backpressure). O fim do fluxo é sinalizado
+ * por {@link #END}, repassado ao próximo estágio quando o último worker termina.
+ */
+final class Stage<I, O> {
+
+    static final Object END = new Object();
+
+    @FunctionalInterface
+    interface Step<I, O> {
+        O apply(I input) throws Exception;
+    }
+
+    private final String name;
+    private final int workers;
+    private final BlockingQueue<Object> in;
+    private final BlockingQueue<Object> out;
+    private final Step<I, O> step;
+    private final BiConsumer<Object, Exception> onError;
+    private final ExecutorService pool;
+    private final AtomicInteger alive;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final Counter processed;
+    private final Counter failed;
+    private final Timer timer;
+
+    Stage(String name, int workers, BlockingQueue<Object> in, BlockingQueue<Object> out,
+          Step<I, O> step, BiConsumer<Object, Exception> onError, MeterRegistry registry) {
+        this(name, workers, in, out, step, onError, registry, null);
+    }
+
+    /** {@code threadFactory} nulo: threads de plataforma daemon {@code ingestao-<estágio>-N}. */
+    Stage(String name, int workers, BlockingQueue<Object> in, BlockingQueue<Object> out,
+          Step<I, O> step, BiConsumer<Object, Exception> onError, MeterRegistry registry,
+          ThreadFactory threadFactory) {
+        this.name = name;
+        this.workers = workers;
+        this.in = in;
+        this.out = out;
+        this.step = step;
+        this.onError = onError;
+        this.alive = new AtomicInteger(workers);
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, threadFactory != null ? threadFactory : r -> {
+            Thread t = new Thread(r, "ingestao-" + name + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.processed = registry.counter("ingestao.estagio.processados", "estagio", name);
+        this.failed = registry.counter("ingestao.estagio.falhas", "estagio", name);
+        this.timer = registry.timer("ingestao.estagio.duracao", "estagio", name);
+    }
+
+    void start() {
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::loop);
+        }
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loop() {
+        try {
+            while (true) {
+                Object item = in.take();
+                if (item == END) {
+                    in.put(END); // libera os demais workers do estágio
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    O result = step.apply((I) item);
+                    processed.increment();
+                    if (out != null && result != null) out.put(result);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failed.increment();
+                    onError.accept(item, e);
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (alive.decrementAndGet() == 0) {
+                if (out != null) {
+                    try {
+                        out.put(END);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                done.countDown();
+            }
+        }
+    }
+
+    void await() throws InterruptedException {
+        done.await();
+    }
+
+    void abort() {
+        pool.shutdownNow();
+    }
+
+    String name() {
+        return name;
+    }
+}
@@ -0,0 +1,4 @@
+package com.geosat.gateway.model;
+
+/** Amostra nova de uma estação no stream SSE ({@link SnrSampleDTO} ou {@link PosicaoSampleDTO}). */
+public record AmostraAoVivoDTO(String codigo, Object amostra) {}
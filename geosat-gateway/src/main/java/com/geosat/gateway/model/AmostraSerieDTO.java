@@ -0,0 +1,6 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+/** Ponto de série histórica: média das {@code n} amostras do passo, na ordem das colunas (null = sem valor). */
+public record AmostraSerieDTO(String epoch, int n, List<Double> valores) {}
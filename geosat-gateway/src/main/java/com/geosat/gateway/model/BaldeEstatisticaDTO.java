@@ -0,0 +1,5 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+public record BaldeEstatisticaDTO(String inicio, List<ResumoColunaDTO> colunas) {}
@@ -0,0 +1,3 @@
+package com.geosat.gateway.model;
+
+public record DopSampleDTO(String epoch, Integer satelites, Double gdop, Double pdop, Double hdop, Double vdop) {}
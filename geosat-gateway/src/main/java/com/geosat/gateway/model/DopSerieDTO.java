@@ -0,0 +1,5 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+public record DopSerieDTO(String codigo, int ano, int dia, double mascaraGraus, String fonteOrbitas, List<DopSampleDTO> samples) {}
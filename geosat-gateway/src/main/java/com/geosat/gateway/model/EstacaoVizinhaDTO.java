@@ -0,0 +1,3 @@
+package com.geosat.gateway.model;
+
+public record EstacaoVizinhaDTO(String codigo, String nome, Double latitude, Double longitude, String status, double distanciaKm) {}
@@ -0,0 +1,6 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+public record EstatisticaSerieDTO(String codigo, String observavel, String de, String ate, long baldeSegundos,
+                                  List<String> colunas, List<Double> quantis, List<BaldeEstatisticaDTO> baldes) {}
@@ -0,0 +1,13 @@
+package com.geosat.gateway.model;
+
+public record IngestaoResultadoDTO(
+        String codigo,
+        int ano,
+        int dia,
+        long bytes,
+        Double completude,
+        int saltosCiclo,
+        Double mp1Rms,
+        Double snrMedio,
+        int epocasSnr
+) {}
@@ -0,0 +1,21 @@
+package com.geosat.gateway.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progresso da ingestão em lote (última execução ou execução corrente).
+ */
+public record IngestaoStatusDTO(
+        Integer ano,
+        Integer dia,
+        String estado, // OCIOSO, EXECUTANDO, CONCLUIDO, FALHOU
+        int total,
+        int concluidos,
+        int falhas,
+        long bytes,
+        Instant inicio,
+        Instant fim,
+        Double bytesPorSegundo,
+        List<String> erros
+) {}
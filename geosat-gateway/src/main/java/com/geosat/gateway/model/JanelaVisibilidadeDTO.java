@@ -0,0 +1,3 @@
+package com.geosat.gateway.model;
+
+public record JanelaVisibilidadeDTO(String sv, String inicio, String fim, Double elevacaoMax) {}
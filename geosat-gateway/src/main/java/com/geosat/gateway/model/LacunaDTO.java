@@ -0,0 +1,3 @@
+package com.geosat.gateway.model;
+
+public record LacunaDTO(String inicio, String fim, Double duracaoSegundos) {}
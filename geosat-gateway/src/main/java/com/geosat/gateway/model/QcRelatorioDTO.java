@@ -0,0 +1,22 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+/**
+ * Relatório de controle de qualidade das observações de uma estação em um dia
+ * (completude, lacunas, saltos de ciclo e multicaminho de código).
+ */
+public record QcRelatorioDTO(
+        String codigo,
+        int ano,
+        int dia,
+        Double intervaloSegundos,
+        int epocasEsperadas,
+        int epocasObservadas,
+        Double completude,
+        int saltosCiclo,
+        Double mp1Rms,
+        Double mp2Rms,
+        List<LacunaDTO> lacunas,
+        List<QcSateliteDTO> satelites
+) {}
@@ -0,0 +1,13 @@
+package com.geosat.gateway.model;
+
+public record QcSateliteDTO(
+        String sv,
+        int observacoes,
+        int esperadas,
+        Double completude,
+        int lacunas,
+        int saltosMw,
+        int saltosGf,
+        Double mp1Rms,
+        Double mp2Rms
+) {}
@@ -0,0 +1,7 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+/** Resumo de uma coluna no balde; {@code quantis} na ordem pedida (aproximados, erro relativo do sketch). */
+public record ResumoColunaDTO(long n, Double media, Double min, Double max, Double desvio, Double rms,
+                              List<Double> quantis) {}
@@ -0,0 +1,6 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+public record SerieHistoricaDTO(String codigo, String observavel, String de, String ate, long passoSegundos,
+                                List<String> colunas, List<AmostraSerieDTO> samples) {}
@@ -0,0 +1,3 @@
+package com.geosat.gateway.model;
+
+public record SkyPlotSampleDTO(String epoch, String sv, Double azimute, Double elevacao) {}
@@ -0,0 +1,17 @@
+package com.geosat.gateway.model;
+
+import java.util.List;
+
+/**
+ * Visibilidade de satélites sobre uma estação em um dia: janelas acima da máscara
+ * de elevação e amostras (decimadas) para sky-plot.
+ */
+public record VisibilidadeEstacaoDTO(
+        String codigo,
+        int ano,
+        int dia,
+        double mascaraGraus,
+        String fonteOrbitas,
+        List<JanelaVisibilidadeDTO> janelas,
+        List<SkyPlotSampleDTO> samples
+) {}
@@ -0,0 +1,159 @@
+package com.geosat.gateway.series;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * DDSketch (Masson et al., 2019): quantis com erro relativo máximo {@code alfa} e mesclagem
+ * exata. Cada valor cai no bin {@code ceil(log_gama |x|)}, {@code gama = (1 + alfa) / (1 - alfa)};
+ * mesclar dois sketches é somar os bins, então pré-agregados por hora/dia combinam para
+ * qualquer intervalo sem reler as amostras.
+ * <p>
+ * Negativos têm bins próprios e valores com módulo abaixo de {@value #MIN_INDEXAVEL} contam
+ * como zero. Passando de {@value #MAX_BINS} bins os de menor módulo são fundidos (só afeta
+ * quantis muito próximos de zero).
+ */
+public final class DdSketch {
+
+    static final double MIN_INDEXAVEL = 1e-9;
+    static final int MAX_BINS = 2048;
+
+    private final double alfa;
+    private final double logGama;
+    private final Bins positivos = new Bins();
+    private final Bins negativos = new Bins();
+    private long zeros;
+
+    public DdSketch(double alfa) {
+        if (!(alfa > 0 && alfa < 1)) throw new IllegalArgumentException("alfa fora de (0, 1): " + alfa);
+        this.alfa = alfa;
+        this.logGama = Math.log((1 + alfa) / (1 - alfa));
+    }
+
+    public double alfa() {
+        return alfa;
+    }
+
+    public long contagem() {
+        return zeros + positivos.total + negativos.total;
+    }
+
+    public void adicionar(double x) {
+        if (Double.isNaN(x) || Double.isInfinite(x)) return;
+        if (x > MIN_INDEXAVEL) positivos.adicionar(indice(x), 1);
+        else if (x < -MIN_INDEXAVEL) negativos.adicionar(indice(-x), 1);
+        else zeros++;
+    }
+
+    public void mesclar(DdSketch outro) {
+        if (outro.alfa != alfa) throw new IllegalArgumentException("sketches com alfa diferente");
+        zeros += outro.zeros;
+        positivos.mesclar(outro.positivos);
+        negativos.mesclar(outro.negativos);
+    }
+
+    /** Quantil {@code q} em [0, 1]; NaN quando vazio. */
+    public double quantil(double q) {
+        long n = contagem();
+        if (n == 0) return Double.NaN;
+        long posto = (long) Math.floor(q * (n - 1));
+        long acumulado = 0;
+        // do mais negativo ao mais positivo
+        for (int i = negativos.contagens.length - 1; i >= 0; i--) {
+            acumulado += negativos.contagens[i];
+            if (acumulado > posto) return -valor(negativos.deslocamento + i);
+        }
+        acumulado += zeros;
+        if (acumulado > posto) return 0;
+        for (int i = 0; i < positivos.contagens.length; i++) {
+            acumulado += positivos.contagens[i];
+            if (acumulado > posto) return valor(positivos.deslocamento + i);
+        }
+        return valor(positivos.deslocamento + positivos.contagens.length - 1);
+    }
+
+    void escrever(DataOutput out) throws IOException {
+        out.writeLong(zeros);
+        positivos.escrever(out);
+        negativos.escrever(out);
+    }
+
+    static DdSketch ler(DataInput in, double alfa) throws IOException {
+        DdSketch s = new DdSketch(alfa);
+        s.zeros = in.readLong();
+        s.positivos.ler(in);
+        s.negativos.ler(in);
+        return s;
+    }
+
+    private int indice(double x) {
+        return (int) Math.ceil(Math.log(x) / logGama);
+    }
+
+    // ponto do bin com erro relativo <= alfa para todo valor do bin
+    private double valor(int k) {
+        return 2 * Math.exp(k * logGama) / (1 + Math.exp(logGama));
+    }
+
+    /** Contagens densas dos índices {@code [deslocamento, deslocamento + contagens.length)}. */
+    private static final class Bins {
+
+        long[] contagens = new long[0];
+        int deslocamento;
+        long total;
+
+        void adicionar(int k, long n) {
+            if (contagens.length == 0) {
+                contagens = new long[16];
+                deslocamento = k - 8;
+            } else if (k < deslocamento || k >= deslocamento + contagens.length) {
+                crescer(Math.min(k, deslocamento), Math.max(k, deslocamento + contagens.length - 1));
+            }
+            k = Math.max(k, deslocamento); // abaixo do menor bin após fusão
+            contagens[k - deslocamento] += n;
+            total += n;
+        }
+
+        void mesclar(Bins outro) {
+            for (int i = 0; i < outro.contagens.length; i++) {
+                if (outro.contagens[i] != 0) adicionar(outro.deslocamento + i, outro.contagens[i]);
+            }
+        }
+
+        /** Realoca para cobrir {@code [min, max]}, com folga dos dois lados. */
+        private void crescer(int min, int max) {
+            // largura acima do limite: os bins de menor módulo são fundidos no primeiro mantido
+            if (max - min + 1 > MAX_BINS) min = max - MAX_BINS + 1;
+            int tamanho = Math.min(MAX_BINS, Math.max(max - min + 1, contagens.length * 2));
+            int novoMin = min - (tamanho - (max - min + 1)) / 2;
+            long[] novo = new long[tamanho];
+            for (int i = 0; i < contagens.length; i++) {
+                if (contagens[i] != 0) novo[Math.max(deslocamento + i, min) - novoMin] += contagens[i];
+            }
+            contagens = novo;
+            deslocamento = novoMin;
+        }
+
+        void escrever(DataOutput out) throws IOException {
+            int de = 0, ate = contagens.length;
+            while (de < ate && contagens[de] == 0) de++;
+            while (ate > de && contagens[ate - 1] == 0) ate--;
+            out.writeInt(deslocamento + de);
+            out.writeInt(ate - de);
+            for (int i = de; i < ate; i++) out.writeLong(contagens[i]);
+        }
+
+        void ler(DataInput in) throws IOException {
+            deslocamento = in.readInt();
+            int n = in.readInt();
+            if (n < 0 || n > MAX_BINS) throw new IOException("sketch inválido: " + n + " bins");
+            contagens = new long[n];
+            total = 0;
+            for (int i = 0; i < n; i++) {
+                contagens[i] = in.readLong();
+                total += contagens[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.geosat.gateway.series;
+
+import java.util.List;
+import java.util.Locale;
+
+/** Observáveis guardados no {@link SerieStore}; as colunas fixam o esquema das partições. */
+public enum Observavel {
+
+    /** SNR médio (S1) de todos os satélites por época, da ingestão diária. */
+    SNR("snr", List.of("snr_medio")),
+    /** Solução SPP por época em WGS84 (graus, graus, metros). */
+    POSICAO("posicao", List.of("lat", "lon", "h"));
+
+    private final String nome;
+    private final List<String> colunas;
+
+    Observavel(String nome, List<String> colunas) {
+        this.nome = nome;
+        this.colunas = colunas;
+    }
+
+    public String nome() {
+        return nome;
+    }
+
+    public List<String> colunas() {
+        return colunas;
+    }
+
+    /** Pelo nome usado na URL; {@code null} quando desconhecido. */
+    public static Observavel doNome(String nome) {
+        for (Observavel o : values()) {
+            if (o.nome.equals(nome.toLowerCase(Locale.ROOT))) return o;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.geosat.gateway.series;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Resumo mesclável de uma coluna: contagem, média e M2 (Welford; a fusão usa a fórmula de
+ * Chan et al.), mínimo, máximo e um {@link DdSketch} para os quantis. Média, desvio e RMS
+ * são exatos; só os quantis são aproximados.
+ */
+public final class Resumo {
+
+    private long n;
+    private double media;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final DdSketch sketch;
+
+    public Resumo(double alfa) {
+        this(new DdSketch(alfa));
+    }
+
+    private Resumo(DdSketch sketch) {
+        this.sketch = sketch;
+    }
+
+    public void adicionar(double x) {
+        if (Double.isNaN(x) || Double.isInfinite(x)) return;
+        n++;
+        double d = x - media;
+        media += d / n;
+        m2 += d * (x - media);
+        if (x < min) min = x;
+        if (x > max) max = x;
+        sketch.adicionar(x);
+    }
+
+    public void mesclar(Resumo outro) {
+        if (outro.n == 0) return;
+        long total = n + outro.n;
+        double d = outro.media - media;
+        media += d * outro.n / total;
+        m2 += outro.m2 + d * d * ((double) n * outro.n / total);
+        n = total;
+        min = Math.min(min, outro.min);
+        max = Math.max(max, outro.max);
+        sketch.mesclar(outro.sketch);
+    }
+
+    public long n() {
+        return n;
+    }
+
+    public double media() {
+        return n == 0 ? Double.NaN : media;
+    }
+
+    public double min() {
+        return n == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return n == 0 ? Double.NaN : max;
+    }
+
+    /** Desvio padrão populacional. */
+    public double desvio() {
+        return n == 0 ? Double.NaN : Math.sqrt(m2 / n);
+    }
+
+    /** Raiz da média dos quadrados ({@code sqrt(media² + variância)}). */
+    public double rms() {
+        return n == 0 ? Double.NaN : Math.sqrt(media * media + m2 / n);
+    }
+
+    public double quantil(double q) {
+        return sketch.quantil(q);
+    }
+
+    void escrever(DataOutput out) throws IOException {
+        out.writeLong(n);
+        out.writeDouble(media);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        sketch.escrever(out);
+    }
+
+    static Resumo ler(DataInput in, double alfa) throws IOException {
+        long n = in.readLong();
+        double media = in.readDouble(), m2 = in.readDouble(), min = in.readDouble(), max = in.readDouble();
+        Resumo r = new Resumo(DdSketch.ler(in, alfa));
+        r.n = n;
+        r.media = media;
+        r.m2 = m2;
+        r.min = min;
+        r.max = max;
+        return r;
+    }
+}
@@ -0,0 +1,299 @@
+package com.geosat.gateway.series;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Formato da partição colunar de uma série (um observável, uma estação, um dia UTC):
+ * <pre>
+ *   cabeçalho: "GSTS" | versão (1 byte) | geração (long) | nº de colunas (1 byte) | nomes (1 byte de tamanho + UTF-8)
+ *   bloco:     n (int) | tMin, tMax (long, ms) | bytes de cada coluna (int × (1 + colunas)) | épocas | valores…
+ * </pre>
+ * Épocas em delta-de-delta com zigzag varint (série regular = 1 byte por época); valores em
+ * XOR com o anterior sem os zeros à direita (Gorilla simplificado, varint no lugar de bits).
+ * <p>
+ * Append-only: cada acréscimo grava blocos novos no fim num único write. A leitura mapeia o
+ * arquivo em memória, pula pelo cabeçalho os blocos fora do intervalo e ignora um bloco
+ * final truncado (escrita interrompida).
+ * <p>
+ * A versão do conteúdo é a geração com o fim do último bloco completo ({@link Varredura}):
+ * acréscimos movem o fim, reescritas trocam a geração (a anterior + 1; aleatória numa partição
+ * nova). Não depende de mtime nem de tamanho do arquivo. Partições da versão 1 do formato,
+ * sem geração, são lidas como geração 0.
+ */
+final class SerieArquivo {
+
+    static final int MAGICO = 0x47535453;
+    static final byte VERSAO = 2;
+    /** Amostras por bloco: granularidade do salto por intervalo de tempo. */
+    static final int BLOCO = 720;
+
+    /** Recebe cada amostra dentro do intervalo; {@code valores} é reaproveitado entre chamadas. */
+    interface Leitor {
+        void amostra(long t, double[] valores);
+    }
+
+    /**
+     * {@code ultimo}: maior instante dos blocos percorridos ({@link Long#MIN_VALUE} se nenhum);
+     * {@code fim}: byte seguinte ao último bloco completo percorrido; {@code geracao}: do cabeçalho.
+     */
+    record Varredura(int blocosLidos, int blocosPulados, long ultimo, long fim, long geracao) {}
+
+    private record Cabecalho(List<String> colunas, long geracao) {}
+
+    private SerieArquivo() {}
+
+    /**
+     * Acrescenta as amostras {@code [de, ate)} ao fim da partição, criando-a se preciso.
+     * Quem chama garante épocas crescentes e posteriores ao último bloco. Um bloco final
+     * truncado por uma escrita interrompida é descartado antes.
+     */
+    static void acrescentar(Path arquivo, List<String> colunas, long[] t, double[][] valores, int de, int ate)
+            throws IOException {
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            Buffer b = new Buffer();
+            long pos = 0;
+            if (ch.size() == 0) {
+                cabecalho(b, colunas, ThreadLocalRandom.current().nextLong());
+            } else {
+                List<String> existentes = cabecalho(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size())).colunas();
+                if (!existentes.equals(colunas)) {
+                    throw new IOException("colunas " + colunas + " diferentes da partição " + existentes);
+                }
+                pos = varrer(arquivo, Long.MAX_VALUE, Long.MAX_VALUE, null).fim();
+                if (pos < ch.size()) ch.truncate(pos);
+            }
+            for (int i = de; i < ate; i += BLOCO) bloco(b, t, valores, i, Math.min(ate, i + BLOCO));
+            ByteBuffer buf = ByteBuffer.wrap(b.buffer(), 0, b.size());
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+        }
+    }
+
+    /**
+     * Reescreve a partição inteira (ex.: reingestão do dia), via arquivo temporário e troca
+     * atômica, com a geração seguinte à da partição substituída.
+     */
+    static void escrever(Path arquivo, List<String> colunas, long[] t, double[][] valores, int n) throws IOException {
+        Path dir = arquivo.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Buffer b = new Buffer();
+        cabecalho(b, colunas, geracaoSeguinte(arquivo));
+        for (int i = 0; i < n; i += BLOCO) bloco(b, t, valores, i, Math.min(n, i + BLOCO));
+        Path tmp = Files.createTempFile(dir, arquivo.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, b.toByteArray());
+            // leitores com o arquivo antigo mapeado continuam vendo a versão anterior inteira
+            Files.move(tmp, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private static long geracaoSeguinte(Path arquivo) {
+        if (Files.isRegularFile(arquivo)) {
+            try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+                return cabecalho(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size())).geracao() + 1;
+            } catch (IOException | BufferUnderflowException e) {
+                // partição ilegível: qualquer geração nova serve
+            }
+        }
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Entrega ao {@code leitor} as amostras com {@code de <= t <= ate}, em ordem. Blocos fora
+     * do intervalo não são decodificados; {@code leitor} nulo só percorre os cabeçalhos.
+     */
+    static Varredura varrer(Path arquivo, long de, long ate, Leitor leitor) throws IOException {
+        try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer m = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            Cabecalho cabecalho = cabecalho(m);
+            int colunas = cabecalho.colunas().size();
+            int tamanhoCabecalho = 20 + 4 * (1 + colunas);
+            int[] tamanhos = new int[1 + colunas];
+            long[] t = new long[0];
+            double[][] v = new double[colunas][0];
+            double[] linha = new double[colunas];
+            int lidos = 0, pulados = 0;
+            long ultimo = Long.MIN_VALUE;
+            long fim = m.position();
+            while (m.remaining() >= tamanhoCabecalho) {
+                int n = m.getInt();
+                long tMin = m.getLong(), tMax = m.getLong();
+                long total = 0;
+                for (int c = 0; c <= colunas; c++) {
+                    tamanhos[c] = m.getInt();
+                    total += tamanhos[c];
+                }
+                if (n < 0 || total > m.remaining()) break; // bloco final truncado
+                // blocos em ordem de tempo: depois de um bloco além do intervalo não há mais nada
+                if (tMin > ate) break;
+                ultimo = tMax;
+                fim = m.position() + total;
+                if (leitor == null || tMax < de) {
+                    m.position((int) fim);
+                    pulados++;
+                    continue;
+                }
+                lidos++;
+                if (t.length < n) {
+                    t = new long[n];
+                    for (int c = 0; c < colunas; c++) v[c] = new double[n];
+                }
+                int inicio = m.position();
+                epocas(m, t, n);
+                m.position(inicio += tamanhos[0]);
+                for (int c = 0; c < colunas; c++) {
+                    valores(m, v[c], n);
+                    m.position(inicio += tamanhos[c + 1]);
+                }
+                for (int i = 0; i < n && t[i] <= ate; i++) {
+                    if (t[i] < de) continue;
+                    for (int c = 0; c < colunas; c++) linha[c] = v[c][i];
+                    leitor.amostra(t[i], linha);
+                }
+            }
+            return new Varredura(lidos, pulados, ultimo, fim, cabecalho.geracao());
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("partição corrompida: " + arquivo, e);
+        }
+    }
+
+    private static void cabecalho(Buffer b, List<String> colunas, long geracao) {
+        b.int32(MAGICO);
+        b.write(VERSAO);
+        b.int64(geracao);
+        b.write(colunas.size());
+        for (String c : colunas) {
+            byte[] nome = c.getBytes(StandardCharsets.UTF_8);
+            b.write(nome.length);
+            b.write(nome, 0, nome.length);
+        }
+    }
+
+    /** Lê o cabeçalho e deixa o buffer no primeiro bloco. */
+    private static Cabecalho cabecalho(ByteBuffer m) throws IOException {
+        if (m.remaining() < 6 || m.getInt() != MAGICO) throw new IOException("não é uma partição de série");
+        byte versao = m.get();
+        if (versao != 1 && versao != VERSAO) throw new IOException("versão de partição não suportada: " + versao);
+        long geracao = versao == 1 ? 0 : m.getLong();
+        int n = m.get() & 0xFF;
+        List<String> colunas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            byte[] nome = new byte[m.get() & 0xFF];
+            m.get(nome);
+            colunas.add(new String(nome, StandardCharsets.UTF_8));
+        }
+        return new Cabecalho(colunas, geracao);
+    }
+
+    private static void bloco(Buffer b, long[] t, double[][] valores, int de, int ate) {
+        Buffer epocas = new Buffer();
+        epocas.varint(zigzag(t[de]));
+        long delta = 0;
+        for (int i = de + 1; i < ate; i++) {
+            long d = t[i] - t[i - 1];
+            epocas.varint(zigzag(d - delta));
+            delta = d;
+        }
+        Buffer[] colunas = new Buffer[valores.length];
+        for (int c = 0; c < valores.length; c++) {
+            colunas[c] = new Buffer();
+            long anterior = 0;
+            for (int i = de; i < ate; i++) {
+                long bits = Double.doubleToLongBits(valores[c][i]);
+                long x = bits ^ anterior;
+                if (x == 0) {
+                    colunas[c].write(0);
+                } else {
+                    int zeros = Long.numberOfTrailingZeros(x);
+                    colunas[c].write(zeros + 1);
+                    colunas[c].varint(x >>> zeros);
+                }
+                anterior = bits;
+            }
+        }
+        b.int32(ate - de);
+        b.int64(t[de]);
+        b.int64(t[ate - 1]);
+        b.int32(epocas.size());
+        for (Buffer c : colunas) b.int32(c.size());
+        b.write(epocas.buffer(), 0, epocas.size());
+        for (Buffer c : colunas) b.write(c.buffer(), 0, c.size());
+    }
+
+    private static void epocas(ByteBuffer m, long[] t, int n) {
+        if (n == 0) return;
+        t[0] = unzigzag(varint(m));
+        long delta = 0;
+        for (int i = 1; i < n; i++) {
+            delta += unzigzag(varint(m));
+            t[i] = t[i - 1] + delta;
+        }
+    }
+
+    private static void valores(ByteBuffer m, double[] v, int n) {
+        long anterior = 0;
+        for (int i = 0; i < n; i++) {
+            int zeros = m.get() & 0xFF;
+            if (zeros != 0) anterior ^= varint(m) << (zeros - 1);
+            v[i] = Double.longBitsToDouble(anterior);
+        }
+    }
+
+    private static long varint(ByteBuffer m) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = m.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IllegalArgumentException("varint inválido");
+    }
+
+    private static long zigzag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unzigzag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /** Escritor big-endian + varint sobre um array que cresce. */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        void int32(int v) {
+            for (int s = 24; s >= 0; s -= 8) write(v >>> s);
+        }
+
+        void int64(long v) {
+            for (int s = 56; s >= 0; s -= 8) write((int) (v >>> s));
+        }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.geosat.gateway.series;
+
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.model.BaldeEstatisticaDTO;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.EstatisticaSerieDTO;
+import com.geosat.gateway.model.ResumoColunaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estatísticas por balde (contagem, média, mínimo, máximo, desvio, RMS e quantis) sobre as
+ * séries do {@link SerieStore}, sem devolver amostras.
+ * <p>
+ * Cada partição diária ganha um pré-agregado ({@code <ddd>.agg}) com um {@link Resumo} por
+ * hora e coluna, gerado na primeira consulta e refeito quando muda a versão de conteúdo da
+ * partição (geração e fim do último bloco, ver {@link SerieArquivo}). Baldes múltiplos de
+ * 1 h mesclam as horas inteiras do intervalo e só varrem as amostras das horas parciais das
+ * pontas; baldes menores agregam as amostras numa única passada de varredura.
+ * <p>
+ * Posições são resumidas em metros: norte/leste da coordenada da estação no catálogo e altura
+ * elipsoidal; o pré-agregado guarda essa referência e é refeito se ela mudar.
+ */
+@Service
+public class SerieEstatisticaService {
+
+    private static final Logger log = LoggerFactory.getLogger(SerieEstatisticaService.class);
+    static final long HORA_MS = 3_600_000L;
+    private static final long DIA_MS = 24 * HORA_MS;
+    private static final int MAGICO = 0x47534147;
+    private static final byte VERSAO = 2;
+
+    private final SerieStore store;
+    private final double alfa;
+    private final Counter horasPreAgregadas;
+    private final Counter preAgregadosGerados;
+
+    public SerieEstatisticaService(SerieStore store, MeterRegistry registry,
+                                   @Value("${estacoes.series.stats.precisao:0.01}") double alfa) {
+        this.store = store;
+        this.alfa = alfa;
+        this.horasPreAgregadas = registry.counter("estacoes.series.stats.horas_pre_agregadas");
+        this.preAgregadosGerados = registry.counter("estacoes.series.stats.pre_agregados_gerados");
+    }
+
+    /** Nomes das colunas resumidas (posição em metros, demais como gravadas). */
+    public static List<String> colunas(Observavel o) {
+        return o == Observavel.POSICAO ? List.of("norte_m", "leste_m", "h_m") : o.colunas();
+    }
+
+    /**
+     * Resumos por balde de {@code baldeMs} (alinhado à época Unix, UTC) em {@code [de, ate)};
+     * baldes sem amostras ficam de fora. {@code quantis} em [0, 1].
+     */
+    public EstatisticaSerieDTO calcular(Observavel o, EstacaoDTO estacao, Instant de, Instant ate, long baldeMs,
+                                        List<Double> quantis) {
+        long deMs = de.toEpochMilli(), ateMs = ate.toEpochMilli();
+        double[] referencia = referencia(o, estacao);
+        int colunas = o.colunas().size();
+        Map<Long, Resumo[]> baldes = new TreeMap<>();
+        double[] convertido = new double[colunas];
+        SerieArquivo.Leitor leitor = (t, v) -> {
+            converter(o, referencia, v, convertido);
+            Resumo[] r = balde(baldes, Math.floorDiv(t, baldeMs) * baldeMs, colunas);
+            for (int c = 0; c < colunas; c++) r[c].adicionar(convertido[c]);
+        };
+        boolean porHora = baldeMs % HORA_MS == 0;
+        for (LocalDate d = dia(deMs); !d.isAfter(dia(ateMs - 1)); d = d.plusDays(1)) {
+            Path p = store.particao(o, estacao.codigo(), d);
+            if (!Files.isRegularFile(p)) continue;
+            long inicioDia = d.toEpochDay() * DIA_MS;
+            try {
+                if (!porHora) {
+                    SerieArquivo.varrer(p, Math.max(deMs, inicioDia), Math.min(ateMs, inicioDia + DIA_MS) - 1, leitor);
+                    continue;
+                }
+                Resumo[][] horas = null;
+                for (int h = 0; h < 24; h++) {
+                    long hi = inicioDia + h * HORA_MS, hf = hi + HORA_MS;
+                    if (hf <= deMs || hi >= ateMs) continue;
+                    if (hi < deMs || hf > ateMs) {
+                        // hora parcial na ponta do intervalo: só ela é varrida
+                        SerieArquivo.varrer(p, Math.max(hi, deMs), Math.min(hf, ateMs) - 1, leitor);
+                        continue;
+                    }
+                    if (horas == null) horas = preAgregado(o, p, inicioDia, referencia);
+                    long n = 0;
+                    for (Resumo c : horas[h]) n += c.n();
+                    if (n == 0) continue;
+                    Resumo[] r = balde(baldes, Math.floorDiv(hi, baldeMs) * baldeMs, colunas);
+                    for (int c = 0; c < colunas; c++) r[c].mesclar(horas[h][c]);
+                    horasPreAgregadas.increment();
+                }
+            } catch (IOException e) {
+                log.warn("falha_serie_estatistica particao={} msg={}", p, e.getMessage());
+            }
+        }
+        List<BaldeEstatisticaDTO> out = new ArrayList<>(baldes.size());
+        baldes.forEach((inicio, r) -> {
+            List<ResumoColunaDTO> resumos = new ArrayList<>(colunas);
+            for (Resumo c : r) resumos.add(dto(c, quantis));
+            out.add(new BaldeEstatisticaDTO(Instant.ofEpochMilli(inicio).toString(), resumos));
+        });
+        return new EstatisticaSerieDTO(estacao.codigo(), o.nome(), de.toString(), ate.toString(), baldeMs / 1000,
+                colunas(o), quantis, out);
+    }
+
+    /** Resumos por hora do dia da partição, do arquivo {@code .agg} ou (re)gerados agora. */
+    Resumo[][] preAgregado(Observavel o, Path particao, long inicioDia, double[] referencia) throws IOException {
+        Path agg = particao.resolveSibling(particao.getFileName().toString().replace(".gts", ".agg"));
+        // só os cabeçalhos dos blocos: versão do conteúdo sem decodificar amostras
+        SerieArquivo.Varredura atual = SerieArquivo.varrer(particao, Long.MAX_VALUE, Long.MAX_VALUE, null);
+        int colunas = o.colunas().size();
+        Resumo[][] horas = ler(agg, atual.geracao(), atual.fim(), referencia, colunas);
+        if (horas != null) return horas;
+
+        horas = new Resumo[24][colunas];
+        for (Resumo[] h : horas) {
+            for (int c = 0; c < colunas; c++) h[c] = new Resumo(alfa);
+        }
+        double[] convertido = new double[colunas];
+        Resumo[][] destino = horas;
+        // versão gravada é a do mesmo mapeamento que foi agregado, mesmo com um acréscimo no meio
+        SerieArquivo.Varredura lida = SerieArquivo.varrer(particao, Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> {
+            int h = (int) Math.floorDiv(t - inicioDia, HORA_MS);
+            if (h < 0 || h >= 24) return;
+            converter(o, referencia, v, convertido);
+            for (int c = 0; c < colunas; c++) destino[h][c].adicionar(convertido[c]);
+        });
+        gravar(agg, lida.geracao(), lida.fim(), referencia, horas);
+        preAgregadosGerados.increment();
+        return horas;
+    }
+
+    private Resumo[][] ler(Path agg, long geracao, long fim, double[] referencia, int colunas) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(agg)))) {
+            if (in.readInt() != MAGICO || in.readByte() != VERSAO) return null;
+            if (in.readLong() != geracao || in.readLong() != fim || in.readDouble() != alfa) return null;
+            double[] ref = new double[in.readInt()];
+            for (int i = 0; i < ref.length; i++) ref[i] = in.readDouble();
+            if (!Arrays.equals(ref, referencia) || in.readInt() != colunas) return null;
+            Resumo[][] horas = new Resumo[24][colunas];
+            for (Resumo[] h : horas) {
+                for (int c = 0; c < colunas; c++) h[c] = Resumo.ler(in, alfa);
+            }
+            return horas;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("falha_ler_pre_agregado arquivo={} msg={}", agg, e.getMessage());
+            return null;
+        }
+    }
+
+    private void gravar(Path agg, long geracao, long fim, double[] referencia, Resumo[][] horas) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(agg.toAbsolutePath().getParent(), agg.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGICO);
+                out.writeByte(VERSAO);
+                out.writeLong(geracao);
+                out.writeLong(fim);
+                out.writeDouble(alfa);
+                out.writeInt(referencia.length);
+                for (double r : referencia) out.writeDouble(r);
+                out.writeInt(horas[0].length);
+                for (Resumo[] h : horas) {
+                    for (Resumo c : h) c.escrever(out);
+                }
+            }
+            Files.move(tmp, agg, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // sem o arquivo a próxima consulta só refaz a agregação
+            log.warn("falha_gravar_pre_agregado arquivo={} msg={}", agg, e.getMessage());
+            try {
+                if (tmp != null) Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // temporário órfão não afeta a leitura
+            }
+        }
+    }
+
+    private Resumo[] balde(Map<Long, Resumo[]> baldes, long inicio, int colunas) {
+        return baldes.computeIfAbsent(inicio, k -> {
+            Resumo[] r = new Resumo[colunas];
+            for (int c = 0; c < colunas; c++) r[c] = new Resumo(alfa);
+            return r;
+        });
+    }
+
+    private static double[] referencia(Observavel o, EstacaoDTO estacao) {
+        return o == Observavel.POSICAO ? new double[]{estacao.latitude(), estacao.longitude()} : new double[0];
+    }
+
+    /** Posição: graus -> metros norte/leste da referência (raios de curvatura do elipsoide na latitude dela). */
+    static void converter(Observavel o, double[] referencia, double[] v, double[] out) {
+        if (o != Observavel.POSICAO) {
+            System.arraycopy(v, 0, out, 0, out.length);
+            return;
+        }
+        double phi = Math.toRadians(referencia[0]);
+        double w = 1 - Wgs84.E2 * Math.sin(phi) * Math.sin(phi);
+        double meridiano = Wgs84.A * (1 - Wgs84.E2) / (w * Math.sqrt(w));
+        double normal = Wgs84.A / Math.sqrt(w);
+        double dLon = v[1] - referencia[1];
+        if (dLon > 180) dLon -= 360;
+        else if (dLon < -180) dLon += 360;
+        out[0] = Math.toRadians(v[0] - referencia[0]) * meridiano;
+        out[1] = Math.toRadians(dLon) * normal * Math.cos(phi);
+        out[2] = v[2];
+    }
+
+    private static ResumoColunaDTO dto(Resumo r, List<Double> quantis) {
+        List<Double> q = new ArrayList<>(quantis.size());
+        for (double p : quantis) q.add(nulo(r.quantil(p)));
+        return new ResumoColunaDTO(r.n(), nulo(r.media()), nulo(r.min()), nulo(r.max()), nulo(r.desvio()),
+                nulo(r.rms()), q);
+    }
+
+    private static Double nulo(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+
+    private static LocalDate dia(long ms) {
+        return LocalDate.ofEpochDay(Math.floorDiv(ms, DIA_MS));
+    }
+}
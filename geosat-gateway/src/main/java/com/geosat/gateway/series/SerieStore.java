@@ -0,0 +1,293 @@
+package com.geosat.gateway.series;
+
+import com.geosat.gateway.model.AmostraSerieDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Armazenamento local de séries temporais por estação, sem banco externo: uma partição
+ * {@link SerieArquivo} por observável, estação e dia UTC em
+ * {@code <dir>/<observavel>/<CODIGO>/<ano>/<ddd>.gts}.
+ * <p>
+ * Consultas de intervalo abrem só as partições dos dias pedidos e agregam durante a varredura
+ * (média por intervalo de {@code passo}), sem materializar as amostras brutas: meses de série
+ * custam a leitura dos blocos que caem no intervalo, não a resposta inteira em memória.
+ */
+@Service
+public class SerieStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SerieStore.class);
+    private static final long DIA_MS = 86_400_000L;
+
+    /** Pontos agregados; {@code particoes} lidas e {@code blocosPulados} pelo intervalo de tempo. */
+    public record Consulta(long passoSegundos, List<AmostraSerieDTO> amostras, int particoes, int blocosPulados) {}
+
+    private final Path dir;
+    private final int maxDias;
+    private final Counter particoesLidas;
+    private final Counter blocosPulados;
+    private final Counter amostrasLidas;
+    private final Counter amostrasGravadas;
+    private final Counter diasReescritos;
+
+    public SerieStore(MeterRegistry registry,
+                      @Value("${estacoes.series.dir:${geosat.dados-dir:${user.home}/.geosat}/series}") String dir,
+                      @Value("${estacoes.series.max-dias:1100}") int maxDias) {
+        // histórico não é cache: sem diretório durável explícito a aplicação não sobe
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException("estacoes.series.dir vazio: defina um diretório durável (SERIES_DIR ou GEOSAT_DADOS_DIR)");
+        }
+        this.dir = Path.of(dir);
+        this.maxDias = maxDias;
+        this.particoesLidas = registry.counter("estacoes.series.particoes_lidas");
+        this.blocosPulados = registry.counter("estacoes.series.blocos_pulados");
+        this.amostrasLidas = registry.counter("estacoes.series.amostras_lidas");
+        this.amostrasGravadas = registry.counter("estacoes.series.amostras_gravadas");
+        this.diasReescritos = registry.counter("estacoes.series.dias_reescritos");
+    }
+
+    /** Maior intervalo aceito por consulta, em dias. */
+    public int maxDias() {
+        return maxDias;
+    }
+
+    Path particao(Observavel o, String codigo, LocalDate dia) {
+        return dir.resolve(o.nome()).resolve(codigo.toUpperCase(Locale.ROOT))
+                .resolve(String.valueOf(dia.getYear()))
+                .resolve(String.format("%03d.gts", dia.getDayOfYear()));
+    }
+
+    /**
+     * Acrescenta amostras ({@code t} em ms, crescente; {@code valores[coluna][i]}) às partições
+     * dos seus dias. Épocas não posteriores à última já gravada são descartadas (append-only).
+     * Devolve quantas amostras foram gravadas.
+     */
+    public synchronized int acrescentar(Observavel o, String codigo, long[] t, double[][] valores) {
+        int gravadas = 0;
+        for (int i = 0, j; i < t.length; i = j) {
+            LocalDate dia = dia(t[i]);
+            long fim = inicio(dia) + DIA_MS;
+            j = i;
+            while (j < t.length && t[j] < fim) j++;
+            Path p = particao(o, codigo, dia);
+            try {
+                long ultimo = Files.isRegularFile(p)
+                        ? SerieArquivo.varrer(p, Long.MAX_VALUE, Long.MAX_VALUE, null).ultimo()
+                        : Long.MIN_VALUE;
+                int k = i;
+                while (k < j && t[k] <= ultimo) k++;
+                if (k < j) {
+                    SerieArquivo.acrescentar(p, o.colunas(), t, valores, k, j);
+                    gravadas += j - k;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("falha_serie_gravar particao={} msg={}", p, e.getMessage());
+            }
+        }
+        amostrasGravadas.increment(gravadas);
+        return gravadas;
+    }
+
+    /**
+     * Grava o dia inteiro de uma fonte que o recalcula por completo (ingestão, solução SPP),
+     * com as amostras em ordem. Só escreve o que mudou: dia novo cria a partição; conteúdo
+     * igual ao gravado não escreve nada; gravado como prefixo do novo acrescenta só o fim;
+     * qualquer outra diferença (RINEX corrigido) reescreve a partição. Devolve quantas
+     * amostras foram gravadas.
+     */
+    public synchronized int gravarDia(Observavel o, String codigo, int ano, int dia, long[] t, double[][] valores) {
+        Path p = particao(o, codigo, LocalDate.ofYearDay(ano, dia));
+        try {
+            if (!Files.isRegularFile(p)) {
+                if (t.length == 0) return 0;
+                SerieArquivo.escrever(p, o.colunas(), t, valores, t.length);
+                amostrasGravadas.increment(t.length);
+                return t.length;
+            }
+            Prefixo prefixo = new Prefixo(t, valores);
+            SerieArquivo.varrer(p, Long.MIN_VALUE, Long.MAX_VALUE, prefixo);
+            if (prefixo.igual && prefixo.lidas == t.length) return 0;
+            if (prefixo.igual) {
+                SerieArquivo.acrescentar(p, o.colunas(), t, valores, prefixo.lidas, t.length);
+            } else {
+                SerieArquivo.escrever(p, o.colunas(), t, valores, t.length);
+                diasReescritos.increment();
+            }
+            int gravadas = t.length - (prefixo.igual ? prefixo.lidas : 0);
+            amostrasGravadas.increment(gravadas);
+            return gravadas;
+        } catch (IOException | RuntimeException e) {
+            log.warn("falha_serie_gravar particao={} msg={}", p, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Até {@code max} pontos entre {@code de} e {@code ate} (inclusivos): o intervalo é dividido
+     * em passos de segundos inteiros a partir de {@code de} e cada ponto é a média das amostras
+     * do seu passo, na época da primeira delas, com o número de amostras agregadas. Passo menor
+     * que o da série devolve as amostras originais.
+     */
+    public Consulta consultar(Observavel o, String codigo, Instant de, Instant ate, int max) {
+        long deMs = de.toEpochMilli(), ateMs = ate.toEpochMilli();
+        long passo = Math.max(1000, ((ateMs - deMs + 1 + max - 1) / max + 999) / 1000 * 1000);
+        Agregador agregador = new Agregador(o.colunas().size(), deMs, passo);
+        int particoes = 0, pulados = 0;
+        for (LocalDate d = dia(deMs); !d.isAfter(dia(ateMs)); d = d.plusDays(1)) {
+            Path p = particao(o, codigo, d);
+            if (!Files.isRegularFile(p)) continue;
+            try {
+                SerieArquivo.Varredura v = SerieArquivo.varrer(p, deMs, ateMs, agregador);
+                particoes++;
+                pulados += v.blocosPulados();
+            } catch (IOException e) {
+                log.warn("falha_serie_ler particao={} msg={}", p, e.getMessage());
+            }
+        }
+        agregador.emitir();
+        particoesLidas.increment(particoes);
+        blocosPulados.increment(pulados);
+        amostrasLidas.increment(agregador.lidas);
+        return new Consulta(passo / 1000, agregador.saida, particoes, pulados);
+    }
+
+    /** Época da última amostra gravada na partição do dia ({@link Long#MIN_VALUE} se não há). */
+    public long ultimaEpoca(Observavel o, String codigo, LocalDate dia) {
+        Path p = particao(o, codigo, dia);
+        if (!Files.isRegularFile(p)) return Long.MIN_VALUE;
+        try {
+            return SerieArquivo.varrer(p, Long.MAX_VALUE, Long.MAX_VALUE, null).ultimo();
+        } catch (IOException e) {
+            log.warn("falha_serie_ler particao={} msg={}", p, e.getMessage());
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * As até {@code max} amostras mais recentes com época em {@code (depoisDe, ate]}, sem
+     * agregação ({@code n = 1}); para quem acompanha a série ao vivo.
+     */
+    public List<AmostraSerieDTO> recentes(Observavel o, String codigo, long depoisDe, long ate, int max) {
+        if (depoisDe >= ate) return List.of();
+        int limite = Math.max(1, max);
+        ArrayDeque<AmostraSerieDTO> ultimas = new ArrayDeque<>(limite);
+        SerieArquivo.Leitor leitor = (t, valores) -> {
+            if (ultimas.size() == limite) ultimas.pollFirst();
+            List<Double> v = new ArrayList<>(valores.length);
+            for (double x : valores) v.add(Double.isNaN(x) ? null : x);
+            ultimas.addLast(new AmostraSerieDTO(Instant.ofEpochMilli(t).toString(), 1, v));
+        };
+        for (LocalDate d = dia(depoisDe + 1); !d.isAfter(dia(ate)); d = d.plusDays(1)) {
+            Path p = particao(o, codigo, d);
+            if (!Files.isRegularFile(p)) continue;
+            try {
+                SerieArquivo.varrer(p, depoisDe + 1, ate, leitor);
+            } catch (IOException e) {
+                log.warn("falha_serie_ler particao={} msg={}", p, e.getMessage());
+            }
+        }
+        amostrasLidas.increment(ultimas.size());
+        return new ArrayList<>(ultimas);
+    }
+
+    private static LocalDate dia(long ms) {
+        return LocalDate.ofEpochDay(Math.floorDiv(ms, DIA_MS));
+    }
+
+    private static long inicio(LocalDate dia) {
+        return dia.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** Confere se a partição gravada é prefixo exato (mesmos bits) das amostras novas. */
+    private static final class Prefixo implements SerieArquivo.Leitor {
+
+        final long[] t;
+        final double[][] valores;
+        boolean igual = true;
+        int lidas;
+
+        Prefixo(long[] t, double[][] valores) {
+            this.t = t;
+            this.valores = valores;
+        }
+
+        @Override
+        public void amostra(long epoca, double[] linha) {
+            if (!igual) return;
+            int i = lidas++;
+            if (i >= t.length || t[i] != epoca) {
+                igual = false;
+                return;
+            }
+            for (int c = 0; c < linha.length; c++) {
+                if (Double.doubleToLongBits(valores[c][i]) != Double.doubleToLongBits(linha[c])) {
+                    igual = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Média por passo durante a varredura; as partições chegam em ordem de tempo. */
+    private static final class Agregador implements SerieArquivo.Leitor {
+
+        final long de, passo;
+        final double[] soma;
+        final int[] validas;
+        final List<AmostraSerieDTO> saida = new ArrayList<>();
+        long balde = -1;
+        long primeira;
+        int noBalde;
+        long lidas;
+
+        Agregador(int colunas, long de, long passo) {
+            this.de = de;
+            this.passo = passo;
+            this.soma = new double[colunas];
+            this.validas = new int[colunas];
+        }
+
+        @Override
+        public void amostra(long t, double[] valores) {
+            long b = (t - de) / passo;
+            if (b != balde) {
+                emitir();
+                balde = b;
+                primeira = t;
+            }
+            lidas++;
+            noBalde++;
+            for (int c = 0; c < valores.length; c++) {
+                if (Double.isNaN(valores[c])) continue;
+                soma[c] += valores[c];
+                validas[c]++;
+            }
+        }
+
+        void emitir() {
+            if (noBalde == 0) return;
+            List<Double> medias = new ArrayList<>(soma.length);
+            for (int c = 0; c < soma.length; c++) medias.add(validas[c] == 0 ? null : soma[c] / validas[c]);
+            saida.add(new AmostraSerieDTO(Instant.ofEpochMilli(primeira).toString(), noBalde, medias));
+            noBalde = 0;
+            Arrays.fill(soma, 0);
+            Arrays.fill(validas, 0);
+        }
+    }
+}
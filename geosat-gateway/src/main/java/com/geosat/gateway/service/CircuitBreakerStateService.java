@@ -1,5 +1,6 @@
 package com.geosat.gateway.service;
 
+import com.geosat.gateway.client.RbmcEndpoint;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
@@ -7,31 +8,46 @@ import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.Optional;
 
+/**
+ * Tempo restante de circuito aberto para o {@code Retry-After}, por família de endpoint
+ * ({@link RbmcEndpoint#circuitBreaker()}); sem família, vale o circuito do relatório.
+ */
 @Service
 public class CircuitBreakerStateService {
 
-    private final CircuitBreaker circuitBreaker;
+    private final Map<RbmcEndpoint, CircuitBreaker> circuitBreakers = new EnumMap<>(RbmcEndpoint.class);
+    private final Map<RbmcEndpoint, AtomicReference<Instant>> openSince = new EnumMap<>(RbmcEndpoint.class);
     private final long configuredWaitOpenSeconds;
-    private final AtomicReference<Instant> openSince = new AtomicReference<>();
     private final Duration openDuration;
 
     public CircuitBreakerStateService(CircuitBreakerRegistry registry,
                                       org.springframework.core.env.Environment env) {
-        this.circuitBreaker = registry.circuitBreaker("rbmcClient");
     this.configuredWaitOpenSeconds = env.getProperty("rbmc.circuitBreaker.waitOpenSeconds", Long.class, 30L);
     this.openDuration = Duration.ofSeconds(configuredWaitOpenSeconds);
-        // Listener para capturar transições e registrar timestamp de abertura real
-        this.circuitBreaker.getEventPublisher().onStateTransition(this::onTransition);
+        for (RbmcEndpoint endpoint : RbmcEndpoint.values()) {
+            CircuitBreaker circuitBreaker = registry.circuitBreaker(endpoint.circuitBreaker());
+            AtomicReference<Instant> since = new AtomicReference<>();
+            // Listener para capturar transições e registrar timestamp de abertura real
+            circuitBreaker.getEventPublisher().onStateTransition(ev -> onTransition(since, ev));
+            circuitBreakers.put(endpoint, circuitBreaker);
+            openSince.put(endpoint, since);
+        }
     }
 
     public Optional<Long> remainingOpenSeconds() {
-        if (circuitBreaker.getState() != CircuitBreaker.State.OPEN) {
+        return remainingOpenSeconds(RbmcEndpoint.RELATORIO);
+    }
+
+    public Optional<Long> remainingOpenSeconds(RbmcEndpoint endpoint) {
+        if (circuitBreakers.get(endpoint).getState() != CircuitBreaker.State.OPEN) {
             return Optional.empty();
         }
-        Instant since = openSince.get();
+        Instant since = openSince.get(endpoint).get();
         if (since == null) {
             // Caso raro: estado OPEN mas não capturamos evento (fallback heurístico)
             return Optional.of(configuredWaitOpenSeconds);
@@ -47,13 +63,13 @@ public class CircuitBreakerStateService {
     }
 
     public boolean isOpen(){
-        return circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+        return circuitBreakers.get(RbmcEndpoint.RELATORIO).getState() == CircuitBreaker.State.OPEN;
     }
 
-    private void onTransition(CircuitBreakerOnStateTransitionEvent event){
+    private static void onTransition(AtomicReference<Instant> since, CircuitBreakerOnStateTransitionEvent event){
         switch (event.getStateTransition()) {
-            case CLOSED_TO_OPEN, HALF_OPEN_TO_OPEN -> openSince.set(Instant.now());
-            case OPEN_TO_HALF_OPEN, OPEN_TO_CLOSED -> openSince.set(null);
+            case CLOSED_TO_OPEN, HALF_OPEN_TO_OPEN -> since.set(Instant.now());
+            case OPEN_TO_HALF_OPEN, OPEN_TO_CLOSED -> since.set(null);
             default -> { /* ignore outros */ }
         }
     }
@@ -0,0 +1,17 @@
+package com.geosat.gateway.service;
+
+import java.time.Instant;
+
+/**
+ * Cadastro de uma estação: coordenadas e metadados de equipamento. Campos de equipamento
+ * e {@code ultimaObservacao} ficam nulos enquanto nenhum RINEX da estação foi lido;
+ * {@code arquivo} é o RINEX de onde vieram (para a varredura incremental).
+ */
+public record EstacaoCadastro(String codigo, String nome, double latitude, double longitude,
+                              String receptor, String antena, Double alturaAntena, Instant ultimaObservacao,
+                              String arquivo, long arquivoModificado) {
+
+    static EstacaoCadastro semente(String codigo, String nome, double latitude, double longitude) {
+        return new EstacaoCadastro(codigo, nome, latitude, longitude, null, null, null, null, null, 0);
+    }
+}
@@ -0,0 +1,238 @@
+package com.geosat.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.gnss.rinex.RinexFiles;
+import com.geosat.gateway.gnss.rinex.RinexObsReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cadastro das estações em memória ({@code codigo -> }{@link EstacaoCadastro}), em ordem de
+ * precedência crescente:
+ * <ol>
+ *   <li>semente CSV {@code codigo;nome;latitude;longitude} ({@code estacoes.catalogo.semente},
+ *       padrão o {@code estacoes-rbmc.csv} do classpath): nome e coordenadas nominais;</li>
+ *   <li>cabeçalhos do RINEX diário mais recente de cada estação em {@code gnss.observacoes.dir}:
+ *       receptor, antena, altura, posição aproximada e última observação. Estações que só
+ *       aparecem nos RINEX entram no cadastro; o nome continua o da semente.</li>
+ * </ol>
+ * O snapshot persistido ({@code estacoes.catalogo.arquivo}) é só um cache de subida dos
+ * cabeçalhos já lidos: guarda a impressão digital da semente e é descartado quando ela muda.
+ * {@link #varrer()} é incremental: só relê o cabeçalho quando o arquivo mais recente da
+ * estação mudou (nome ou mtime). Cada mudança publica um novo mapa imutável.
+ */
+@Service
+public class EstacaoCadastroService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstacaoCadastroService.class);
+    private static final int FORMATO = 2;
+
+    /** {@code semente} é a impressão digital (SHA-256) da semente com que o snapshot foi montado. */
+    record Persistido(int formato, String semente, List<EstacaoCadastro> estacoes) {}
+
+    // mapper próprio: o snapshot não deve depender da configuração do Jackson da aplicação
+    private final ObjectMapper json = JsonMapper.builder().findAndAddModules().build();
+    private final Path observacoes;
+    private final Path arquivo;
+    private final Counter cabecalhos;
+    private final String impressaoSemente;
+    private volatile Map<String, EstacaoCadastro> estacoes;
+
+    public EstacaoCadastroService(MeterRegistry registry,
+                                  @Value("${estacoes.catalogo.semente:}") String semente,
+                                  @Value("${gnss.observacoes.dir:}") String observacoesDir,
+                                  @Value("${estacoes.catalogo.arquivo:}") String arquivo) {
+        this.observacoes = observacoesDir == null || observacoesDir.isBlank() ? null : Path.of(observacoesDir);
+        this.arquivo = arquivo == null || arquivo.isBlank() ? null : Path.of(arquivo);
+        this.cabecalhos = registry.counter("estacoes.catalogo.cabecalhos_lidos");
+        byte[] bytes = lerSemente(semente);
+        this.impressaoSemente = impressao(bytes);
+        Map<String, EstacaoCadastro> inicial = carregarSemente(semente, bytes);
+        // snapshot só acrescenta o que veio de RINEX; nome sempre o da semente
+        for (EstacaoCadastro e : carregarPersistido().values()) {
+            if (e.arquivo() == null) continue;
+            EstacaoCadastro s = inicial.get(e.codigo());
+            inicial.put(e.codigo(), s == null ? e : new EstacaoCadastro(e.codigo(), s.nome(), e.latitude(), e.longitude(),
+                    e.receptor(), e.antena(), e.alturaAntena(), e.ultimaObservacao(), e.arquivo(), e.arquivoModificado()));
+        }
+        this.estacoes = Collections.unmodifiableMap(inicial);
+        varrer();
+    }
+
+    /** Mapa imutável atual; uma nova instância a cada mudança. */
+    public Map<String, EstacaoCadastro> estacoes() {
+        return estacoes;
+    }
+
+    /** Relê os cabeçalhos que mudaram; {@code true} quando o cadastro mudou (e foi persistido). */
+    public synchronized boolean varrer() {
+        if (observacoes == null || !Files.isDirectory(observacoes)) return false;
+        Map<String, Path> recentes = new HashMap<>();
+        Map<String, Integer> dias = new HashMap<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(observacoes)) {
+            for (Path p : arquivos) {
+                RinexFiles.ObservationName n = RinexFiles.parseObservation(p.getFileName().toString());
+                if (n == null) continue;
+                int dia = n.ano() * 1000 + n.dia();
+                if (dia > dias.getOrDefault(n.codigo(), -1)) {
+                    dias.put(n.codigo(), dia);
+                    recentes.put(n.codigo(), p);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("falha_varredura_catalogo dir={} msg={}", observacoes, e.getMessage());
+            return false;
+        }
+
+        Map<String, EstacaoCadastro> novo = new LinkedHashMap<>(estacoes);
+        boolean mudou = false;
+        for (Map.Entry<String, Path> e : recentes.entrySet()) {
+            Path p = e.getValue();
+            EstacaoCadastro atual = novo.get(e.getKey());
+            try {
+                long mtime = Files.getLastModifiedTime(p).toMillis();
+                if (atual != null && p.toString().equals(atual.arquivo()) && mtime == atual.arquivoModificado()) continue;
+                int dia = dias.get(e.getKey());
+                EstacaoCadastro lido = cabecalho(e.getKey(), p, mtime, LocalDate.ofYearDay(dia / 1000, dia % 1000), atual);
+                if (lido != null) {
+                    novo.put(e.getKey(), lido);
+                    mudou = true;
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.warn("falha_cabecalho_rinex estacao={} arquivo={} msg={}", e.getKey(), p, ex.getMessage());
+            }
+        }
+        if (!mudou) return false;
+        estacoes = Collections.unmodifiableMap(novo);
+        persistir(novo);
+        return true;
+    }
+
+    private EstacaoCadastro cabecalho(String codigo, Path p, long mtime, LocalDate dia, EstacaoCadastro atual) throws IOException {
+        // só o cabeçalho é lido: o construtor para em END OF HEADER
+        try (BufferedReader in = RinexFiles.open(p); RinexObsReader r = new RinexObsReader(in)) {
+            cabecalhos.increment();
+            double[] xyz = r.approxPosition();
+            double lat, lon;
+            if (xyz[0] != 0 || xyz[1] != 0 || xyz[2] != 0) {
+                double[] llh = new double[3];
+                Wgs84.ecefToGeodetic(xyz[0], xyz[1], xyz[2], llh);
+                lat = llh[0];
+                lon = llh[1];
+            } else if (atual != null) {
+                lat = atual.latitude();
+                lon = atual.longitude();
+            } else {
+                return null; // sem coordenadas não dá para publicar a estação
+            }
+            // sem TIME OF LAST OBS: o mtime, limitado ao fim do dia do arquivo
+            Instant fimDoDia = dia.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant ultima = r.lastObservation() != null ? r.lastObservation()
+                    : Instant.ofEpochMilli(Math.min(mtime, fimDoDia.toEpochMilli()));
+            String nome = atual != null ? atual.nome() : codigo;
+            return new EstacaoCadastro(codigo, nome, lat, lon, vazioNulo(r.receiverType()), vazioNulo(r.antennaType()),
+                    Double.isNaN(r.antennaHeight()) ? null : r.antennaHeight(), ultima, p.toString(), mtime);
+        }
+    }
+
+    private static String vazioNulo(String s) {
+        return s == null || s.isEmpty() ? null : s;
+    }
+
+    private Map<String, EstacaoCadastro> carregarSemente(String semente, byte[] bytes) {
+        Map<String, EstacaoCadastro> out = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(new StringReader(new String(bytes, StandardCharsets.UTF_8)))) {
+            String linha;
+            while ((linha = br.readLine()) != null) {
+                if (linha.isBlank() || linha.startsWith("#")) continue;
+                String[] c = linha.split(";");
+                if (c.length < 4) continue;
+                String codigo = c[0].trim().toUpperCase(Locale.ROOT);
+                out.put(codigo, EstacaoCadastro.semente(codigo, c[1].trim(),
+                        Double.parseDouble(c[2].trim()), Double.parseDouble(c[3].trim())));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("falha_semente_catalogo origem={} msg={}", semente, e.getMessage());
+        }
+        return out;
+    }
+
+    private static byte[] lerSemente(String semente) {
+        try {
+            if (semente != null && !semente.isBlank()) return Files.readAllBytes(Path.of(semente));
+            try (InputStream in = EstacaoCadastroService.class.getResourceAsStream("/estacoes-rbmc.csv")) {
+                return in == null ? new byte[0] : in.readAllBytes();
+            }
+        } catch (IOException e) {
+            log.warn("falha_semente_catalogo origem={} msg={}", semente, e.getMessage());
+            return new byte[0];
+        }
+    }
+
+    private static String impressao(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, EstacaoCadastro> carregarPersistido() {
+        Map<String, EstacaoCadastro> out = new LinkedHashMap<>();
+        if (arquivo == null || !Files.isRegularFile(arquivo)) return out;
+        try {
+            Persistido p = json.readValue(arquivo.toFile(), Persistido.class);
+            if (p.formato() != FORMATO || !impressaoSemente.equals(p.semente())) {
+                log.info("catalogo_descartado arquivo={} motivo=semente_alterada", arquivo);
+                return out;
+            }
+            for (EstacaoCadastro e : p.estacoes()) out.put(e.codigo(), e);
+            log.info("catalogo_carregado arquivo={} estacoes={}", arquivo, out.size());
+        } catch (IOException e) {
+            log.warn("falha_ler_catalogo arquivo={} msg={}", arquivo, e.getMessage());
+        }
+        return out;
+    }
+
+    private void persistir(Map<String, EstacaoCadastro> estacoes) {
+        if (arquivo == null) return;
+        try {
+            Path dir = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, arquivo.getFileName().toString(), ".tmp");
+            json.writeValue(tmp.toFile(), new Persistido(FORMATO, impressaoSemente, List.copyOf(estacoes.values())));
+            // leitor nunca vê um snapshot pela metade
+            Files.move(tmp, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("falha_persistir_catalogo arquivo={} msg={}", arquivo, e.getMessage());
+        }
+    }
+}
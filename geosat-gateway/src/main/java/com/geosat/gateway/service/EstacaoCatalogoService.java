@@ -0,0 +1,182 @@
+package com.geosat.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geosat.gateway.model.EstacaoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catálogo de estações com o status atual, sobre o cadastro do {@link EstacaoCadastroService}.
+ * A lista e o GeoJSON {@code FeatureCollection} ficam serializados (e opcionalmente já
+ * compactados em gzip) num {@link Snapshot} imutável, reconstruído só quando estações ou
+ * status mudam; os endpoints apenas escrevem os bytes. Consultas espaciais usam o
+ * {@link EstacaoIndice} do mesmo snapshot.
+ */
+@Service
+public class EstacaoCatalogoService {
+
+    /** JSON serializado; {@code gzip} é {@code null} quando a compressão prévia está desligada. */
+    public record Corpo(byte[] json, byte[] gzip) {}
+
+    /**
+     * {@code versao} é o SHA-256 do conteúdo (corpos serializados e cadastro) e serve de ETag,
+     * igual entre instâncias e reinícios para o mesmo conteúdo;
+     * {@code cadastro} é o mapa do {@link EstacaoCadastroService} de onde o snapshot saiu.
+     */
+    public record Snapshot(String versao, List<EstacaoDTO> estacoes, EstacaoIndice indice,
+                           Map<String, EstacaoCadastro> cadastro, Corpo lista, Corpo geojson) {}
+
+    private final EstacaoCadastroService cadastro;
+    private final ObjectMapper mapper;
+    private final boolean gzip;
+    private final Duration offlineApos;
+    private final Counter reconstrucoes;
+    private volatile Snapshot atual;
+
+    public EstacaoCatalogoService(EstacaoCadastroService cadastro, ObjectMapper mapper, MeterRegistry registry,
+                                  @Value("${estacoes.catalogo.gzip:true}") boolean gzip,
+                                  @Value("${estacoes.catalogo.offline-apos-min:2880}") long offlineAposMin) {
+        this.cadastro = cadastro;
+        this.mapper = mapper;
+        this.gzip = gzip;
+        this.offlineApos = Duration.ofMinutes(offlineAposMin);
+        this.reconstrucoes = registry.counter("estacoes.catalogo.reconstrucoes");
+        Map<String, EstacaoCadastro> c = cadastro.estacoes();
+        this.atual = construir(c, comStatus(c.values(), Instant.now(), offlineApos));
+    }
+
+    public Snapshot atual() {
+        return atual;
+    }
+
+    /** Estações do snapshot atual (com status). */
+    public List<EstacaoDTO> estacoes() {
+        return atual.estacoes();
+    }
+
+    public Optional<EstacaoDTO> buscar(String codigo) {
+        return Optional.ofNullable(atual.indice().codigo(codigo));
+    }
+
+    /** Cadastro (equipamento, última observação) da estação, em O(1). */
+    public Optional<EstacaoCadastro> cadastro(String codigo) {
+        return Optional.ofNullable(atual.cadastro().get(codigo.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Varredura incremental dos RINEX e recálculo dos status; o snapshot só é trocado
+     * (e reserializado) quando algo mudou.
+     */
+    @Scheduled(fixedDelayString = "${estacoes.catalogo.intervalo-ms:30000}",
+            initialDelayString = "${estacoes.catalogo.intervalo-ms:30000}")
+    public void atualizar() {
+        cadastro.varrer();
+        Map<String, EstacaoCadastro> c = cadastro.estacoes();
+        List<EstacaoDTO> novas = comStatus(c.values(), Instant.now(), offlineApos);
+        Snapshot s = atual;
+        if (c == s.cadastro() && novas.equals(s.estacoes())) return;
+        atual = construir(c, novas);
+    }
+
+    static List<EstacaoDTO> comStatus(Collection<EstacaoCadastro> estacoes, Instant agora, Duration offlineApos) {
+        List<EstacaoDTO> out = new ArrayList<>(estacoes.size());
+        for (EstacaoCadastro e : estacoes) {
+            String status;
+            if (e.ultimaObservacao() != null) {
+                status = e.ultimaObservacao().isBefore(agora.minus(offlineApos)) ? "OFFLINE" : "ONLINE";
+            } else {
+                // sem RINEX lido ainda: status simulado (hash define offset de minutos; > 120 min => OFFLINE)
+                long offsetMin = (Math.abs(Objects.hash(e.codigo())) % 900) + 3;
+                status = offsetMin > 120 ? "OFFLINE" : "ONLINE";
+            }
+            out.add(new EstacaoDTO(e.codigo(), e.nome(), e.latitude(), e.longitude(), status));
+        }
+        return List.copyOf(out);
+    }
+
+    private Snapshot construir(Map<String, EstacaoCadastro> cadastro, List<EstacaoDTO> estacoes) {
+        reconstrucoes.increment();
+        Corpo lista = corpo(estacoes);
+        Corpo geojson = corpo(featureCollection(estacoes));
+        // índice, status e bytes trocam juntos numa única escrita volátil
+        return new Snapshot(versao(lista, geojson, cadastro), estacoes, new EstacaoIndice(estacoes),
+                cadastro, lista, geojson);
+    }
+
+    /** O cadastro não está nos corpos, mas o ETag dos metadados da estação usa esta versão. */
+    private static String versao(Corpo lista, Corpo geojson, Map<String, EstacaoCadastro> cadastro) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(lista.json());
+            sha.update(geojson.json());
+            for (EstacaoCadastro e : cadastro.values()) sha.update(e.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Object> featureCollection(List<EstacaoDTO> estacoes) {
+        Map<String, Object> fc = new LinkedHashMap<>();
+        fc.put("type", "FeatureCollection");
+        List<Map<String, Object>> features = new ArrayList<>(estacoes.size());
+        for (EstacaoDTO e : estacoes) {
+            Map<String, Object> f = new LinkedHashMap<>();
+            f.put("type", "Feature");
+            Map<String, Object> geom = new LinkedHashMap<>();
+            geom.put("type", "Point");
+            geom.put("coordinates", List.of(e.longitude(), e.latitude()));
+            f.put("geometry", geom);
+            Map<String, Object> props = new LinkedHashMap<>();
+            props.put("codigo", e.codigo());
+            props.put("nome", e.nome());
+            props.put("status", e.status());
+            f.put("properties", props);
+            features.add(f);
+        }
+        fc.put("features", features);
+        return fc;
+    }
+
+    private Corpo corpo(Object valor) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(valor);
+            return new Corpo(json, gzip ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("falha ao serializar catálogo de estações", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(dados.length / 4 + 32);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,211 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.EstacaoVizinhaDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice espacial imutável das estações, reconstruído junto com o snapshot do catálogo.
+ * <ul>
+ *   <li>bbox: grade lat/lon de {@value #CELULA_GRAUS}° (estilo geohash), com suporte a
+ *       caixas que cruzam o antimeridiano;</li>
+ *   <li>vizinhos mais próximos e raio: kd-tree sobre vetores unitários ECEF (esfera), onde a
+ *       distância euclidiana (corda) é monotônica com a distância de grande círculo, então a
+ *       poda por plano de corte é exata inclusive perto dos polos e do antimeridiano.</li>
+ * </ul>
+ * As distâncias devolvidas são haversine em km (raio médio da Terra).
+ */
+public final class EstacaoIndice {
+
+    public static final double RAIO_TERRA_KM = 6371.0088;
+    static final double CELULA_GRAUS = 1.0;
+    private static final int COLUNAS = (int) Math.ceil(360 / CELULA_GRAUS);
+    private static final int LINHAS = (int) Math.ceil(180 / CELULA_GRAUS);
+
+    private final EstacaoDTO[] estacoes;
+    private final Map<String, EstacaoDTO> porCodigo;
+    // célula (linha * COLUNAS + coluna) -> índices das estações, em ordem do catálogo
+    private final Map<Integer, int[]> grade;
+    // kd-tree implícita: a raiz de [lo, hi) é kd[(lo + hi) >>> 1]
+    private final int[] kd;
+    private final double[] xyz;
+
+    public EstacaoIndice(List<EstacaoDTO> lista) {
+        this.estacoes = lista.stream()
+                .filter(e -> e.latitude() != null && e.longitude() != null)
+                .toArray(EstacaoDTO[]::new);
+        this.porCodigo = new HashMap<>(lista.size() * 2);
+        for (EstacaoDTO e : lista) porCodigo.put(e.codigo().toUpperCase(Locale.ROOT), e);
+
+        Map<Integer, List<Integer>> celulas = new HashMap<>();
+        this.xyz = new double[estacoes.length * 3];
+        for (int i = 0; i < estacoes.length; i++) {
+            celulas.computeIfAbsent(celula(estacoes[i].latitude(), estacoes[i].longitude()), k -> new ArrayList<>()).add(i);
+            unitario(estacoes[i].latitude(), estacoes[i].longitude(), xyz, i * 3);
+        }
+        this.grade = new HashMap<>(celulas.size() * 2);
+        celulas.forEach((c, idx) -> grade.put(c, idx.stream().mapToInt(Integer::intValue).toArray()));
+
+        Integer[] ordem = new Integer[estacoes.length];
+        for (int i = 0; i < ordem.length; i++) ordem[i] = i;
+        construir(ordem, 0, ordem.length, 0);
+        this.kd = Arrays.stream(ordem).mapToInt(Integer::intValue).toArray();
+    }
+
+    public EstacaoDTO codigo(String codigo) {
+        return porCodigo.get(codigo.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Estações dentro da caixa (graus, bordas inclusas), em ordem do catálogo.
+     * {@code oeste > leste} indica caixa que cruza o antimeridiano.
+     */
+    public List<EstacaoDTO> bbox(double oeste, double sul, double leste, double norte) {
+        boolean cruza = oeste > leste;
+        int l0 = linha(sul), l1 = linha(norte);
+        int c0 = coluna(oeste), c1 = coluna(leste);
+        long celulasVisitadas = (long) (l1 - l0 + 1) * (cruza ? COLUNAS - c0 + c1 + 1 : c1 - c0 + 1);
+        List<EstacaoDTO> out = new ArrayList<>();
+        if (celulasVisitadas >= estacoes.length || (cruza && c0 <= c1)) {
+            // caixa grande (ou dando a volta no globo): varrer a lista sai mais barato que percorrer células vazias
+            for (EstacaoDTO e : estacoes) {
+                if (dentro(e, oeste, sul, leste, norte, cruza)) out.add(e);
+            }
+            return out;
+        }
+        List<Integer> achados = new ArrayList<>();
+        for (int l = l0; l <= l1; l++) {
+            for (int c = c0; ; c = (c + 1) % COLUNAS) {
+                int[] idx = grade.get(l * COLUNAS + c);
+                if (idx != null) {
+                    for (int i : idx) {
+                        if (dentro(estacoes[i], oeste, sul, leste, norte, cruza)) achados.add(i);
+                    }
+                }
+                if (c == c1) break;
+            }
+        }
+        achados.sort(null);
+        for (int i : achados) out.add(estacoes[i]);
+        return out;
+    }
+
+    /** As {@code k} estações mais próximas do ponto, da mais próxima para a mais distante. */
+    public List<EstacaoVizinhaDTO> proximas(double lat, double lon, int k) {
+        if (k <= 0 || estacoes.length == 0) return List.of();
+        double[] q = new double[3];
+        unitario(lat, lon, q, 0);
+        // max-heap por corda²: a raiz é a pior das k melhores até agora
+        PriorityQueue<double[]> melhores = new PriorityQueue<>(k + 1, Comparator.comparingDouble((double[] a) -> a[0]).reversed());
+        knn(q, k, 0, kd.length, 0, melhores);
+        List<double[]> ordenadas = new ArrayList<>(melhores);
+        ordenadas.sort(Comparator.comparingDouble(a -> a[0]));
+        List<EstacaoVizinhaDTO> out = new ArrayList<>(ordenadas.size());
+        for (double[] m : ordenadas) out.add(vizinha(estacoes[(int) m[1]], lat, lon));
+        return out;
+    }
+
+    /** Estações a até {@code km} do ponto, da mais próxima para a mais distante. */
+    public List<EstacaoVizinhaDTO> raio(double lat, double lon, double km) {
+        double[] q = new double[3];
+        unitario(lat, lon, q, 0);
+        double corda = 2 * Math.sin(Math.min(km / RAIO_TERRA_KM, Math.PI) / 2);
+        List<Integer> achados = new ArrayList<>();
+        dentroDoRaio(q, corda * corda, 0, kd.length, 0, achados);
+        List<EstacaoVizinhaDTO> out = new ArrayList<>(achados.size());
+        for (int i : achados) out.add(vizinha(estacoes[i], lat, lon));
+        out.sort(Comparator.comparingDouble(EstacaoVizinhaDTO::distanciaKm));
+        return out;
+    }
+
+    /** Distância de grande círculo (haversine), em km. */
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private void construir(Integer[] ordem, int lo, int hi, int eixo) {
+        if (hi - lo <= 1) return;
+        Arrays.sort(ordem, lo, hi, Comparator.comparingDouble(i -> xyz[i * 3 + eixo]));
+        int meio = (lo + hi) >>> 1;
+        construir(ordem, lo, meio, (eixo + 1) % 3);
+        construir(ordem, meio + 1, hi, (eixo + 1) % 3);
+    }
+
+    private void knn(double[] q, int k, int lo, int hi, int eixo, PriorityQueue<double[]> melhores) {
+        if (lo >= hi) return;
+        int meio = (lo + hi) >>> 1;
+        int i = kd[meio];
+        double d2 = distancia2(q, i);
+        if (melhores.size() < k) {
+            melhores.add(new double[]{d2, i});
+        } else if (d2 < melhores.peek()[0]) {
+            melhores.poll();
+            melhores.add(new double[]{d2, i});
+        }
+        double diff = q[eixo] - xyz[i * 3 + eixo];
+        int proximo = (eixo + 1) % 3;
+        boolean esquerda = diff < 0;
+        knn(q, k, esquerda ? lo : meio + 1, esquerda ? meio : hi, proximo, melhores);
+        if (melhores.size() < k || diff * diff < melhores.peek()[0]) {
+            knn(q, k, esquerda ? meio + 1 : lo, esquerda ? hi : meio, proximo, melhores);
+        }
+    }
+
+    private void dentroDoRaio(double[] q, double r2, int lo, int hi, int eixo, List<Integer> achados) {
+        if (lo >= hi) return;
+        int meio = (lo + hi) >>> 1;
+        int i = kd[meio];
+        if (distancia2(q, i) <= r2) achados.add(i);
+        double diff = q[eixo] - xyz[i * 3 + eixo];
+        int proximo = (eixo + 1) % 3;
+        if (diff <= 0 || diff * diff <= r2) dentroDoRaio(q, r2, lo, meio, proximo, achados);
+        if (diff >= 0 || diff * diff <= r2) dentroDoRaio(q, r2, meio + 1, hi, proximo, achados);
+    }
+
+    private double distancia2(double[] q, int i) {
+        double dx = q[0] - xyz[i * 3], dy = q[1] - xyz[i * 3 + 1], dz = q[2] - xyz[i * 3 + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static EstacaoVizinhaDTO vizinha(EstacaoDTO e, double lat, double lon) {
+        return new EstacaoVizinhaDTO(e.codigo(), e.nome(), e.latitude(), e.longitude(), e.status(),
+                distanciaKm(lat, lon, e.latitude(), e.longitude()));
+    }
+
+    private static boolean dentro(EstacaoDTO e, double oeste, double sul, double leste, double norte, boolean cruza) {
+        double lat = e.latitude(), lon = e.longitude();
+        if (lat < sul || lat > norte) return false;
+        return cruza ? lon >= oeste || lon <= leste : lon >= oeste && lon <= leste;
+    }
+
+    private static void unitario(double lat, double lon, double[] out, int off) {
+        double phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+        out[off] = Math.cos(phi) * Math.cos(lambda);
+        out[off + 1] = Math.cos(phi) * Math.sin(lambda);
+        out[off + 2] = Math.sin(phi);
+    }
+
+    private static int celula(double lat, double lon) {
+        return linha(lat) * COLUNAS + coluna(lon);
+    }
+
+    private static int linha(double lat) {
+        return Math.min(LINHAS - 1, Math.max(0, (int) Math.floor((lat + 90) / CELULA_GRAUS)));
+    }
+
+    private static int coluna(double lon) {
+        return Math.min(COLUNAS - 1, Math.max(0, (int) Math.floor((lon + 180) / CELULA_GRAUS)));
+    }
+}
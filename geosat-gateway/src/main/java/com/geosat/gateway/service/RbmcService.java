@@ -1,17 +1,35 @@
 package com.geosat.gateway.service;
 
+import com.geosat.gateway.client.RbmcFileCache;
 import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.config.GatewayThreads;
 import com.geosat.gateway.model.RbmcFallbackResponse;
 import com.geosat.gateway.model.RbmcArquivoDTO;
 import com.geosat.gateway.model.RbmcRelatorioDTO;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;  // ← ADICIONE ESTA LINHA
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service placeholder: no futuro fará chamadas resilientes ao RBMC + cache Redis.
@@ -19,34 +37,52 @@ import java.util.Map;
 @Service
 public class RbmcService {
 
+    private static final Logger log = LoggerFactory.getLogger(RbmcService.class);
+    static final Duration RELATORIO_TTL = Duration.ofHours(12);
+    private static final int MAX_CHAVES_RASTREADAS = 10_000;
+
     private final RbmcHttpClient client;
     private final RedisCacheService cacheService;
     private final MeterRegistry meterRegistry;
+    private final boolean swrEnabled;
+    private final long frescoMs;
+    private final int minAcessos;
+    private final Map<String, Acessos> acessos = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
 
-    public RbmcService(RbmcHttpClient client, @Autowired(required = false) RedisCacheService cacheService, MeterRegistry meterRegistry) {
+    public RbmcService(RbmcHttpClient client, @Autowired(required = false) RedisCacheService cacheService, MeterRegistry meterRegistry,
+                       GatewayThreads threads,
+                       @Value("${rbmc.cache.swr.enabled:true}") boolean swrEnabled,
+                       @Value("${rbmc.cache.fresco-segundos:600}") long frescoSegundos,
+                       @Value("${rbmc.cache.refresh-ahead.min-acessos:3}") int minAcessos,
+                       @Value("${rbmc.cache.refresh-ahead.workers:2}") int workers) {
         this.client = client;
         this.cacheService = cacheService;
         this.meterRegistry = meterRegistry;
+        this.swrEnabled = swrEnabled;
+        this.frescoMs = frescoSegundos * 1000;
+        this.minAcessos = minAcessos;
+        // a fila fica limitada pelas chaves distintas em voo (uma revalidação por estação em refreshing)
+        this.refreshExecutor = threads.executor("rbmc-refresh", workers);
+        meterRegistry.gauge("rbmc.cache.refresh_ahead.chaves", acessos, Map::size);
     }
 
     public Object obterRelatorio(String estacao) {
         String upper = estacao.toUpperCase();
         long start = System.nanoTime();
         try {
-            client.obterRelatorio(upper); // Ignorando conteúdo binário por enquanto
-            RbmcRelatorioDTO dto = new RbmcRelatorioDTO(
-                    upper,
-                    "pdf",
-                    "https://servicodados.ibge.gov.br/api/v1/rbmc/relatorio/" + upper.toLowerCase(),
-                    "Relatório técnico (placeholder)",
-                    null,
-                    Instant.now()
-            );
-            cacheService.putMetadata(upper, Map.of(
-                    "link", dto.link(),
-                    "tipo", dto.tipo(),
-                    "ultimaAtualizacao", dto.ultimaAtualizacao().toString()
-            ), Duration.ofHours(12));
+            Map<String, Object> cached = cacheService != null ? cacheService.getMetadata(upper).orElse(Map.of()) : Map.of();
+            Long validadoEm = asLong(cached.get("validadoEm"));
+            if (swrEnabled && cached.containsKey("link") && validadoEm != null) {
+                // stale-while-revalidate: responde do cache e, se vencido, revalida em background
+                registrarAcesso(upper, validadoEm);
+                boolean stale = System.currentTimeMillis() - validadoEm > frescoMs;
+                if (stale) refreshAsync(upper);
+                meterRegistry.counter("rbmc.cache.swr.total", "resultado", stale ? "stale" : "fresh").increment();
+                return relatorioDoCache(upper, cached);
+            }
+            RbmcRelatorioDTO dto = atualizarRelatorio(upper, cached);
             meterRegistry.counter("rbmc.requests.total", "method", "obterRelatorio", "status", "success").increment();
             meterRegistry.timer("rbmc.requests.duration", "method", "obterRelatorio").record(System.nanoTime() - start, java.util.concurrent.TimeUnit.NANOSECONDS);
             return dto;
@@ -61,11 +97,122 @@ public class RbmcService {
         }
     }
 
+    /**
+     * Refresh-ahead: estações acessadas ao menos {@code rbmc.cache.refresh-ahead.min-acessos}
+     * vezes no último intervalo são revalidadas antes de vencerem, então leituras
+     * repetidas nunca esperam pelo upstream.
+     */
+    @Scheduled(fixedDelayString = "${rbmc.cache.refresh-ahead.intervalo-ms:60000}",
+            initialDelayString = "${rbmc.cache.refresh-ahead.intervalo-ms:60000}")
+    public void refreshAhead() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<String, Acessos>> it = acessos.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Acessos> e = it.next();
+            int count = e.getValue().contagem.getAndSet(0);
+            if (count == 0) {
+                it.remove(); // esfriou
+            } else if (count >= minAcessos && now - e.getValue().validadoEm >= frescoMs * 3 / 4) {
+                meterRegistry.counter("rbmc.cache.refresh_ahead.total").increment();
+                refreshAsync(e.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void registrarAcesso(String upper, long validadoEm) {
+        if (acessos.size() >= MAX_CHAVES_RASTREADAS && !acessos.containsKey(upper)) return;
+        Acessos a = acessos.computeIfAbsent(upper, k -> new Acessos());
+        a.contagem.incrementAndGet();
+        a.validadoEm = validadoEm;
+    }
+
+    /** Uma revalidação em voo por chave; falhas mantêm o valor antigo servido. */
+    private void refreshAsync(String upper) {
+        if (!refreshing.add(upper)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Map<String, Object> cached = cacheService != null ? cacheService.getMetadata(upper).orElse(Map.of()) : Map.of();
+                    atualizarRelatorio(upper, cached);
+                    meterRegistry.counter("rbmc.cache.revalidacao_background.total", "status", "success").increment();
+                } catch (Exception e) {
+                    meterRegistry.counter("rbmc.cache.revalidacao_background.total", "status", "error").increment();
+                    log.warn("falha_revalidacao estacao={} msg={}", upper, e.getMessage());
+                } finally {
+                    refreshing.remove(upper);
+                }
+            });
+        } catch (RejectedExecutionException full) {
+            refreshing.remove(upper);
+        }
+    }
+
+    /**
+     * Busca no upstream com revalidação condicional: com ETag/Last-Modified guardados
+     * o upstream responde 304 sem corpo e só o TTL/validadoEm são renovados.
+     */
+    private RbmcRelatorioDTO atualizarRelatorio(String upper, Map<String, Object> cached) throws Exception {
+        String etag = asString(cached.get("etag"));
+        String lastModified = asString(cached.get("lastModified"));
+        RbmcHttpClient.RespostaCondicional resposta = client.obterRelatorio(upper, etag, lastModified);
+        long agora = System.currentTimeMillis();
+        if (resposta.naoModificado() && cached.containsKey("link")) {
+            // 304: só renova validadoEm e o TTL da entrada existente
+            putMetadata(upper, Map.of("validadoEm", agora), RELATORIO_TTL);
+            acessos.computeIfPresent(upper, (k, a) -> { a.validadoEm = agora; return a; });
+            return relatorioDoCache(upper, cached);
+        }
+        RbmcRelatorioDTO dto = relatorio(upper, resposta);
+        putMetadata(upper, metadados(dto, resposta, agora), RELATORIO_TTL);
+        acessos.computeIfPresent(upper, (k, a) -> { a.validadoEm = agora; return a; });
+        return dto;
+    }
+
+    static RbmcRelatorioDTO relatorio(String upper, RbmcHttpClient.RespostaCondicional resposta) {
+        return new RbmcRelatorioDTO(
+                upper,
+                tipo(resposta.contentType()),
+                "https://servicodados.ibge.gov.br/api/v1/rbmc/relatorio/" + upper.toLowerCase(),
+                "Relatório técnico (placeholder)",
+                resposta.tamanho(),
+                httpDate(resposta.lastModified())
+        );
+    }
+
+    /** Entrada do hash {@code rbmc:meta:<estação>} para um relatório recém-obtido. */
+    static Map<String, Object> metadados(RbmcRelatorioDTO dto, RbmcHttpClient.RespostaCondicional resposta, long agora) {
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("link", dto.link());
+        meta.put("tipo", dto.tipo());
+        meta.put("ultimaAtualizacao", dto.ultimaAtualizacao().toString());
+        meta.put("validadoEm", agora);
+        if (dto.tamanhoBytes() != null) meta.put("tamanhoBytes", dto.tamanhoBytes());
+        if (resposta.contentType() != null) meta.put("contentType", resposta.contentType());
+        if (resposta.etag() != null) meta.put("etag", resposta.etag());
+        if (resposta.lastModified() != null) meta.put("lastModified", resposta.lastModified());
+        return meta;
+    }
+
+    static RbmcRelatorioDTO relatorioDoCache(String upper, Map<String, Object> cached) {
+        return new RbmcRelatorioDTO(
+                upper,
+                asString(cached.getOrDefault("tipo", "pdf")),
+                asString(cached.get("link")),
+                "Relatório técnico (placeholder)",
+                asLong(cached.get("tamanhoBytes")),
+                cached.get("ultimaAtualizacao") != null ? Instant.parse(asString(cached.get("ultimaAtualizacao"))) : null
+        );
+    }
+
     public Object obterRinex2(String estacao, int ano, int dia) {
         String upper = estacao.toUpperCase();
-        String relative = "rinex2/" + upper.toLowerCase() + "/" + ano + "/" + dia;
+        String relative = rinex2Path(upper, ano, dia);
         try {
-            client.obterArquivo(relative); // placeholder
+            client.arquivoEmCache(relative); // só garante o arquivo no cache; o conteúdo não é lido aqui
             RbmcArquivoDTO dto = new RbmcArquivoDTO(
                     upper,
                     "rinex2",
@@ -74,7 +221,7 @@ public class RbmcService {
                     "Arquivo RINEX2 diário (15s) placeholder",
                     Instant.now()
             );
-            cacheService.putMetadata("RINEX2_" + upper + "_" + ano + "_" + dia, Map.of(
+            putMetadata("RINEX2_" + upper + "_" + ano + "_" + dia, Map.of(
                     "link", dto.link(),
                     "intervalo", dto.intervalo()
             ), Duration.ofHours(6));
@@ -88,9 +235,9 @@ public class RbmcService {
 
     public Object obterRinex3_1s(String estacao, int ano, int dia, int hora, int minuto, String tipo) {
         String upper = estacao.toUpperCase();
-        String relative = "rinex3/1s/" + upper.toLowerCase() + "/" + ano + "/" + dia + "/" + hora + "/" + minuto + "/" + tipo.toLowerCase();
+        String relative = rinex3_1sPath(upper, ano, dia, hora, minuto, tipo);
         try {
-            client.obterArquivo(relative);
+            client.arquivoEmCache(relative);
             RbmcArquivoDTO dto = new RbmcArquivoDTO(
                     upper,
                     "rinex3_1s",
@@ -99,7 +246,7 @@ public class RbmcService {
                     "Arquivo RINEX3 (1s) placeholder",
                     Instant.now()
             );
-            cacheService.putMetadata("RINEX3_1S_" + upper + "_" + ano + "_" + dia + "_" + hora + "_" + minuto + "_" + tipo, Map.of(
+            putMetadata("RINEX3_1S_" + upper + "_" + ano + "_" + dia + "_" + hora + "_" + minuto + "_" + tipo, Map.of(
                     "link", dto.link(),
                     "intervalo", dto.intervalo()
             ), Duration.ofHours(6));
@@ -113,9 +260,9 @@ public class RbmcService {
 
     public Object obterRinex3_15s(String estacao, int ano, int dia) {
         String upper = estacao.toUpperCase();
-        String relative = "rinex3/" + upper.toLowerCase() + "/" + ano + "/" + dia;
+        String relative = rinex3_15sPath(upper, ano, dia);
         try {
-            client.obterArquivo(relative);
+            client.arquivoEmCache(relative);
             RbmcArquivoDTO dto = new RbmcArquivoDTO(
                     upper,
                     "rinex3_15s",
@@ -124,7 +271,7 @@ public class RbmcService {
                     "Arquivo RINEX3 (15s) placeholder",
                     Instant.now()
             );
-            cacheService.putMetadata("RINEX3_15S_" + upper + "_" + ano + "_" + dia, Map.of(
+            putMetadata("RINEX3_15S_" + upper + "_" + ano + "_" + dia, Map.of(
                     "link", dto.link(),
                     "intervalo", dto.intervalo()
             ), Duration.ofHours(6));
@@ -137,9 +284,9 @@ public class RbmcService {
     }
 
     public Object obterOrbitas(int ano, int dia) {
-        String relative = "rinex3/orbitas/" + ano + "/" + dia;
+        String relative = orbitasPath(ano, dia);
         try {
-            client.obterArquivo(relative);
+            client.arquivoEmCache(relative);
             RbmcArquivoDTO dto = new RbmcArquivoDTO(
                     null,
                     "orbitas",
@@ -148,7 +295,7 @@ public class RbmcService {
                     "Órbitas multiconstelação placeholder",
                     Instant.now()
             );
-            cacheService.putMetadata("ORBITAS_" + ano + "_" + dia, Map.of(
+            putMetadata("ORBITAS_" + ano + "_" + dia, Map.of(
                     "link", dto.link()
             ), Duration.ofHours(12));
             return dto;
@@ -159,6 +306,82 @@ public class RbmcService {
         }
     }
 
+    /**
+     * Garante o arquivo no cache em disco para download direto.
+     * Retorna a {@link RbmcFileCache.Entrada} ou um {@link RbmcFallbackResponse}.
+     */
+    public Object arquivo(String estacao, String relative) {
+        try {
+            RbmcFileCache.Entrada entrada = client.arquivoEmCache(relative);
+            meterRegistry.counter("rbmc.downloads.total", "status", "success").increment();
+            return entrada;
+        } catch (CallNotPermittedException cbOpen) {
+            meterRegistry.counter("rbmc.downloads.total", "status", "circuit_breaker").increment();
+            return fallback(estacao, "Circuit breaker aberto — arquivo indisponível para download");
+        } catch (Exception e) {
+            meterRegistry.counter("rbmc.downloads.total", "status", "error").increment();
+            return fallback(estacao, "Falha temporária ao obter arquivo para download");
+        }
+    }
+
+    public static String rinex2Path(String estacao, int ano, int dia) {
+        return "rinex2/" + estacao.toLowerCase() + "/" + ano + "/" + dia;
+    }
+
+    public static String rinex3_1sPath(String estacao, int ano, int dia, int hora, int minuto, String tipo) {
+        return "rinex3/1s/" + estacao.toLowerCase() + "/" + ano + "/" + dia + "/" + hora + "/" + minuto + "/" + tipo.toLowerCase();
+    }
+
+    public static String rinex3_15sPath(String estacao, int ano, int dia) {
+        return "rinex3/" + estacao.toLowerCase() + "/" + ano + "/" + dia;
+    }
+
+    public static String orbitasPath(int ano, int dia) {
+        return "rinex3/orbitas/" + ano + "/" + dia;
+    }
+
+    private void putMetadata(String key, Map<String, Object> data, Duration ttl) {
+        if (cacheService != null) {
+            cacheService.putMetadata(key, data, ttl);
+        }
+    }
+
+    static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    /** "application/pdf; charset=..." → "pdf"; sem Content-Type assume PDF. */
+    private static String tipo(String contentType) {
+        if (contentType == null || contentType.isBlank()) return "pdf";
+        String mime = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        int slash = mime.indexOf('/');
+        return slash >= 0 ? mime.substring(slash + 1) : mime;
+    }
+
+    private static Instant httpDate(String value) {
+        if (value == null) return Instant.now();
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return Instant.now();
+        }
+    }
+
+    static Long asLong(Object value) {
+        if (value == null) return null;
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Contagem de acessos no intervalo corrente e último instante de validação conhecido. */
+    private static final class Acessos {
+        final AtomicInteger contagem = new AtomicInteger();
+        volatile long validadoEm;
+    }
+
     private String link(String relative) {
         return "https://servicodados.ibge.gov.br/api/v1/rbmc/" + relative;
     }
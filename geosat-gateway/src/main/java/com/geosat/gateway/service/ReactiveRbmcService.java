@@ -0,0 +1,120 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.client.ReactiveRbmcClient;
+import com.geosat.gateway.model.RbmcFallbackResponse;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relatório RBMC para a API {@code /api/v2}: mesma semântica do {@link RbmcService}
+ * (stale-while-revalidate sobre {@code rbmc:meta:}, revalidação condicional, fallback),
+ * mas sem bloquear threads — I/O via {@link ReactiveRbmcClient} e Redis reativo.
+ */
+@Service
+public class ReactiveRbmcService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRbmcService.class);
+
+    private final ReactiveRbmcClient client;
+    private final ReactiveRedisCacheService cacheService;
+    private final MeterRegistry meterRegistry;
+    private final boolean swrEnabled;
+    private final long frescoMs;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public ReactiveRbmcService(ReactiveRbmcClient client,
+                               @Autowired(required = false) ReactiveRedisCacheService cacheService,
+                               MeterRegistry meterRegistry,
+                               @Value("${rbmc.cache.swr.enabled:true}") boolean swrEnabled,
+                               @Value("${rbmc.cache.fresco-segundos:600}") long frescoSegundos) {
+        this.client = client;
+        this.cacheService = cacheService;
+        this.meterRegistry = meterRegistry;
+        this.swrEnabled = swrEnabled;
+        this.frescoMs = frescoSegundos * 1000;
+    }
+
+    /** {@link RbmcRelatorioDTO} ou {@link RbmcFallbackResponse}; nunca termina com erro. */
+    public Mono<Object> obterRelatorio(String estacao) {
+        String upper = estacao.toUpperCase();
+        return cached(upper).flatMap(cached -> {
+            Long validadoEm = RbmcService.asLong(cached.get("validadoEm"));
+            if (swrEnabled && cached.containsKey("link") && validadoEm != null) {
+                boolean stale = System.currentTimeMillis() - validadoEm > frescoMs;
+                if (stale) refreshAsync(upper, cached);
+                meterRegistry.counter("rbmc.cache.swr.total", "resultado", stale ? "stale" : "fresh").increment();
+                return Mono.<Object>just(RbmcService.relatorioDoCache(upper, cached));
+            }
+            return atualizarRelatorio(upper, cached)
+                    .<Object>map(dto -> dto)
+                    .doOnSuccess(dto -> meterRegistry.counter("rbmc.requests.total",
+                            "method", "obterRelatorioReativo", "status", "success").increment())
+                    .onErrorResume(e -> fallback(upper, cached, e));
+        });
+    }
+
+    private Mono<RbmcRelatorioDTO> atualizarRelatorio(String upper, Map<String, Object> cached) {
+        String etag = RbmcService.asString(cached.get("etag"));
+        String lastModified = RbmcService.asString(cached.get("lastModified"));
+        return client.obterRelatorio(upper, etag, lastModified).flatMap(resposta -> {
+            long agora = System.currentTimeMillis();
+            if (resposta.naoModificado() && cached.containsKey("link")) {
+                // 304: só renova validadoEm e o TTL da entrada existente
+                return put(upper, Map.of("validadoEm", agora)).thenReturn(RbmcService.relatorioDoCache(upper, cached));
+            }
+            RbmcRelatorioDTO dto = RbmcService.relatorio(upper, resposta);
+            return put(upper, RbmcService.metadados(dto, resposta, agora)).thenReturn(dto);
+        });
+    }
+
+    /** Uma revalidação em voo por chave; falhas mantêm o valor antigo servido. */
+    private void refreshAsync(String upper, Map<String, Object> cached) {
+        if (!refreshing.add(upper)) return;
+        atualizarRelatorio(upper, cached)
+                .doFinally(s -> refreshing.remove(upper))
+                .subscribe(
+                        dto -> meterRegistry.counter("rbmc.cache.revalidacao_background.total", "status", "success").increment(),
+                        e -> {
+                            meterRegistry.counter("rbmc.cache.revalidacao_background.total", "status", "error").increment();
+                            log.warn("falha_revalidacao estacao={} msg={}", upper, e.getMessage());
+                        });
+    }
+
+    private Mono<Object> fallback(String upper, Map<String, Object> cached, Throwable e) {
+        boolean cbOpen = e instanceof CallNotPermittedException;
+        meterRegistry.counter("rbmc.requests.total", "method", "obterRelatorioReativo",
+                "status", cbOpen ? "circuit_breaker" : "error").increment();
+        meterRegistry.counter("rbmc.fallback.total").increment();
+        String mensagem = cbOpen
+                ? "Circuit breaker aberto — a estação foi tomar um café ☕"
+                : "Falha temporária — a estação tirou uma soneca 🚀";
+        return Mono.just(new RbmcFallbackResponse(upper, "indisponivel", mensagem, Instant.now(), cached));
+    }
+
+    private Mono<Map<String, Object>> cached(String upper) {
+        if (cacheService == null) return Mono.just(Map.of());
+        return cacheService.getMetadata(upper)
+                .onErrorResume(e -> {
+                    log.warn("falha_redis_reativo estacao={} msg={}", upper, e.getMessage());
+                    return Mono.just(Map.of());
+                });
+    }
+
+    private Mono<Boolean> put(String upper, Map<String, Object> meta) {
+        if (cacheService == null) return Mono.just(false);
+        return cacheService.putMetadata(upper, meta, RbmcService.RELATORIO_TTL)
+                .onErrorReturn(false);
+    }
+}
@@ -0,0 +1,40 @@
+package com.geosat.gateway.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** Variante não bloqueante do {@link RedisCacheService}, sobre as mesmas chaves {@code rbmc:meta:}. */
+@Service
+@ConditionalOnProperty(name = "redis.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveRedisCacheService {
+
+    private static final String PREFIX = "rbmc:meta:";
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveHashOperations<String, String, Object> hashOps;
+
+    public ReactiveRedisCacheService(ReactiveRedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.hashOps = redisTemplate.opsForHash();
+    }
+
+    public Mono<Boolean> putMetadata(String estacao, Map<String, Object> data, Duration ttl) {
+        String key = key(estacao);
+        return hashOps.putAll(key, data).then(redisTemplate.expire(key, ttl));
+    }
+
+    /** Mapa vazio quando não há entrada. */
+    public Mono<Map<String, Object>> getMetadata(String estacao) {
+        return hashOps.entries(key(estacao)).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private String key(String estacao) {
+        return PREFIX + estacao.toUpperCase();
+    }
+}
@@ -0,0 +1,183 @@
+package com.geosat.gateway.tiles;
+
+import com.geosat.gateway.gnss.qc.QcService;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tiles MVT ({@code z/x/y}, Web Mercator) da camada {@value #CAMADA}: um ponto por estação
+ * com código, nome e status e, quando {@code ano}/{@code dia} são informados, os atributos
+ * de qualidade do QC do dia (completude, saltos de ciclo, MP1).
+ * <p>
+ * As estações de cada tile saem do índice espacial do snapshot do catálogo. Os tiles prontos
+ * ficam num LRU por zoom, descartado inteiro quando a versão do catálogo (status) muda;
+ * tiles com qualidade também expiram após {@code estacoes.tiles.ttl-qualidade-ms}, pois o
+ * RINEX do dia pode ser reingerido sem mudar status.
+ * <p>
+ * O QC por estação/dia tem cache próprio com o mesmo TTL, que sobrevive às trocas de versão
+ * do catálogo (o QC depende só do RINEX), e cálculos simultâneos da mesma estação/dia — tiles
+ * vizinhos pedidos juntos — esperam um único cálculo.
+ */
+@Service
+public class EstacaoTileService {
+
+    public static final String CAMADA = "estacoes";
+    public static final int EXTENT = 4096;
+    public static final int ZOOM_MAX = 22;
+    // margem além da borda, para o símbolo de um ponto vizinho não ser cortado
+    private static final int BUFFER = 64;
+    private static final double LAT_MAX = 85.05112878;
+
+    /** Tile pronto; {@code versao} compõe o ETag. */
+    public record Tile(String versao, byte[] bytes) {}
+
+    private record Entrada(String catalogo, Tile tile, long expiraEm) {}
+
+    private record Qualidade(CompletableFuture<Optional<QcRelatorioDTO>> relatorio, long expiraEm) {}
+
+    private final EstacaoCatalogoService catalogo;
+    private final QcService qcService;
+    private final int maxPorZoom;
+    private final long ttlQualidadeMs;
+    private final Counter gerados;
+    private final Counter acertos;
+    private final Counter qcCalculados;
+    private final Map<Integer, Map<String, Entrada>> cache = new ConcurrentHashMap<>();
+    private final Map<String, Qualidade> qc = new ConcurrentHashMap<>();
+    private volatile String versaoCache;
+
+    public EstacaoTileService(EstacaoCatalogoService catalogo, QcService qcService, MeterRegistry registry,
+                              @Value("${estacoes.tiles.max-por-zoom:4096}") int maxPorZoom,
+                              @Value("${estacoes.tiles.ttl-qualidade-ms:300000}") long ttlQualidadeMs) {
+        this.catalogo = catalogo;
+        this.qcService = qcService;
+        this.maxPorZoom = maxPorZoom;
+        this.ttlQualidadeMs = ttlQualidadeMs;
+        this.gerados = registry.counter("estacoes.tiles.gerados");
+        this.acertos = registry.counter("estacoes.tiles.cache", "resultado", "acerto");
+        this.qcCalculados = registry.counter("estacoes.tiles.qc_calculados");
+        registry.gauge("estacoes.tiles.em_cache", cache, c -> c.values().stream().mapToInt(Map::size).sum());
+    }
+
+    public static boolean valido(int z, int x, int y) {
+        return z >= 0 && z <= ZOOM_MAX && x >= 0 && y >= 0 && x < (1L << z) && y < (1L << z);
+    }
+
+    /** Tile do cache ou gerado agora; {@code ano}/{@code dia} nulos = sem atributos de qualidade. */
+    public Tile tile(int z, int x, int y, Integer ano, Integer dia) {
+        EstacaoCatalogoService.Snapshot snapshot = catalogo.atual();
+        if (!snapshot.versao().equals(versaoCache)) {
+            // status mudou: nenhum tile antigo serve mais (o QC continua valendo)
+            cache.clear();
+            versaoCache = snapshot.versao();
+        }
+        boolean qualidade = ano != null && dia != null;
+        String chave = x + "/" + y + (qualidade ? "/" + ano + "/" + dia : "");
+        Map<String, Entrada> doZoom = cache.computeIfAbsent(z, k -> lru(maxPorZoom));
+        long agora = System.currentTimeMillis();
+        Entrada e = doZoom.get(chave);
+        // a versão na entrada barra tiles de um snapshot antigo gravados durante a troca
+        if (e != null && e.expiraEm() > agora && e.catalogo().equals(snapshot.versao())) {
+            acertos.increment();
+            return e.tile();
+        }
+        byte[] bytes = gerar(snapshot, z, x, y, qualidade ? ano : 0, qualidade ? dia : 0, qualidade);
+        gerados.increment();
+        // com qualidade a versão também carrega o instante de geração (o QC pode mudar sozinho)
+        Tile t = new Tile(qualidade ? snapshot.versao() + "-" + Long.toHexString(agora) : snapshot.versao(), bytes);
+        doZoom.put(chave, new Entrada(snapshot.versao(), t, qualidade ? agora + ttlQualidadeMs : Long.MAX_VALUE));
+        return t;
+    }
+
+    byte[] gerar(EstacaoCatalogoService.Snapshot snapshot, int z, int x, int y, int ano, int dia, boolean qualidade) {
+        long agora = System.currentTimeMillis();
+        double n = 1L << z;
+        double margem = (double) BUFFER / EXTENT;
+        double oeste = Math.max(-180, lon(x - margem, n));
+        double leste = Math.min(180, lon(x + 1 + margem, n));
+        double norte = Math.min(LAT_MAX, lat(y - margem, n));
+        double sul = Math.max(-LAT_MAX, lat(y + 1 + margem, n));
+        List<EstacaoDTO> estacoes = snapshot.indice().bbox(oeste, sul, leste, norte);
+
+        MvtEncoder mvt = new MvtEncoder(CAMADA, EXTENT);
+        for (EstacaoDTO e : estacoes) {
+            int px = (int) Math.round((mercX(e.longitude()) * n - x) * EXTENT);
+            int py = (int) Math.round((mercY(e.latitude()) * n - y) * EXTENT);
+            Map<String, Object> atributos = new LinkedHashMap<>();
+            atributos.put("codigo", e.codigo());
+            atributos.put("nome", e.nome());
+            atributos.put("status", e.status());
+            if (qualidade) {
+                qc(e.codigo(), ano, dia, agora).ifPresent(r -> {
+                    atributos.put("completude", r.completude());
+                    atributos.put("saltos_ciclo", r.saltosCiclo());
+                    atributos.put("mp1_rms", r.mp1Rms());
+                });
+            }
+            mvt.ponto(px, py, atributos);
+        }
+        return mvt.codificar();
+    }
+
+    /** QC da estação/dia compartilhado entre tiles vizinhos (mesmo TTL dos tiles com qualidade). */
+    private Optional<QcRelatorioDTO> qc(String codigo, int ano, int dia, long agora) {
+        String chave = codigo + "_" + ano + "_" + dia;
+        while (true) {
+            Qualidade q = qc.get(chave);
+            if (q != null && q.expiraEm() > agora) return q.relatorio().join();
+            if (q == null && qc.size() >= 1024) qc.clear();
+            Qualidade nova = new Qualidade(new CompletableFuture<>(), agora + ttlQualidadeMs);
+            boolean calcula = q == null ? qc.putIfAbsent(chave, nova) == null : qc.replace(chave, q, nova);
+            if (!calcula) continue; // outra thread já está calculando: espera o resultado dela
+            try {
+                // sem lista de lacunas: o tile só usa o resumo
+                qcCalculados.increment();
+                nova.relatorio().complete(qcService.relatorio(codigo, ano, dia, 0));
+            } catch (RuntimeException e) {
+                qc.remove(chave, nova);
+                nova.relatorio().completeExceptionally(e);
+                throw e;
+            }
+            return nova.relatorio().join();
+        }
+    }
+
+    private static Map<String, Entrada> lru(int max) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > max;
+            }
+        });
+    }
+
+    private static double lon(double x, double n) {
+        return x / n * 360 - 180;
+    }
+
+    private static double lat(double y, double n) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / n))));
+    }
+
+    private static double mercX(double lon) {
+        return (lon + 180) / 360;
+    }
+
+    private static double mercY(double lat) {
+        double phi = Math.toRadians(Math.max(-LAT_MAX, Math.min(LAT_MAX, lat)));
+        return (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+    }
+}
@@ -0,0 +1,129 @@
+package com.geosat.gateway.tiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificador mínimo de Mapbox Vector Tile (spec 2.1) para uma camada de pontos.
+ * Escreve o protobuf diretamente, sem dependência de runtime protobuf: só os campos
+ * que a camada de estações usa (tags, tipo POINT e geometria MoveTo; sem id, que é opcional).
+ * <p>
+ * Chaves e valores são deduplicados na camada, como pede a especificação. Sem nenhuma
+ * feição o tile é vazio (0 bytes), que é um MVT válido.
+ */
+public final class MvtEncoder {
+
+    private static final int POINT = 1;
+    private static final int MOVE_TO_1 = (1 & 0x7) | (1 << 3);
+
+    private final String camada;
+    private final int extent;
+    private final Map<String, Integer> chaves = new LinkedHashMap<>();
+    private final Map<Object, Integer> valores = new LinkedHashMap<>();
+    private final List<byte[]> feicoes = new ArrayList<>();
+
+    public MvtEncoder(String camada, int extent) {
+        this.camada = camada;
+        this.extent = extent;
+    }
+
+    /**
+     * Ponto em coordenadas do tile ({@code 0..extent}, y para baixo). Atributos nulos são
+     * omitidos; valores aceitos: String, Boolean, inteiros e números de ponto flutuante.
+     */
+    public void ponto(int x, int y, Map<String, ?> atributos) {
+        Buffer tags = new Buffer();
+        atributos.forEach((k, v) -> {
+            if (v == null) return;
+            tags.varint(chaves.computeIfAbsent(k, c -> chaves.size()));
+            tags.varint(valores.computeIfAbsent(normalizar(v), c -> valores.size()));
+        });
+        Buffer geom = new Buffer();
+        geom.varint(MOVE_TO_1);
+        geom.varint(zigzag(x));
+        geom.varint(zigzag(y));
+
+        Buffer f = new Buffer();
+        f.tag(2, 2).bytes(tags.toByteArray());
+        f.tag(3, 0).varint(POINT);
+        f.tag(4, 2).bytes(geom.toByteArray());
+        feicoes.add(f.toByteArray());
+    }
+
+    public byte[] codificar() {
+        if (feicoes.isEmpty()) return new byte[0];
+        Buffer l = new Buffer();
+        l.tag(15, 0).varint(2);
+        l.tag(1, 2).string(camada);
+        for (byte[] f : feicoes) l.tag(2, 2).bytes(f);
+        for (String k : chaves.keySet()) l.tag(3, 2).string(k);
+        for (Object v : valores.keySet()) l.tag(4, 2).bytes(valor(v));
+        l.tag(5, 0).varint(extent);
+
+        Buffer tile = new Buffer();
+        tile.tag(3, 2).bytes(l.toByteArray());
+        return tile.toByteArray();
+    }
+
+    // Inteiros viram Long e floats viram Double: 1 e 1L devem compartilhar o mesmo valor
+    private static Object normalizar(Object v) {
+        if (v instanceof Integer || v instanceof Short || v instanceof Byte) return ((Number) v).longValue();
+        if (v instanceof Float f) return f.doubleValue();
+        if (v instanceof String || v instanceof Boolean || v instanceof Long || v instanceof Double) return v;
+        return v.toString();
+    }
+
+    private static byte[] valor(Object v) {
+        Buffer b = new Buffer();
+        if (v instanceof String s) {
+            b.tag(1, 2).string(s);
+        } else if (v instanceof Double d) {
+            b.tag(3, 1).fixed64(Double.doubleToLongBits(d));
+        } else if (v instanceof Long n) {
+            b.tag(6, 0).varint(zigzag(n));
+        } else {
+            b.tag(7, 0).varint((Boolean) v ? 1 : 0);
+        }
+        return b.toByteArray();
+    }
+
+    private static long zigzag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /** Escritor do formato wire protobuf. */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer tag(int campo, int tipo) {
+            return varint(((long) campo << 3) | tipo);
+        }
+
+        Buffer varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+            return this;
+        }
+
+        Buffer fixed64(long v) {
+            for (int i = 0; i < 8; i++) write((int) (v >>> (8 * i)));
+            return this;
+        }
+
+        Buffer bytes(byte[] b) {
+            varint(b.length);
+            write(b, 0, b.length);
+            return this;
+        }
+
+        Buffer string(String s) {
+            return bytes(s.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.geosat.gateway;
 
+import com.geosat.gateway.client.RbmcFileCache;
 import com.geosat.gateway.client.RbmcHttpClient;
 import com.geosat.gateway.service.RedisCacheService;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.file.Path;
+import java.time.Instant;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,10 +31,14 @@ class RbmcAdditionalEndpointsControllerTest {
     @MockBean
     RedisCacheService redisCacheService;
 
+    private static RbmcFileCache.Entrada entrada() {
+        return new RbmcFileCache.Entrada(Path.of("blob"), "00", 2, Instant.EPOCH);
+    }
+
     @Test
     void deveRetornarRinex2Metadata() throws Exception {
         Mockito.when(redisCacheService.getMetadata(Mockito.anyString())).thenReturn(java.util.Optional.empty());
-        Mockito.when(rbmcHttpClient.obterArquivo(Mockito.contains("rinex2"))).thenReturn("ok");
+        Mockito.when(rbmcHttpClient.arquivoEmCache(Mockito.contains("rinex2"))).thenReturn(entrada());
         mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.categoria").value("rinex2"))
@@ -40,7 +48,7 @@ class RbmcAdditionalEndpointsControllerTest {
     @Test
     void deveRetornarFallbackRinex3QuandoFalha() throws Exception {
     Mockito.when(redisCacheService.getMetadata(Mockito.anyString())).thenReturn(java.util.Optional.empty());
-        Mockito.when(rbmcHttpClient.obterArquivo(Mockito.contains("rinex3/1s")))
+        Mockito.when(rbmcHttpClient.arquivoEmCache(Mockito.contains("rinex3/1s")))
                 .thenThrow(new RuntimeException("falha"));
         mockMvc.perform(get("/api/v1/rbmc/rinex3/1s/ALAR/2024/12/0/15/MO"))
                 .andExpect(status().isServiceUnavailable())
@@ -50,7 +58,7 @@ class RbmcAdditionalEndpointsControllerTest {
     @Test
     void deveRetornarOrbitas() throws Exception {
         Mockito.when(redisCacheService.getMetadata(Mockito.anyString())).thenReturn(java.util.Optional.empty());
-        Mockito.when(rbmcHttpClient.obterArquivo(Mockito.contains("orbitas"))).thenReturn("ok");
+        Mockito.when(rbmcHttpClient.arquivoEmCache(Mockito.contains("orbitas"))).thenReturn(entrada());
         mockMvc.perform(get("/api/v1/rbmc/rinex3/orbitas/2024/12"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.categoria").value("orbitas"));
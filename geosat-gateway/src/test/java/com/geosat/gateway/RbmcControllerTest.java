@@ -37,7 +37,8 @@ class RbmcControllerTest {
 
     @Test
     void deveRetornarRelatorioPlaceholder() throws Exception {
-        Mockito.when(rbmcHttpClient.obterRelatorio("ALAR")).thenReturn("conteudoPdfMock");
+        Mockito.when(rbmcHttpClient.obterRelatorio(Mockito.eq("ALAR"), Mockito.any(), Mockito.any()))
+                .thenReturn(new RbmcHttpClient.RespostaCondicional(200, "\"v1\"", null, 1234L, "application/pdf"));
         mockMvc.perform(get("/api/v1/rbmc/ALAR/relatorio"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.estacao").value("ALAR"))
@@ -52,7 +53,7 @@ class RbmcControllerTest {
 
     @Test
     void deveRetornarFallbackQuandoFalha() throws Exception {
-    Mockito.when(rbmcHttpClient.obterRelatorio("FALH"))
+    Mockito.when(rbmcHttpClient.obterRelatorio(Mockito.eq("FALH"), Mockito.any(), Mockito.any()))
         .thenThrow(new RuntimeException("Falha sim"));
     mockMvc.perform(get("/api/v1/rbmc/FALH/relatorio"))
         .andExpect(status().isServiceUnavailable())
@@ -0,0 +1,98 @@
+package com.geosat.gateway;
+
+import com.geosat.gateway.client.RbmcFileCache;
+import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.service.RedisCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.profiles.active=test"})
+@AutoConfigureMockMvc
+class RbmcDownloadControllerTest {
+
+    private static final String CONTEUDO = "     2.11           OBSERVATION DATA    M";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RbmcFileCache cache;
+
+    @MockBean
+    RbmcHttpClient rbmcHttpClient;
+
+    @MockBean
+    RedisCacheService redisCacheService;
+
+    private String etag;
+
+    @BeforeEach
+    void setup() throws Exception {
+        Mockito.when(redisCacheService.getMetadata(Mockito.anyString())).thenReturn(Optional.empty());
+        RbmcFileCache.Entrada entrada = cache.obter("rinex2/alar/2024/12", t -> {
+            Files.writeString(t, CONTEUDO);
+            return CONTEUDO.length();
+        });
+        etag = "\"" + entrada.digest() + "\"";
+        Mockito.when(rbmcHttpClient.arquivoEmCache("rinex2/alar/2024/12")).thenReturn(entrada);
+    }
+
+    @Test
+    void deveServirArquivoCompletoComValidadores() throws Exception {
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().longValue("Content-Length", CONTEUDO.length()))
+                .andExpect(content().string(CONTEUDO));
+    }
+
+    @Test
+    void deveServirIntervaloParcial() throws Exception {
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download").header("Range", "bytes=5-8"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-8/" + CONTEUDO.length()))
+                .andExpect(content().string("2.11"));
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download").header("Range", "bytes=-1"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("M"));
+    }
+
+    @Test
+    void deveRespeitarValidacaoCondicional() throws Exception {
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download")
+                        .header("Range", "bytes=0-3").header("If-Range", "\"outro\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTEUDO));
+        mockMvc.perform(get("/api/v1/rbmc/rinex2/ALAR/2024/12/download").header("Range", "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */" + CONTEUDO.length()));
+    }
+
+    @Test
+    void deveRetornarFallbackQuandoDownloadFalha() throws Exception {
+        Mockito.when(rbmcHttpClient.arquivoEmCache(Mockito.contains("orbitas"))).thenThrow(new IOException("falha"));
+        mockMvc.perform(get("/api/v1/rbmc/rinex3/orbitas/2024/12/download"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("indisponivel"));
+    }
+}
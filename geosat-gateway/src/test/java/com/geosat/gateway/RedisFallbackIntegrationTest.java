@@ -27,7 +27,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @Testcontainers
-@TestPropertySource(properties = "redis.enabled=true")
+// sem stale-while-revalidate: a segunda chamada precisa ir ao upstream para exercitar o fallback
+@TestPropertySource(properties = {"redis.enabled=true", "rbmc.cache.swr.enabled=false"})
 class RedisFallbackIntegrationTest {
 
     @Container
@@ -53,8 +54,8 @@ class RedisFallbackIntegrationTest {
     @BeforeEach
     void setup() throws Exception {
     // Simula primeira resposta ok e depois falha
-    Mockito.when(rbmcHttpClient.obterRelatorio("CACH"))
-        .thenReturn("ok")
+    Mockito.when(rbmcHttpClient.obterRelatorio(Mockito.eq("CACH"), Mockito.any(), Mockito.any()))
+        .thenReturn(new RbmcHttpClient.RespostaCondicional(200, null, null, 2L, "application/pdf"))
         .thenThrow(new RuntimeException("Erro simulado"));
 
     mockMvc.perform(get("/api/v1/rbmc/CACH/relatorio"))
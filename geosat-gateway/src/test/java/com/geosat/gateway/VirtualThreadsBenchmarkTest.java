@@ -0,0 +1,183 @@
+package com.geosat.gateway;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Carga de {@code bench.concorrencia} (10k) requisições simultâneas a {@code /relatorio}
+ * com upstream lento ({@code bench.atraso-ms}), em threads de plataforma ou virtuais
+ * ({@code bench.virtual=true}, exige JDK 21). Não roda no build normal:
+ * <pre>
+ *   scripts/bench-virtual-threads.sh
+ *   mvn test -Dtest=VirtualThreadsBenchmarkTest -Dbench=true -Dbench.virtual=true
+ * </pre>
+ * Limites de proteção (limite adaptativo, bulkhead, pool) são elevados para que a
+ * comparação meça apenas o modelo de threads do gateway.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=test",
+        "spring.threads.virtual.enabled=${bench.virtual:false}",
+        "rbmc.limite.enabled=false",
+        "rbmc.cache.swr.enabled=false",
+        "rbmc.pool.max-total=20000",
+        "rbmc.pool.max-per-route=20000",
+        "resilience4j.bulkhead.instances.rbmcRelatorio.max-concurrent-calls=20000",
+        "resilience4j.bulkhead.instances.rbmcRelatorio.max-wait-duration=0",
+        "resilience4j.circuitbreaker.instances.rbmcClient.minimumNumberOfCalls=1000000",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000",
+        "logging.level.com.geosat.gateway=ERROR"
+})
+class VirtualThreadsBenchmarkTest {
+
+    private static final int CONCORRENCIA = Integer.getInteger("bench.concorrencia", 10_000);
+    private static final long ATRASO_MS = Long.getLong("bench.atraso-ms", 1_000);
+
+    private static final ScheduledExecutorService atrasos = Executors.newScheduledThreadPool(4);
+    private static HttpServer upstream;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    GatewayThreads threads;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 20_000);
+        upstream.setExecutor(Executors.newFixedThreadPool(8));
+        // responde depois do atraso sem ocupar thread: o upstream lento não é o gargalo medido
+        upstream.createContext("/", ex -> atrasos.schedule(() -> responder(ex), ATRASO_MS, TimeUnit.MILLISECONDS));
+        upstream.start();
+        registry.add("rbmc.base-url", () -> "http://127.0.0.1:" + upstream.getAddress().getPort());
+    }
+
+    private static void responder(HttpExchange ex) {
+        try (ex) {
+            // o HttpServer do JDK fecha conexões ociosas além de 200; sem keep-alive não há reuso de conexão morta
+            ex.getResponseHeaders().add("Connection", "close");
+            ex.getResponseHeaders().add("Content-Type", "application/pdf");
+            ex.getResponseHeaders().add("Content-Length", "1024");
+            if ("HEAD".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(200, -1);
+            } else {
+                ex.sendResponseHeaders(200, 1024);
+                try (OutputStream out = ex.getResponseBody()) {
+                    out.write(new byte[1024]);
+                }
+            }
+        } catch (IOException ignored) {
+            // cliente desistiu
+        }
+    }
+
+    @AfterAll
+    static void parar() {
+        if (upstream != null) upstream.stop(0);
+        atrasos.shutdownNow();
+    }
+
+    @Test
+    void cargaComUpstreamLento() throws Exception {
+        boolean virtual = Boolean.getBoolean("bench.virtual");
+        assumeTrue(!virtual || threads.virtuais(), "bench.virtual=true exige JDK 21+");
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        URI uri = URI.create("http://127.0.0.1:" + port + "/api/v1/rbmc/ALAR/relatorio");
+        // aquecimento: inicialização do DispatcherServlet, JIT, pools
+        for (int i = 0; i < 20; i++) {
+            http.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+        }
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        System.gc();
+        mx.resetPeakThreadCount();
+        Runtime rt = Runtime.getRuntime();
+        long heapAntes = rt.totalMemory() - rt.freeMemory();
+
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger erro = new AtomicInteger();
+        long[] latencias = new long[CONCORRENCIA];
+        List<CompletableFuture<?>> pendentes = new ArrayList<>(CONCORRENCIA);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CONCORRENCIA; i++) {
+            int idx = i;
+            long t0 = System.nanoTime();
+            HttpRequest req = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMinutes(5))
+                    .build();
+            pendentes.add(http.sendAsync(req, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((r, ex) -> {
+                        latencias[idx] = System.nanoTime() - t0;
+                        if (ex == null && r.statusCode() == 200) ok.incrementAndGet();
+                        else erro.incrementAndGet();
+                    }));
+        }
+        CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long heapDepois = rt.totalMemory() - rt.freeMemory();
+
+        Arrays.sort(latencias);
+        System.out.printf(
+                "bench modo=%s java=%s n=%d atrasoMs=%d ok=%d erro=%d duracaoS=%.2f reqPorS=%.0f "
+                        + "p50Ms=%d p99Ms=%d threadsPico=%d heapDeltaMb=%.1f rssPicoMb=%s%n",
+                threads.virtuais() ? "virtual" : "plataforma", Runtime.version(), CONCORRENCIA, ATRASO_MS,
+                ok.get(), erro.get(), segundos, CONCORRENCIA / segundos,
+                latencias[CONCORRENCIA / 2] / 1_000_000, latencias[(int) (CONCORRENCIA * 0.99)] / 1_000_000,
+                mx.getPeakThreadCount(), (heapDepois - heapAntes) / 1048576.0, rssPicoMb());
+
+        assertThat(ok.get() + erro.get()).isEqualTo(CONCORRENCIA);
+    }
+
+    /** VmHWM de /proc (Linux); "n/d" em outros sistemas. */
+    private static String rssPicoMb() {
+        try {
+            for (String linha : Files.readAllLines(Path.of("/proc/self/status"), StandardCharsets.US_ASCII)) {
+                if (linha.startsWith("VmHWM:")) {
+                    long kb = Long.parseLong(linha.replaceAll("\\D+", ""));
+                    return String.valueOf(kb / 1024);
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // indisponível
+        }
+        return "n/d";
+    }
+}
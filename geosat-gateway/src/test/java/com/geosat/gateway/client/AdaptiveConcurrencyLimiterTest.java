@@ -0,0 +1,61 @@
+package com.geosat.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    /** Simula uma rodada com {@code n} chamadas simultâneas e RTT fixo. */
+    private static void rodada(AdaptiveConcurrencyLimiter l, int n, long rttMs) {
+        for (int i = 0; i < n; i++) l.acquire();
+        for (int i = 0; i < n; i++) l.release(rttMs * MS, false);
+    }
+
+    @Test
+    void cresceComLatenciaEstavelERecuaQuandoEnfileira() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(4, 1, 64, 0, registry);
+
+        for (int r = 0; r < 30; r++) rodada(l, (int) l.limit(), 20);
+        double cheio = l.limit();
+        assertThat(cheio).isGreaterThan(20);
+
+        // upstream saturado: RTT 5x o mínimo
+        for (int r = 0; r < 30; r++) rodada(l, (int) l.limit(), 100);
+        assertThat(l.limit()).isLessThan(cheio / 2);
+        assertThat(registry.get("rbmc.limite.concorrencia").gauge().value()).isEqualTo(l.limit());
+    }
+
+    @Test
+    void semCargaNaoCresce() {
+        AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(10, 1, 64, 0, new SimpleMeterRegistry());
+        for (int r = 0; r < 50; r++) rodada(l, 1, 20);
+        assertThat(l.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void timeoutReduzMultiplicativamenteEExcessoEDescartado() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(10, 1, 64, 0, registry);
+
+        assertThatThrownBy(() -> l.call(() -> { throw new SocketTimeoutException("lento"); }))
+                .isInstanceOf(SocketTimeoutException.class);
+        assertThat(l.limit()).isEqualTo(9.0);
+
+        for (int i = 0; i < 9; i++) l.acquire();
+        assertThat(l.inFlight()).isEqualTo(9);
+        assertThatThrownBy(l::acquire).isInstanceOf(LimiteConcorrenciaException.class);
+        assertThat(registry.get("rbmc.limite.rejeicoes").counter().count()).isEqualTo(1.0);
+
+        l.release(0, false);
+        l.acquire(); // vaga liberada
+        assertThat(l.inFlight()).isEqualTo(9);
+    }
+}
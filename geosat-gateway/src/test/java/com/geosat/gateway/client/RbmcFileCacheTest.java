@@ -0,0 +1,104 @@
+package com.geosat.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RbmcFileCacheTest {
+
+    private static RbmcFileCache.Loader conteudo(String texto, AtomicInteger chamadas) {
+        return target -> {
+            chamadas.incrementAndGet();
+            Files.writeString(target, texto, StandardCharsets.ISO_8859_1);
+            return texto.length();
+        };
+    }
+
+    @Test
+    void hitNaoChamaLoaderEConteudoIgualCompartilhaBlob(@TempDir Path dir) throws Exception {
+        RbmcFileCache cache = new RbmcFileCache(dir.toString(), 1 << 20, new SimpleMeterRegistry());
+        AtomicInteger chamadas = new AtomicInteger();
+
+        RbmcFileCache.Entrada a = cache.obter("rinex2/alar/2025/200", conteudo("abc", chamadas));
+        RbmcFileCache.Entrada b = cache.obter("/rinex2/alar/2025/200", conteudo("abc", chamadas));
+        RbmcFileCache.Entrada c = cache.obter("rinex3/alar/2025/200", conteudo("abc", chamadas));
+
+        assertThat(chamadas).hasValue(2);
+        assertThat(b.arquivo()).isEqualTo(a.arquivo());
+        assertThat(c.digest()).isEqualTo(a.digest());
+        assertThat(cache.totalBytes()).isEqualTo(3);
+        assertThat(StandardCharsets.ISO_8859_1.decode(cache.map(a)).toString()).isEqualTo("abc");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transferTo(a, 1, 10, Channels.newChannel(out));
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).isEqualTo("bc");
+    }
+
+    @Test
+    void evictaMenosRecenteERecuperaAposReinicio(@TempDir Path dir) throws Exception {
+        RbmcFileCache cache = new RbmcFileCache(dir.toString(), 10, new SimpleMeterRegistry());
+        AtomicInteger chamadas = new AtomicInteger();
+        cache.obter("a", conteudo("aaaa", chamadas));
+        cache.obter("b", conteudo("bbbb", chamadas));
+        cache.obter("a", conteudo("aaaa", chamadas)); // promove "a"
+        cache.obter("c", conteudo("cccc", chamadas)); // estoura: sai "b"
+
+        assertThat(cache.lookup("a")).isPresent();
+        assertThat(cache.lookup("b")).isEmpty();
+        assertThat(cache.lookup("c")).isPresent();
+        assertThat(cache.totalBytes()).isEqualTo(8);
+
+        RbmcFileCache reaberto = new RbmcFileCache(dir.toString(), 10, new SimpleMeterRegistry());
+        assertThat(reaberto.totalBytes()).isEqualTo(8);
+        assertThat(reaberto.lookup("c")).isPresent();
+        try (var tmp = Files.list(dir.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void missesConcorrentesFazemUmDownloadEFalhaNaoPublica(@TempDir Path dir) throws Exception {
+        RbmcFileCache cache = new RbmcFileCache(dir.toString(), 1 << 20, new SimpleMeterRegistry());
+        AtomicInteger chamadas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        RbmcFileCache.Loader lento = target -> {
+            chamadas.incrementAndGet();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.writeString(target, "xyz");
+            return 3;
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<RbmcFileCache.Entrada>> fs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) fs.add(pool.submit(() -> cache.obter("orbitas/2025/200", lento)));
+        Thread.sleep(100);
+        liberar.countDown();
+        for (Future<RbmcFileCache.Entrada> f : fs) assertThat(f.get().tamanho()).isEqualTo(3);
+        pool.shutdown();
+        assertThat(chamadas).hasValue(1);
+
+        assertThatThrownBy(() -> cache.obter("x", target -> { throw new IOException("HTTP status 404"); }))
+                .isInstanceOf(IOException.class);
+        assertThat(cache.lookup("x")).isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+package com.geosat.gateway.client;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RbmcHttpClientBulkheadTest {
+
+    private final CountDownLatch downloadIniciado = new CountDownLatch(1);
+    private final CountDownLatch liberaDownload = new CountDownLatch(1);
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+
+    @TempDir
+    Path tmp;
+
+    private RbmcHttpClient cliente() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(pool);
+        server.createContext("/", this::responder);
+        server.start();
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        return new RbmcHttpClient(HttpClients.createDefault(), HttpClients.createDefault(),
+                RetryRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults(), bulkheads, registry,
+                new RbmcFileCache(tmp.toString(), 1 << 20, registry), GatewayThreads.plataforma(),
+                RbmcClientProperties.padrao("http://127.0.0.1:" + server.getAddress().getPort())
+                        .comDownload(1, Long.MAX_VALUE));
+    }
+
+    private void responder(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        if (path.startsWith("/rinex3/1s/")) {
+            downloadIniciado.countDown();
+            try {
+                liberaDownload.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = "ok".getBytes();
+        boolean head = "HEAD".equals(ex.getRequestMethod());
+        ex.getResponseHeaders().add("Content-Type", "application/pdf");
+        if (head) ex.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+        ex.sendResponseHeaders(200, head ? -1 : body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            if (!head) out.write(body);
+        }
+    }
+
+    @AfterEach
+    void parar() {
+        liberaDownload.countDown();
+        if (server != null) server.stop(0);
+        pool.shutdownNow();
+    }
+
+    @Test
+    void downloadLentoNaoBloqueiaRelatorioEExcessoDaFamiliaEDescartado() throws Exception {
+        RbmcHttpClient client = cliente();
+        CompletableFuture<RbmcFileCache.Entrada> lento = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.arquivoEmCache("rinex3/1s/alar/2025/200/0/0/mo");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, pool);
+        assertThat(downloadIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // mesma família, sem vaga: descartado sem tocar a rede
+        assertThatThrownBy(() -> client.arquivoEmCache("rinex3/1s/alar/2025/200/0/1/mo"))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(registry.get("rbmc.bulkhead.rejeicoes").tag("familia", "rinex3_1s").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("rbmc.bulkhead.saturacao").tag("familia", "rinex3_1s").gauge().value())
+                .isEqualTo(1.0);
+
+        // outra família segue respondendo enquanto o download está preso
+        long inicio = System.nanoTime();
+        RbmcHttpClient.RespostaCondicional r = client.obterRelatorio("ALAR", null, null);
+        assertThat(r.status()).isEqualTo(200);
+        assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(registry.get("rbmc.bulkhead.saturacao").tag("familia", "relatorio").gauge().value())
+                .isZero();
+
+        liberaDownload.countDown();
+        assertThat(lento.get(5, TimeUnit.SECONDS).tamanho()).isEqualTo(2);
+        assertThat(registry.get("rbmc.bulkhead.saturacao").tag("familia", "rinex3_1s").gauge().value())
+                .isZero();
+    }
+}
@@ -1,10 +1,11 @@
 package com.geosat.gateway.client;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.retry.RetryRegistry;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,21 +46,24 @@ class RbmcHttpClientCircuitBreakerTest {
 
     @BeforeEach
     void setup() throws Exception {
-        Mockito.when(httpClient.execute(any(HttpGet.class), any(HttpClientResponseHandler.class)))
+        cbRegistry.circuitBreaker("rbmcClient").reset();
+        Mockito.when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpClientResponseHandler.class)))
                 .thenThrow(new IOException("Falha simulada"));
     }
 
     @Test
     void deveAbrirCircuitBreakerAposFalhas() throws Exception {
-        for (int i = 0; i < 4; i++) {
-            assertThatThrownBy(() -> client.obterRelatorio("ALAR"))
-                    .isInstanceOf(IOException.class);
-        }
+        // mesmo caminho da produção (RbmcService): metadados condicionais do relatório
+        assertThatThrownBy(() -> client.obterRelatorio("ALAR", null, null))
+                .isInstanceOf(IOException.class);
         CircuitBreaker cb = cbRegistry.circuitBreaker("rbmcClient");
-        assertThat(cb.getState()).isIn(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED);
-        // Nova chamada depois de aberto pode lançar IOException rapidamente
-        try {
-            client.obterRelatorio("ALAR");
-        } catch (IOException ignored) {}
+        assertThat(cb.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // aberto: falha rápido, sem nova requisição ao upstream
+        Mockito.clearInvocations(httpClient);
+        assertThatThrownBy(() -> client.obterRelatorio("ALAR", null, null))
+                .isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        Mockito.verifyNoInteractions(httpClient);
     }
 }
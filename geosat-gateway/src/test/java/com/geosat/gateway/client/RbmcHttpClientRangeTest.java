@@ -0,0 +1,161 @@
+package com.geosat.gateway.client;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RbmcHttpClientRangeTest {
+
+    private static final int TAMANHO = 200_000;
+
+    private final byte[] arquivo = new byte[TAMANHO];
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean falhou = new AtomicBoolean();
+    private final AtomicInteger requisicoes = new AtomicInteger();
+    private final CircuitBreakerRegistry breakers = CircuitBreakerRegistry.ofDefaults();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+
+    /** Servidor com Range; a primeira resposta do último intervalo é cortada no meio. */
+    private String iniciarServidor(boolean aceitaRange) throws IOException {
+        new Random(7).nextBytes(arquivo);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ex -> responder(ex, aceitaRange));
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void responder(HttpExchange ex, boolean aceitaRange) throws IOException {
+        requisicoes.incrementAndGet();
+        if (aceitaRange) ex.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if ("HEAD".equals(ex.getRequestMethod())) {
+            ex.getResponseHeaders().add("Content-Length", String.valueOf(TAMANHO));
+            ex.sendResponseHeaders(200, -1);
+            ex.close();
+            return;
+        }
+        String range = ex.getRequestHeaders().getFirst("Range");
+        try (OutputStream out = ex.getResponseBody()) {
+            if (range == null || !aceitaRange) {
+                ex.sendResponseHeaders(200, TAMANHO);
+                out.write(arquivo);
+                return;
+            }
+            ranges.add(range);
+            String[] se = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(se[0]);
+            int end = Integer.parseInt(se[1]);
+            int len = end - start + 1;
+            ex.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + TAMANHO);
+            ex.sendResponseHeaders(206, len);
+            if (start == 150_000 && falhou.compareAndSet(false, true)) {
+                out.write(arquivo, start, len / 2);
+                out.flush();
+                throw new IOException("corte simulado"); // o servidor fecha a conexão
+            }
+            out.write(arquivo, start, len);
+        }
+    }
+
+    private RbmcHttpClient cliente(String baseUrl, Path cacheDir) throws IOException {
+        RetryRegistry retry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(4).waitDuration(Duration.ofMillis(10)).build());
+        return new RbmcHttpClient(HttpClients.createDefault(), HttpClients.createDefault(), retry,
+                breakers, BulkheadRegistry.ofDefaults(),
+                registry, new RbmcFileCache(cacheDir.toString(), 1 << 30, registry), GatewayThreads.plataforma(),
+                RbmcClientProperties.padrao(baseUrl).comDownload(4, 1024));
+    }
+
+    @AfterEach
+    void parar() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void baixaEmIntervalosParalelosERetomaSoOIntervaloQueFalhou(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(iniciarServidor(true), tmp.resolve("cache"));
+
+        Path destino = tmp.resolve("saida");
+        long bytes = client.baixarArquivo("rinex3/1s/alar/2025/200/0/0/mo", destino);
+
+        assertThat(bytes).isEqualTo(TAMANHO);
+        assertThat(Files.readAllBytes(destino)).isEqualTo(arquivo);
+        assertThat(falhou).isTrue();
+        assertThat(ranges).contains("bytes=0-49999", "bytes=50000-99999", "bytes=100000-149999", "bytes=150000-199999");
+        // a retomada pede apenas o que faltou do último intervalo
+        assertThat(ranges).contains("bytes=175000-199999").hasSize(5);
+    }
+
+    @Test
+    void atrasoDoHedgeSoConsideraTentativasDeRelatorio(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(iniciarServidor(true), tmp.resolve("cache"));
+
+        // download com intervalos e uma retomada: nada disso entra na base do hedge
+        client.baixarArquivo("rinex3/1s/alar/2025/200/0/0/mo", tmp.resolve("saida"));
+        assertThat(registry.get("rbmc.relatorio.tentativa_seconds").timer().count()).isZero();
+        assertThat(registry.get("rbmc.requests.latency_seconds").tag("cliente", "bloqueante").timer().count())
+                .isPositive();
+
+        client.obterRelatorio("ALAR", null, null);
+        assertThat(registry.get("rbmc.relatorio.tentativa_seconds").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void semRangeUsaStreamUnico(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(iniciarServidor(false), tmp.resolve("cache"));
+
+        Path destino = tmp.resolve("saida");
+        client.baixarArquivo("rinex2/alar/2025/200", destino);
+
+        assertThat(Files.readAllBytes(destino)).isEqualTo(arquivo);
+        assertThat(ranges).isEmpty();
+    }
+
+    @Test
+    void circuitoAbertoNaoSondaNemBaixa(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(iniciarServidor(true), tmp.resolve("cache"));
+        breakers.circuitBreaker(RbmcEndpoint.RINEX3_1S.circuitBreaker()).transitionToOpenState();
+
+        assertThatThrownBy(() -> client.baixarArquivo("rinex3/1s/alar/2025/200/0/0/mo", tmp.resolve("saida")))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(requisicoes).hasValue(0);
+    }
+
+    @Test
+    void circuitoAbertoDeArquivosNaoBloqueiaRelatorioNemOutraFamilia(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(iniciarServidor(false), tmp.resolve("cache"));
+        breakers.circuitBreaker(RbmcEndpoint.RINEX3_1S.circuitBreaker()).transitionToOpenState();
+
+        assertThat(client.obterRelatorio("ALAR", null, null).status()).isEqualTo(200);
+        client.baixarArquivo("rinex2/alar/2025/200", tmp.resolve("saida"));
+        assertThat(Files.readAllBytes(tmp.resolve("saida"))).isEqualTo(arquivo);
+        assertThat(breakers.circuitBreaker(RbmcEndpoint.RELATORIO.circuitBreaker()).getState())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
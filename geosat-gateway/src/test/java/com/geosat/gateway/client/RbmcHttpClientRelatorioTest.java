@@ -0,0 +1,118 @@
+package com.geosat.gateway.client;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RbmcHttpClientRelatorioTest {
+
+    private static final long PDF = 256L * 1024 * 1024;
+    private static final String ETAG = "\"r1\"";
+    private static final String LAST_MODIFIED = "Tue, 01 Jul 2025 10:00:00 GMT";
+
+    private final List<String> metodos = new CopyOnWriteArrayList<>();
+    private final AtomicLong enviados = new AtomicLong();
+    private final CountDownLatch corpoEncerrado = new CountDownLatch(1);
+    private HttpServer server;
+
+    private RbmcHttpClient cliente(boolean aceitaHead, Path tmp) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ex -> responder(ex, aceitaHead));
+        server.start();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new RbmcHttpClient(HttpClients.createDefault(), HttpClients.createDefault(),
+                RetryRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), registry,
+                new RbmcFileCache(tmp.toString(), 1 << 20, registry), GatewayThreads.plataforma(),
+                RbmcClientProperties.padrao("http://127.0.0.1:" + server.getAddress().getPort())
+                        .comDownload(1, Long.MAX_VALUE));
+    }
+
+    private void responder(HttpExchange ex, boolean aceitaHead) throws IOException {
+        metodos.add(ex.getRequestMethod());
+        boolean head = "HEAD".equals(ex.getRequestMethod());
+        if (head && !aceitaHead) {
+            ex.sendResponseHeaders(405, -1);
+            ex.close();
+            return;
+        }
+        ex.getResponseHeaders().add("ETag", ETAG);
+        ex.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+        if (ETAG.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+            ex.sendResponseHeaders(304, -1);
+            ex.close();
+            return;
+        }
+        ex.getResponseHeaders().add("Content-Type", "application/pdf");
+        if (head) {
+            ex.getResponseHeaders().add("Content-Length", String.valueOf(PDF));
+            ex.sendResponseHeaders(200, -1);
+            ex.close();
+            return;
+        }
+        ex.sendResponseHeaders(200, PDF);
+        byte[] buf = new byte[64 * 1024];
+        try (OutputStream out = ex.getResponseBody()) {
+            for (long sent = 0; sent < PDF; sent += buf.length) {
+                out.write(buf);
+                enviados.addAndGet(buf.length);
+            }
+        } catch (IOException clienteFechou) {
+            // esperado: o cliente aborta após os cabeçalhos
+        } finally {
+            corpoEncerrado.countDown();
+        }
+    }
+
+    @AfterEach
+    void parar() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void headTrazMetadadosSemCorpoERevalidaCom304(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(true, tmp);
+
+        RbmcHttpClient.RespostaCondicional r = client.obterRelatorio("ALAR", null, null);
+        assertThat(r.status()).isEqualTo(200);
+        assertThat(r.tamanho()).isEqualTo(PDF);
+        assertThat(r.contentType()).isEqualTo("application/pdf");
+        assertThat(r.etag()).isEqualTo(ETAG);
+        assertThat(r.lastModified()).isEqualTo(LAST_MODIFIED);
+
+        RbmcHttpClient.RespostaCondicional r2 = client.obterRelatorio("ALAR", ETAG, LAST_MODIFIED);
+        assertThat(r2.naoModificado()).isTrue();
+        assertThat(metodos).containsExactly("HEAD", "HEAD");
+    }
+
+    @Test
+    void semHeadAbortaGetAposCabecalhos(@TempDir Path tmp) throws Exception {
+        RbmcHttpClient client = cliente(false, tmp);
+
+        RbmcHttpClient.RespostaCondicional r = client.obterRelatorio("ALAR", null, null);
+
+        assertThat(r.tamanho()).isEqualTo(PDF);
+        assertThat(metodos).containsExactly("HEAD", "GET");
+        assertThat(corpoEncerrado.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(enviados.get()).isLessThan(PDF / 4);
+    }
+}
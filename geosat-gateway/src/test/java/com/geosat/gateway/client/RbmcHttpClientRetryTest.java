@@ -2,8 +2,8 @@ package com.geosat.gateway.client;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,8 +38,8 @@ class RbmcHttpClientRetryTest {
 
     @BeforeEach
     void setup() throws Exception {
-        // Simula 3 falhas e depois sucesso não alcançado (porque max-attempts=4). Vamos sempre falhar.
-        Mockito.when(httpClient.execute(any(HttpGet.class), any(HttpClientResponseHandler.class)))
+        // Sempre falha: o retry esgota as tentativas (max-attempts=4 no perfil de teste)
+        Mockito.when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpClientResponseHandler.class)))
                 .then(invocation -> {
                     throw new IOException("Falha simulada");
                 });
@@ -47,11 +47,12 @@ class RbmcHttpClientRetryTest {
 
     @Test
     void deveAplicarRetryAteLimite() throws Exception {
-        assertThatThrownBy(() -> client.obterRelatorio("ALAR"))
+        // mesmo caminho da produção (RbmcService): metadados condicionais do relatório
+        assertThatThrownBy(() -> client.obterRelatorio("ALAR", null, null))
                 .isInstanceOf(IOException.class)
                 .hasMessageContaining("Falha simulada");
 
-    // Verifica que houve múltiplas tentativas (retry configurado para 4 max-attempts)
-    // Note: Removendo verificação específica do mock devido a ambiguidade do método execute
+        Mockito.verify(httpClient, Mockito.times(4))
+                .execute(any(ClassicHttpRequest.class), any(HttpClientResponseHandler.class));
     }
 }
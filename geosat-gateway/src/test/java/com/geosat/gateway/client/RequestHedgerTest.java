@@ -0,0 +1,100 @@
+package com.geosat.gateway.client;
+
+import com.geosat.gateway.config.GatewayThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTest {
+
+    private static final ThreadFactory THREADS = GatewayThreads.plataforma().fabrica("teste-hedge");
+    private static final long ATRASO = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch libera = new CountDownLatch(1);
+
+    private double contador(String nome) {
+        return registry.get(nome).counter().count();
+    }
+
+    @Test
+    void hedgeVenceQuandoPrimeiraTentativaTrava() throws Exception {
+        RequestHedger hedger = new RequestHedger(() -> ATRASO, 1.0, 4, THREADS, registry);
+        AtomicInteger tentativas = new AtomicInteger();
+        try {
+            long inicio = System.nanoTime();
+            String r = hedger.call(() -> {
+                if (tentativas.incrementAndGet() == 1) {
+                    libera.await(5, TimeUnit.SECONDS);
+                    return "lenta";
+                }
+                return "hedge";
+            });
+            assertThat(r).isEqualTo("hedge");
+            assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.SECONDS.toNanos(2));
+            assertThat(contador("rbmc.hedge.disparos")).isEqualTo(1.0);
+            assertThat(contador("rbmc.hedge.vitorias")).isEqualTo(1.0);
+        } finally {
+            libera.countDown();
+        }
+    }
+
+    @Test
+    void respostaRapidaNaoGeraHedge() throws Exception {
+        RequestHedger hedger = new RequestHedger(() -> ATRASO, 1.0, 4, THREADS, registry);
+        AtomicInteger tentativas = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            assertThat(hedger.call(() -> tentativas.incrementAndGet())).isPositive();
+        }
+        assertThat(tentativas.get()).isEqualTo(10);
+        assertThat(contador("rbmc.hedge.disparos")).isZero();
+        assertThat(hedger.hedgeRate()).isZero();
+    }
+
+    @Test
+    void orcamentoLimitaTaxaDeHedge() throws Exception {
+        // 10%: só a 10a chamada lenta acumula ficha suficiente para um hedge
+        RequestHedger hedger = new RequestHedger(() -> ATRASO, 0.1, 4, THREADS, registry);
+        AtomicInteger tentativas = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            hedger.call(() -> {
+                tentativas.incrementAndGet();
+                Thread.sleep(40);
+                return "ok";
+            });
+        }
+        assertThat(contador("rbmc.hedge.disparos")).isEqualTo(1.0);
+        assertThat(contador("rbmc.hedge.negados")).isEqualTo(9.0);
+        assertThat(tentativas.get()).isEqualTo(11);
+        assertThat(hedger.hedgeRate()).isEqualTo(0.1);
+        assertThat(registry.get("rbmc.hedge.taxa").gauge().value()).isEqualTo(0.1);
+    }
+
+    @Test
+    void ambasFalhamPropagaErroDaPrimeira() {
+        RequestHedger hedger = new RequestHedger(() -> ATRASO, 1.0, 4, THREADS, registry);
+        AtomicInteger tentativas = new AtomicInteger();
+        assertThatThrownBy(() -> hedger.call(() -> {
+            int n = tentativas.incrementAndGet();
+            Thread.sleep(n == 1 ? 60 : 10);
+            throw new IOException("falha " + n);
+        })).isInstanceOf(IOException.class).hasMessage("falha 1");
+        assertThat(contador("rbmc.hedge.vitorias")).isZero();
+    }
+
+    @Test
+    void semEstimativaDeAtrasoExecutaDireto() throws Exception {
+        RequestHedger hedger = new RequestHedger(() -> -1, 1.0, 4, THREADS, registry);
+        String thread = hedger.call(() -> Thread.currentThread().getName());
+        assertThat(thread).isEqualTo(Thread.currentThread().getName());
+        assertThat(contador("rbmc.hedge.chamadas")).isZero();
+    }
+}
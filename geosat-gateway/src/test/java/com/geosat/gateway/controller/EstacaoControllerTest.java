@@ -1,21 +1,31 @@
 package com.geosat.gateway.controller;
 
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ActiveProfiles("test")
 class EstacaoControllerTest {
 
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    SerieStore serieStore;
+
     @Test
     void listaEstacoesOk() throws Exception {
         mockMvc.perform(get("/api/v1/estacoes"))
@@ -35,6 +45,8 @@ class EstacaoControllerTest {
         mockMvc.perform(get("/api/v1/estacoes/ALAR/posicoes?ano=2025&dia=200&max=50"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.samples").isArray());
+        mockMvc.perform(get("/api/v1/estacoes/XXXX/posicoes?ano=2025&dia=200&max=50"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -48,4 +60,196 @@ class EstacaoControllerTest {
                 .andExpect(jsonPath("$.features[0].geometry.type").value("Point"))
                 .andExpect(jsonPath("$.features[0].properties.codigo").exists());
     }
+
+    @Test
+    void visibilidadeEstacaoOk() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/visibilidade?ano=2025&dia=200&max=100&mascara=15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.codigo").value("BRAZ"))
+                .andExpect(jsonPath("$.janelas").isArray())
+                .andExpect(jsonPath("$.samples").isArray());
+    }
+
+    @Test
+    void dopSerieDecimadaOk() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes/ALAR/dop?ano=2025&dia=200&max=60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.samples.length()").value(60))
+                .andExpect(jsonPath("$.samples[0].pdop").isNumber());
+    }
+
+    @Test
+    void streamSseAbreConexaoAssincrona() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes/stream?estacoes=ALAR"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "text/event-stream"));
+    }
+
+    @Test
+    void etagForteDevolve304SemCorpo() throws Exception {
+        for (String url : new String[]{"/api/v1/estacoes", "/api/v1/estacoes/geojson",
+                "/api/v1/estacoes/ALAR/snr?ano=2025&dia=200&max=50",
+                "/api/v1/estacoes/ALAR/posicoes?ano=2025&dia=200&max=50"}) {
+            MvcResult primeiro = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+            String etag = primeiro.getResponse().getHeader("ETag");
+            assertThat(etag).as(url).startsWith("\"").doesNotStartWith("W/");
+
+            mockMvc.perform(get(url).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    void serieSinteticaReproduzivelEEtagPorParametro() throws Exception {
+        String url = "/api/v1/estacoes/ALAR/snr?ano=2025&dia=200&max=50";
+        MvcResult a = mockMvc.perform(get(url)).andReturn();
+        MvcResult b = mockMvc.perform(get(url)).andReturn();
+        assertThat(b.getResponse().getContentAsString()).isEqualTo(a.getResponse().getContentAsString());
+
+        // outro max é outra representação
+        mockMvc.perform(get("/api/v1/estacoes/ALAR/snr?ano=2025&dia=200&max=60")
+                        .header("If-None-Match", a.getResponse().getHeader("ETag")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).header("If-None-Match", a.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Cache-Control", "max-age=30, public"));
+    }
+
+    @Test
+    void geojsonPreCompactadoQuandoClienteAceitaGzip() throws Exception {
+        MvcResult gz = mockMvc.perform(get("/api/v1/estacoes/geojson").header("Accept-Encoding", "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", org.hamcrest.Matchers.hasItem("Accept-Encoding")))
+                .andReturn();
+        MvcResult plano = mockMvc.perform(get("/api/v1/estacoes/geojson")).andReturn();
+
+        try (var in = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(gz.getResponse().getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plano.getResponse().getContentAsByteArray());
+        }
+        assertThat(gz.getResponse().getHeader("ETag")).isNotEqualTo(plano.getResponse().getHeader("ETag"));
+    }
+
+    @Test
+    void consultasEspaciais() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes?bbox=-48.5,-16.5,-47.5,-15.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].codigo").value("BRAZ"));
+        mockMvc.perform(get("/api/v1/estacoes/proximas?lat=-12&lon=-38&k=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].codigo").value("SAVO"))
+                .andExpect(jsonPath("$[1].codigo").value("SSA1"));
+        mockMvc.perform(get("/api/v1/estacoes/raio?lat=-15.8&lon=-47.9&km=100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].distanciaKm").isNumber());
+    }
+
+    @Test
+    void bboxOuPontoInvalidoDevolve400() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes?bbox=-50,-10,-45")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes?bbox=-50,-10,-45,-20")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/proximas?lat=95&lon=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void tileMvtDasEstacoes() throws Exception {
+        MvcResult r = mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/vnd.mapbox-vector-tile"))
+                .andReturn();
+        assertThat(r.getResponse().getContentAsByteArray()).isNotEmpty();
+        mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt").header("If-None-Match", r.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/estacoes/tiles/1/2/0.mvt")).andExpect(status().isNotFound());
+        // qualidade: ano e dia juntos e dentro do ano
+        mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt?ano=2025")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt?ano=2025&dia=366")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt?ano=1990&dia=10")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/tiles/0/0/0.mvt?ano=2024&dia=366")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metadadosDoCadastroE404ParaDesconhecida() throws Exception {
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/metadados"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.codigo").value("BRAZ"))
+                .andExpect(header().exists("ETag"));
+        mockMvc.perform(get("/api/v1/estacoes/XXXX/metadados")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void serieHistoricaAgregadaDoArmazenamento() throws Exception {
+        long inicio = java.time.Instant.parse("2001-01-01T00:00:00Z").toEpochMilli();
+        long[] t = new long[2880];
+        double[][] v = {new double[2880]};
+        for (int i = 0; i < t.length; i++) {
+            t[i] = inicio + i * 30_000L;
+            v[0][i] = i < 1440 ? 40.0 : 44.0;
+        }
+        serieStore.gravarDia(Observavel.SNR, "ALAR", 2001, 1, t, v);
+
+        mockMvc.perform(get("/api/v1/estacoes/alar/series/snr?de=2001-01-01T00:00:00Z&ate=2001-01-01T23:59:59Z&max=2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", org.hamcrest.Matchers.containsString("max-age=30")))
+                .andExpect(jsonPath("$.codigo").value("ALAR"))
+                .andExpect(jsonPath("$.colunas[0]").value("snr_medio"))
+                .andExpect(jsonPath("$.passoSegundos").value(43200))
+                .andExpect(jsonPath("$.samples.length()").value(2))
+                .andExpect(jsonPath("$.samples[0].n").value(1440))
+                .andExpect(jsonPath("$.samples[0].valores[0]").value(40.0))
+                .andExpect(jsonPath("$.samples[1].epoch").value("2001-01-01T12:00:00Z"))
+                .andExpect(jsonPath("$.samples[1].valores[0]").value(44.0));
+
+        mockMvc.perform(get("/api/v1/estacoes/ALAR/series/snr?de=2001-02-01T00:00:00Z&ate=2001-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/ALAR/series/snr?ate=2001-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/ALAR/series/temperatura?de=2001-01-01T00:00:00Z&ate=2001-01-02T00:00:00Z"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/estacoes/XXXX/series/snr?de=2001-01-01T00:00:00Z&ate=2001-01-02T00:00:00Z"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void estatisticasPorBaldeDoSnrGravado() throws Exception {
+        long inicio = java.time.Instant.parse("2001-01-02T00:00:00Z").toEpochMilli();
+        long[] t = new long[2880];
+        double[][] v = {new double[2880]};
+        for (int i = 0; i < t.length; i++) {
+            t[i] = inicio + i * 30_000L;
+            v[0][i] = i % 2 == 0 ? 40.0 : 44.0;
+        }
+        serieStore.gravarDia(Observavel.SNR, "BRAZ", 2001, 2, t, v);
+
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z&balde=12h&quantis=0.5,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baldeSegundos").value(43200))
+                .andExpect(jsonPath("$.quantis.length()").value(2))
+                .andExpect(jsonPath("$.baldes.length()").value(2))
+                .andExpect(jsonPath("$.baldes[1].inicio").value("2001-01-02T12:00:00Z"))
+                .andExpect(jsonPath("$.baldes[0].colunas[0].n").value(1440))
+                .andExpect(jsonPath("$.baldes[0].colunas[0].media").value(42.0))
+                .andExpect(jsonPath("$.baldes[0].colunas[0].desvio").value(2.0))
+                .andExpect(jsonPath("$.baldes[0].colunas[0].min").value(40.0));
+
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z&balde=1x"))
+                .andExpect(status().isBadRequest());
+        for (String zero : new String[]{"0m", "0h", "0d", "00h"}) {
+            mockMvc.perform(get("/api/v1/estacoes/BRAZ/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z&balde=" + zero))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z&quantis=1.5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-03-03T00:00:00Z&balde=1m"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/estacoes/BRAZ/posicoes/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.colunas[0]").value("norte_m"));
+        mockMvc.perform(get("/api/v1/estacoes/XXXX/snr/stats?de=2001-01-02T00:00:00Z&ate=2001-01-03T00:00:00Z"))
+                .andExpect(status().isNotFound());
+    }
 }
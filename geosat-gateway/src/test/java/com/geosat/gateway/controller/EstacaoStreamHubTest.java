@@ -0,0 +1,181 @@
+package com.geosat.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
+import com.geosat.gateway.service.EstacaoCadastroService;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class EstacaoStreamHubTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EstacaoCatalogoService catalogo = new EstacaoCatalogoService(
+            new EstacaoCadastroService(registry, "", "", ""), new ObjectMapper(), registry, false, 2880);
+    private static final Instant AGORA = Instant.parse("2025-07-19T12:00:00Z");
+
+    @TempDir
+    Path tmp;
+    private SerieStore series;
+    private EstacaoStreamHub hub;
+    private EstacaoStreamHub hubPequeno;
+
+    @BeforeEach
+    void iniciar() {
+        series = new SerieStore(registry, tmp.toString(), 1100);
+        hub = new EstacaoStreamHub(catalogo, series, GatewayThreads.plataforma(), registry, 64, 2, 60_000, 2, 60_000);
+        hubPequeno = new EstacaoStreamHub(catalogo, series, GatewayThreads.plataforma(), registry, 4, 2, 60_000, 2, 60_000);
+    }
+
+    private void gravar(Observavel o, String codigo, long... segundosAntes) {
+        long[] t = new long[segundosAntes.length];
+        double[][] v = new double[o.colunas().size()][t.length];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = AGORA.minusSeconds(segundosAntes[i]).toEpochMilli();
+            for (double[] coluna : v) coluna[i] = 40 + i;
+        }
+        series.acrescentar(o, codigo, t, v);
+    }
+
+    /** Emitter que registra os eventos enviados; opcionalmente trava até liberado (cliente lento). */
+    static class Captura extends SseEmitter {
+        final List<String> nomes = new CopyOnWriteArrayList<>();
+        final CountDownLatch liberar;
+        volatile boolean falhar;
+
+        Captura(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (falhar) throw new IOException("broken pipe");
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String texto = builder.build().iterator().next().getData().toString();
+            nomes.add(texto.substring(texto.indexOf("event:") + 6, texto.indexOf('\n', texto.indexOf("event:"))));
+        }
+    }
+
+    @AfterEach
+    void parar() {
+        hub.encerrar();
+        hubPequeno.encerrar();
+    }
+
+    @Test
+    void novoAssinanteRecebeStatusInicialFiltrado() {
+        Captura c = new Captura(new CountDownLatch(0));
+        hub.assinar(Set.of("ALAR", "BRAZ"), c);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> c.nomes.size() == 2);
+        assertThat(c.nomes).containsOnly("status");
+    }
+
+    @Test
+    void umaPublicacaoChegaATodosOsAssinantes() {
+        Captura a = new Captura(new CountDownLatch(0));
+        Captura b = new Captura(new CountDownLatch(0));
+        hub.assinar(Set.of("ALAR"), a);
+        hub.assinar(Set.of(), b);
+        gravar(Observavel.SNR, "ALAR", 600);
+        hub.publicar(AGORA); // 1a passada: o que já estava gravado não é "ao vivo"
+        double eventos = registry.counter("estacoes.stream.eventos").count();
+
+        gravar(Observavel.SNR, "ALAR", 60, 30);
+        gravar(Observavel.SNR, "BRAZ", 30);
+        gravar(Observavel.POSICAO, "ALAR", 30);
+        gravar(Observavel.SNR, "BRAZ", -30); // depois de "agora": fica para a próxima passada
+        hub.publicar(AGORA);
+
+        // filtro ALAR: status inicial + amostras só de ALAR; sem filtro: amostras de todas
+        await().atMost(2, TimeUnit.SECONDS).until(() -> a.nomes.containsAll(List.of("snr", "posicao")));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> b.nomes.stream().filter("snr"::equals).count() == 3);
+        assertThat(a.nomes).filteredOn("snr"::equals).hasSize(2);
+        assertThat(registry.counter("estacoes.stream.eventos").count() - eventos).isEqualTo(4);
+
+        hub.publicar(AGORA.plusSeconds(60));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> b.nomes.stream().filter("snr"::equals).count() == 4);
+        assertThat(a.nomes).filteredOn("snr"::equals).hasSize(2);
+    }
+
+    @Test
+    void clientePresoNoEnvioEDerrubadoSemTravarOsDemais() throws Exception {
+        EstacaoStreamHub curto = new EstacaoStreamHub(catalogo, series, GatewayThreads.plataforma(), registry,
+                64, 10, 60_000, 1, 100);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            Captura preso = new Captura(liberar);
+            curto.assinar(Set.of("ALAR"), preso);
+            Thread.sleep(300);
+            Captura normal = new Captura(new CountDownLatch(0));
+            curto.assinar(Set.of("ALAR"), normal);
+            // o único worker está preso no 1o envio: o pool cresce e o novo cliente recebe
+            await().atMost(2, TimeUnit.SECONDS).until(() -> normal.nomes.size() == 1);
+
+            curto.publicar(AGORA);
+            assertThat(curto.assinantes()).isEqualTo(1);
+            assertThat(registry.counter("estacoes.stream.derrubados", "motivo", "envio_lento").count()).isEqualTo(1);
+        } finally {
+            liberar.countDown();
+            curto.encerrar();
+        }
+    }
+
+    @Test
+    void clienteLentoTemFilaLimitadaEStatusCoalescido() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        Captura lento = new Captura(liberar);
+        hubPequeno.assinar(Set.of("ALAR"), lento); // 1o status fica preso no send
+        Thread.sleep(100);
+        List<EstacaoStreamHub.Evento> lote = new ArrayList<>();
+        EstacaoDTO alar = new EstacaoDTO("ALAR", "Alagoinhas", -12.1, -38.4, "ONLINE");
+        for (int i = 0; i < 10; i++) {
+            lote.add(new EstacaoStreamHub.Evento("status", "ALAR", "status:ALAR", alar));
+            lote.add(new EstacaoStreamHub.Evento("snr", "ALAR", null, "amostra" + i));
+        }
+        hubPequeno.distribuir(lote);
+
+        assertThat(registry.counter("estacoes.stream.descartados", "motivo", "coalescido").count()).isEqualTo(9);
+        assertThat(registry.counter("estacoes.stream.descartados", "motivo", "fila_cheia").count()).isGreaterThan(0);
+        liberar.countDown();
+        // fila de 4: o status pendente sobrevive às amostras descartadas
+        await().atMost(2, TimeUnit.SECONDS).until(() -> lento.nomes.size() == 5);
+        assertThat(lento.nomes.subList(1, 5)).containsOnlyOnce("status");
+    }
+
+    @Test
+    void clienteDesconectadoSaiDaDistribuicaoELimiteRecusaExcedente() {
+        Captura caiu = new Captura(new CountDownLatch(0));
+        caiu.falhar = true;
+        hub.assinar(Set.of(), caiu);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> hub.assinantes() == 0);
+
+        assertThat(hub.assinar(Set.of(), new Captura(new CountDownLatch(0)))).isPresent();
+        assertThat(hub.assinar(Set.of(), new Captura(new CountDownLatch(0)))).isPresent();
+        assertThat(hub.assinar(Set.of(), new Captura(new CountDownLatch(0)))).isEmpty();
+    }
+}
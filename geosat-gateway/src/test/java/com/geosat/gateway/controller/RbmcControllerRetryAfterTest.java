@@ -1,5 +1,6 @@
 package com.geosat.gateway.controller;
 
+import com.geosat.gateway.client.RbmcEndpoint;
 import com.geosat.gateway.model.RbmcFallbackResponse;
 import com.geosat.gateway.service.CircuitBreakerStateService;
 import com.geosat.gateway.service.RbmcService;
@@ -33,7 +34,7 @@ class RbmcControllerRetryAfterTest {
     @BeforeEach
     void setup(){
     // Simulamos 12 segundos restantes; serviço agora calcula dinamicamente
-    Mockito.when(cbState.remainingOpenSeconds()).thenReturn(java.util.Optional.of(12L));
+    Mockito.when(cbState.remainingOpenSeconds(RbmcEndpoint.RELATORIO)).thenReturn(java.util.Optional.of(12L));
     }
 
     @Test
@@ -0,0 +1,122 @@
+package com.geosat.gateway.controller;
+
+import com.geosat.gateway.model.RbmcFallbackResponse;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import com.geosat.gateway.service.CircuitBreakerStateService;
+import com.geosat.gateway.service.ReactiveRbmcService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+// sem impressão: o stream ainda escreve cabeçalhos em outra thread quando o perform inicial retorna
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class ReactiveControllersTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    ReactiveRbmcService rbmcService;
+
+    @MockBean
+    CircuitBreakerStateService cbState;
+
+    @Test
+    void relatorioReativoOk() throws Exception {
+        Mockito.when(rbmcService.obterRelatorio("ALAR")).thenReturn(Mono.just(relatorio("ALAR")));
+        MvcResult r = mockMvc.perform(get("/api/v2/rbmc/ALAR/relatorio"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(r))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estacao").value("ALAR"));
+    }
+
+    @Test
+    void fallbackReativoTemRetryAfter() throws Exception {
+        Mockito.when(cbState.remainingOpenSeconds()).thenReturn(Optional.of(7L));
+        Mockito.when(rbmcService.obterRelatorio("ALAR")).thenReturn(Mono.just(
+                new RbmcFallbackResponse("ALAR", "indisponivel", "CB aberto", Instant.now(), Map.of())));
+        MvcResult r = mockMvc.perform(get("/api/v2/rbmc/ALAR/relatorio")).andReturn();
+        mockMvc.perform(asyncDispatch(r))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void fanOutEmNdjsonUmaLinhaPorEstacao() throws Exception {
+        Mockito.when(rbmcService.obterRelatorio(Mockito.anyString()))
+                .thenAnswer(inv -> Mono.just(relatorio(inv.getArgument(0))));
+        MvcResult r = mockMvc.perform(get("/api/v2/rbmc/relatorios?estacoes=alar,BRAZ,ALAR")).andReturn();
+        String corpo = mockMvc.perform(asyncDispatch(r))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        // duplicatas (sem diferença de caixa) consultadas uma vez
+        assertThat(corpo.strip().split("\n")).hasSize(2);
+        assertThat(corpo).contains("\"ALAR\"").contains("\"BRAZ\"");
+    }
+
+    @Test
+    void snrEmStreamingRespeitaMax() throws Exception {
+        MvcResult r = mockMvc.perform(get("/api/v2/estacoes/ALAR/snr?ano=2025&dia=200&max=50")).andReturn();
+        String corpo = mockMvc.perform(asyncDispatch(r))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] linhas = corpo.strip().split("\n");
+        assertThat(linhas).hasSize(50);
+        assertThat(linhas[0]).contains("\"epoch\":\"2025-07-19T00:00:00Z\"");
+    }
+
+    @Test
+    void posicoesEmStreaming() throws Exception {
+        MvcResult r = mockMvc.perform(get("/api/v2/estacoes/ALAR/posicoes?ano=2025&dia=200&max=20")).andReturn();
+        String corpo = mockMvc.perform(asyncDispatch(r))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(corpo.strip().split("\n")).hasSize(20);
+    }
+
+    @Test
+    void mesmoCorpoDoV1ParaASerieSinteticaE404ParaEstacaoDesconhecida() throws Exception {
+        for (String serie : new String[]{"snr", "posicoes"}) {
+            String url = "/estacoes/ALAR/" + serie + "?ano=2025&dia=200&max=40";
+            MvcResult r = mockMvc.perform(get("/api/v2" + url)).andReturn();
+            String v2 = mockMvc.perform(asyncDispatch(r)).andReturn().getResponse().getContentAsString();
+            String v1 = mockMvc.perform(get("/api/v1" + url)).andReturn().getResponse().getContentAsString();
+            List<String> linhas = new ArrayList<>();
+            for (String l : v2.strip().split("\n")) linhas.add(l);
+            assertThat(v1).contains("\"samples\":[" + String.join(",", linhas) + "]");
+        }
+        MvcResult r = mockMvc.perform(get("/api/v2/estacoes/XXXX/posicoes?ano=2025&dia=200&max=20")).andReturn();
+        mockMvc.perform(asyncDispatch(r)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void decimacaoIgualAoEndpointV1() {
+        assertThat(ReactiveEstacaoController.decimado(10, 4).collectList().block()).containsExactly(0, 2, 5, 7);
+        assertThat(ReactiveEstacaoController.decimado(3, 10).collectList().block()).containsExactly(0, 1, 2);
+    }
+
+    private static RbmcRelatorioDTO relatorio(String estacao) {
+        return new RbmcRelatorioDTO(estacao.toUpperCase(), "pdf", "https://x/" + estacao, "desc", 10L, Instant.EPOCH);
+    }
+}
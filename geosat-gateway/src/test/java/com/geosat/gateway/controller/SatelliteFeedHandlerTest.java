@@ -0,0 +1,113 @@
+package com.geosat.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.gnss.orbit.EphemerisProvider;
+import com.geosat.gateway.gnss.orbit.SatelliteFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gnss.feed.intervalo-ms=100")
+class SatelliteFeedHandlerTest {
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void recebeCatalogoEQuadrosSoDosGruposAssinados() throws Exception {
+        BlockingQueue<Object> recebidas = new LinkedBlockingQueue<>();
+        WebSocketSession sessao = new StandardWebSocketClient().execute(new AbstractWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession s, TextMessage m) {
+                recebidas.add(m.getPayload());
+            }
+
+            @Override
+            protected void handleBinaryMessage(WebSocketSession s, BinaryMessage m) {
+                ByteBuffer copia = ByteBuffer.allocate(m.getPayloadLength());
+                copia.put(m.getPayload()).flip();
+                recebidas.add(copia);
+            }
+        }, "ws://127.0.0.1:" + port + "/ws/satelites").get(5, TimeUnit.SECONDS);
+        try {
+            sessao.sendMessage(new TextMessage("{\"grupos\":[\"Galileo\",\"Starlink\"]}"));
+
+            Object primeira = recebidas.poll(5, TimeUnit.SECONDS);
+            assertThat(primeira).isInstanceOf(String.class);
+            assertThat((String) primeira).contains("\"tipo\":\"catalogo\"").contains("\"fonte\":\"nominal\"").contains("\"Galileo\":[\"E01\"");
+
+            // após a assinatura valer, só chegam quadros Galileo
+            int galileo = 0;
+            for (int i = 0; i < 6; i++) {
+                Object m = recebidas.poll(5, TimeUnit.SECONDS);
+                assertThat(m).isInstanceOf(ByteBuffer.class);
+                ByteBuffer b = ((ByteBuffer) m).order(ByteOrder.LITTLE_ENDIAN);
+                if (b.get(1) == 1) galileo++;
+            }
+            assertThat(galileo).isGreaterThanOrEqualTo(4);
+        } finally {
+            sessao.close();
+        }
+    }
+
+    private static WebSocketSession sessao(String id, CountDownLatch liberar) throws Exception {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.getId()).thenReturn(id);
+        doAnswer(inv -> liberar.await(5, TimeUnit.SECONDS)).when(s).sendMessage(any());
+        return s;
+    }
+
+    @Test
+    void envioPresoAlemDoPrazoFechaASessaoSemTravarOsDemais() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SatelliteFeedHandler handler = new SatelliteFeedHandler(new SatelliteFeed(new EphemerisProvider("")),
+                new ObjectMapper(), GatewayThreads.plataforma(), registry, 10, 100, 1000, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            WebSocketSession lenta = sessao("lenta", liberar);
+            handler.afterConnectionEstablished(lenta);
+            handler.publicar();
+            verify(lenta, timeout(2000)).sendMessage(any());
+            Thread.sleep(200);
+
+            // o único worker está preso: o pool cresce e a sessão nova recebe o tick
+            WebSocketSession normal = sessao("normal", new CountDownLatch(0));
+            handler.afterConnectionEstablished(normal);
+            handler.publicar();
+
+            verify(lenta, timeout(2000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+            verify(normal, timeout(2000).atLeast(2)).sendMessage(any());
+            verify(normal, never()).close(any());
+            assertThat(registry.get("gnss.feed.clientes_derrubados").counter().count()).isEqualTo(1.0);
+            assertThat(registry.get("gnss.feed.clientes").gauge().value()).isEqualTo(1.0);
+        } finally {
+            liberar.countDown();
+            handler.encerrar();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.geosat.gateway.gnss.dop;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Matrix4;
+import com.geosat.gateway.gnss.TopocentricFrame;
+import com.geosat.gateway.gnss.orbit.EphemerisSet;
+import com.geosat.gateway.gnss.orbit.NominalConstellation;
+import com.geosat.gateway.gnss.orbit.OrbitGrid;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DopEngineTest {
+
+    @Test
+    void inversaSimetricaConfereComProduto() {
+        double[] a = {
+                4, 1, 0.5, 2,
+                1, 3, 0.2, 1,
+                0.5, 0.2, 5, 1.5,
+                2, 1, 1.5, 6
+        };
+        double[] inv = a.clone();
+        assertThat(Matrix4.invertSymmetric(inv)).isTrue();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                double s = 0;
+                for (int k = 0; k < 4; k++) s += a[i * 4 + k] * inv[k * 4 + j];
+                assertThat(s).isCloseTo(i == j ? 1.0 : 0.0, within(1e-12));
+            }
+        }
+    }
+
+    @Test
+    void matrizSingularEhRejeitada() {
+        double[] m = new double[16];
+        m[0] = m[5] = m[10] = 1.0;
+        assertThat(Matrix4.invertSymmetric(m)).isFalse();
+    }
+
+    @Test
+    void dopDaConstelacaoNominalEhConsistente() {
+        EphemerisSet set = new EphemerisSet(NominalConstellation.forDay(2025, 200), Double.MAX_VALUE, "nominal");
+        OrbitGrid grid = OrbitGrid.compute(set, GpsTime.dayStart(2025, 200), 60, 1440);
+        DopSeries s = DopEngine.compute(grid, new TopocentricFrame(-15.793, -47.882, 0), Math.sin(Math.toRadians(10)));
+        assertThat(s.epochs()).isEqualTo(1440);
+        for (int k = 0; k < s.epochs(); k++) {
+            assertThat(s.satellites()[k]).isGreaterThanOrEqualTo(6);
+            assertThat(s.pdop()[k]).isBetween(0.5, 6.0);
+            assertThat(s.hdop()[k]).isLessThan(s.pdop()[k]);
+            assertThat(s.vdop()[k]).isLessThan(s.pdop()[k]);
+            double g2 = s.pdop()[k] * s.pdop()[k] + s.tdop()[k] * s.tdop()[k];
+            assertThat(s.gdop()[k] * s.gdop()[k]).isCloseTo(g2, within(1e-9));
+        }
+    }
+}
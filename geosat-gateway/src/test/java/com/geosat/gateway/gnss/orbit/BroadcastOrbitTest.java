@@ -0,0 +1,100 @@
+package com.geosat.gateway.gnss.orbit;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.Wgs84;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BroadcastOrbitTest {
+
+    static final String RINEX2_NAV = """
+                 2.10           N: GPS NAV DATA                         RINEX VERSION / TYPE
+            XXRINEXN V2.10      AIUB                3-SEP-99 15:22      PGM / RUN BY / DATE
+                                                                        END OF HEADER
+             6 99  9  2 17 51 44.0 -.839701388031D-03 -.165982783074D-10  .000000000000D+00
+                 .910000000000D+02  .934062500000D+02  .116040547840D-08  .162092304801D+00
+                 .484101474285D-05  .626740418375D-02  .652112066746D-05  .515365489006D+04
+                 .409904000000D+06 -.242143869400D-07  .329237003460D+00 -.596046447754D-07
+                 .111541663136D+01  .326593750000D+03  .206958726335D+01 -.638312302555D-08
+                 .307155651409D-09  .000000000000D+00  .102500000000D+04  .000000000000D+00
+                 .000000000000D+00  .000000000000D+00  .000000000000D+00  .910000000000D+02
+                 .406800000000D+06  .000000000000D+00
+            """;
+
+    @Test
+    void deveLerRegistroRinex2() throws Exception {
+        List<KeplerEphemeris> list = RinexNavParser.parse(new StringReader(RINEX2_NAV));
+        assertThat(list).hasSize(1);
+        KeplerEphemeris eph = list.get(0);
+        assertThat(eph.sv()).isEqualTo("G06");
+        assertThat(eph.sqrtA()).isCloseTo(5153.65489006, within(1e-6));
+        assertThat(eph.e()).isCloseTo(0.00626740418375, within(1e-12));
+        assertThat(eph.toe()).isEqualTo(1025.0 * GpsTime.SECONDS_PER_WEEK + 409904.0);
+        assertThat(eph.crs()).isCloseTo(93.40625, within(1e-9));
+    }
+
+    @Test
+    void versaoDaNavegacaoSegueOArquivoENaoOObjetoEmMemoria(@TempDir Path dir) throws Exception {
+        EphemerisProvider provider = new EphemerisProvider(dir.toString());
+        assertThat(provider.versao(1999, 245)).isEqualTo("nominal");
+
+        Path nav = dir.resolve("brdc2450.99n");
+        Files.writeString(nav, RINEX2_NAV);
+        Files.setLastModifiedTime(nav, FileTime.fromMillis(1_000_000));
+        String v1 = provider.versao(1999, 245);
+        assertThat(v1).isNotEqualTo("nominal");
+        assertThat(provider.ephemerides(1999, 245).source()).isEqualTo("rinex-nav");
+        // mesmo arquivo: mesma versão depois de recarregar o conjunto e em outra instância
+        provider.evict(1999, 245);
+        provider.ephemerides(1999, 245);
+        assertThat(provider.versao(1999, 245)).isEqualTo(v1);
+        assertThat(new EphemerisProvider(dir.toString()).versao(1999, 245)).isEqualTo(v1);
+
+        Files.writeString(nav, RINEX2_NAV + "\n");
+        Files.setLastModifiedTime(nav, FileTime.fromMillis(2_000_000));
+        assertThat(provider.versao(1999, 245)).isNotEqualTo(v1);
+    }
+
+    @Test
+    void posicaoPropagadaFicaNaOrbitaGps() throws Exception {
+        KeplerEphemeris eph = RinexNavParser.parse(new StringReader(RINEX2_NAV)).get(0);
+        double[] xyz = new double[3];
+        for (double dt = -7200; dt <= 7200; dt += 1800) {
+            double clk = BroadcastOrbit.compute(eph, eph.toe() + dt, xyz, 0);
+            double r = Math.sqrt(xyz[0] * xyz[0] + xyz[1] * xyz[1] + xyz[2] * xyz[2]);
+            assertThat(r).isBetween(26_300_000.0, 26_900_000.0);
+            assertThat(clk).isCloseTo(-8.397e-4, within(1e-6));
+        }
+    }
+
+    @Test
+    void conversaoGeodesicaIdaEVolta() {
+        double[] ecef = new double[3];
+        double[] llh = new double[3];
+        Wgs84.geodeticToEcef(-15.793, -47.882, 1100.0, ecef);
+        Wgs84.ecefToGeodetic(ecef[0], ecef[1], ecef[2], llh);
+        assertThat(llh[0]).isCloseTo(-15.793, within(1e-9));
+        assertThat(llh[1]).isCloseTo(-47.882, within(1e-9));
+        assertThat(llh[2]).isCloseTo(1100.0, within(1e-4));
+    }
+
+    @Test
+    void gradeNominalTemTodosOsSatelites() {
+        EphemerisSet set = new EphemerisSet(NominalConstellation.forDay(2025, 200), Double.MAX_VALUE, "nominal");
+        OrbitGrid grid = OrbitGrid.compute(set, GpsTime.dayStart(2025, 200), 30, 2880);
+        assertThat(grid.satellites()).isEqualTo(48);
+        double[] p = grid.positions();
+        int off = grid.offset(1000, set.indexOf("E05"));
+        double r = Math.sqrt(p[off] * p[off] + p[off + 1] * p[off + 1] + p[off + 2] * p[off + 2]);
+        assertThat(r).isCloseTo(29_600_318.0, within(1.0));
+    }
+}
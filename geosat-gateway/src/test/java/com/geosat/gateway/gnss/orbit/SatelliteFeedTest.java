@@ -0,0 +1,49 @@
+package com.geosat.gateway.gnss.orbit;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SatelliteFeedTest {
+
+    private final SatelliteFeed feed = new SatelliteFeed(new EphemerisProvider(""));
+
+    @Test
+    void quadroGpsTemCabecalhoEPosicoesNaOrbita() {
+        Instant t = Instant.parse("2025-07-19T12:00:00Z");
+        SatelliteFeed.Quadros q = feed.tick(t);
+
+        // constelação nominal: 24 GPS + 24 Galileo
+        assertThat(q.catalogo().get(SatelliteFeed.Grupo.GPS)).hasSize(24).startsWith("G01");
+        byte[] quadro = q.porGrupo().get(SatelliteFeed.Grupo.GPS);
+        assertThat(quadro).hasSize(SatelliteFeed.CABECALHO + 24 * 12);
+
+        ByteBuffer buf = ByteBuffer.wrap(quadro).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buf.get()).isEqualTo((byte) SatelliteFeed.FORMATO);
+        assertThat(buf.get()).isEqualTo((byte) SatelliteFeed.Grupo.GPS.ordinal());
+        assertThat(buf.getShort()).isEqualTo((short) 24);
+        assertThat(buf.getInt()).isEqualTo(q.versao());
+        assertThat(buf.getDouble()).isEqualTo((double) t.toEpochMilli());
+        for (int i = 0; i < 24; i++) {
+            double x = buf.getFloat(), y = buf.getFloat(), z = buf.getFloat();
+            assertThat(Math.sqrt(x * x + y * y + z * z)).isCloseTo(26_559.7, within(1.0));
+        }
+    }
+
+    @Test
+    void catalogoSoMudaComOutroConjuntoDeSatelites() {
+        SatelliteFeed.Quadros a = feed.tick(Instant.parse("2025-07-19T12:00:00Z"));
+        SatelliteFeed.Quadros b = feed.tick(Instant.parse("2025-07-19T12:00:01Z"));
+        // virada do dia: novo conjunto de efemérides, mesmos satélites nominais
+        SatelliteFeed.Quadros c = feed.tick(Instant.parse("2025-07-20T00:00:01Z"));
+
+        assertThat(b.versao()).isEqualTo(a.versao());
+        assertThat(c.versao()).isEqualTo(a.versao());
+        assertThat(a.porGrupo()).containsOnlyKeys(SatelliteFeed.Grupo.GPS, SatelliteFeed.Grupo.GALILEO);
+    }
+}
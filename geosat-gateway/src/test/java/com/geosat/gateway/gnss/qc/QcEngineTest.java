@@ -0,0 +1,104 @@
+package com.geosat.gateway.gnss.qc;
+
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import com.geosat.gateway.model.QcSateliteDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QcEngineTest {
+
+    private static final double F1 = 1575.42e6, F2 = 1227.60e6;
+    private static final double L1 = Wgs84.C / F1, L2 = Wgs84.C / F2;
+
+    static String header(String body, String label) {
+        return String.format("%-60s%-20s%n", body, label);
+    }
+
+    /**
+     * Um dia de G05 a 30 s com ruído de código de 10 cm, um salto só em L1
+     * (visível no geometry-free), um salto 18/14 ciclos (invisível no GF,
+     * 4 ciclos no wide-lane) e uma lacuna de 10 épocas.
+     */
+    static String rinexSintetico() {
+        StringBuilder sb = new StringBuilder()
+                .append(header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE"))
+                .append(header(String.format("%6d", 4) + "    P1    P2    L1    L2", "# / TYPES OF OBSERV"))
+                .append(header("    30.000", "INTERVAL"))
+                .append(header("", "END OF HEADER"));
+        Random rnd = new Random(42);
+        double n1 = 1000, n2 = 800;
+        for (int k = 0; k < 2880; k++) {
+            if (k >= 1000 && k < 1010) continue;
+            if (k == 700) n1 += 1;
+            if (k == 1500) { n1 += 18; n2 += 14; }
+            double t = k * 30.0;
+            double rho = 2.1e7 + 150.0 * Math.sin(t / 5000.0);
+            double iono = 3.0 + 0.5 * Math.sin(t / 20000.0);
+            double alpha = (F1 / F2) * (F1 / F2);
+            double p1 = rho + iono + 0.1 * rnd.nextGaussian();
+            double p2 = rho + alpha * iono + 0.1 * rnd.nextGaussian();
+            double l1 = (rho - iono) / L1 + n1;
+            double l2 = (rho - alpha * iono) / L2 + n2;
+            int h = (int) (t / 3600), m = (int) (t % 3600 / 60);
+            sb.append(String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, h, m, t % 60, 0, 1)).append("G05\n");
+            sb.append(String.format("%14.3f  %14.3f  %14.3f  %14.3f%n", p1, p2, l1, l2));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void detectaSaltosLacunaEMulticaminho() throws Exception {
+        QcRelatorioDTO r = new QcService("").analisar(new StringReader(rinexSintetico()), "BRAZ", 2025, 200, 10);
+
+        assertThat(r.intervaloSegundos()).isEqualTo(30.0);
+        assertThat(r.epocasEsperadas()).isEqualTo(2880);
+        assertThat(r.epocasObservadas()).isEqualTo(2870);
+        assertThat(r.lacunas()).hasSize(1);
+        assertThat(r.lacunas().get(0).duracaoSegundos()).isEqualTo(330.0);
+
+        QcSateliteDTO g05 = r.satelites().get(0);
+        assertThat(g05.sv()).isEqualTo("G05");
+        assertThat(g05.lacunas()).isEqualTo(1);
+        assertThat(g05.saltosGf()).isEqualTo(1);
+        assertThat(g05.saltosMw()).isEqualTo(1);
+        assertThat(r.saltosCiclo()).isEqualTo(2);
+        assertThat(g05.mp1Rms()).isBetween(0.05, 0.2);
+        assertThat(g05.mp2Rms()).isBetween(0.05, 0.3);
+    }
+
+    @Test
+    void satelitePoeENasceSemContarLacunaNemEpocasAbaixoDoHorizonte() throws Exception {
+        StringBuilder sb = new StringBuilder()
+                .append(header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE"))
+                .append(header(String.format("%6d", 4) + "    P1    P2    L1    L2", "# / TYPES OF OBSERV"))
+                .append(header("    30.000", "INTERVAL"))
+                .append(header("", "END OF HEADER"));
+        // duas passagens de G07 (épocas 0–399 e 1600–1999), abaixo do horizonte no intervalo
+        for (int k = 0; k < 2000; k++) {
+            if (k >= 400 && k < 1600) continue;
+            double t = k * 30.0;
+            double rho = 2.2e7 + 100.0 * Math.sin(t / 4000.0);
+            int h = (int) (t / 3600), m = (int) (t % 3600 / 60);
+            sb.append(String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, h, m, t % 60, 0, 1)).append("G07\n");
+            sb.append(String.format("%14.3f  %14.3f  %14.3f  %14.3f%n", rho, rho, rho / L1 + 1000, rho / L2 + 800));
+        }
+
+        QcRelatorioDTO r = new QcService("").analisar(new StringReader(sb.toString()), "BRAZ", 2025, 200, 10);
+
+        QcSateliteDTO g07 = r.satelites().get(0);
+        assertThat(g07.observacoes()).isEqualTo(800);
+        assertThat(g07.esperadas()).isEqualTo(800);
+        assertThat(g07.completude()).isEqualTo(100.0);
+        assertThat(g07.lacunas()).isZero();
+    }
+
+    @Test
+    void serviceSemDiretorioRetornaVazio() {
+        assertThat(new QcService("").relatorio("BRAZ", 2025, 200, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.geosat.gateway.gnss.rinex;
+
+import com.geosat.gateway.gnss.GpsTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RinexObsReaderTest {
+
+    static String header(String body, String label) {
+        return String.format("%-60s%-20s%n", body, label);
+    }
+
+    static String obs(double... values) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : values) sb.append(Double.isNaN(v) ? " ".repeat(16) : String.format("%14.3f  ", v));
+        return sb.toString().stripTrailing() + "\n";
+    }
+
+    @Test
+    void deveLerRinex2() throws Exception {
+        String text = header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE")
+                + header("BRAZ", "MARKER NAME")
+                + header(String.format("%14.4f%14.4f%14.4f", 4115014.0, -4550641.0, -1741444.0), "APPROX POSITION XYZ")
+                + header(String.format("%6d", 4) + "    C1    L1    L2    P2", "# / TYPES OF OBSERV")
+                + header("    30.000", "INTERVAL")
+                + header("", "END OF HEADER")
+                + String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, 0, 0, 0.0, 0, 2) + "G05 12\n"
+                + obs(21000000.123, 110000000.5, 85000000.25, 21000003.5)
+                + obs(22000000.0, Double.NaN, Double.NaN, Double.NaN)
+                + String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, 0, 0, 30.0, 4, 1) + "\n"
+                + "COMENTARIO DE EVENTO                                        COMMENT\n"
+                + String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, 0, 0, 30.0, 0, 1) + "G05\n"
+                + obs(21000100.0, 110000500.0, 85000400.0, 21000103.0);
+        try (RinexObsReader reader = new RinexObsReader(new StringReader(text))) {
+            assertThat(reader.marker()).isEqualTo("BRAZ");
+            assertThat(reader.interval()).isEqualTo(30.0);
+            assertThat(reader.approxPosition()[0]).isEqualTo(4115014.0);
+            ObservationEpoch e = new ObservationEpoch();
+            assertThat(reader.next(e)).isTrue();
+            assertThat(e.time).isEqualTo(GpsTime.fromInstant(Instant.parse("2025-07-19T00:00:00Z")));
+            assertThat(e.size).isEqualTo(2);
+            assertThat(e.sv[0]).isEqualTo("G05");
+            assertThat(e.sv[1]).isEqualTo("G12");
+            assertThat(e.c1[0]).isCloseTo(21000000.123, within(1e-6));
+            assertThat(e.l2[0]).isCloseTo(85000000.25, within(1e-6));
+            assertThat(e.c2[0]).isCloseTo(21000003.5, within(1e-6));
+            assertThat(e.l1[1]).isNaN();
+            assertThat(reader.next(e)).isTrue();
+            assertThat(e.size).isEqualTo(1);
+            assertThat(e.time - GpsTime.fromInstant(Instant.parse("2025-07-19T00:00:00Z"))).isEqualTo(30.0);
+            assertThat(reader.next(e)).isFalse();
+        }
+    }
+
+    @Test
+    void deveLerRinex3IgnorandoSistemasNaoSuportados() throws Exception {
+        String text = header("     3.04           OBSERVATION DATA    M", "RINEX VERSION / TYPE")
+                + header("G    4 C1C L1C C2W L2W", "SYS / # / OBS TYPES")
+                + header("E    3 C1C L1C C5Q", "SYS / # / OBS TYPES")
+                + header("R    2 C1C L1C", "SYS / # / OBS TYPES")
+                + header("", "END OF HEADER")
+                + String.format("> %4d %02d %02d %02d %02d%11.7f  %d%3d%n", 2025, 7, 19, 0, 0, 30.0, 0, 3)
+                + "G05" + obs(21000000.5, 110000000.5, 21000004.0, 85000000.0)
+                + "R07" + obs(20000000.0, 100000000.0)
+                + "E11" + obs(23000000.0, 120000000.0, 23000002.0);
+        try (RinexObsReader reader = new RinexObsReader(new StringReader(text))) {
+            ObservationEpoch e = new ObservationEpoch();
+            assertThat(reader.next(e)).isTrue();
+            assertThat(e.size).isEqualTo(2);
+            assertThat(e.sv[0]).isEqualTo("G05");
+            assertThat(e.c2[0]).isCloseTo(21000004.0, within(1e-6));
+            assertThat(e.sv[1]).isEqualTo("E11");
+            assertThat(e.c2[1]).isCloseTo(23000002.0, within(1e-6));
+            assertThat(e.l2[1]).isNaN();
+            assertThat(reader.next(e)).isFalse();
+        }
+    }
+
+    @Test
+    void deveLerEquipamentoEUltimaObservacaoDoCabecalho() throws Exception {
+        String text = header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE")
+                + header("BRAZ", "MARKER NAME")
+                + header(String.format("%-20s%-20s%-20s", "5214K80011", "TRIMBLE NETR9", "5.45"), "REC # / TYPE / VERS")
+                + header(String.format("%-20s%-20s", "1441036521", "TRM59800.00     SCIS"), "ANT # / TYPE")
+                + header(String.format("%14.4f%14.4f%14.4f", 0.0080, 0.0, 0.0), "ANTENNA: DELTA H/E/N")
+                + header("  2025     7    19    23    59   30.0000000     GPS", "TIME OF LAST OBS")
+                + header(String.format("%6d", 1) + "    C1", "# / TYPES OF OBSERV")
+                + header("", "END OF HEADER");
+        try (RinexObsReader reader = new RinexObsReader(new StringReader(text))) {
+            assertThat(reader.receiverType()).isEqualTo("TRIMBLE NETR9");
+            assertThat(reader.antennaType()).isEqualTo("TRM59800.00     SCIS");
+            assertThat(reader.antennaHeight()).isEqualTo(0.008);
+            assertThat(reader.lastObservation()).isEqualTo(Instant.parse("2025-07-19T23:59:30Z"));
+        }
+    }
+
+    @Test
+    void deveIdentificarEstacaoEDiaPeloNome() {
+        assertThat(RinexFiles.parseObservation("braz2000.25o")).isEqualTo(new RinexFiles.ObservationName("BRAZ", 2025, 200));
+        assertThat(RinexFiles.parseObservation("POAL00BRA_R_20252000000_01D_15S_MO.rnx.gz"))
+                .isEqualTo(new RinexFiles.ObservationName("POAL", 2025, 200));
+        assertThat(RinexFiles.parseObservation("brdc2000.25n")).isNull();
+    }
+}
@@ -0,0 +1,69 @@
+package com.geosat.gateway.gnss.spp;
+
+import com.geosat.gateway.gnss.GpsTime;
+import com.geosat.gateway.gnss.TopocentricFrame;
+import com.geosat.gateway.gnss.Wgs84;
+import com.geosat.gateway.gnss.orbit.BroadcastOrbit;
+import com.geosat.gateway.gnss.orbit.EphemerisSet;
+import com.geosat.gateway.gnss.orbit.KeplerEphemeris;
+import com.geosat.gateway.gnss.orbit.NominalConstellation;
+import com.geosat.gateway.gnss.rinex.ObservationEpoch;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SppSolverTest {
+
+    /**
+     * Gera pseudodistâncias exatas (tempo de voo iterado, Sagnac, troposfera e
+     * relógio do receptor) e verifica que o solver recupera a posição da estação.
+     */
+    @Test
+    void recuperaPosicaoDeObservacoesSinteticas() {
+        EphemerisSet set = new EphemerisSet(NominalConstellation.forDay(2025, 200), Double.MAX_VALUE, "nominal");
+        TopocentricFrame station = new TopocentricFrame(-15.947, -47.878, 1106.0);
+        double clockBias = 3000.0;
+        double t0 = GpsTime.dayStart(2025, 200);
+        ObservationDay day = ObservationDay.empty();
+        ObservationEpoch epoch = new ObservationEpoch();
+        double[] pos = new double[3];
+        for (int k = 0; k < 2880; k++) {
+            double t = t0 + k * 30.0;
+            epoch.time = t;
+            epoch.size = 0;
+            for (int s = 0; s < set.size(); s++) {
+                KeplerEphemeris eph = set.select(s, t);
+                double tau = 0.07;
+                double sx = 0, sy = 0, sz = 0;
+                for (int i = 0; i < 5; i++) {
+                    BroadcastOrbit.compute(eph, t - tau, pos, 0);
+                    double th = Wgs84.OMEGA_E * tau;
+                    sx = Math.cos(th) * pos[0] + Math.sin(th) * pos[1];
+                    sy = -Math.sin(th) * pos[0] + Math.cos(th) * pos[1];
+                    sz = pos[2];
+                    double dx = sx - station.x(), dy = sy - station.y(), dz = sz - station.z();
+                    tau = Math.sqrt(dx * dx + dy * dy + dz * dz) / Wgs84.C;
+                }
+                double sinEl = station.sinElevation(sx, sy, sz);
+                if (sinEl < Math.sin(Math.toRadians(10))) continue;
+                int i = epoch.size++;
+                epoch.sv[i] = set.sv(s);
+                epoch.c1[i] = tau * Wgs84.C + clockBias + SppSolver.troposphere(sinEl, station.height());
+            }
+            day.add(epoch, set);
+        }
+
+        SppSeries out = SppSolver.solve(day, set, new double[3], Math.sin(Math.toRadians(5)));
+
+        assertThat(out.epochs()).isEqualTo(2880);
+        for (int k = 0; k < out.epochs(); k++) {
+            assertThat(out.solved(k)).isTrue();
+            assertThat(out.x()[k]).isCloseTo(station.x(), within(0.5));
+            assertThat(out.y()[k]).isCloseTo(station.y(), within(0.5));
+            assertThat(out.z()[k]).isCloseTo(station.z(), within(0.5));
+            assertThat(out.clockMeters()[k]).isCloseTo(clockBias, within(0.5));
+            assertThat(out.satellites()[k]).isGreaterThanOrEqualTo(6);
+        }
+    }
+}
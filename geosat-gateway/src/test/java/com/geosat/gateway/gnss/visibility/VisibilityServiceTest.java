@@ -0,0 +1,45 @@
+package com.geosat.gateway.gnss.visibility;
+
+import com.geosat.gateway.gnss.orbit.EphemerisProvider;
+import com.geosat.gateway.gnss.orbit.OrbitGridService;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.JanelaVisibilidadeDTO;
+import com.geosat.gateway.model.VisibilidadeEstacaoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VisibilityServiceTest {
+
+    private final VisibilityService service = new VisibilityService(new OrbitGridService(new EphemerisProvider(""), 30));
+
+    private static final EstacaoDTO BRAZ = new EstacaoDTO("BRAZ", "Brasília", -15.793, -47.882, "ONLINE");
+
+    @Test
+    void janelasRespeitamMascaraEOrdem() {
+        VisibilidadeEstacaoDTO dto = service.visibilidade(BRAZ, 2025, 200, 10.0, 500);
+        assertThat(dto.fonteOrbitas()).isEqualTo("nominal");
+        assertThat(dto.janelas()).isNotEmpty();
+        for (JanelaVisibilidadeDTO j : dto.janelas()) {
+            assertThat(j.elevacaoMax()).isBetween(10.0, 90.0);
+            assertThat(j.inicio().compareTo(j.fim())).isLessThanOrEqualTo(0);
+        }
+        assertThat(dto.samples()).hasSizeLessThanOrEqualTo(500)
+                .allSatisfy(s -> assertThat(s.elevacao()).isGreaterThanOrEqualTo(10.0));
+    }
+
+    @Test
+    void redeUsaMesmaGradeParaTodasAsEstacoes() {
+        List<EstacaoDTO> rede = List.of(BRAZ,
+                new EstacaoDTO("POAL", "Porto Alegre", -30.027, -51.228, "ONLINE"),
+                new EstacaoDTO("MANA", "Manaus", -3.118, -60.021, "ONLINE"));
+        List<VisibilidadeEstacaoDTO> out = service.visibilidadeRede(rede, 2025, 200, 10.0);
+        assertThat(out).hasSize(3).allSatisfy(v -> {
+            assertThat(v.samples()).isEmpty();
+            // 48 satélites nominais em um dia: cada estação vê todos ao menos uma vez
+            assertThat(v.janelas().stream().map(JanelaVisibilidadeDTO::sv).distinct().count()).isGreaterThan(30);
+        });
+    }
+}
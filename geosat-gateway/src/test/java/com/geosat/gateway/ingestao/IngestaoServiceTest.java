@@ -0,0 +1,172 @@
+package com.geosat.gateway.ingestao;
+
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.gnss.orbit.EphemerisProvider;
+import com.geosat.gateway.gnss.orbit.OrbitGridService;
+import com.geosat.gateway.gnss.spp.PositionService;
+import com.geosat.gateway.model.IngestaoResultadoDTO;
+import com.geosat.gateway.model.IngestaoStatusDTO;
+import com.geosat.gateway.series.Observavel;
+import com.geosat.gateway.series.SerieStore;
+import com.geosat.gateway.service.EstacaoCadastroService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class IngestaoServiceTest {
+
+    private static String header(String body, String label) {
+        return String.format("%-60s%-20s%n", body, label);
+    }
+
+    /** Duas horas de G05/G12 a 30 s com SNR constante por satélite. */
+    private static String rinex() {
+        StringBuilder sb = new StringBuilder()
+                .append(header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE"))
+                .append(header(String.format("%6d", 3) + "    C1    L1    S1", "# / TYPES OF OBSERV"))
+                .append(header("    30.000", "INTERVAL"))
+                .append(header("", "END OF HEADER"));
+        for (int k = 0; k < 240; k++) {
+            double t = k * 30.0;
+            int h = (int) (t / 3600), m = (int) (t % 3600 / 60);
+            sb.append(String.format(" %02d %2d %2d %2d %2d%11.7f  %d%3d", 25, 7, 19, h, m, t % 60, 0, 2)).append("G05G12\n");
+            sb.append(String.format("%14.3f  %14.3f  %14.3f%n", 2.1e7 + t, 1.1e8 + t * 5, 40.0));
+            sb.append(String.format("%14.3f  %14.3f  %14.3f%n", 2.2e7 + t, 1.2e8 + t * 5, 50.0));
+        }
+        return sb.toString();
+    }
+
+    private static IngestaoService service(Path fonte, Path work, Path obs, SimpleMeterRegistry registry, SerieStore series) {
+        return service(new LocalRbmcFileSource(fonte), work, obs, registry, series);
+    }
+
+    private static IngestaoService service(RbmcFileSource fonte, Path work, Path obs, SimpleMeterRegistry registry,
+                                           SerieStore series) {
+        return service(fonte, work, obs, registry, series,
+                new EstacaoCadastroService(registry, "", "", ""), List.of("ALAR", "BRAZ", "MANA"));
+    }
+
+    private static IngestaoService service(RbmcFileSource fonte, Path work, Path obs, SimpleMeterRegistry registry,
+                                           SerieStore series, EstacaoCadastroService cadastro, List<String> estacoes) {
+        EphemerisProvider provider = new EphemerisProvider("");
+        return new IngestaoService(fonte,
+                new OrbitGridService(provider, 30),
+                new PositionService(provider, series, GatewayThreads.plataforma(), obs.toString(), 10),
+                series, cadastro,
+                registry, GatewayThreads.plataforma(), estacoes, 2, 2, 2,
+                work.toString(), obs.toString(), "");
+    }
+
+    @Test
+    void ingereDiaComArquivoCompactadoEFalhasIsoladas(@TempDir Path tmp) throws Exception {
+        Path fonte = tmp.resolve("fonte");
+        Path alar = Files.createDirectories(fonte.resolve("rinex2/alar/2025"));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(alar.resolve("200")))) {
+            out.write(rinex().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        Path braz = Files.createDirectories(fonte.resolve("rinex2/braz/2025"));
+        Files.writeString(braz.resolve("200"), rinex(), StandardCharsets.ISO_8859_1);
+        // sem órbitas e sem MANA: falhas contabilizadas sem derrubar o pipeline
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Path obs = tmp.resolve("obs");
+        SerieStore series = new SerieStore(registry, tmp.resolve("series").toString(), 1100);
+        IngestaoService service = service(fonte, tmp.resolve("work"), obs, registry, series);
+        IngestaoStatusDTO status = service.executar(2025, 200);
+
+        assertThat(status.estado()).isEqualTo("CONCLUIDO");
+        assertThat(status.total()).isEqualTo(4);
+        assertThat(status.concluidos()).isEqualTo(2);
+        assertThat(status.falhas()).isEqualTo(2);
+        assertThat(status.erros()).hasSize(2);
+        assertThat(status.bytes()).isPositive();
+
+        List<IngestaoResultadoDTO> resultados = service.resultados();
+        assertThat(resultados).extracting(IngestaoResultadoDTO::codigo).containsExactly("ALAR", "BRAZ");
+        for (IngestaoResultadoDTO r : resultados) {
+            assertThat(r.snrMedio()).isEqualTo(45.0);
+            assertThat(r.epocasSnr()).isEqualTo(240);
+            assertThat(r.completude()).isEqualTo(8.333);
+        }
+        assertThat(Files.isRegularFile(obs.resolve("alar2000.25o"))).isTrue();
+        assertThat(Files.isRegularFile(obs.resolve("braz2000.25o"))).isTrue();
+        try (var work = Files.list(tmp.resolve("work"))) {
+            assertThat(work).isEmpty();
+        }
+        // SNR médio por época gravado no histórico: 2 h a 30 s => 240 amostras, uma por ponto
+        SerieStore.Consulta historico = series.consultar(Observavel.SNR, "ALAR",
+                Instant.parse("2025-07-19T00:00:00Z"), Instant.parse("2025-07-19T23:59:59Z"), 10000);
+        assertThat(historico.amostras()).hasSize(240);
+        assertThat(historico.amostras().get(0).epoch()).isEqualTo("2025-07-19T00:00:00Z");
+        assertThat(historico.amostras()).allSatisfy(a -> assertThat(a.valores()).containsExactly(45.0));
+        assertThat(registry.get("ingestao.estagio.falhas").tag("estagio", "download").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("ingestao.progresso.concluidos").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void semListaFixaIngereAsEstacoesDoCadastro(@TempDir Path tmp) throws Exception {
+        Path csv = tmp.resolve("rede.csv");
+        Files.writeString(csv, "SALU;São Luís;-2.59;-44.21\nTOPL;Palmas;-10.17;-48.33\n");
+        Path fonte = Files.createDirectories(tmp.resolve("fonte/rinex2/salu/2025"));
+        Files.writeString(fonte.resolve("200"), rinex(), StandardCharsets.ISO_8859_1);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore series = new SerieStore(registry, tmp.resolve("series").toString(), 1100);
+        IngestaoService service = service(new LocalRbmcFileSource(tmp.resolve("fonte")), tmp.resolve("work"),
+                tmp.resolve("obs"), registry, series, new EstacaoCadastroService(registry, csv.toString(), "", ""),
+                List.of());
+        IngestaoStatusDTO status = service.executar(2025, 200);
+
+        // órbitas + SALU + TOPL; só SALU tem arquivo na fonte
+        assertThat(status.total()).isEqualTo(3);
+        assertThat(service.resultados()).extracting(IngestaoResultadoDTO::codigo).containsExactly("SALU");
+    }
+
+    @Test
+    void recusaExecucaoConcorrente(@TempDir Path tmp) throws Exception {
+        // fonte presa no primeiro download até o teste liberar: a 1a execução certamente ainda corre
+        CountDownLatch baixando = new CountDownLatch(1), liberar = new CountDownLatch(1);
+        RbmcFileSource presa = (relativo, destino) -> {
+            baixando.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new FileNotFoundException(relativo);
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IngestaoService service = service(presa, tmp.resolve("work"), tmp.resolve("obs"), registry,
+                new SerieStore(registry, tmp.resolve("series").toString(), 1100));
+        try {
+            assertThat(service.iniciar(2025, 200)).isTrue();
+            assertThat(baixando.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(service.iniciar(2025, 200)).isFalse();
+            assertThatThrownBy(() -> service.executar(2025, 200)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            liberar.countDown();
+        }
+        // termina antes do @TempDir ser apagado
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> registry.get("ingestao.executando").gauge().value() == 0);
+        assertThat(service.status().estado()).isEqualTo("FALHOU");
+        assertThat(service.status().falhas()).isEqualTo(4);
+        service.encerrar();
+    }
+}
@@ -0,0 +1,84 @@
+package com.geosat.gateway.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DdSketchTest {
+
+    private static final double[] QUANTIS = {0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    private static double exato(double[] ordenados, double q) {
+        return ordenados[(int) Math.floor(q * (ordenados.length - 1))];
+    }
+
+    @Test
+    void quantisDentroDoErroRelativo() {
+        SplittableRandom r = new SplittableRandom(7);
+        double[] v = new double[50_000];
+        DdSketch s = new DdSketch(0.01);
+        for (int i = 0; i < v.length; i++) {
+            // SNR-like com cauda longa e alguns valores negativos/zero (desvios de posição)
+            v[i] = i % 10 == 0 ? -Math.exp(r.nextGaussian()) : i % 1000 == 0 ? 0 : 35 + 8 * r.nextGaussian() * r.nextDouble();
+            s.adicionar(v[i]);
+        }
+        Arrays.sort(v);
+        assertThat(s.contagem()).isEqualTo(v.length);
+        for (double q : QUANTIS) {
+            double esperado = exato(v, q);
+            assertThat(s.quantil(q)).as("q=%s", q).isCloseTo(esperado, within(Math.abs(esperado) * 0.01 + 1e-12));
+        }
+    }
+
+    @Test
+    void mesclarEquivaleAUmSketchUnicoEPersisteSemPerda() throws Exception {
+        SplittableRandom r = new SplittableRandom(11);
+        DdSketch unico = new DdSketch(0.02);
+        DdSketch[] partes = {new DdSketch(0.02), new DdSketch(0.02), new DdSketch(0.02)};
+        for (int i = 0; i < 30_000; i++) {
+            // faixas bem separadas forçam crescimento dos bins nas duas direções
+            double x = i % 3 == 0 ? 1e-3 * r.nextDouble() + 1e-6 : i % 3 == 1 ? 1e4 * (1 + r.nextDouble()) : 40 + r.nextDouble();
+            unico.adicionar(x);
+            partes[i % 3].adicionar(x);
+        }
+        DdSketch mesclado = new DdSketch(0.02);
+        for (DdSketch p : partes) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            p.escrever(new DataOutputStream(bytes));
+            mesclado.mesclar(DdSketch.ler(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 0.02));
+        }
+        assertThat(mesclado.contagem()).isEqualTo(unico.contagem());
+        for (double q : QUANTIS) assertThat(mesclado.quantil(q)).isEqualTo(unico.quantil(q));
+    }
+
+    @Test
+    void resumoMescladoTemMomentosExatos() {
+        SplittableRandom r = new SplittableRandom(3);
+        Resumo a = new Resumo(0.01), b = new Resumo(0.01), todos = new Resumo(0.01);
+        double soma = 0, soma2 = 0;
+        for (int i = 0; i < 10_000; i++) {
+            double x = 400 + 3 * r.nextGaussian();
+            (i < 2_500 ? a : b).adicionar(x);
+            todos.adicionar(x);
+            soma += x;
+            soma2 += x * x;
+        }
+        a.mesclar(b);
+        double media = soma / 10_000;
+        assertThat(a.n()).isEqualTo(10_000);
+        assertThat(a.media()).isCloseTo(media, within(1e-9));
+        assertThat(a.desvio()).isCloseTo(todos.desvio(), within(1e-9));
+        assertThat(a.rms()).isCloseTo(Math.sqrt(soma2 / 10_000), within(1e-9));
+        assertThat(a.min()).isEqualTo(todos.min());
+        assertThat(a.max()).isEqualTo(todos.max());
+        assertThat(new Resumo(0.01).media()).isNaN();
+    }
+}
@@ -0,0 +1,187 @@
+package com.geosat.gateway.series;
+
+import com.geosat.gateway.model.BaldeEstatisticaDTO;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.EstatisticaSerieDTO;
+import com.geosat.gateway.model.ResumoColunaDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SerieEstatisticaServiceTest {
+
+    private static final EstacaoDTO ALAR = new EstacaoDTO("ALAR", "Alagoas", -9.7, -36.6, "ONLINE");
+    private static final long INICIO = Instant.parse("2025-03-01T00:00:00Z").toEpochMilli();
+    private static final List<Double> QUANTIS = List.of(0.5, 0.95);
+
+    /** {@code dias} dias de SNR a 30 s com ciclo diurno, num único acréscimo (uma partição por dia). */
+    private static double[] snr(SerieStore store, int dias) {
+        int n = dias * 2880;
+        long[] t = new long[n];
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = INICIO + i * 30_000L;
+            v[i] = 40 + 5 * Math.sin(i * 2 * Math.PI / 2880) + (i % 7) * 0.3;
+        }
+        store.acrescentar(Observavel.SNR, "ALAR", t, new double[][]{v});
+        return v;
+    }
+
+    private static void confere(ResumoColunaDTO r, double[] amostras, int de, int ate) {
+        double[] fatia = Arrays.copyOfRange(amostras, de, ate);
+        double media = Arrays.stream(fatia).average().orElseThrow();
+        double var = Arrays.stream(fatia).map(x -> (x - media) * (x - media)).sum() / fatia.length;
+        Arrays.sort(fatia);
+        assertThat(r.n()).isEqualTo(fatia.length);
+        assertThat(r.media()).isCloseTo(media, within(1e-9));
+        assertThat(r.desvio()).isCloseTo(Math.sqrt(var), within(1e-9));
+        assertThat(r.min()).isEqualTo(fatia[0]);
+        assertThat(r.max()).isEqualTo(fatia[fatia.length - 1]);
+        double p95 = fatia[(int) Math.floor(0.95 * (fatia.length - 1))];
+        assertThat(r.quantis().get(1)).isCloseTo(p95, within(p95 * 0.01));
+    }
+
+    @Test
+    void baldesDiariosMesclamPreAgregadosSemReleituraDasAmostras(@TempDir Path tmp) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        double[] v = snr(store, 10);
+        SerieEstatisticaService service = new SerieEstatisticaService(store, registry, 0.01);
+
+        Instant de = Instant.ofEpochMilli(INICIO), ate = Instant.ofEpochMilli(INICIO + 10 * 86_400_000L);
+        EstatisticaSerieDTO dto = service.calcular(Observavel.SNR, ALAR, de, ate, 86_400_000L, QUANTIS);
+
+        assertThat(dto.colunas()).containsExactly("snr_medio");
+        assertThat(dto.baldes()).hasSize(10);
+        for (int d = 0; d < 10; d++) confere(dto.baldes().get(d).colunas().get(0), v, d * 2880, (d + 1) * 2880);
+        assertThat(registry.get("estacoes.series.stats.pre_agregados_gerados").counter().count()).isEqualTo(10.0);
+        assertThat(Files.isRegularFile(tmp.resolve("snr/ALAR/2025/060.agg"))).isTrue();
+
+        // segunda consulta (balde de 6 h, outro intervalo) reaproveita os .agg
+        EstatisticaSerieDTO seisHoras = service.calcular(Observavel.SNR, ALAR,
+                Instant.ofEpochMilli(INICIO + 86_400_000L), Instant.ofEpochMilli(INICIO + 3 * 86_400_000L), 6 * 3_600_000L, QUANTIS);
+        assertThat(seisHoras.baldes()).hasSize(8);
+        confere(seisHoras.baldes().get(0).colunas().get(0), v, 2880, 2880 + 720);
+        assertThat(registry.get("estacoes.series.stats.pre_agregados_gerados").counter().count()).isEqualTo(10.0);
+    }
+
+    @Test
+    void horasParciaisEBaldesMenoresQueUmaHoraVarremAsAmostras(@TempDir Path tmp) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        double[] v = snr(store, 2);
+        SerieEstatisticaService service = new SerieEstatisticaService(store, registry, 0.01);
+
+        // 00:10 do dia 1 até 02:40 do dia 2: pontas parciais, o miolo vem das horas pré-agregadas
+        long de = INICIO + 10 * 60_000L, ate = INICIO + 86_400_000L + 160 * 60_000L;
+        EstatisticaSerieDTO dia = service.calcular(Observavel.SNR, ALAR, Instant.ofEpochMilli(de),
+                Instant.ofEpochMilli(ate), 86_400_000L, QUANTIS);
+        assertThat(dia.baldes()).extracting(BaldeEstatisticaDTO::inicio)
+                .containsExactly("2025-03-01T00:00:00Z", "2025-03-02T00:00:00Z");
+        confere(dia.baldes().get(0).colunas().get(0), v, 20, 2880);
+        confere(dia.baldes().get(1).colunas().get(0), v, 2880, 2880 + 320);
+
+        EstatisticaSerieDTO quinze = service.calcular(Observavel.SNR, ALAR, Instant.ofEpochMilli(INICIO),
+                Instant.ofEpochMilli(INICIO + 3_600_000L), 15 * 60_000L, QUANTIS);
+        assertThat(quinze.baldeSegundos()).isEqualTo(900);
+        assertThat(quinze.baldes()).hasSize(4);
+        confere(quinze.baldes().get(3).colunas().get(0), v, 90, 120);
+    }
+
+    @Test
+    void preAgregadoRefeitoQuandoAParticaoCresce(@TempDir Path tmp) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        long[] t = new long[120];
+        double[] v = new double[120];
+        for (int i = 0; i < 120; i++) {
+            t[i] = INICIO + i * 30_000L;
+            v[i] = 30;
+        }
+        store.acrescentar(Observavel.SNR, "ALAR", t, new double[][]{v});
+        SerieEstatisticaService service = new SerieEstatisticaService(store, registry, 0.01);
+        Instant de = Instant.ofEpochMilli(INICIO), ate = Instant.ofEpochMilli(INICIO + 86_400_000L);
+        assertThat(service.calcular(Observavel.SNR, ALAR, de, ate, 86_400_000L, QUANTIS)
+                .baldes().get(0).colunas().get(0).n()).isEqualTo(120);
+
+        // mais uma hora chega no fim do dia: o .agg antigo deixa de valer
+        for (int i = 0; i < 120; i++) {
+            t[i] += 3_600_000L;
+            v[i] = 50;
+        }
+        store.acrescentar(Observavel.SNR, "ALAR", t, new double[][]{v});
+        ResumoColunaDTO r = service.calcular(Observavel.SNR, ALAR, de, ate, 86_400_000L, QUANTIS)
+                .baldes().get(0).colunas().get(0);
+        assertThat(r.n()).isEqualTo(240);
+        assertThat(r.media()).isCloseTo(40.0, within(1e-12));
+        assertThat(registry.get("estacoes.series.stats.pre_agregados_gerados").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void preAgregadoSegueOConteudoENaoOMtimeOuTamanho(@TempDir Path tmp) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        long[] t = new long[120];
+        double[] v = new double[120];
+        for (int i = 0; i < 120; i++) t[i] = INICIO + i * 30_000L;
+        Arrays.fill(v, 29.0);
+        int dia = LocalDate.of(2025, 3, 1).getDayOfYear();
+        store.gravarDia(Observavel.SNR, "ALAR", 2025, dia, t, new double[][]{v});
+        SerieEstatisticaService service = new SerieEstatisticaService(store, registry, 0.01);
+        Instant de = Instant.ofEpochMilli(INICIO), ate = Instant.ofEpochMilli(INICIO + 86_400_000L);
+        assertThat(service.calcular(Observavel.SNR, ALAR, de, ate, 86_400_000L, QUANTIS)
+                .baldes().get(0).colunas().get(0).media()).isEqualTo(29.0);
+
+        // RINEX corrigido reescreve o dia com o mesmo tamanho; mtime restaurado (cópia, relógio grosso)
+        Path p = tmp.resolve("snr/ALAR/2025/060.gts");
+        long tamanho = Files.size(p);
+        FileTime mtime = Files.getLastModifiedTime(p);
+        Arrays.fill(v, 31.0);
+        store.gravarDia(Observavel.SNR, "ALAR", 2025, dia, t, new double[][]{v});
+        Files.setLastModifiedTime(p, mtime);
+        assertThat(Files.size(p)).isEqualTo(tamanho);
+
+        assertThat(service.calcular(Observavel.SNR, ALAR, de, ate, 86_400_000L, QUANTIS)
+                .baldes().get(0).colunas().get(0).media()).isEqualTo(31.0);
+        assertThat(registry.get("estacoes.series.stats.pre_agregados_gerados").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void posicoesResumidasEmMetrosDaCoordenadaDaEstacao(@TempDir Path tmp) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        long[] t = new long[2880];
+        double[][] llh = new double[3][2880];
+        for (int i = 0; i < t.length; i++) {
+            t[i] = INICIO + i * 30_000L;
+            // ~1 m ao norte (1e-5° de latitude ~ 1,1 m) e h constante
+            llh[0][i] = ALAR.latitude() + 1e-5;
+            llh[1][i] = ALAR.longitude();
+            llh[2][i] = i % 100 == 0 ? Double.NaN : 60.0;
+        }
+        store.gravarDia(Observavel.POSICAO, "ALAR", 2025, LocalDate.of(2025, 3, 1).getDayOfYear(), t, llh);
+        SerieEstatisticaService service = new SerieEstatisticaService(store, registry, 0.01);
+
+        EstatisticaSerieDTO dto = service.calcular(Observavel.POSICAO, ALAR, Instant.ofEpochMilli(INICIO),
+                Instant.ofEpochMilli(INICIO + 86_400_000L), 86_400_000L, QUANTIS);
+
+        assertThat(dto.colunas()).containsExactly("norte_m", "leste_m", "h_m");
+        List<ResumoColunaDTO> c = dto.baldes().get(0).colunas();
+        assertThat(c.get(0).media()).isCloseTo(1.106, within(0.01));
+        assertThat(c.get(0).rms()).isCloseTo(c.get(0).media(), within(1e-9));
+        assertThat(c.get(1).media()).isCloseTo(0.0, within(1e-9));
+        assertThat(c.get(2).n()).isEqualTo(2880 - 29);
+        assertThat(c.get(2).quantis().get(0)).isCloseTo(60.0, within(0.6));
+    }
+}
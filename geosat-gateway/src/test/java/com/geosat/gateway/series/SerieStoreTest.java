@@ -0,0 +1,180 @@
+package com.geosat.gateway.series;
+
+import com.geosat.gateway.model.AmostraSerieDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SerieStoreTest {
+
+    private static final long INICIO = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    /** Posições nas épocas {@code t}, com ruído e alguns NaN. */
+    private static double[][] posicoes(long[] t) {
+        double[][] v = new double[3][t.length];
+        for (int i = 0; i < t.length; i++) {
+            v[0][i] = -22.9 + 1e-6 * Math.sin(i * 0.1);
+            v[1][i] = -43.2 + 1e-6 * Math.cos(i * 0.07);
+            v[2][i] = i % 97 == 0 ? Double.NaN : 10 + (i % 13) * 0.001;
+        }
+        return v;
+    }
+
+    private static long[] epocas(int n, long passoMs) {
+        long[] t = new long[n];
+        for (int i = 0; i < n; i++) t[i] = INICIO + i * passoMs;
+        return t;
+    }
+
+    @Test
+    void particaoDevolveExatamenteOQueFoiGravado(@TempDir Path tmp) throws Exception {
+        long[] t = epocas(2880, 30_000);
+        t[100] += 7; // época irregular: delta-de-delta não nulo
+        double[][] v = posicoes(t);
+        Path p = tmp.resolve("p.gts");
+        SerieArquivo.escrever(p, List.of("lat", "lon", "h"), t, v, t.length);
+
+        List<long[]> epocasLidas = new ArrayList<>();
+        List<double[]> lidas = new ArrayList<>();
+        SerieArquivo.varrer(p, Long.MIN_VALUE, Long.MAX_VALUE, (ti, vi) -> {
+            epocasLidas.add(new long[]{ti});
+            lidas.add(vi.clone());
+        });
+
+        assertThat(lidas).hasSize(t.length);
+        for (int i = 0; i < t.length; i++) {
+            assertThat(epocasLidas.get(i)[0]).isEqualTo(t[i]);
+            for (int c = 0; c < 3; c++) {
+                assertThat(Double.doubleToLongBits(lidas.get(i)[c])).isEqualTo(Double.doubleToLongBits(v[c][i]));
+            }
+        }
+        // 32 bytes por amostra em bruto; com ruído na mantissa o ganho vem das épocas e dos bits altos
+        assertThat(Files.size(p)).isLessThan(t.length * 32L * 3 / 4);
+    }
+
+    @Test
+    void blocosForaDoIntervaloNaoSaoDecodificados(@TempDir Path tmp) throws Exception {
+        long[] t = epocas(2880, 30_000);
+        Path p = tmp.resolve("p.gts");
+        SerieArquivo.escrever(p, List.of("lat", "lon", "h"), t, posicoes(t), t.length);
+
+        // 1 h no meio do dia: só o bloco que contém o intervalo é lido
+        long de = INICIO + 7 * 3_600_000L, ate = de + 3_600_000L;
+        List<Long> vistas = new ArrayList<>();
+        SerieArquivo.Varredura v = SerieArquivo.varrer(p, de, ate, (ti, vi) -> vistas.add(ti));
+
+        assertThat(vistas).hasSize(121).allSatisfy(ti -> assertThat(ti).isBetween(de, ate));
+        assertThat(v.blocosLidos()).isEqualTo(1);
+        assertThat(v.blocosPulados()).isEqualTo(1);
+    }
+
+    @Test
+    void acrescimoIgnoraEpocasRepetidasEBlocoTruncado(@TempDir Path tmp) throws Exception {
+        SerieStore store = new SerieStore(new SimpleMeterRegistry(), tmp.toString(), 1100);
+        long[] t = epocas(100, 30_000);
+        double[][] v = {new double[100]};
+        for (int i = 0; i < 100; i++) v[0][i] = 40 + i % 5;
+
+        assertThat(store.acrescentar(Observavel.SNR, "alar", t, v)).isEqualTo(100);
+        // reenvio com sobreposição: só as épocas novas entram
+        long[] t2 = epocas(150, 30_000);
+        double[][] v2 = {new double[150]};
+        for (int i = 0; i < 150; i++) v2[0][i] = 40 + i % 5;
+        assertThat(store.acrescentar(Observavel.SNR, "ALAR", t2, v2)).isEqualTo(50);
+
+        // escrita interrompida no meio de um bloco não invalida o que já estava gravado
+        Path p = store.particao(Observavel.SNR, "ALAR", LocalDate.of(2025, 1, 1));
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.APPEND)) {
+            ch.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 9, 1, 2, 3}));
+        }
+        SerieStore.Consulta c = store.consultar(Observavel.SNR, "ALAR",
+                Instant.ofEpochMilli(INICIO), Instant.ofEpochMilli(INICIO + 86_399_999L), 10000);
+        assertThat(c.amostras()).hasSize(150);
+        assertThat(c.amostras()).extracting(a -> a.valores().get(0)).containsExactlyElementsOf(
+                java.util.Arrays.stream(v2[0]).boxed().toList());
+
+        // e o próximo acréscimo descarta o resto truncado antes de gravar
+        long[] t3 = {INICIO + 150 * 30_000L};
+        assertThat(store.acrescentar(Observavel.SNR, "ALAR", t3, new double[][]{{47.5}})).isEqualTo(1);
+        c = store.consultar(Observavel.SNR, "ALAR",
+                Instant.ofEpochMilli(INICIO), Instant.ofEpochMilli(INICIO + 86_399_999L), 10000);
+        assertThat(c.amostras()).hasSize(151);
+        assertThat(c.amostras().get(150).valores()).containsExactly(47.5);
+    }
+
+    @Test
+    void gravarDiaSoEscreveQuandoODiaENovoOuMudou(@TempDir Path tmp) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        long[] t = epocas(2880, 30_000);
+        double[][] v = posicoes(t);
+        long[] manha = java.util.Arrays.copyOf(t, 1440);
+        double[][] vManha = {java.util.Arrays.copyOf(v[0], 1440), java.util.Arrays.copyOf(v[1], 1440),
+                java.util.Arrays.copyOf(v[2], 1440)};
+        Path p = store.particao(Observavel.POSICAO, "ALAR", LocalDate.of(2025, 1, 1));
+
+        assertThat(store.gravarDia(Observavel.POSICAO, "ALAR", 2025, 1, manha, vManha)).isEqualTo(1440);
+        // mesma solução de novo (cache expirado): nada é escrito
+        long tamanho = Files.size(p);
+        assertThat(store.gravarDia(Observavel.POSICAO, "ALAR", 2025, 1, manha, vManha)).isZero();
+        assertThat(Files.size(p)).isEqualTo(tamanho);
+        // RINEX que cresceu: só o fim é acrescentado, o começo do arquivo fica intacto
+        byte[] antes = Files.readAllBytes(p);
+        assertThat(store.gravarDia(Observavel.POSICAO, "ALAR", 2025, 1, t, v)).isEqualTo(1440);
+        assertThat(java.util.Arrays.copyOf(Files.readAllBytes(p), antes.length)).isEqualTo(antes);
+        assertThat(registry.get("estacoes.series.dias_reescritos").counter().count()).isZero();
+
+        // RINEX corrigido: conteúdo diferente reescreve o dia
+        v[2][10] = 11.5;
+        assertThat(store.gravarDia(Observavel.POSICAO, "ALAR", 2025, 1, t, v)).isEqualTo(2880);
+        assertThat(registry.get("estacoes.series.dias_reescritos").counter().count()).isEqualTo(1.0);
+        SerieStore.Consulta c = store.consultar(Observavel.POSICAO, "ALAR",
+                Instant.ofEpochMilli(INICIO), Instant.ofEpochMilli(INICIO + 86_399_999L), 10000);
+        assertThat(c.amostras()).hasSize(2880);
+        assertThat(c.amostras().get(10).valores().get(2)).isEqualTo(11.5);
+    }
+
+    @Test
+    void consultaDeMesesLeSoAsParticoesDoIntervaloEAgregaNaVarredura(@TempDir Path tmp) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SerieStore store = new SerieStore(registry, tmp.toString(), 1100);
+        // 90 dias a 5 min num único acréscimo: o store reparte em uma partição por dia
+        long[] t = epocas(90 * 288, 300_000);
+        double[][] v = posicoes(t);
+        assertThat(store.acrescentar(Observavel.POSICAO, "BRAZ", t, v)).isEqualTo(t.length);
+        assertThat(Files.isRegularFile(store.particao(Observavel.POSICAO, "BRAZ", LocalDate.of(2025, 3, 31)))).isTrue();
+
+        // fevereiro inteiro em 28 pontos: 1 por dia, média das 288 amostras
+        Instant de = Instant.parse("2025-02-01T00:00:00Z"), ate = Instant.parse("2025-02-28T23:59:59Z");
+        SerieStore.Consulta c = store.consultar(Observavel.POSICAO, "BRAZ", de, ate, 28);
+
+        assertThat(c.particoes()).isEqualTo(28);
+        assertThat(c.passoSegundos()).isEqualTo(86_400);
+        assertThat(c.amostras()).hasSize(28);
+        AmostraSerieDTO primeiro = c.amostras().get(0);
+        assertThat(primeiro.epoch()).isEqualTo("2025-02-01T00:00:00Z");
+        assertThat(primeiro.n()).isEqualTo(288);
+        int i0 = 31 * 288;
+        double soma = 0;
+        for (int i = i0; i < i0 + 288; i++) soma += v[0][i];
+        assertThat(primeiro.valores().get(0)).isCloseTo(soma / 288, within(1e-12));
+        // NaN fica fora da média, sem anular o ponto
+        assertThat(c.amostras()).allSatisfy(a -> assertThat(a.valores()).doesNotContainNull());
+        assertThat(registry.get("estacoes.series.particoes_lidas").counter().count()).isEqualTo(28.0);
+
+        // estação sem histórico: nenhuma partição aberta
+        assertThat(store.consultar(Observavel.POSICAO, "MANA", de, ate, 28).amostras()).isEmpty();
+    }
+}
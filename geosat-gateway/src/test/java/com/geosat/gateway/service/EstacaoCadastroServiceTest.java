@@ -0,0 +1,131 @@
+package com.geosat.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EstacaoCadastroServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static String header(String body, String label) {
+        return String.format("%-60s%-20s%n", body, label);
+    }
+
+    private static String rinex(String receptor, double x, double y, double z) {
+        return header("     2.11           OBSERVATION DATA    G (GPS)", "RINEX VERSION / TYPE")
+                + header(String.format("%-20s%-20s", "123", receptor), "REC # / TYPE / VERS")
+                + header(String.format("%-20s%-20s", "456", "TRM59800.00     NONE"), "ANT # / TYPE")
+                + header(String.format("%14.4f%14.4f%14.4f", 0.1, 0.0, 0.0), "ANTENNA: DELTA H/E/N")
+                + header(String.format("%14.4f%14.4f%14.4f", x, y, z), "APPROX POSITION XYZ")
+                + header("  2025     7    19    23    59   30.0000000     GPS", "TIME OF LAST OBS")
+                + header(String.format("%6d", 1) + "    C1", "# / TYPES OF OBSERV")
+                + header("", "END OF HEADER");
+    }
+
+    private double leituras() {
+        return registry.counter("estacoes.catalogo.cabecalhos_lidos").count();
+    }
+
+    @Test
+    void sementeDoClasspathSemRinex() {
+        EstacaoCadastroService s = new EstacaoCadastroService(registry, "", "", "");
+
+        // rede RBMC completa, não só as estações de exemplo
+        assertThat(s.estacoes()).containsKeys("ALAR", "BRAZ", "NAUS", "POAL").hasSizeGreaterThan(90);
+        assertThat(s.estacoes().get("BRAZ").receptor()).isNull();
+        assertThat(s.varrer()).isFalse();
+    }
+
+    @Test
+    void cabecalhoRinexCompletaCadastroEVarreduraEIncremental() throws Exception {
+        Path obs = dir.resolve("obs");
+        Files.createDirectories(obs);
+        Files.writeString(obs.resolve("braz1990.25o"), rinex("ANTIGO", 4115014.0, -4550641.0, -1741444.0));
+        Files.writeString(obs.resolve("braz2000.25o"), rinex("TRIMBLE NETR9", 4115014.0, -4550641.0, -1741444.0));
+        // estação fora da semente entra pelo RINEX
+        Files.writeString(obs.resolve("novo2000.25o"), rinex("SEPT POLARX5", 3687624.0, -4620818.0, -2386880.0));
+
+        EstacaoCadastroService s = new EstacaoCadastroService(registry, "", obs.toString(), "");
+        EstacaoCadastro braz = s.estacoes().get("BRAZ");
+        assertThat(braz.receptor()).isEqualTo("TRIMBLE NETR9");
+        assertThat(braz.antena()).isEqualTo("TRM59800.00     NONE");
+        assertThat(braz.alturaAntena()).isEqualTo(0.1);
+        assertThat(braz.ultimaObservacao()).isEqualTo(Instant.parse("2025-07-19T23:59:30Z"));
+        assertThat(braz.nome()).isEqualTo("Brasília");
+        assertThat(braz.latitude()).isCloseTo(-15.9, within(0.2));
+        assertThat(s.estacoes()).containsKey("NOVO");
+        assertThat(leituras()).isEqualTo(2);
+
+        // nada mudou: nenhum cabeçalho relido
+        assertThat(s.varrer()).isFalse();
+        assertThat(leituras()).isEqualTo(2);
+
+        Files.writeString(obs.resolve("braz2000.25o"), rinex("TRIMBLE ALLOY", 4115014.0, -4550641.0, -1741444.0));
+        Files.setLastModifiedTime(obs.resolve("braz2000.25o"), FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertThat(s.varrer()).isTrue();
+        assertThat(leituras()).isEqualTo(3);
+        assertThat(s.estacoes().get("BRAZ").receptor()).isEqualTo("TRIMBLE ALLOY");
+    }
+
+    @Test
+    void snapshotPersistidoDispensaReleituraNaSubida() throws Exception {
+        Path obs = dir.resolve("obs");
+        Files.createDirectories(obs);
+        Files.writeString(obs.resolve("poal2000.25o"), rinex("LEICA GR50", 3467519.0, -4300378.0, -3177517.0));
+        Path arquivo = dir.resolve("catalogo/estacoes.json");
+
+        new EstacaoCadastroService(registry, "", obs.toString(), arquivo.toString());
+        assertThat(arquivo).exists();
+        assertThat(leituras()).isEqualTo(1);
+
+        EstacaoCadastroService recarregado = new EstacaoCadastroService(registry, "", obs.toString(), arquivo.toString());
+        assertThat(recarregado.estacoes().get("POAL").receptor()).isEqualTo("LEICA GR50");
+        assertThat(leituras()).isEqualTo(1);
+    }
+
+    @Test
+    void sementeAlteradaDescartaSnapshotEPrevaleceSobreEle() throws Exception {
+        Path obs = dir.resolve("obs");
+        Files.createDirectories(obs);
+        Files.writeString(obs.resolve("poal2000.25o"), rinex("LEICA GR50", 3467519.0, -4300378.0, -3177517.0));
+        Path csv = dir.resolve("rede.csv");
+        Files.writeString(csv, "POAL;Porto Alegre;-30.07;-51.12\nSALU;São Luís;-2.59;-44.21\n");
+        Path arquivo = dir.resolve("catalogo/estacoes.json");
+        new EstacaoCadastroService(registry, csv.toString(), obs.toString(), arquivo.toString());
+        assertThat(leituras()).isEqualTo(1);
+
+        // semente nova: nome e coordenadas de SALU mudam, POAL é renomeada
+        Files.writeString(csv, "POAL;Porto Alegre (UFRGS);-30.07;-51.12\nSALU;São Luís (UFMA);-2.55;-44.30\n");
+        EstacaoCadastroService s = new EstacaoCadastroService(registry, csv.toString(), obs.toString(), arquivo.toString());
+
+        assertThat(s.estacoes().get("SALU").nome()).isEqualTo("São Luís (UFMA)");
+        assertThat(s.estacoes().get("SALU").longitude()).isEqualTo(-44.30);
+        // cabeçalho RINEX relido (snapshot descartado) e acima da semente, exceto o nome
+        assertThat(leituras()).isEqualTo(2);
+        assertThat(s.estacoes().get("POAL").nome()).isEqualTo("Porto Alegre (UFRGS)");
+        assertThat(s.estacoes().get("POAL").receptor()).isEqualTo("LEICA GR50");
+        assertThat(s.estacoes().get("POAL").longitude()).isCloseTo(-51.1, within(0.2));
+    }
+
+    @Test
+    void sementeExternaSubstituiAPadrao() throws Exception {
+        Path csv = dir.resolve("rede.csv");
+        Files.writeString(csv, "# codigo;nome;lat;lon\nSALU;São Luís;-2.59;-44.21\n");
+
+        EstacaoCadastroService s = new EstacaoCadastroService(registry, csv.toString(), "", "");
+
+        assertThat(s.estacoes()).containsOnlyKeys("SALU");
+    }
+}
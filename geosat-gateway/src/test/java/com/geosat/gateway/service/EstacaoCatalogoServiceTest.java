@@ -0,0 +1,75 @@
+package com.geosat.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EstacaoCatalogoServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private EstacaoCatalogoService novo(boolean gzip) {
+        return new EstacaoCatalogoService(new EstacaoCadastroService(registry, "", "", ""), mapper, registry, gzip, 2880);
+    }
+
+    @Test
+    void snapshotSoEReconstruidoQuandoAlgoMuda() {
+        EstacaoCatalogoService catalogo = novo(true);
+        EstacaoCatalogoService.Snapshot antes = catalogo.atual();
+
+        catalogo.atualizar();
+
+        assertThat(catalogo.atual()).isSameAs(antes);
+        assertThat(registry.counter("estacoes.catalogo.reconstrucoes").count()).isEqualTo(1);
+    }
+
+    @Test
+    void listaEGeojsonJaSerializadosEGzipEquivalente() throws Exception {
+        EstacaoCatalogoService.Snapshot s = novo(true).atual();
+
+        JsonNode lista = mapper.readTree(s.lista().json());
+        assertThat(lista).hasSize(s.estacoes().size());
+        assertThat(lista.get(0).get("status").asText()).isEqualTo(s.estacoes().get(0).status());
+
+        JsonNode fc = mapper.readTree(s.geojson().json());
+        assertThat(fc.get("type").asText()).isEqualTo("FeatureCollection");
+        assertThat(fc.at("/features/0/geometry/coordinates/0").asDouble()).isEqualTo(s.estacoes().get(0).longitude());
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(s.geojson().gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(s.geojson().json());
+        }
+    }
+
+    @Test
+    void semGzipQuandoDesligadoEVersaoEstavel() {
+        EstacaoCatalogoService.Snapshot a = novo(false).atual();
+        EstacaoCatalogoService.Snapshot b = novo(false).atual();
+
+        assertThat(a.lista().gzip()).isNull();
+        // mesmo conteúdo => mesmo ETag entre instâncias/reinícios
+        assertThat(a.versao()).isEqualTo(b.versao());
+    }
+
+    @Test
+    void versaoSegueOConteudoSerializado(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("rede.csv");
+        Files.writeString(csv, "SALU;São Luís;-2.59;-44.21\n");
+        String a = new EstacaoCatalogoService(new EstacaoCadastroService(registry, csv.toString(), "", ""),
+                mapper, registry, false, 2880).atual().versao();
+        Files.writeString(csv, "SALU;Sao Luis;-2.59;-44.21\n");
+        String b = new EstacaoCatalogoService(new EstacaoCadastroService(registry, csv.toString(), "", ""),
+                mapper, registry, false, 2880).atual().versao();
+
+        assertThat(a).hasSize(32).isNotEqualTo(b);
+    }
+}
@@ -0,0 +1,79 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.EstacaoVizinhaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EstacaoIndiceTest {
+
+    private static List<EstacaoDTO> aleatorias(int n, long semente) {
+        Random r = new Random(semente);
+        List<EstacaoDTO> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new EstacaoDTO(String.format("E%03d", i), "E" + i,
+                    r.nextDouble() * 180 - 90, r.nextDouble() * 360 - 180, "ONLINE"));
+        }
+        return out;
+    }
+
+    @Test
+    void proximasERaioBatemComForcaBruta() {
+        List<EstacaoDTO> estacoes = aleatorias(500, 7);
+        EstacaoIndice indice = new EstacaoIndice(estacoes);
+        Random r = new Random(11);
+        for (int q = 0; q < 50; q++) {
+            double lat = r.nextDouble() * 180 - 90, lon = r.nextDouble() * 360 - 180;
+            List<String> esperado = estacoes.stream()
+                    .sorted(Comparator.comparingDouble(e -> EstacaoIndice.distanciaKm(lat, lon, e.latitude(), e.longitude())))
+                    .map(EstacaoDTO::codigo).toList();
+
+            assertThat(indice.proximas(lat, lon, 7)).extracting(EstacaoVizinhaDTO::codigo)
+                    .containsExactlyElementsOf(esperado.subList(0, 7));
+
+            long dentro = estacoes.stream()
+                    .filter(e -> EstacaoIndice.distanciaKm(lat, lon, e.latitude(), e.longitude()) <= 1500).count();
+            assertThat(indice.raio(lat, lon, 1500)).hasSize((int) dentro)
+                    .allSatisfy(v -> assertThat(v.distanciaKm()).isLessThanOrEqualTo(1500));
+        }
+    }
+
+    @Test
+    void bboxIncluiBordasECruzaAntimeridiano() {
+        List<EstacaoDTO> estacoes = List.of(
+                new EstacaoDTO("FIJI", "Suva", -18.1, 178.4, "ONLINE"),
+                new EstacaoDTO("SAMO", "Apia", -13.8, -171.8, "ONLINE"),
+                new EstacaoDTO("BRAZ", "Brasília", -15.793, -47.882, "ONLINE"),
+                new EstacaoDTO("BORD", "Borda", -10.0, -48.0, "ONLINE"));
+        EstacaoIndice indice = new EstacaoIndice(estacoes);
+
+        assertThat(indice.bbox(170, -20, -170, -10)).extracting(EstacaoDTO::codigo).containsExactly("FIJI", "SAMO");
+        assertThat(indice.bbox(-48, -16, -47, -10)).extracting(EstacaoDTO::codigo).containsExactly("BRAZ", "BORD");
+        assertThat(indice.bbox(-180, -90, 180, 90)).hasSize(4);
+        assertThat(indice.bbox(0, 0, 10, 10)).isEmpty();
+    }
+
+    @Test
+    void bboxPequenaPelaGradeIgualAVarreduraLinear() {
+        List<EstacaoDTO> estacoes = aleatorias(2000, 3);
+        EstacaoIndice indice = new EstacaoIndice(estacoes);
+        List<String> esperado = estacoes.stream()
+                .filter(e -> e.latitude() >= -20 && e.latitude() <= -5 && e.longitude() >= -60 && e.longitude() <= -40)
+                .map(EstacaoDTO::codigo).toList();
+
+        assertThat(indice.bbox(-60, -20, -40, -5)).extracting(EstacaoDTO::codigo).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void haversineEntreBrasiliaEManaus() {
+        // ~1.930 km em grande círculo
+        assertThat(EstacaoIndice.distanciaKm(-15.793, -47.882, -3.118, -60.021)).isCloseTo(1932, within(15.0));
+    }
+}
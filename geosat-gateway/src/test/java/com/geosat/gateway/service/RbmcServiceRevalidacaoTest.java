@@ -0,0 +1,64 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+class RbmcServiceRevalidacaoTest {
+
+    private final RbmcHttpClient client = Mockito.mock(RbmcHttpClient.class);
+    private final RedisCacheService cache = Mockito.mock(RedisCacheService.class);
+    private final RbmcService service = new RbmcService(client, cache, new SimpleMeterRegistry(), GatewayThreads.plataforma(), true, 600, 3, 1);
+
+    @Test
+    void primeiraBuscaGuardaValidadores() throws Exception {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Optional.empty());
+        Mockito.when(client.obterRelatorio("ALAR", null, null)).thenReturn(
+                new RbmcHttpClient.RespostaCondicional(200, "\"abc\"", "Tue, 01 Jul 2025 10:00:00 GMT", 4096L, "application/pdf"));
+
+        Object r = service.obterRelatorio("alar");
+
+        assertThat(r).isInstanceOf(RbmcRelatorioDTO.class);
+        assertThat(((RbmcRelatorioDTO) r).tamanhoBytes()).isEqualTo(4096L);
+        assertThat(((RbmcRelatorioDTO) r).tipo()).isEqualTo("pdf");
+        assertThat(((RbmcRelatorioDTO) r).ultimaAtualizacao()).hasToString("2025-07-01T10:00:00Z");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> meta = ArgumentCaptor.forClass(Map.class);
+        verify(cache).putMetadata(eq("ALAR"), meta.capture(), eq(Duration.ofHours(12)));
+        assertThat(meta.getValue()).containsEntry("etag", "\"abc\"")
+                .containsEntry("lastModified", "Tue, 01 Jul 2025 10:00:00 GMT");
+    }
+
+    @Test
+    void naoModificadoSoRenovaValidacaoETtl() throws Exception {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Optional.of(Map.of(
+                "link", "https://servicodados.ibge.gov.br/api/v1/rbmc/relatorio/alar",
+                "tipo", "pdf",
+                "tamanhoBytes", 4096,
+                "ultimaAtualizacao", "2025-07-01T10:00:00Z",
+                "etag", "\"abc\"")));
+        Mockito.when(client.obterRelatorio("ALAR", "\"abc\"", null)).thenReturn(
+                new RbmcHttpClient.RespostaCondicional(304, "\"abc\"", null, null, null));
+
+        RbmcRelatorioDTO dto = (RbmcRelatorioDTO) service.obterRelatorio("ALAR");
+
+        assertThat(dto.tamanhoBytes()).isEqualTo(4096L);
+        assertThat(dto.ultimaAtualizacao()).hasToString("2025-07-01T10:00:00Z");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> meta = ArgumentCaptor.forClass(Map.class);
+        verify(cache).putMetadata(eq("ALAR"), meta.capture(), eq(Duration.ofHours(12)));
+        assertThat(meta.getValue()).containsOnlyKeys("validadoEm");
+    }
+}
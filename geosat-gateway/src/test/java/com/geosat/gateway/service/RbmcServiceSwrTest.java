@@ -0,0 +1,91 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.config.GatewayThreads;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RbmcServiceSwrTest {
+
+    private final RbmcHttpClient client = Mockito.mock(RbmcHttpClient.class);
+    private final RedisCacheService cache = Mockito.mock(RedisCacheService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RbmcService service = new RbmcService(client, cache, registry, GatewayThreads.plataforma(), true, 600, 3, 2);
+
+    private static Map<String, Object> entrada(long validadoEm) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("link", "https://servicodados.ibge.gov.br/api/v1/rbmc/relatorio/alar");
+        m.put("tipo", "pdf");
+        m.put("ultimaAtualizacao", "2025-07-01T10:00:00Z");
+        m.put("etag", "\"abc\"");
+        m.put("validadoEm", validadoEm);
+        return m;
+    }
+
+    @Test
+    void entradaFrescaNaoChamaUpstream() throws Exception {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Optional.of(entrada(System.currentTimeMillis())));
+
+        Object r = service.obterRelatorio("ALAR");
+
+        assertThat(r).isInstanceOf(RbmcRelatorioDTO.class);
+        verify(client, never()).obterRelatorio(anyString(), any(), any());
+    }
+
+    @Test
+    void entradaVencidaRespondeNaHoraERevalidaUmaVez() throws Exception {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Optional.of(entrada(System.currentTimeMillis() - 3_600_000)));
+        CountDownLatch liberar = new CountDownLatch(1);
+        Mockito.when(client.obterRelatorio(eq("ALAR"), any(), any())).thenAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS); // upstream lento
+            return new RbmcHttpClient.RespostaCondicional(304, "\"abc\"", null, null, null);
+        });
+
+        for (int i = 0; i < 5; i++) {
+            long t0 = System.nanoTime();
+            assertThat(service.obterRelatorio("ALAR")).isInstanceOf(RbmcRelatorioDTO.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0)).isLessThan(1000);
+        }
+        liberar.countDown();
+
+        verify(client, timeout(2000).times(1)).obterRelatorio("ALAR", "\"abc\"", null);
+        verify(cache, timeout(2000)).putMetadata(eq("ALAR"), Mockito.argThat(m -> m.keySet().equals(Set.of("validadoEm"))), any());
+    }
+
+    @Test
+    void chaveQuenteERevalidadaAntesDeVencer() throws Exception {
+        // 8 min de idade: fresca (10 min), mas já passou de 3/4 do prazo
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Optional.of(entrada(System.currentTimeMillis() - 480_000)));
+        Mockito.when(client.obterRelatorio(eq("ALAR"), any(), any()))
+                .thenReturn(new RbmcHttpClient.RespostaCondicional(304, "\"abc\"", null, null, null));
+        Mockito.when(cache.getMetadata("BRAZ")).thenReturn(Optional.of(entrada(System.currentTimeMillis() - 480_000)));
+
+        for (int i = 0; i < 3; i++) service.obterRelatorio("ALAR");
+        service.obterRelatorio("BRAZ"); // acessada uma vez só: fria
+        verify(client, never()).obterRelatorio(anyString(), any(), any());
+
+        service.refreshAhead();
+
+        verify(client, timeout(2000).times(1)).obterRelatorio(eq("ALAR"), any(), any());
+        verify(client, times(0)).obterRelatorio(eq("BRAZ"), any(), any());
+        assertThat(registry.get("rbmc.cache.refresh_ahead.total").counter().count()).isEqualTo(1.0);
+    }
+}
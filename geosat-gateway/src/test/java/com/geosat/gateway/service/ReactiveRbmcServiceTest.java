@@ -0,0 +1,100 @@
+package com.geosat.gateway.service;
+
+import com.geosat.gateway.client.RbmcHttpClient;
+import com.geosat.gateway.client.ReactiveRbmcClient;
+import com.geosat.gateway.model.RbmcFallbackResponse;
+import com.geosat.gateway.model.RbmcRelatorioDTO;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ReactiveRbmcServiceTest {
+
+    private final ReactiveRbmcClient client = Mockito.mock(ReactiveRbmcClient.class);
+    private final ReactiveRedisCacheService cache = Mockito.mock(ReactiveRedisCacheService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReactiveRbmcService service = new ReactiveRbmcService(client, cache, registry, true, 600);
+
+    private static Map<String, Object> entrada(long validadoEm) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("link", "https://servicodados.ibge.gov.br/api/v1/rbmc/relatorio/alar");
+        m.put("tipo", "pdf");
+        m.put("ultimaAtualizacao", "2025-07-01T10:00:00Z");
+        m.put("etag", "\"abc\"");
+        m.put("validadoEm", validadoEm);
+        return m;
+    }
+
+    @Test
+    void semCacheBuscaNoUpstreamEGravaMetadados() {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Mono.just(Map.of()));
+        Mockito.when(cache.putMetadata(eq("ALAR"), anyMap(), any(Duration.class))).thenReturn(Mono.just(true));
+        Mockito.when(client.obterRelatorio("ALAR", null, null)).thenReturn(Mono.just(
+                new RbmcHttpClient.RespostaCondicional(200, "\"v1\"", null, 2048L, "application/pdf")));
+
+        Object r = service.obterRelatorio("alar").block();
+
+        assertThat(r).isInstanceOf(RbmcRelatorioDTO.class);
+        assertThat(((RbmcRelatorioDTO) r).tamanhoBytes()).isEqualTo(2048L);
+        verify(cache).putMetadata(eq("ALAR"), Mockito.argThat(m -> "\"v1\"".equals(m.get("etag"))), any(Duration.class));
+    }
+
+    @Test
+    void entradaFrescaNaoChamaUpstream() {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Mono.just(entrada(System.currentTimeMillis())));
+
+        assertThat(service.obterRelatorio("ALAR").block()).isInstanceOf(RbmcRelatorioDTO.class);
+        verify(client, never()).obterRelatorio(anyString(), any(), any());
+    }
+
+    @Test
+    void entradaVencidaRespondeDoCacheERevalidaComEtag() {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Mono.just(entrada(System.currentTimeMillis() - 3_600_000)));
+        Mockito.when(cache.putMetadata(eq("ALAR"), anyMap(), any(Duration.class))).thenReturn(Mono.just(true));
+        Mockito.when(client.obterRelatorio("ALAR", "\"abc\"", null)).thenReturn(Mono.just(
+                new RbmcHttpClient.RespostaCondicional(304, "\"abc\"", null, null, null)));
+
+        assertThat(service.obterRelatorio("ALAR").block()).isInstanceOf(RbmcRelatorioDTO.class);
+        verify(cache, timeout(2000)).putMetadata(eq("ALAR"),
+                Mockito.argThat(m -> m.size() == 1 && m.containsKey("validadoEm")), any(Duration.class));
+    }
+
+    @Test
+    void circuitoAbertoViraFallback() {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Mono.just(Map.of()));
+        Mockito.when(client.obterRelatorio(anyString(), any(), any())).thenReturn(Mono.error(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("t"))));
+
+        Object r = service.obterRelatorio("ALAR").block();
+
+        assertThat(r).isInstanceOf(RbmcFallbackResponse.class);
+        assertThat(((RbmcFallbackResponse) r).mensagem()).contains("Circuit breaker");
+        assertThat(registry.counter("rbmc.fallback.total").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void falhaNoRedisNaoDerrubaConsulta() {
+        Mockito.when(cache.getMetadata("ALAR")).thenReturn(Mono.error(new IllegalStateException("redis fora")));
+        Mockito.when(cache.putMetadata(eq("ALAR"), anyMap(), any(Duration.class))).thenReturn(Mono.error(new IllegalStateException("redis fora")));
+        Mockito.when(client.obterRelatorio("ALAR", null, null)).thenReturn(Mono.just(
+                new RbmcHttpClient.RespostaCondicional(200, null, null, null, "application/pdf")));
+
+        assertThat(service.obterRelatorio("ALAR").block()).isInstanceOf(RbmcRelatorioDTO.class);
+    }
+}
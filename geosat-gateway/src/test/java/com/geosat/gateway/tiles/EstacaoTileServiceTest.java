@@ -0,0 +1,113 @@
+package com.geosat.gateway.tiles;
+
+import com.geosat.gateway.gnss.qc.QcService;
+import com.geosat.gateway.model.EstacaoDTO;
+import com.geosat.gateway.model.QcRelatorioDTO;
+import com.geosat.gateway.service.EstacaoCatalogoService;
+import com.geosat.gateway.service.EstacaoIndice;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EstacaoTileServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EstacaoCatalogoService catalogo = mock(EstacaoCatalogoService.class);
+    private final EstacaoTileService service = new EstacaoTileService(catalogo, new QcService(""), registry, 16, 60_000);
+
+    private static EstacaoCatalogoService.Snapshot snapshot(String versao, String statusBraz) {
+        List<EstacaoDTO> estacoes = List.of(
+                new EstacaoDTO("BRAZ", "Brasília", -15.793, -47.882, statusBraz),
+                new EstacaoDTO("MANA", "Manaus", -3.118, -60.021, "OFFLINE"));
+        return new EstacaoCatalogoService.Snapshot(versao, estacoes, new EstacaoIndice(estacoes), Map.of(), null, null);
+    }
+
+    private static List<Map<Integer, List<Object>>> feicoes(byte[] tile) {
+        if (tile.length == 0) return List.of();
+        Map<Integer, List<Object>> camada = MvtEncoderTest.campos((byte[]) MvtEncoderTest.campos(tile).get(3).get(0));
+        return camada.get(2).stream().map(f -> MvtEncoderTest.campos((byte[]) f)).toList();
+    }
+
+    @Test
+    void tileContemSoAsEstacoesDaArea() {
+        when(catalogo.atual()).thenReturn(snapshot("v1", "ONLINE"));
+
+        // z=0: o mundo inteiro
+        assertThat(feicoes(service.tile(0, 0, 0, null, null).bytes())).hasSize(2);
+        // z=4, x=5, y=8: Brasil central (-67.5..-45 lon, 0..-21.9 lat) tem as duas
+        assertThat(feicoes(service.tile(4, 5, 8, null, null).bytes())).hasSize(2);
+        // z=6: tile de Brasília (x=23, y=34) não contém Manaus
+        List<Map<Integer, List<Object>>> brasilia = feicoes(service.tile(6, 23, 34, null, null).bytes());
+        assertThat(brasilia).hasSize(1);
+        List<Long> geom = MvtEncoderTest.packed((byte[]) brasilia.get(0).get(4).get(0));
+        long px = (geom.get(1) >>> 1) ^ -(geom.get(1) & 1);
+        assertThat(px).isBetween(0L, 4096L);
+        // oceano
+        assertThat(service.tile(4, 0, 0, null, null).bytes()).isEmpty();
+    }
+
+    @Test
+    void cachePorZoomInvalidadoQuandoStatusMuda() {
+        when(catalogo.atual()).thenReturn(snapshot("v1", "ONLINE"));
+        EstacaoTileService.Tile a = service.tile(6, 23, 34, null, null);
+        assertThat(service.tile(6, 23, 34, null, null)).isSameAs(a);
+        assertThat(registry.counter("estacoes.tiles.gerados").count()).isEqualTo(1);
+
+        when(catalogo.atual()).thenReturn(snapshot("v2", "OFFLINE"));
+        EstacaoTileService.Tile b = service.tile(6, 23, 34, null, null);
+
+        assertThat(b).isNotSameAs(a);
+        assertThat(b.versao()).isEqualTo("v2");
+        assertThat(registry.counter("estacoes.tiles.gerados").count()).isEqualTo(2);
+    }
+
+    @Test
+    void coordenadasForaDoZoomSaoInvalidas() {
+        assertThat(EstacaoTileService.valido(0, 0, 0)).isTrue();
+        assertThat(EstacaoTileService.valido(2, 4, 0)).isFalse();
+        assertThat(EstacaoTileService.valido(23, 0, 0)).isFalse();
+    }
+
+    @Test
+    void qcCalculadoUmaVezPorEstacaoDiaEntreTilesEVersoes() throws Exception {
+        QcService qc = mock(QcService.class);
+        CountDownLatch calculando = new CountDownLatch(1), liberar = new CountDownLatch(1);
+        when(qc.relatorio(anyString(), anyInt(), anyInt(), anyInt())).thenAnswer(inv -> {
+            calculando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return Optional.<QcRelatorioDTO>empty();
+        });
+        EstacaoTileService comQc = new EstacaoTileService(catalogo, qc, registry, 16, 60_000);
+        when(catalogo.atual()).thenReturn(snapshot("v1", "ONLINE"));
+
+        // dois tiles com Brasília pedidos ao mesmo tempo: o segundo espera o QC do primeiro
+        CompletableFuture<EstacaoTileService.Tile> a = CompletableFuture.supplyAsync(() -> comQc.tile(6, 23, 34, 2025, 200));
+        assertThat(calculando.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<EstacaoTileService.Tile> b = CompletableFuture.supplyAsync(() -> comQc.tile(5, 11, 17, 2025, 200));
+        Thread.sleep(100);
+        liberar.countDown();
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+        verify(qc, times(1)).relatorio("BRAZ", 2025, 200, 0);
+
+        // nova versão do catálogo refaz o tile, não o QC
+        when(catalogo.atual()).thenReturn(snapshot("v2", "OFFLINE"));
+        comQc.tile(6, 23, 34, 2025, 200);
+        verify(qc, times(1)).relatorio("BRAZ", 2025, 200, 0);
+        assertThat(registry.counter("estacoes.tiles.qc_calculados").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.geosat.gateway.tiles;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MvtEncoderTest {
+
+    /** Leitor protobuf mínimo: campo -> valores (varint como Long, length-delimited como byte[]). */
+    static Map<Integer, List<Object>> campos(byte[] msg) {
+        Map<Integer, List<Object>> out = new LinkedHashMap<>();
+        ByteBuffer b = ByteBuffer.wrap(msg).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) {
+            long tag = varint(b);
+            int campo = (int) (tag >>> 3);
+            Object v = switch ((int) (tag & 7)) {
+                case 0 -> varint(b);
+                case 1 -> b.getLong();
+                case 2 -> {
+                    byte[] d = new byte[(int) varint(b)];
+                    b.get(d);
+                    yield d;
+                }
+                default -> throw new IllegalStateException("wire type " + (tag & 7));
+            };
+            out.computeIfAbsent(campo, k -> new ArrayList<>()).add(v);
+        }
+        return out;
+    }
+
+    static List<Long> packed(byte[] d) {
+        ByteBuffer b = ByteBuffer.wrap(d);
+        List<Long> out = new ArrayList<>();
+        while (b.hasRemaining()) out.add(varint(b));
+        return out;
+    }
+
+    static long varint(ByteBuffer b) {
+        long v = 0;
+        for (int s = 0; ; s += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << s;
+            if ((x & 0x80) == 0) return v;
+        }
+    }
+
+    static String texto(Object o) {
+        return new String((byte[]) o, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void camadaDePontosSegueASpec() {
+        MvtEncoder mvt = new MvtEncoder("estacoes", 4096);
+        Map<String, Object> primeiro = new LinkedHashMap<>();
+        primeiro.put("codigo", "ALAR");
+        primeiro.put("ativo", true);
+        mvt.ponto(100, -5, primeiro);
+        Map<String, Object> attrs = new LinkedHashMap<>();
+        attrs.put("codigo", "BRAZ");
+        attrs.put("completude", 0.5);
+        attrs.put("saltos", 3);
+        attrs.put("nulo", null);
+        mvt.ponto(2000, 4000, attrs);
+
+        Map<Integer, List<Object>> tile = campos(mvt.codificar());
+        Map<Integer, List<Object>> camada = campos((byte[]) tile.get(3).get(0));
+        assertThat(camada.get(15)).containsExactly(2L);
+        assertThat(texto(camada.get(1).get(0))).isEqualTo("estacoes");
+        assertThat(camada.get(5)).containsExactly(4096L);
+        assertThat(camada.get(2)).hasSize(2);
+        assertThat(camada.get(3).stream().map(MvtEncoderTest::texto)).doesNotContain("nulo").contains("codigo", "completude");
+
+        Map<Integer, List<Object>> f = campos((byte[]) camada.get(2).get(0));
+        assertThat(f.get(3)).containsExactly(1L); // POINT
+        // MoveTo(1), zigzag(100)=200, zigzag(-5)=9
+        assertThat(packed((byte[]) f.get(4).get(0))).containsExactly(9L, 200L, 9L);
+
+        Map<Integer, List<Object>> f2 = campos((byte[]) camada.get(2).get(1));
+        List<Long> tags = packed((byte[]) f2.get(2).get(0));
+        assertThat(tags).hasSize(6);
+        // "codigo" é a chave 0 nas duas feições (deduplicada)
+        assertThat(tags.get(0)).isZero();
+        Map<Integer, List<Object>> completude = campos((byte[]) camada.get(4).get(tags.get(3).intValue()));
+        assertThat(Double.longBitsToDouble((Long) completude.get(3).get(0))).isEqualTo(0.5);
+    }
+
+    @Test
+    void semFeicoesTileVazio() {
+        assertThat(new MvtEncoder("estacoes", 4096).codificar()).isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+cd "$(dirname "$0")/../geosat-gateway"
+
+# Compara threads de plataforma e virtuais com N requisições simultâneas e upstream lento.
+# O modo virtual exige JDK 21+ (em Java 17 é pulado pelo próprio teste).
+N=${BENCH_CONCORRENCIA:-10000}
+ATRASO=${BENCH_ATRASO_MS:-1000}
+MVN=${MVN:-mvn}
+
+# cada requisição usa ~3 descritores (cliente, Tomcat, upstream)
+ulimit -n 65536 2>/dev/null || echo "[WARN] não foi possível elevar ulimit -n; N alto pode falhar" >&2
+
+for virtual in false true; do
+  echo "[INFO] bench.virtual=$virtual n=$N atrasoMs=$ATRASO"
+  $MVN -q test -Dtest=VirtualThreadsBenchmarkTest -Dsurefire.failIfNoSpecifiedTests=false \
+    -Dbench=true -Dbench.virtual="$virtual" -Dbench.concorrencia="$N" -Dbench.atraso-ms="$ATRASO" \
+    | grep -E '^bench ' || true
+done
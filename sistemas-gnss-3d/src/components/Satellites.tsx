@@ -1,8 +1,9 @@
-import { useRef, useMemo, useCallback } from 'react';
+import { useRef, useMemo, useCallback, useEffect } from 'react';
 import { useFrame } from '@react-three/fiber';
 import * as THREE from 'three';
 import { useStore } from '../lib/store';
 import { propagateSatellite, getGeodetic } from '../lib/tle';
+import { connectFeed, setFeedGroups, svOf, feedPosition } from '../lib/feed';
 import { GROUP_CONFIG_MAP, EARTH_RADIUS_KM } from '../types';
 import type { SatelliteData } from '../types';
 const SAT_SIZE = 0.04;
@@ -32,6 +33,15 @@ export function Satellites() {
     });
   }, [satellites, activeGroups, searchQuery]);
 
+  // Feed do gateway: grupos GNSS chegam propagados pelo servidor (quando configurado)
+  useEffect(() => {
+    connectFeed();
+  }, []);
+  useEffect(() => {
+    setFeedGroups([...activeGroups]);
+  }, [activeGroups]);
+  const visibleSvs = useMemo(() => visibleSats.map(svOf), [visibleSats]);
+
   // Mapa de índice para satélite
   const satIndexMap = useMemo(() => {
     const map = new Map<number, SatelliteData>();
@@ -65,8 +75,11 @@ export function Satellites() {
     const now = simulationTime;
     const posArray = new Float32Array(visibleSats.length * 3);
 
+    const nowMs = now.getTime();
     visibleSats.forEach((sat, i) => {
-      const result = propagateSatellite(sat, now);
+      // posição do servidor quando o feed está ao vivo; senão propaga localmente
+      const fromFeed = feedPosition(visibleSvs[i], nowMs);
+      const result = fromFeed ? { position: fromFeed } : propagateSatellite(sat, now);
       if (!result) {
         dummy.position.set(0, -1000, 0); // esconde
         dummy.updateMatrix();
@@ -262,11 +275,14 @@ function SatelliteGlow({
     return tex;
   }, [config.glowColor]);
 
+  const sv = useMemo(() => svOf(satellite), [satellite]);
+
   useFrame(() => {
     if (!ref.current) return;
-    const result = propagateSatellite(satellite, simulationTime);
-    if (result) {
-      ref.current.position.set(result.position.x, result.position.y, result.position.z);
+    const fromFeed = feedPosition(sv, simulationTime.getTime());
+    const position = fromFeed ?? propagateSatellite(satellite, simulationTime)?.position;
+    if (position) {
+      ref.current.position.set(position.x, position.y, position.z);
     }
   });
 
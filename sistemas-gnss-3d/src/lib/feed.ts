@@ -0,0 +1,129 @@
+import type { SatelliteData, SatelliteGroup } from '../types';
+
+/**
+ * Cliente do feed WebSocket do gateway (/ws/satelites): posições ECEF propagadas no
+ * servidor, recebidas como quadros Float32 por grupo. Ativado com ?feed=ws://host/ws/satelites
+ * (ou localStorage 'gnss_feed_url'); sem URL, tudo continua propagado localmente.
+ *
+ * Quadro (little-endian): u8 formato, u8 grupo, u16 n, i32 versão do catálogo,
+ * f64 época (ms Unix), n × (f32 x, f32 y, f32 z) em km.
+ */
+
+const FORMATO = 1;
+const CABECALHO = 16;
+const SCALE = 1 / 1000; // mesma escala de lib/tle.ts
+
+interface Catalogo {
+  tipo: 'catalogo';
+  versao: number;
+  formato: number;
+  fonte: string;
+  intervaloMs: number;
+  ordem: string[];
+  grupos: Record<string, string[]>;
+}
+
+interface QuadroGrupo {
+  epocaMs: number;
+  xyz: Float32Array;
+}
+
+let catalogo: Catalogo | null = null;
+// sv -> [grupo (nome), índice no quadro]
+let indice = new Map<string, [string, number]>();
+const quadros = new Map<string, QuadroGrupo>();
+let socket: WebSocket | null = null;
+let gruposAssinados: SatelliteGroup[] = [];
+
+function feedUrl(): string | null {
+  try {
+    return new URLSearchParams(window.location.search).get('feed') || localStorage.getItem('gnss_feed_url');
+  } catch {
+    return null;
+  }
+}
+
+export function connectFeed(): void {
+  const url = feedUrl();
+  if (!url || socket) return;
+  const ws = new WebSocket(url);
+  ws.binaryType = 'arraybuffer';
+  socket = ws;
+  ws.onopen = () => enviarAssinatura();
+  ws.onmessage = (ev) => {
+    if (typeof ev.data === 'string') {
+      const msg = JSON.parse(ev.data);
+      if (msg.tipo === 'catalogo' && msg.formato === FORMATO) aplicarCatalogo(msg as Catalogo);
+      return;
+    }
+    lerQuadro(ev.data as ArrayBuffer);
+  };
+  ws.onclose = () => {
+    socket = null;
+    catalogo = null;
+    quadros.clear();
+    // reconexão simples; o servidor reenvia o catálogo ao conectar
+    setTimeout(connectFeed, 5000);
+  };
+}
+
+/** Grupos que o cliente quer receber; os que o servidor não propaga são ignorados por ele. */
+export function setFeedGroups(grupos: SatelliteGroup[]): void {
+  gruposAssinados = grupos;
+  enviarAssinatura();
+}
+
+function enviarAssinatura() {
+  if (socket && socket.readyState === WebSocket.OPEN) {
+    socket.send(JSON.stringify({ grupos: gruposAssinados }));
+  }
+}
+
+function aplicarCatalogo(c: Catalogo) {
+  catalogo = c;
+  quadros.clear();
+  indice = new Map();
+  for (const [grupo, svs] of Object.entries(c.grupos)) {
+    svs.forEach((sv, i) => indice.set(sv, [grupo, i]));
+  }
+}
+
+function lerQuadro(buf: ArrayBuffer) {
+  if (!catalogo || buf.byteLength < CABECALHO) return;
+  const view = new DataView(buf);
+  if (view.getUint8(0) !== FORMATO) return;
+  const n = view.getUint16(2, true);
+  if (view.getInt32(4, true) !== catalogo.versao) return; // catálogo novo a caminho
+  const grupo = catalogo.ordem[view.getUint8(1)];
+  if (!grupo || catalogo.grupos[grupo]?.length !== n) return;
+  quadros.set(grupo, { epocaMs: view.getFloat64(8, true), xyz: new Float32Array(buf, CABECALHO, n * 3) });
+}
+
+/**
+ * PRN no formato RINEX (G13, E11) a partir do nome Celestrak, ex.: "GPS BIIR-2  (PRN 13)",
+ * "GSAT0101 (PRN E11)". Só GPS e Galileo: as demais constelações não vêm do feed.
+ */
+export function svOf(sat: SatelliteData): string | null {
+  const prefixo: Partial<Record<SatelliteGroup, string>> = { GPS: 'G', Galileo: 'E' };
+  const p = prefixo[sat.group];
+  if (!p) return null;
+  const m = sat.name.match(/\((?:PRN\s*)?([A-Z]?)(\d{1,2})\)/);
+  if (!m) return null;
+  return `${m[1] || p}${m[2].padStart(2, '0')}`;
+}
+
+/**
+ * Posição do feed na cena (mesma conversão de propagateSatellite) ou null quando o feed
+ * está desligado, usa geometria nominal, está velho ou não conhece o satélite.
+ */
+export function feedPosition(sv: string | null, agoraMs: number): { x: number; y: number; z: number } | null {
+  if (!sv || !catalogo || catalogo.fonte !== 'rinex-nav') return null;
+  const ref = indice.get(sv);
+  if (!ref) return null;
+  const q = quadros.get(ref[0]);
+  if (!q || Math.abs(agoraMs - q.epocaMs) > catalogo.intervaloMs * 3) return null;
+  const i = ref[1] * 3;
+  const x = q.xyz[i], y = q.xyz[i + 1], z = q.xyz[i + 2];
+  if (Number.isNaN(x)) return null;
+  return { x: x * SCALE, y: z * SCALE, z: -y * SCALE };
+}